@@ -98,6 +98,10 @@ public class AmberConfig
                converter = RefGenomeVersionConverter.class)
     public RefGenomeVersion refGenomeVersion;
 
+    @Parameter(names = "-r_pcf",
+               description = "Segment with R copynumber pcf instead of the native Java PCF")
+    public boolean RPcf;
+
     public static final Logger AMB_LOGGER = LogManager.getLogger(AmberConfig.class);
 
     public String primaryReference()
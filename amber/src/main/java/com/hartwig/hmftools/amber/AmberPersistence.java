@@ -43,7 +43,8 @@ class AmberPersistence
         if (mConfig.TumorId != null)
         {
             AMB_LOGGER.info("Applying pcf segmentation");
-            new BAFSegmentation(mConfig.OutputDir).applySegmentation(mConfig.TumorId, filename);
+            new BAFSegmentation(mConfig.OutputDir, mConfig.ThreadCount, mConfig.refGenomeVersion, !mConfig.RPcf)
+                    .applySegmentation(mConfig.TumorId, filename, result);
         }
     }
 
@@ -69,6 +69,8 @@ public class AsyncBamLociReader
                 try (final SAMRecordIterator iterator = mSamReader.queryOverlapping(task.chromosome, task.positionStart,
                         task.positionEnd))
                 {
+                    int lociIndex = 0;
+
                     while (iterator.hasNext())
                     {
                         final SAMRecord record = iterator.next();
@@ -78,16 +80,7 @@ public class AsyncBamLociReader
                             continue;
                         }
 
-                        int alignmentEnd = record.getAlignmentEnd();
-
-                        for (E genomePosition : task)
-                        {
-                            // check overlap
-                            if (genomePosition.position() >= record.getAlignmentStart() && genomePosition.position() <= alignmentEnd)
-                            {
-                                mConsumer.accept(genomePosition, record);
-                            }
-                        }
+                        lociIndex = processRecord(task, lociIndex, record, mConsumer);
                     }
                 }
             }
@@ -118,6 +111,32 @@ public class AsyncBamLociReader
         }
     }
 
+    // passes the record to each of the task's sorted loci which it overlaps, starting from the cursor into the loci, and returns
+    // the new cursor - records arrive in alignment start order, so loci before the record's start can be skipped for all later records
+    static <E extends GenomePosition> int processRecord(
+            final Task<E> task, int lociIndex, final SAMRecord record, final BiConsumer<E, SAMRecord> consumer)
+    {
+        int alignmentStart = record.getAlignmentStart();
+        int alignmentEnd = record.getAlignmentEnd();
+
+        while (lociIndex < task.size() && task.get(lociIndex).position() < alignmentStart)
+        {
+            ++lociIndex;
+        }
+
+        for (int i = lociIndex; i < task.size(); ++i)
+        {
+            E genomePosition = task.get(i);
+
+            if (genomePosition.position() > alignmentEnd)
+                break;
+
+            consumer.accept(genomePosition, record);
+        }
+
+        return lociIndex;
+    }
+
     public static <E extends GenomePosition> void processBam(final String bamFile, final SamReaderFactory samReaderFactory,
             final List<E> loci, BiConsumer<E, SAMRecord> asyncRecordHandler, int threadCount, int minMappingQuality)
             throws InterruptedException
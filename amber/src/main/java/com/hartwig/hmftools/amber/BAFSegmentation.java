@@ -1,26 +1,68 @@
 package com.hartwig.hmftools.amber;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.hartwig.hmftools.common.amber.AmberBAF;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.utils.pcf.PCFFile;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter.PCFSegment;
 import com.hartwig.hmftools.common.utils.r.RExecutor;
 
 public class BAFSegmentation
 {
     private final String mOutputDir;
+    private final int mThreads;
+    private final RefGenomeVersion mRefGenomeVersion;
+    private final boolean mNativePcf;
 
-    public BAFSegmentation(final String outputDir)
+    private static final int PCF_KMIN = 1;
+    private static final double PCF_GAMMA = 100;
+
+    public BAFSegmentation(final String outputDir, int threads, final RefGenomeVersion refGenomeVersion, boolean nativePcf)
     {
         mOutputDir = outputDir;
+        mThreads = Math.max(threads, 1);
+        mRefGenomeVersion = refGenomeVersion;
+        mNativePcf = nativePcf;
     }
 
-    public void applySegmentation(final String tumor, final String ratioFile) throws InterruptedException, IOException
+    public void applySegmentation(final String tumor, final String ratioFile, final List<AmberBAF> bafs)
+            throws InterruptedException, IOException
     {
         final String pcfFile = PCFFile.generateBAFFilename(mOutputDir, tumor);
-        int result = RExecutor.executeFromClasspath("r/bafSegmentation.R", ratioFile, pcfFile);
-        if(result != 0)
+
+        if(!mNativePcf)
+        {
+            int result = RExecutor.executeFromClasspath("r/bafSegmentation.R", ratioFile, pcfFile);
+            if(result != 0)
+            {
+                throw new IOException("R execution failed. Unable to complete segmentation.");
+            }
+
+            return;
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(mThreads);
+
+        try
+        {
+            final List<PCFSegment> segments = new PCFSegmenter(PCF_KMIN, PCF_GAMMA, mRefGenomeVersion).segment(
+                    bafs, AmberBAF::tumorModifiedBAF, executorService);
+
+            PCFFile.write(pcfFile, tumor, segments);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IOException("unable to complete segmentation", e);
+        }
+        finally
         {
-            throw new IOException("R execution failed. Unable to complete segmentation.");
+            executorService.shutdown();
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.hartwig.hmftools.amber;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.genome.position.GenomePositions;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMRecord;
+
+public class AsyncBamLociReaderTest
+{
+    @Test
+    public void testRecordsVisitOverlappingLoci()
+    {
+        AsyncBamLociReader.Task<GenomePosition> task = new AsyncBamLociReader.Task<>();
+        task.chromosome = "1";
+
+        for(int position : new int[] { 100, 105, 105, 150, 200, 260 })
+        {
+            task.add(GenomePositions.create("1", position));
+        }
+
+        List<Integer> visited = Lists.newArrayList();
+
+        int lociIndex = 0;
+        lociIndex = AsyncBamLociReader.processRecord(task, lociIndex, buildSamRecord(90, "20M"), (x, r) -> visited.add(x.position()));
+        assertEquals(0, lociIndex);
+        assertEquals(Lists.newArrayList(100, 105, 105), visited);
+
+        // loci before the read start are skipped and not revisited by later reads
+        visited.clear();
+        lociIndex = AsyncBamLociReader.processRecord(task, lociIndex, buildSamRecord(101, "50M"), (x, r) -> visited.add(x.position()));
+        assertEquals(1, lociIndex);
+        assertEquals(Lists.newArrayList(105, 105, 150), visited);
+
+        visited.clear();
+        lociIndex = AsyncBamLociReader.processRecord(task, lociIndex, buildSamRecord(151, "10M"), (x, r) -> visited.add(x.position()));
+        assertEquals(4, lociIndex);
+        assertEquals(0, visited.size());
+
+        visited.clear();
+        lociIndex = AsyncBamLociReader.processRecord(task, lociIndex, buildSamRecord(300, "10M"), (x, r) -> visited.add(x.position()));
+        assertEquals(6, lociIndex);
+        assertEquals(0, visited.size());
+    }
+
+    private static SAMRecord buildSamRecord(final int alignmentStart, final String cigar)
+    {
+        final SAMRecord record = new SAMRecord(null);
+        record.setAlignmentStart(alignmentStart);
+        record.setCigarString(cigar);
+        return record;
+    }
+}
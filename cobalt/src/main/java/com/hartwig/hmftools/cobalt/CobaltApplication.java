@@ -29,11 +29,13 @@ import com.hartwig.hmftools.common.genome.chromosome.ChromosomeLength;
 import com.hartwig.hmftools.common.genome.chromosome.ChromosomeLengthFactory;
 import com.hartwig.hmftools.common.genome.gc.GCProfile;
 import com.hartwig.hmftools.common.genome.gc.GCProfileFactory;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.utils.config.DeclaredOrderParameterComparator;
 import com.hartwig.hmftools.common.utils.config.LoggingOptions;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
@@ -41,6 +43,9 @@ import htsjdk.samtools.cram.ref.ReferenceSource;
 
 public class CobaltApplication implements AutoCloseable
 {
+    private static final int CHR1_LENGTH_V37 = 249_250_621;
+    private static final int CHR1_LENGTH_V38 = 248_956_422;
+
     @ParametersDelegate
     private final CobaltConfig mConfig = new CobaltConfig();
 
@@ -95,6 +100,11 @@ public class CobaltApplication implements AutoCloseable
 
             final Collection<Chromosome> chromosomes = loadChromosomes(readerFactory);
 
+            final RefGenomeVersion refGenomeVersion = resolveRefGenomeVersion(chromosomes);
+
+            if(refGenomeVersion == null)
+                return 1;
+
             final Multimap<Chromosome, GCProfile> gcProfiles = loadGCContent(chromosomes);
 
             final CountSupplier countSupplier = new CountSupplier(
@@ -132,7 +142,9 @@ public class CobaltApplication implements AutoCloseable
             mVersionInfo.write(mConfig.OutputDir);
             CobaltRatioFile.write(outputFilename, ratios.values());
 
-            applyRatioSegmentation(executorService, mConfig.OutputDir, outputFilename, mConfig.ReferenceId, mConfig.TumorId, mConfig.PcfGamma);
+            applyRatioSegmentation(
+                    executorService, mConfig.OutputDir, outputFilename, ratios.values(), mConfig.ReferenceId, mConfig.TumorId,
+                    mConfig.PcfGamma, refGenomeVersion, !mConfig.RPcf);
         }
         finally
         {
@@ -174,6 +186,47 @@ public class CobaltApplication implements AutoCloseable
         return chromosomes;
     }
 
+    @Nullable
+    private RefGenomeVersion resolveRefGenomeVersion(final Collection<Chromosome> chromosomes)
+    {
+        // the version only sets the centromeres used to split segmentation by arm, so is taken from chromosome 1's length in the
+        // BAM unless specified, and a specified version which disagrees with the BAM is flagged
+        Chromosome chr1 = Chromosome.findByContig("1", chromosomes);
+
+        if(chr1 == null)
+            chr1 = Chromosome.findByContig("chr1", chromosomes);
+
+        RefGenomeVersion bamVersion = null;
+
+        if(chr1 != null && chr1.length == CHR1_LENGTH_V37)
+            bamVersion = RefGenomeVersion.V37;
+        else if(chr1 != null && chr1.length == CHR1_LENGTH_V38)
+            bamVersion = RefGenomeVersion.V38;
+
+        if(mConfig.RefGenVersion != null)
+        {
+            if(bamVersion != null && bamVersion.is37() != mConfig.RefGenVersion.is37())
+            {
+                CB_LOGGER.warn("ref genome version({}) differs from BAM chromosome 1 length({}) which implies version({})",
+                        mConfig.RefGenVersion.identifier(), chr1.length, bamVersion.identifier());
+            }
+
+            return mConfig.RefGenVersion;
+        }
+
+        if(bamVersion == null && !mConfig.RPcf)
+        {
+            CB_LOGGER.error("unable to derive ref genome version from BAM chromosome 1 length({}), specify -{}",
+                    chr1 != null ? chr1.length : "unknown", RefGenomeVersion.REF_GENOME_VERSION);
+            return null;
+        }
+
+        if(bamVersion != null)
+            CB_LOGGER.info("using ref genome version({}) from BAM chromosome 1 length", bamVersion.identifier());
+
+        return bamVersion != null ? bamVersion : RefGenomeVersion.V37; // unused when segmenting with R
+    }
+
     @NotNull
     public Multimap<Chromosome, GCProfile> loadGCContent(Collection<Chromosome> chromosomes) throws IOException
     {
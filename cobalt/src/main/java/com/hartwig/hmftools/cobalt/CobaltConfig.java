@@ -7,8 +7,10 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkCreateOutpu
 
 import java.io.File;
 
+import com.beust.jcommander.IStringConverter;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -82,10 +84,20 @@ public class CobaltConfig
                description = "Input tsv file for genome regions enrichment in targeted mode")
     public String TargetRegionPath;
 
+    @Parameter(names = "-" + RefGenomeVersion.REF_GENOME_VERSION,
+               description = RefGenomeVersion.REF_GENOME_VERSION_CFG_DESC
+                       + ", used for the centromeres splitting segmentation by arm, otherwise derived from the BAM's chromosome 1 length",
+               converter = RefGenomeVersionConverter.class)
+    public RefGenomeVersion RefGenVersion;
+
     @Parameter(names = "-pcf_gamma",
                description = "Gamma value we pass to copynumber PCF")
     public int PcfGamma = CobaltConstants.DEFAULT_PCF_GAMMA;
 
+    @Parameter(names = "-r_pcf",
+               description = "Segment with R copynumber pcf instead of the native Java PCF")
+    public boolean RPcf;
+
     public static final Logger CB_LOGGER = LogManager.getLogger(CobaltConfig.class);
 
     public CobaltConfig()
@@ -150,4 +162,13 @@ public class CobaltConfig
         }
         return Mode.TUMOR_GERMLINE;
     }
+
+    static class RefGenomeVersionConverter implements IStringConverter<RefGenomeVersion>
+    {
+        @Override
+        public RefGenomeVersion convert(String value)
+        {
+            return RefGenomeVersion.from(value);
+        }
+    }
 }
@@ -3,35 +3,59 @@ package com.hartwig.hmftools.cobalt;
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.cobalt.CobaltRatio;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.utils.pcf.PCFFile;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter.PCFSegment;
 import com.hartwig.hmftools.common.utils.r.RExecutor;
 
 public class RatioSegmentation
 {
+    private static final int PCF_KMIN = 1;
+    private static final double MIN_RATIO = 0.001;
+
     public static void applyRatioSegmentation(
-            final ExecutorService executorService, final String outputDir, final String ratioFile,
-            final String reference, final String tumor, int gamma) throws ExecutionException, InterruptedException
+            final ExecutorService executorService, final String outputDir, final String ratioFile, final Collection<CobaltRatio> ratios,
+            final String reference, final String tumor, int gamma, final RefGenomeVersion refGenomeVersion, boolean nativePcf)
+            throws ExecutionException, InterruptedException, IOException
     {
-        final List<Future<Object>> futures = Lists.newArrayList();
-
-        if (reference != null)
+        if(nativePcf)
         {
-            futures.add(executorService.submit(() -> ratioSegmentation(outputDir, ratioFile, reference, "referenceGCDiploidRatio", gamma)));
+            if(reference != null)
+            {
+                nativeRatioSegmentation(executorService, outputDir, ratios, reference, CobaltRatio::referenceGCDiploidRatio, gamma, refGenomeVersion);
+            }
+            if(tumor != null)
+            {
+                nativeRatioSegmentation(executorService, outputDir, ratios, tumor, CobaltRatio::tumorGCRatio, gamma, refGenomeVersion);
+            }
         }
-        if (tumor != null)
+        else
         {
-            futures.add(executorService.submit(() -> ratioSegmentation(outputDir, ratioFile, tumor, "tumorGCRatio", gamma)));
-        }
+            final List<Future<Object>> futures = Lists.newArrayList();
 
-        for(Future<Object> future : futures)
-        {
-            future.get();
+            if(reference != null)
+            {
+                futures.add(executorService.submit(() -> ratioSegmentation(outputDir, ratioFile, reference, "referenceGCDiploidRatio", gamma)));
+            }
+            if(tumor != null)
+            {
+                futures.add(executorService.submit(() -> ratioSegmentation(outputDir, ratioFile, tumor, "tumorGCRatio", gamma)));
+            }
+
+            for(Future<Object> future : futures)
+            {
+                future.get();
+            }
         }
 
         CB_LOGGER.info("Segmentation Complete");
@@ -50,4 +74,22 @@ public class RatioSegmentation
 
         return null;
     }
+
+    private static void nativeRatioSegmentation(
+            final ExecutorService executorService, final String outputDir, final Collection<CobaltRatio> ratios, final String sample,
+            final ToDoubleFunction<CobaltRatio> ratioFunction, int gamma, final RefGenomeVersion refGenomeVersion)
+            throws ExecutionException, InterruptedException, IOException
+    {
+        // segment log2 ratios, excluding negative (ie unset) ratios and flooring very low ratios
+        final ToDoubleFunction<CobaltRatio> logRatioFunction = x ->
+        {
+            double ratio = ratioFunction.applyAsDouble(x);
+            return ratio >= 0 ? Math.log(Math.max(ratio, MIN_RATIO)) / Math.log(2) : Double.NaN;
+        };
+
+        final List<PCFSegment> segments = new PCFSegmenter(PCF_KMIN, gamma, refGenomeVersion).segment(ratios, logRatioFunction, executorService);
+
+        final String pcfFile = PCFFile.generateRatioFilename(outputDir, sample);
+        PCFFile.write(pcfFile, sample, segments);
+    }
 }
@@ -0,0 +1,44 @@
+package com.hartwig.hmftools.cobalt.count;
+
+import com.hartwig.hmftools.cobalt.Chromosome;
+
+// read counts for each window along a chromosome, held in a primitive array indexed by window
+public class ChromosomeReadCounts
+{
+    public final Chromosome Chromosome;
+    public final int WindowSize;
+
+    private final int[] mCounts;
+
+    public ChromosomeReadCounts(final Chromosome chromosome, int windowSize)
+    {
+        Chromosome = chromosome;
+        WindowSize = windowSize;
+        mCounts = new int[Math.max((chromosome.length + windowSize - 1) / windowSize, 1)];
+    }
+
+    public void increment(int position)
+    {
+        int index = windowIndex(position);
+
+        // windows only extend to the chromosome length
+        if(index < mCounts.length)
+            ++mCounts[index];
+    }
+
+    public int windowIndex(int position) { return (position - 1) / WindowSize; }
+    public int position(int windowIndex) { return windowIndex * WindowSize + 1; }
+    public int readCount(int windowIndex) { return mCounts[windowIndex]; }
+
+    public int windowCount()
+    {
+        // windows are reported up to and including the last with any reads, and always at least the first window
+        for(int i = mCounts.length - 1; i > 0; --i)
+        {
+            if(mCounts[i] > 0)
+                return i + 1;
+        }
+
+        return 1;
+    }
+}
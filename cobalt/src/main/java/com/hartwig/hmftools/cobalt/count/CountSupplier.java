@@ -5,14 +5,13 @@ import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Multimap;
 import com.hartwig.hmftools.cobalt.Chromosome;
 
 import org.jetbrains.annotations.Nullable;
@@ -23,14 +22,16 @@ public class CountSupplier
 {
     private final int mWindowSize;
     private final int mMinMappingQuality;
-    Multimap<Chromosome, ReadCount> mReferenceCounts = null;
-    Multimap<Chromosome, ReadCount> mTumorCounts = null;
+    Map<Chromosome, ChromosomeReadCounts> mReferenceCounts = null;
+    Map<Chromosome, ChromosomeReadCounts> mTumorCounts = null;
     private final ExecutorService mExecutorService;
     private final SamReaderFactory mReaderFactory;
     private final Collection<Chromosome> mChromosomes;
 
-    public Multimap<Chromosome, ReadCount> getReferenceCounts() { return mReferenceCounts; }
-    public Multimap<Chromosome, ReadCount> getTumorCounts() { return mTumorCounts; }
+    public Map<Chromosome, ChromosomeReadCounts> getReferenceCounts() { return mReferenceCounts; }
+    public Map<Chromosome, ChromosomeReadCounts> getTumorCounts() { return mTumorCounts; }
+
+    private static final int PARTITION_SIZE = 10_000_000;
 
     public CountSupplier(
             final int windowSize, final int minMappingQuality,
@@ -54,59 +55,47 @@ public class CountSupplier
             return;
         }
 
-        List<Future<ChromosomeReadCount>> tumorFutures = null;
-        List<Future<ChromosomeReadCount>> referenceFutures = null;
-
         if (tumorBam != null)
         {
             CB_LOGGER.info("Calculating Read Count from {}", tumorBam);
-            tumorFutures = createFutures(mReaderFactory, new File(tumorBam));
+            mTumorCounts = countReads(new File(tumorBam));
         }
 
         if (referenceBam != null)
         {
             CB_LOGGER.info("Calculating Read Count from {}", referenceBam);
-            referenceFutures = createFutures(mReaderFactory, new File(referenceBam));
-        }
-
-        if (tumorFutures != null)
-        {
-            mTumorCounts = fromFutures(tumorFutures);
-        }
-        if (referenceFutures != null)
-        {
-            mReferenceCounts = fromFutures(referenceFutures);
+            mReferenceCounts = countReads(new File(referenceBam));
         }
 
         CB_LOGGER.info("Read Count Complete");
     }
 
-    private List<Future<ChromosomeReadCount>> createFutures(
-            final SamReaderFactory readerFactory, final File file)
+    private Map<Chromosome, ChromosomeReadCounts> countReads(final File file) throws ExecutionException, InterruptedException
     {
-        final List<Future<ChromosomeReadCount>> futures = new ArrayList<>();
+        // chromosomes are split into window-aligned partitions so that the largest chromosomes do not limit the run time
+        final Map<Chromosome, ChromosomeReadCounts> readCounts = new LinkedHashMap<>();
+        final List<Future<PartitionReadCount>> futures = new ArrayList<>();
+
+        int partitionSize = Math.max(PARTITION_SIZE / mWindowSize, 1) * mWindowSize;
+
         for(Chromosome chromosome : mChromosomes)
         {
-            final ChromosomeReadCount callable = new ChromosomeReadCount(
-                    file, readerFactory, chromosome, mWindowSize, mMinMappingQuality);
+            final ChromosomeReadCounts chrReadCounts = new ChromosomeReadCounts(chromosome, mWindowSize);
+            readCounts.put(chromosome, chrReadCounts);
 
-            futures.add(mExecutorService.submit(callable));
-        }
+            for(int start = 1; start <= Math.max(chromosome.length, 1); start += partitionSize)
+            {
+                // the last partition ends at the chromosome length, so any reads starting beyond it are not counted
+                int end = Math.min(start + partitionSize - 1, Math.max(chromosome.length, 1));
 
-        return futures;
-    }
+                futures.add(mExecutorService.submit(new PartitionReadCount(
+                        file, mReaderFactory, chrReadCounts, start, end, mMinMappingQuality)));
+            }
+        }
 
-    private static Multimap<Chromosome, ReadCount> fromFutures(List<Future<ChromosomeReadCount>> futures)
-            throws ExecutionException, InterruptedException
-    {
-        final ListMultimap<Chromosome, ReadCount> readCounts = ArrayListMultimap.create();
-        for(Future<ChromosomeReadCount> future : futures)
+        for(Future<PartitionReadCount> future : futures)
         {
-            final ChromosomeReadCount readCount = future.get();
-            final Chromosome chromosome = readCount.chromosome();
-            final List<ReadCount> result = readCount.readCount();
-
-            readCounts.putAll(chromosome, result);
+            future.get();
         }
 
         return readCounts;
@@ -3,7 +3,6 @@ package com.hartwig.hmftools.cobalt.count;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.genome.gc.GCBucket;
 import com.hartwig.hmftools.common.genome.gc.GCMedianReadCount;
@@ -24,11 +23,6 @@ public class GCMedianReadCountBuilder {
         medianPerGCBucket = Maps.newHashMap();
     }
 
-    public void add(@NotNull final GCProfile profile, @NotNull final ReadCount readCount) {
-        Preconditions.checkArgument(profile.contains(readCount));
-        add(profile, readCount.readCount());
-    }
-
     public void add(@NotNull final GCProfile profile, int readCount) {
         final GCBucket gcBucket = GCBucket.create(profile);
 
@@ -0,0 +1,63 @@
+package com.hartwig.hmftools.cobalt.count;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordIterator;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+
+// counts reads starting within a window-aligned range of a chromosome, so ranges can be counted in parallel
+public class PartitionReadCount implements Callable<PartitionReadCount>
+{
+    private final File mInputFile;
+    private final SamReaderFactory mReaderFactory;
+    private final ChromosomeReadCounts mReadCounts;
+    private final int mStart;
+    private final int mEnd;
+    private final int mMinMappingQuality;
+
+    public PartitionReadCount(
+            final File inputFile, final SamReaderFactory readerFactory, final ChromosomeReadCounts readCounts,
+            int start, int end, int minMappingQuality)
+    {
+        mInputFile = inputFile;
+        mReaderFactory = readerFactory;
+        mReadCounts = readCounts;
+        mStart = start;
+        mEnd = end;
+        mMinMappingQuality = minMappingQuality;
+    }
+
+    @Override
+    public PartitionReadCount call() throws Exception
+    {
+        try(final SamReader reader = mReaderFactory.open(mInputFile))
+        {
+            final SAMRecordIterator iterator = reader.query(mReadCounts.Chromosome.contig, mStart, mEnd, false);
+
+            while(iterator.hasNext())
+            {
+                final SAMRecord record = iterator.next();
+
+                // reads overlapping the partition boundary are only counted by the partition containing their start
+                int readStart = record.getAlignmentStart();
+
+                if(readStart < mStart || readStart > mEnd)
+                    continue;
+
+                if(isEligible(record))
+                    mReadCounts.increment(readStart);
+            }
+        }
+
+        return this;
+    }
+
+    private boolean isEligible(final SAMRecord record)
+    {
+        return record.getMappingQuality() >= mMinMappingQuality
+                && !(record.getReadUnmappedFlag() || record.getDuplicateReadFlag() || record.isSecondaryOrSupplementary());
+    }
+}
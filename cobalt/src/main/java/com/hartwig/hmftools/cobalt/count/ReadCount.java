@@ -1,16 +0,0 @@
-package com.hartwig.hmftools.cobalt.count;
-
-import com.hartwig.hmftools.common.genome.position.GenomePosition;
-
-import org.immutables.value.Value;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-
-@Value.Immutable
-@Value.Style(passAnnotations = { NotNull.class, Nullable.class })
-public interface ReadCount extends GenomePosition
-{
-
-    int readCount();
-}
-
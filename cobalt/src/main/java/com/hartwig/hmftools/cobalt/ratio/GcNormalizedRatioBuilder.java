@@ -3,14 +3,16 @@ package com.hartwig.hmftools.cobalt.ratio;
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 
 import java.util.Optional;
+import java.util.Map;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.hartwig.hmftools.cobalt.Chromosome;
-import com.hartwig.hmftools.cobalt.count.ReadCount;
+import com.hartwig.hmftools.cobalt.count.ChromosomeReadCounts;
 import com.hartwig.hmftools.common.cobalt.ReadRatio;
 import com.hartwig.hmftools.common.genome.gc.GCMedianReadCount;
 import com.hartwig.hmftools.common.genome.gc.GCProfile;
+import com.hartwig.hmftools.common.genome.position.GenomePositions;
 import com.hartwig.hmftools.common.genome.region.GenomeRegionSelector;
 import com.hartwig.hmftools.common.genome.region.GenomeRegionSelectorFactory;
 
@@ -20,7 +22,7 @@ public class GcNormalizedRatioBuilder implements RatioBuilder
     private final ArrayListMultimap<Chromosome, ReadRatio> mGcRatios;
 
     public GcNormalizedRatioBuilder(
-            final Multimap<Chromosome, GCProfile> gcProfiles, final Multimap<Chromosome, ReadCount> counts)
+            final Multimap<Chromosome, GCProfile> gcProfiles, final Map<Chromosome, ChromosomeReadCounts> counts)
     {
         CB_LOGGER.info("Applying ratio gc normalization");
 
@@ -28,15 +30,21 @@ public class GcNormalizedRatioBuilder implements RatioBuilder
 
         final GCRatioNormalization gcRatioNormalization = new GCRatioNormalization();
 
-        for(Chromosome chromosome : counts.keySet())
+        for(ChromosomeReadCounts readCounts : counts.values())
         {
-            for(ReadCount readCount : counts.get(chromosome))
+            final Chromosome chromosome = readCounts.Chromosome;
+
+            int windowCount = readCounts.windowCount();
+
+            for(int i = 0; i < windowCount; ++i)
             {
-                final Optional<GCProfile> optionalGCProfile = gcProfileSelector.select(readCount);
+                final Optional<GCProfile> optionalGCProfile = gcProfileSelector.select(
+                        GenomePositions.create(chromosome.contig, readCounts.position(i)));
+
                 if(optionalGCProfile.isPresent())
                 {
                     final GCProfile gcProfile = optionalGCProfile.get();
-                    gcRatioNormalization.addPosition(chromosome, gcProfile, readCount.readCount());
+                    gcRatioNormalization.addPosition(chromosome, gcProfile, readCounts.readCount(i));
                 }
             }
         }
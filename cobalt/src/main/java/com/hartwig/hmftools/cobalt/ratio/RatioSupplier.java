@@ -5,7 +5,9 @@ import static com.hartwig.hmftools.cobalt.CobaltUtils.toCommonChromosomeMap;
 import static com.hartwig.hmftools.cobalt.ratio.DiploidRatioSupplier.calcDiploidRatioResults;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +19,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.cobalt.Chromosome;
-import com.hartwig.hmftools.cobalt.count.ReadCount;
+import com.hartwig.hmftools.cobalt.count.ChromosomeReadCounts;
 import com.hartwig.hmftools.cobalt.diploid.DiploidRatioLoader;
 import com.hartwig.hmftools.cobalt.targeted.TargetRegionEnrichment;
 import com.hartwig.hmftools.cobalt.targeted.TargetedRatioBuilder;
@@ -42,8 +44,8 @@ public class RatioSupplier
 
     private final Collection<Chromosome> mChromosomes;
     private final Multimap<Chromosome, GCProfile> mGcProfiles;
-    @Nullable private final Multimap<Chromosome, ReadCount> mReferenceCounts;
-    @Nullable private final Multimap<Chromosome, ReadCount> mTumorCounts;
+    @Nullable private final Map<Chromosome, ChromosomeReadCounts> mReferenceCounts;
+    @Nullable private final Map<Chromosome, ChromosomeReadCounts> mTumorCounts;
 
     private TargetRegionEnrichment mTargetRegionEnrichment = null;
 
@@ -57,7 +59,7 @@ public class RatioSupplier
 
         SampleRatios(
                 final String sampleId,
-                final Multimap<Chromosome, ReadCount> readCounts,
+                final Map<Chromosome, ChromosomeReadCounts> readCounts,
                 final Multimap<Chromosome, GCProfile> gcProfiles,
                 @Nullable TargetRegionEnrichment targetRegionEnrichment,
                 final String outputDir) throws IOException
@@ -87,7 +89,7 @@ public class RatioSupplier
         private final ArrayListMultimap<Chromosome, ReadRatio> gcDiploidRatios;
 
         GermlineRatios(final String referenceId,
-                final Multimap<Chromosome, ReadCount> readCounts,
+                final Map<Chromosome, ChromosomeReadCounts> readCounts,
                 final Multimap<Chromosome, GCProfile> gcProfiles,
                 @Nullable TargetRegionEnrichment targetRegionEnrichment,
                 final Collection<Chromosome> chromosomes,
@@ -110,8 +112,8 @@ public class RatioSupplier
     public RatioSupplier(final String reference, final String tumor, final String outputDirectory,
             final Multimap<Chromosome, GCProfile> gcProfiles,
             final Collection<Chromosome> chromosomes,
-            @Nullable final Multimap<Chromosome, ReadCount> referenceCounts,
-            @Nullable final Multimap<Chromosome, ReadCount> tumorCounts)
+            @Nullable final Map<Chromosome, ChromosomeReadCounts> referenceCounts,
+            @Nullable final Map<Chromosome, ChromosomeReadCounts> tumorCounts)
     {
         mTumorId = tumor;
         mReferenceId = reference;
@@ -140,7 +142,7 @@ public class RatioSupplier
 
         // merge this ratios together into one cobalt ratio
         return mergeRatios(
-                ArrayListMultimap.create(), mTumorCounts,
+                Collections.emptyMap(), mTumorCounts,
                 diploidRatios, tumorRatios.getRatios(), diploidRatios);
     }
 
@@ -154,7 +156,7 @@ public class RatioSupplier
         }
         var germlineRatios = new GermlineRatios(mReferenceId, mReferenceCounts, mGcProfiles, mTargetRegionEnrichment, mChromosomes, mOutputDir);
         return mergeRatios(
-                mReferenceCounts, ArrayListMultimap.create(),
+                mReferenceCounts, Collections.emptyMap(),
                 germlineRatios.getRatios(), ArrayListMultimap.create(), germlineRatios.gcDiploidRatios);
     }
 
@@ -182,8 +184,8 @@ public class RatioSupplier
     // merge everything together
     @NotNull
     private static Multimap<Chromosome, CobaltRatio> mergeRatios(
-            @NotNull final Multimap<Chromosome, ReadCount> referenceCounts,
-            @NotNull final Multimap<Chromosome, ReadCount> tumorCounts,
+            @NotNull final Map<Chromosome, ChromosomeReadCounts> referenceCounts,
+            @NotNull final Map<Chromosome, ChromosomeReadCounts> tumorCounts,
             @NotNull final ArrayListMultimap<Chromosome, ReadRatio> referenceRatios,
             @NotNull final ArrayListMultimap<Chromosome, ReadRatio> tumorRatios,
             @NotNull final ArrayListMultimap<Chromosome, ReadRatio> referenceDiploidRatios)
@@ -203,8 +205,8 @@ public class RatioSupplier
         {
             // try to merge all 5 lists
 
-            Collection<ReadCount> refCountList = referenceCounts.get(chromosome);
-            Collection<ReadCount> tumorCountList = tumorCounts.get(chromosome);
+            ChromosomeReadCounts refCountArray = referenceCounts.get(chromosome);
+            ChromosomeReadCounts tumorCountArray = tumorCounts.get(chromosome);
 
             // filter out NaN ratios
             Collection<ReadRatio> referenceRatioList = referenceRatios.get(chromosome).stream()
@@ -220,25 +222,48 @@ public class RatioSupplier
             // get all positions and add to a map
             Map<Integer, ImmutableCobaltRatio.Builder> positionRatioBuilders = new HashMap<>();
 
-            for (Collection<? extends GenomePosition> l : List.of(refCountList, tumorCountList, referenceRatioList, tumorRatioList, diploidRatioList))
+            for (ChromosomeReadCounts readCounts : Arrays.asList(refCountArray, tumorCountArray))
+            {
+                if (readCounts == null)
+                    continue;
+
+                int windowCount = readCounts.windowCount();
+
+                for (int i = 0; i < windowCount; ++i)
+                {
+                    newRatioBuilder(positionRatioBuilders, chromosome.contig, readCounts.position(i));
+                }
+            }
+
+            for (Collection<? extends GenomePosition> l : List.of(referenceRatioList, tumorRatioList, diploidRatioList))
             {
                 for (GenomePosition genomePosition : l)
                 {
-                    // set all initial values to -1
-                    positionRatioBuilders.computeIfAbsent(
-                            genomePosition.position(),
-                            k -> ImmutableCobaltRatio.builder().from(genomePosition)
-                                        .referenceReadCount(-1)
-                                        .tumorReadCount(-1)
-                                        .referenceGCRatio(-1D)
-                                        .tumorGCRatio(-1D)
-                                        .referenceGCDiploidRatio(-1D));
+                    newRatioBuilder(positionRatioBuilders, genomePosition.chromosome(), genomePosition.position());
                 }
             }
 
             // populate the values
-            refCountList.forEach(rc -> positionRatioBuilders.get(rc.position()).referenceReadCount(rc.readCount()));
-            tumorCountList.forEach(rc -> positionRatioBuilders.get(rc.position()).tumorReadCount(rc.readCount()));
+            if (refCountArray != null)
+            {
+                int windowCount = refCountArray.windowCount();
+
+                for (int i = 0; i < windowCount; ++i)
+                {
+                    positionRatioBuilders.get(refCountArray.position(i)).referenceReadCount(refCountArray.readCount(i));
+                }
+            }
+
+            if (tumorCountArray != null)
+            {
+                int windowCount = tumorCountArray.windowCount();
+
+                for (int i = 0; i < windowCount; ++i)
+                {
+                    positionRatioBuilders.get(tumorCountArray.position(i)).tumorReadCount(tumorCountArray.readCount(i));
+                }
+            }
+
             referenceRatioList.forEach(readRatio -> positionRatioBuilders.get(readRatio.position()).referenceGCRatio(readRatio.ratio()));
             tumorRatioList.forEach(readRatio -> positionRatioBuilders.get(readRatio.position()).tumorGCRatio(readRatio.ratio()));
             diploidRatioList.forEach(readRatio -> positionRatioBuilders.get(readRatio.position()).referenceGCDiploidRatio(readRatio.ratio()));
@@ -250,4 +275,20 @@ public class RatioSupplier
         }
         return result;
     }
-}
\ No newline at end of file
+
+    private static void newRatioBuilder(
+            final Map<Integer, ImmutableCobaltRatio.Builder> positionRatioBuilders, final String chromosome, int position)
+    {
+        // set all initial values to -1
+        positionRatioBuilders.computeIfAbsent(
+                position,
+                k -> ImmutableCobaltRatio.builder()
+                        .chromosome(chromosome)
+                        .position(position)
+                        .referenceReadCount(-1)
+                        .tumorReadCount(-1)
+                        .referenceGCRatio(-1D)
+                        .tumorGCRatio(-1D)
+                        .referenceGCDiploidRatio(-1D));
+    }
+}
@@ -0,0 +1,38 @@
+package com.hartwig.hmftools.cobalt.count;
+
+import static org.junit.Assert.assertEquals;
+
+import com.hartwig.hmftools.cobalt.Chromosome;
+
+import org.junit.Test;
+
+public class ChromosomeReadCountsTest
+{
+    @Test
+    public void testWindowCounts()
+    {
+        ChromosomeReadCounts readCounts = new ChromosomeReadCounts(new Chromosome("1", 10500), 1000);
+
+        // no reads still reports the first window
+        assertEquals(1, readCounts.windowCount());
+        assertEquals(0, readCounts.readCount(0));
+
+        readCounts.increment(1);
+        readCounts.increment(1000);
+        readCounts.increment(1001);
+        readCounts.increment(5500);
+
+        assertEquals(6, readCounts.windowCount());
+        assertEquals(2, readCounts.readCount(0));
+        assertEquals(1, readCounts.readCount(1));
+        assertEquals(0, readCounts.readCount(4));
+        assertEquals(1, readCounts.readCount(5));
+        assertEquals(5001, readCounts.position(5));
+
+        // the final partial window is included, and reads beyond the chromosome are ignored
+        readCounts.increment(10500);
+        readCounts.increment(12000);
+        assertEquals(11, readCounts.windowCount());
+        assertEquals(10001, readCounts.position(10));
+    }
+}
@@ -12,9 +12,13 @@ import static com.hartwig.hmftools.compar.MatchLevel.REPORTABLE;
 import static com.hartwig.hmftools.compar.MismatchType.NEW_ONLY;
 import static com.hartwig.hmftools.compar.MismatchType.REF_ONLY;
 
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.compar.cuppa.CuppaComparer;
 import com.hartwig.hmftools.compar.driver.DriverComparer;
 import com.hartwig.hmftools.compar.linx.DisruptionComparer;
@@ -99,6 +103,78 @@ public class CommonUtils
     public static void compareItems(
             final List<Mismatch> mismatches, final MatchLevel matchLevel, final DiffThresholds thresholds,
             final List<ComparableItem> items1, final List<ComparableItem> items2)
+    {
+        // matched items are removed from both lists, leaving those only found in one source
+        if(hasMatchKeys(items1) && hasMatchKeys(items2))
+            matchItemsByKey(mismatches, matchLevel, thresholds, items1, items2);
+        else
+            matchItemsByScan(mismatches, matchLevel, thresholds, items1, items2);
+
+        if(items1.isEmpty() && items2.isEmpty())
+            return;
+
+        List<String> emptyDiffs = Lists.newArrayList();
+
+        items1.stream().filter(x -> matchLevel != REPORTABLE || x.reportable())
+                .forEach(x -> mismatches.add(new Mismatch(x, null, REF_ONLY, emptyDiffs)));
+
+        items2.stream().filter(x -> matchLevel != REPORTABLE || x.reportable())
+                .forEach(x -> mismatches.add(new Mismatch(null, x, NEW_ONLY, emptyDiffs)));
+    }
+
+    private static boolean hasMatchKeys(final List<ComparableItem> items)
+    {
+        return items.stream().allMatch(x -> x.matchKey() != null);
+    }
+
+    private static void matchItemsByKey(
+            final List<Mismatch> mismatches, final MatchLevel matchLevel, final DiffThresholds thresholds,
+            final List<ComparableItem> items1, final List<ComparableItem> items2)
+    {
+        // each item is paired with the first unmatched item in the other source with the same key, as per the scan
+        Map<String,Queue<Integer>> items2Indices = Maps.newHashMap();
+
+        for(int index2 = 0; index2 < items2.size(); ++index2)
+        {
+            items2Indices.computeIfAbsent(items2.get(index2).matchKey(), k -> new ArrayDeque<>()).add(index2);
+        }
+
+        boolean[] matched2 = new boolean[items2.size()];
+        List<ComparableItem> unmatched1 = Lists.newArrayList();
+
+        for(ComparableItem item1 : items1)
+        {
+            Queue<Integer> indices = items2Indices.get(item1.matchKey());
+
+            if(indices == null || indices.isEmpty())
+            {
+                unmatched1.add(item1);
+                continue;
+            }
+
+            int index2 = indices.poll();
+            matched2[index2] = true;
+
+            checkMatchedItems(mismatches, matchLevel, thresholds, item1, items2.get(index2));
+        }
+
+        List<ComparableItem> unmatched2 = Lists.newArrayList();
+
+        for(int index2 = 0; index2 < items2.size(); ++index2)
+        {
+            if(!matched2[index2])
+                unmatched2.add(items2.get(index2));
+        }
+
+        items1.clear();
+        items1.addAll(unmatched1);
+        items2.clear();
+        items2.addAll(unmatched2);
+    }
+
+    private static void matchItemsByScan(
+            final List<Mismatch> mismatches, final MatchLevel matchLevel, final DiffThresholds thresholds,
+            final List<ComparableItem> items1, final List<ComparableItem> items2)
     {
         int index1 = 0;
         while(index1 < items1.size())
@@ -118,17 +194,7 @@ public class CommonUtils
                     items2.remove(index2);
                     matched = true;
 
-                    // skip checking for diffs if the items are not reportable
-                    boolean eitherReportable = item2.reportable() || item2.reportable();
-
-                    if(matchLevel != REPORTABLE || eitherReportable)
-                    {
-                        Mismatch mismatch = item1.findMismatch(item2, matchLevel, thresholds);
-
-                        if(mismatch != null)
-                            mismatches.add(mismatch);
-                    }
-
+                    checkMatchedItems(mismatches, matchLevel, thresholds, item1, item2);
                     break;
                 }
                 else
@@ -140,16 +206,21 @@ public class CommonUtils
             if(!matched)
                 ++index1;
         }
+    }
 
-        if(items1.isEmpty() && items2.isEmpty())
-            return;
-
-        List<String> emptyDiffs = Lists.newArrayList();
+    private static void checkMatchedItems(
+            final List<Mismatch> mismatches, final MatchLevel matchLevel, final DiffThresholds thresholds,
+            final ComparableItem item1, final ComparableItem item2)
+    {
+        // skip checking for diffs if the items are not reportable
+        boolean eitherReportable = item2.reportable() || item2.reportable();
 
-        items1.stream().filter(x -> matchLevel != REPORTABLE || x.reportable())
-                .forEach(x -> mismatches.add(new Mismatch(x, null, REF_ONLY, emptyDiffs)));
+        if(matchLevel != REPORTABLE || eitherReportable)
+        {
+            Mismatch mismatch = item1.findMismatch(item2, matchLevel, thresholds);
 
-        items2.stream().filter(x -> matchLevel != REPORTABLE || x.reportable())
-                .forEach(x -> mismatches.add(new Mismatch(null, x, NEW_ONLY, emptyDiffs)));
+            if(mismatch != null)
+                mismatches.add(mismatch);
+        }
     }
 }
@@ -8,6 +8,10 @@ public interface ComparableItem
 
     boolean matches(final ComparableItem other);
 
+    // items match if and only if their match keys are equal, allowing sources to be compared by key lookup
+    // a null key means the item can only be compared via matches()
+    default String matchKey() { return null; }
+
     boolean reportable();
 
     Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds);
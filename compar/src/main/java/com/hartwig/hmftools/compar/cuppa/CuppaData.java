@@ -58,6 +58,12 @@ public class CuppaData implements ComparableItem
         return otherCuppaData.ClassifierResult.Classifier == ClassifierResult.Classifier;
     }
 
+    @Override
+    public String matchKey()
+    {
+        return mKey;
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
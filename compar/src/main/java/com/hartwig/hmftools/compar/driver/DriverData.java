@@ -81,6 +81,16 @@ public class DriverData implements ComparableItem
         return true;
     }
 
+    @Override
+    public String matchKey()
+    {
+        // Linx somatic driver types match each other, as per the type expansion above
+        String driverType = DriverType.DRIVERS_LINX_SOMATIC.contains(DriverCatalog.driver())
+                ? "LINX_SOMATIC" : DriverCatalog.driver().toString();
+
+        return DriverCatalog.gene() + "_" + driverType + "_" + DriverCatalog.transcript();
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
@@ -79,6 +79,13 @@ public class DisruptionData implements ComparableItem
         return true;
     }
 
+    @Override
+    public String matchKey()
+    {
+        return SvData.type() + "_" + SvData.startChromosome() + ":" + SvData.startPosition() + ":" + SvData.startOrientation()
+                + "_" + SvData.endChromosome() + ":" + SvData.endPosition() + ":" + SvData.endOrientation();
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
@@ -73,6 +73,12 @@ public class FusionData implements ComparableItem
         return otherFusion.GeneMappedName.equals(GeneMappedName);
     }
 
+    @Override
+    public String matchKey()
+    {
+        return GeneMappedName;
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
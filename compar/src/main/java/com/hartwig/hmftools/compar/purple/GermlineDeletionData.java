@@ -66,6 +66,12 @@ public class GermlineDeletionData implements ComparableItem
         return Deletion.GeneName.equals(otherDeletion.Deletion.GeneName);
     }
 
+    @Override
+    public String matchKey()
+    {
+        return Deletion.GeneName;
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
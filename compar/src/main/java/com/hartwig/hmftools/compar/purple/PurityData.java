@@ -91,6 +91,12 @@ public class PurityData implements ComparableItem
         return true;
     }
 
+    @Override
+    public String matchKey()
+    {
+        return "";
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
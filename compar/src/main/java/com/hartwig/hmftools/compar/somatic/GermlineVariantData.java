@@ -80,6 +80,12 @@ public class GermlineVariantData implements ComparableItem
         return true;
     }
 
+    @Override
+    public String matchKey()
+    {
+        return Variant.chromosome() + ":" + Variant.position() + "_" + Variant.ref() + ">" + Variant.alt() + "_" + Variant.type();
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
@@ -149,6 +149,12 @@ public class SomaticVariantData implements ComparableItem
         return true;
     }
 
+    @Override
+    public String matchKey()
+    {
+        return Chromosome + ":" + Position + "_" + Ref + ">" + Alt + "_" + Type;
+    }
+
     @Override
     public Mismatch findMismatch(final ComparableItem other, final MatchLevel matchLevel, final DiffThresholds thresholds)
     {
@@ -50,6 +50,35 @@ public class DriverTest
         assertEquals(1, mismatches.stream().filter(x -> x.MismatchType == MismatchType.VALUE).count());
     }
 
+    @Test
+    public void testDriverMatching()
+    {
+        List<Mismatch> mismatches = Lists.newArrayList();
+
+        ComparConfig config = new ComparConfig();
+        DriverComparer driverComparer = new DriverComparer(config);
+        driverComparer.registerThresholds(config.Thresholds);
+
+        List<ComparableItem> refItems = Lists.newArrayList();
+        List<ComparableItem> newItems = Lists.newArrayList();
+
+        // Linx disruption types match each other, and duplicates are paired in order
+        refItems.add(new DriverData(createDriverCatalog("PTEN", DriverType.DISRUPTION, 1.0, 0.5)));
+        refItems.add(new DriverData(createDriverCatalog("KRAS", DriverType.MUTATION, 0.7, 2)));
+        refItems.add(new DriverData(createDriverCatalog("KRAS", DriverType.MUTATION, 0.9, 2)));
+        refItems.add(new DriverData(createDriverCatalog("KRAS", DriverType.AMP, 0.9, 2)));
+
+        newItems.add(new DriverData(createDriverCatalog("KRAS", DriverType.MUTATION, 0.7, 2)));
+        newItems.add(new DriverData(createDriverCatalog("PTEN", DriverType.HOM_DEL_DISRUPTION, 1.0, 0.5)));
+        newItems.add(new DriverData(createDriverCatalog("KRAS", DriverType.MUTATION, 0.9, 2)));
+
+        CommonUtils.compareItems(mismatches, MatchLevel.REPORTABLE, config.Thresholds, refItems, newItems);
+
+        assertEquals(1, mismatches.size());
+        assertEquals(MismatchType.REF_ONLY, mismatches.get(0).MismatchType);
+        assertEquals(DriverType.AMP, ((DriverData)mismatches.get(0).RefItem).DriverCatalog.driver());
+    }
+
     private static DriverCatalog createDriverCatalog(final String gene, final DriverType type, double likelihood, double minCopyNumber)
     {
         return ImmutableDriverCatalog.builder()
@@ -0,0 +1,74 @@
+package com.hartwig.hmftools.cup.common;
+
+import static java.lang.Math.max;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.stats.CosineSimilarityMatrix;
+import com.hartwig.hmftools.common.utils.Matrix;
+
+public class CohortSimilarities
+{
+    // similarities of each cohort sample to every reference row, computed for a batch of consecutive samples at a time through the
+    // blocked, multi-threaded matrix path rather than one sample at a time
+    // sample tasks take samples in turn from the cohort, so only the few most recently computed batches are kept
+    private final CosineSimilarityMatrix mRefSims;
+    private final double[][] mSampleData;
+    private final int mSampleCount;
+    private final int mThreads;
+    private final int mBatchSize;
+    private final Map<Integer,double[][]> mBatches;
+
+    private static final int SAMPLES_PER_THREAD = 16;
+    private static final int MAX_CACHED_BATCHES = 4;
+
+    public CohortSimilarities(final CosineSimilarityMatrix refSims, final Matrix sampleMatrix, int threads)
+    {
+        this(refSims, sampleMatrix.getData(), sampleMatrix.Rows, threads);
+    }
+
+    public CohortSimilarities(final CosineSimilarityMatrix refSims, final double[][] sampleData, int sampleCount, int threads)
+    {
+        mRefSims = refSims;
+        mSampleData = sampleData;
+        mSampleCount = sampleCount;
+        mThreads = max(threads, 1);
+        mBatchSize = SAMPLES_PER_THREAD * mThreads;
+
+        mBatches = new LinkedHashMap<Integer,double[][]>(MAX_CACHED_BATCHES, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer,double[][]> eldest)
+            {
+                return size() > MAX_CACHED_BATCHES;
+            }
+        };
+    }
+
+    public synchronized double[] sampleSims(int sampleIndex)
+    {
+        int batchIndex = sampleIndex / mBatchSize;
+        double[][] batchSims = mBatches.get(batchIndex);
+
+        if(batchSims == null)
+        {
+            int startIndex = batchIndex * mBatchSize;
+            int endIndex = Math.min(startIndex + mBatchSize, mSampleCount);
+
+            List<double[]> samples = Lists.newArrayListWithCapacity(endIndex - startIndex);
+
+            for(int i = startIndex; i < endIndex; ++i)
+            {
+                samples.add(mSampleData[i]);
+            }
+
+            batchSims = mRefSims.calcCosineSims(samples, mThreads);
+            mBatches.put(batchIndex, batchSims);
+        }
+
+        return batchSims[sampleIndex - batchIndex * mBatchSize];
+    }
+}
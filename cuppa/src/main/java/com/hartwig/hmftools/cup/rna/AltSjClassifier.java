@@ -47,9 +47,11 @@ import java.util.Map;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.rna.AltSpliceJunctionFile;
+import com.hartwig.hmftools.common.stats.CosineSimilarityMatrix;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.cup.CuppaConfig;
 import com.hartwig.hmftools.common.cuppa.CategoryType;
+import com.hartwig.hmftools.cup.common.CohortSimilarities;
 import com.hartwig.hmftools.cup.common.CuppaClassifier;
 import com.hartwig.hmftools.cup.common.SampleData;
 import com.hartwig.hmftools.cup.common.SampleDataCache;
@@ -73,6 +75,10 @@ public class AltSjClassifier implements CuppaClassifier
     private short[][] mSampleFragCounts;
     private final Map<String,Integer> mSampleIndexMap; // map from sampleId into the sample counts matrix
 
+    // converted frag counts of every sample in the counts matrix, for pairwise similarities
+    private CosineSimilarityMatrix mSampleFragCountSims;
+    private CohortSimilarities mCohortFragCountSims; // computed in batches when running multiple samples
+
     private final Map<String,RnaCohortData> mCancerDataMap; // number of samples with specific read length in each cancer type
 
     private final double mFragCountLogValue;
@@ -103,6 +109,8 @@ public class AltSjClassifier implements CuppaClassifier
 
         mSampleIndexMap = Maps.newHashMap();
         mSampleFragCounts = null;
+        mSampleFragCountSims = null;
+        mCohortFragCountSims = null;
         mCssWriter = null;
 
         mWeightExponent = Double.parseDouble(cmd.getOptionValue(WEIGHT_EXPONENT, String.valueOf(ALT_SJ_DIFF_EXPONENT)));
@@ -195,9 +203,28 @@ public class AltSjClassifier implements CuppaClassifier
                     mRefCancerTypeMatrix.Cols, mSampleFragCounts[0].length);
         }
 
+        if(mRunPairwise)
+            buildSampleSimilarityMatrix();
+
         return true;
     }
 
+    private void buildSampleSimilarityMatrix()
+    {
+        final double[][] sampleFragCounts = new double[mSampleFragCounts.length][];
+
+        for(int i = 0; i < mSampleFragCounts.length; ++i)
+        {
+            sampleFragCounts[i] = convertSampleFragCounts(mSampleFragCounts[i]);
+        }
+
+        int siteCount = mSampleFragCounts.length > 0 ? mSampleFragCounts[0].length : 0;
+        mSampleFragCountSims = new CosineSimilarityMatrix(sampleFragCounts, sampleFragCounts.length, siteCount);
+
+        if(mSampleDataCache.isMultiSample())
+            mCohortFragCountSims = new CohortSimilarities(mSampleFragCountSims, sampleFragCounts, sampleFragCounts.length, mConfig.Threads);
+    }
+
     @Override
     public boolean processSample(final SampleData sample, final List<SampleResult> results, final List<SampleSimilarity> similarities)
     {
@@ -222,7 +249,7 @@ public class AltSjClassifier implements CuppaClassifier
         addCancerCssResults(sample, rawSampleFragCounts, adjSampleFragCounts, results);
 
         if(mRunPairwise)
-            addSampleCssResults(sample, adjSampleFragCounts, results, similarities);
+            addSampleCssResults(sample, sampleIndex, adjSampleFragCounts, results, similarities);
 
         return true;
     }
@@ -345,12 +372,17 @@ public class AltSjClassifier implements CuppaClassifier
     }
 
     private void addSampleCssResults(
-            final SampleData sample, final double[] sampleFragCounts, final List<SampleResult> results, final List<SampleSimilarity> similarities)
+            final SampleData sample, int sampleIndex, final double[] sampleFragCounts, final List<SampleResult> results,
+            final List<SampleSimilarity> similarities)
     {
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
 
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
 
+        // similarities to every sample in the counts matrix, indexed as per the sample index map
+        final double[] refSampleCss = mCohortFragCountSims != null ?
+                mCohortFragCountSims.sampleSims(sampleIndex) : mSampleFragCountSims.calcCosineSims(sampleFragCounts);
+
         int readLength = sample.rnaReadLength();
 
         for(Map.Entry<String,Integer> entry : mSampleIndexMap.entrySet())
@@ -371,13 +403,7 @@ public class AltSjClassifier implements CuppaClassifier
             if(!checkIsValidCancerType(sample, refCancerType, cancerCssTotals))
                 continue;
 
-            int refSampleCountsIndex = entry.getValue();
-
-            // TODO: cache the converted ref counts to avoid repeating this step?
-            final short[] refRawSampleFragCounts = mSampleFragCounts[refSampleCountsIndex];
-            final double[] refSampleFragCounts = convertSampleFragCounts(refRawSampleFragCounts);
-
-            double css = calcCosineSim(sampleFragCounts, refSampleFragCounts);
+            double css = refSampleCss[entry.getValue()];
 
             if(css < GENE_EXP_CSS_THRESHOLD)
                 continue;
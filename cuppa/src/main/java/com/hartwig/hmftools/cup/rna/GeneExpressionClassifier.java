@@ -36,9 +36,11 @@ import java.util.Map;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.rna.GeneExpressionFile;
+import com.hartwig.hmftools.common.stats.CosineSimilarityMatrix;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.cup.CuppaConfig;
 import com.hartwig.hmftools.common.cuppa.CategoryType;
+import com.hartwig.hmftools.cup.common.CohortSimilarities;
 import com.hartwig.hmftools.cup.common.CuppaClassifier;
 import com.hartwig.hmftools.cup.common.NoiseRefCache;
 import com.hartwig.hmftools.cup.common.SampleData;
@@ -61,6 +63,8 @@ public class GeneExpressionClassifier implements CuppaClassifier
     private final Map<String,Integer> mGeneIdIndexMap; // to ensure genes are ordered consistently in ref & sample matrices
 
     private Matrix mRefSampleGeneExpression;
+    private CosineSimilarityMatrix mRefSampleGeneExpSims; // built once the ref sample data is final
+    private CohortSimilarities mSampleGeneExpSims; // computed in batches when running multiple samples
     private final Map<String,Integer> mRefSampleGeneExpIndexMap;
 
     private Matrix mSampleGeneExpression;
@@ -83,6 +87,8 @@ public class GeneExpressionClassifier implements CuppaClassifier
         mSampleDataCache = sampleDataCache;
 
         mRefSampleGeneExpression = null;
+        mRefSampleGeneExpSims = null;
+        mSampleGeneExpSims = null;
         mRefSampleGeneExpIndexMap = Maps.newHashMap();
 
         mRefCancerSampleCounts = Maps.newHashMap();
@@ -195,6 +201,11 @@ public class GeneExpressionClassifier implements CuppaClassifier
                 NoiseRefCache.applyNoise(mSampleGeneExpression, noiseAdjustments, noiseAllocation);
         }
 
+        mRefSampleGeneExpSims = new CosineSimilarityMatrix(mRefSampleGeneExpression);
+
+        if(mSampleDataCache.isMultiSample())
+            mSampleGeneExpSims = new CohortSimilarities(mRefSampleGeneExpSims, mSampleGeneExpression, mConfig.Threads);
+
         return true;
     }
 
@@ -247,17 +258,20 @@ public class GeneExpressionClassifier implements CuppaClassifier
             addCancerCssResults(sample, sampleGeneTPMs, results);
 
         if(mRunPairwiseCss)
-            addSampleCssResults(sample, sampleGeneTPMs, results, similarities);
+            addSampleCssResults(sample, sampleCountsIndex, sampleGeneTPMs, results, similarities);
 
         return true;
     }
 
     private void addSampleCssResults(
-            final SampleData sample, final double[] sampleTPMs, final List<SampleResult> results, final List<SampleSimilarity> similarities)
+            final SampleData sample, int sampleIndex, final double[] sampleTPMs, final List<SampleResult> results,
+            final List<SampleSimilarity> similarities)
     {
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
 
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
+        final double[] refSampleCss = mSampleGeneExpSims != null ?
+                mSampleGeneExpSims.sampleSims(sampleIndex) : mRefSampleGeneExpSims.calcCosineSims(sampleTPMs);
 
         for(Map.Entry<String,List<SampleData>> refCancerEntry : mSampleDataCache.RefCancerSampleData.entrySet())
         {
@@ -281,9 +295,7 @@ public class GeneExpressionClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleTPMs = mRefSampleGeneExpression.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleTPMs, otherSampleTPMs);
+                double css = refSampleCss[refSampleIndex];
 
                 if(css < GENE_EXP_CSS_THRESHOLD)
                     continue;
@@ -61,9 +61,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.sigs.PositionFrequencies;
+import com.hartwig.hmftools.common.stats.CosineSimilarityMatrix;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.cup.CuppaConfig;
 import com.hartwig.hmftools.common.cuppa.CategoryType;
+import com.hartwig.hmftools.cup.common.CohortSimilarities;
 import com.hartwig.hmftools.cup.common.CuppaClassifier;
 import com.hartwig.hmftools.cup.common.NoiseRefCache;
 import com.hartwig.hmftools.cup.common.SampleData;
@@ -89,6 +91,14 @@ public class SomaticClassifier implements CuppaClassifier
     private Matrix mRefSampleGenPosCounts;
     private final Map<String,Integer> mRefSampleGenPosCountsIndex;
 
+    // built once the ref sample counts are final, for pairwise similarities to all ref samples
+    private CosineSimilarityMatrix mRefSampleSnv96Sims;
+    private CosineSimilarityMatrix mRefSampleGenPosSims;
+
+    // similarities of each cohort sample to all ref samples, computed in batches when running multiple samples
+    private CohortSimilarities mSampleSnv96Sims;
+    private CohortSimilarities mSampleGenPosSims;
+
     private Matrix mSampleSnv96Counts;
     private final Map<String,Integer> mSampleSnv96CountsIndex; // index of a sampleId into the sample SNV counts matrix
     private final Map<String,Integer> mSampleSnvTotals;
@@ -146,6 +156,10 @@ public class SomaticClassifier implements CuppaClassifier
         mRefCancerSnvCountPercentiles = Maps.newHashMap();
         mRefGenPosCancerTypes = Lists.newArrayList();
         mRefSampleGenPosCountsIndex = Maps.newHashMap();
+        mRefSampleSnv96Sims = null;
+        mRefSampleGenPosSims = null;
+        mSampleSnv96Sims = null;
+        mSampleGenPosSims = null;
 
         if(cmd != null)
         {
@@ -305,9 +319,24 @@ public class SomaticClassifier implements CuppaClassifier
             NoiseRefCache.applyNoise(mRefSampleGenPosCounts, noiseAdjustments, noiseAllocation);
         }
 
+        buildSimilarityMatrices();
         return true;
     }
 
+    private void buildSimilarityMatrices()
+    {
+        mRefSampleSnv96Sims = new CosineSimilarityMatrix(mRefSampleSnv96Counts);
+        mRefSampleGenPosSims = mRefSampleGenPosCounts != null ? new CosineSimilarityMatrix(mRefSampleGenPosCounts) : null;
+
+        if(!mSampleDataCache.isMultiSample())
+            return;
+
+        mSampleSnv96Sims = mSampleSnv96Counts != null ? new CohortSimilarities(mRefSampleSnv96Sims, mSampleSnv96Counts, mConfig.Threads) : null;
+
+        mSampleGenPosSims = mRefSampleGenPosSims != null && mSampleGenPosCounts != null ?
+                new CohortSimilarities(mRefSampleGenPosSims, mSampleGenPosCounts, mConfig.Threads) : null;
+    }
+
     private boolean loadSampleCounts()
     {
         int sampleCount = mSampleDataCache.SampleDataList.size();
@@ -449,6 +478,8 @@ public class SomaticClassifier implements CuppaClassifier
         }
 
         final double[] sampleCounts = mSampleSnv96Counts.getRow(sampleCountsIndex);
+        final double[] refSampleCss = mSampleSnv96Sims != null ?
+                mSampleSnv96Sims.sampleSims(sampleCountsIndex) : mRefSampleSnv96Sims.calcCosineSims(sampleCounts);
 
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
@@ -474,9 +505,7 @@ public class SomaticClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleCounts = mRefSampleSnv96Counts.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleCounts, otherSampleCounts);
+                double css = refSampleCss[refSampleIndex];
 
                 if(css < SNV_96_CSS_THRESHOLD)
                     continue;
@@ -557,7 +586,7 @@ public class SomaticClassifier implements CuppaClassifier
 
         if(mRunPairwiseGenPos)
         {
-            addPairwiseGenPosCssResults(sample, sampleCounts, sampleTotal, results, similarities);
+            addPairwiseGenPosCssResults(sample, sampleCountsIndex, sampleCounts, sampleTotal, results, similarities);
         }
         else
         {
@@ -636,11 +665,17 @@ public class SomaticClassifier implements CuppaClassifier
 
 
     private void addPairwiseGenPosCssResults(
-            final SampleData sample, final double[] sampleCounts, double snvTotal,
+            final SampleData sample, int sampleCountsIndex, final double[] sampleCounts, double snvTotal,
             final List<SampleResult> results, final List<SampleSimilarity> similarities)
     {
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
+        final double[] refSampleCss;
+
+        if(mSampleGenPosSims != null)
+            refSampleCss = mSampleGenPosSims.sampleSims(sampleCountsIndex);
+        else
+            refSampleCss = mRefSampleGenPosSims != null ? mRefSampleGenPosSims.calcCosineSims(sampleCounts) : null;
 
         double maxCssScore = 0;
 
@@ -663,9 +698,7 @@ public class SomaticClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleCounts = mRefSampleGenPosCounts.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleCounts, otherSampleCounts);
+                double css = refSampleCss[refSampleIndex];
 
                 if(css < GEN_POS_CSS_THRESHOLD)
                     continue;
@@ -691,7 +724,7 @@ public class SomaticClassifier implements CuppaClassifier
 
                 double cssWeight = pow(mGenPosCssExponent, -100 * (1 - css));
 
-                double otherSnvTotal = sumVector(otherSampleCounts);
+                double otherSnvTotal = sumVector(mRefSampleGenPosCounts.getRow(refSampleIndex));
                 double mutLoadWeight = min(otherSnvTotal, snvTotal) / max(otherSnvTotal, snvTotal);
 
                 int cancerTypeCount = mSampleDataCache.getCancerSampleCount(refCancerType);
@@ -811,6 +844,8 @@ public class SomaticClassifier implements CuppaClassifier
             mRefSampleGenPosCounts.setRow(i, posFreqCounts.get(i));
             mRefSampleGenPosCountsIndex.put(mSampleDataCache.RefSampleDataList.get(i).Id, i);
         }
+
+        buildSimilarityMatrices();
     }
 
     public void addSampleData(final List<String> sampleIds, final List<double[]> snvCounts, final List<double[]> posFreqCounts)
@@ -831,6 +866,9 @@ public class SomaticClassifier implements CuppaClassifier
             mSampleGenPosCounts.setRow(i, posFreqCounts.get(i));
             mSampleGenPosCountsIndex.put(sampleIds.get(i), i);
         }
+
+        if(mRefSampleSnv96Counts != null)
+            buildSimilarityMatrices();
     }
 
 }
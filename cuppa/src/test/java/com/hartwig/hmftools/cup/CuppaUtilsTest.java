@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.cup;
 
+import static com.hartwig.hmftools.common.stats.CosineSimilarity.calcCosineSim;
 import static com.hartwig.hmftools.cup.CuppaConfig.formSamplePath;
 import static com.hartwig.hmftools.common.cuppa.CategoryType.FEATURE;
 import static com.hartwig.hmftools.cup.common.CupCalcs.adjustRefCounts;
@@ -13,10 +14,13 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.cuppa.ClassifierType;
+import com.hartwig.hmftools.common.stats.CosineSimilarityMatrix;
+import com.hartwig.hmftools.cup.common.CohortSimilarities;
 import com.hartwig.hmftools.cup.common.SampleData;
 import com.hartwig.hmftools.cup.common.SampleDataCache;
 import com.hartwig.hmftools.cup.common.SampleResult;
@@ -143,4 +147,46 @@ public class CuppaUtilsTest
         assertEquals(0.37, combResult.CancerTypeValues.get(TEST_CT_002), 0.01);
     }
 
+    @Test
+    public void testCohortSimilarities()
+    {
+        Random random = new Random(1);
+
+        int refCount = 20;
+        int sampleCount = 40; // spans several batches
+        int cols = 96;
+
+        double[][] refData = new double[refCount][cols];
+        double[][] sampleData = new double[sampleCount][cols];
+
+        for(int r = 0; r < refCount; ++r)
+        {
+            for(int c = 0; c < cols; ++c)
+            {
+                refData[r][c] = random.nextInt(100);
+            }
+        }
+
+        for(int s = 0; s < sampleCount; ++s)
+        {
+            for(int c = 0; c < cols; ++c)
+            {
+                sampleData[s][c] = random.nextInt(100);
+            }
+        }
+
+        CohortSimilarities cohortSims = new CohortSimilarities(
+                new CosineSimilarityMatrix(refData, refCount, cols), sampleData, sampleCount, 1);
+
+        // request samples out of order and more than once, so batches are computed again once evicted
+        for(int s : new int[] { 0, 39, 17, 1, 38, 0, 25, 5 })
+        {
+            double[] sims = cohortSims.sampleSims(s);
+
+            for(int r = 0; r < refCount; ++r)
+            {
+                assertEquals(calcCosineSim(sampleData[s], refData[r]), sims[r], 0.0);
+            }
+        }
+    }
 }
@@ -5,6 +5,7 @@ import static java.lang.Math.abs;
 import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
+import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_END;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_PAIR;
 import static com.hartwig.hmftools.common.utils.sv.StartEndIterator.SE_START;
@@ -14,8 +15,8 @@ import static com.hartwig.hmftools.gripss.GripssConfig.GR_LOGGER;
 import static com.hartwig.hmftools.gripss.filters.FilterConstants.DEFAULT_PON_DISTANCE;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -25,16 +26,27 @@ import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.gripss.common.Breakend;
 import com.hartwig.hmftools.gripss.common.SvData;
+import com.hartwig.hmftools.gripss.index.ChromosomeColumns;
+import com.hartwig.hmftools.gripss.index.ColumnarIndexFile;
+import com.hartwig.hmftools.gripss.index.ColumnsBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
 
 public class PonCache
 {
-    private final Map<String,List<PonSvRegion>> mSvRegions;
-    private final Map<String,List<PonSglRegion>> mSglRegions;
+    // PON entries are held as primitive columns per chromosome, either parsed from the BED files or memory-mapped from
+    // binary index files written by ReferenceIndexer
+    private final Map<String,ChromosomeColumns> mSvRegions;
+    private final Map<String,ChromosomeColumns> mSglRegions;
+    private final Map<String,ColumnsBuilder> mSvBuilders;
+    private final Map<String,ColumnsBuilder> mSglBuilders;
     private final int mPositionMargin;
 
+    // SV end chromosomes are stored as indices into this list
+    private final List<String> mChromosomes;
+    private final Map<String,Integer> mChromosomeIndices;
+
     // keep indices into the 2 collections assuming that requests to match on the PON will be made sequentially through the genome
     private String mCurrentSvChromosome;
     private int mCurrentSvIndex;
@@ -42,10 +54,30 @@ public class PonCache
     private int mCurrentSglIndex;
     private boolean mHasValidData;
 
-    private static final String GERMLINE_PON_BED_SV_FILE = "pon_sv_file";
-    private static final String GERMLINE_PON_BED_SGL_FILE = "pon_sgl_file";
+    public static final String GERMLINE_PON_BED_SV_FILE = "pon_sv_file";
+    public static final String GERMLINE_PON_BED_SGL_FILE = "pon_sgl_file";
     private static final String GERMLINE_PON_MARGIN = "pon_margin";
 
+    // SV columns
+    private static final int SV_START_BEGIN = 0;
+    private static final int SV_START_END = 1;
+    private static final int SV_END_CHR = 2;
+    private static final int SV_END_BEGIN = 3;
+    private static final int SV_END_END = 4;
+    private static final int SV_PON_COUNT = 5;
+    private static final int SV_INT_COLUMNS = 6;
+    private static final int SV_ORIENT_START = 0;
+    private static final int SV_ORIENT_END = 1;
+    private static final int SV_BYTE_COLUMNS = 2;
+
+    // SGL columns
+    private static final int SGL_BEGIN = 0;
+    private static final int SGL_END = 1;
+    private static final int SGL_PON_COUNT = 2;
+    private static final int SGL_INT_COLUMNS = 3;
+    private static final int SGL_ORIENT = 0;
+    private static final int SGL_BYTE_COLUMNS = 1;
+
     public PonCache(final CommandLine cmd)
     {
         this(Integer.parseInt(cmd.getOptionValue(GERMLINE_PON_MARGIN, String.valueOf(DEFAULT_PON_DISTANCE))),
@@ -57,15 +89,29 @@ public class PonCache
     {
         mSvRegions = Maps.newHashMap();
         mSglRegions = Maps.newHashMap();
+        mSvBuilders = Maps.newHashMap();
+        mSglBuilders = Maps.newHashMap();
+        mChromosomes = Lists.newArrayList();
+        mChromosomeIndices = Maps.newHashMap();
         mHasValidData = true;
 
         mPositionMargin = margin;
 
         if(ponSvFile != null)
-            loadPonSvFile(ponSvFile);
+        {
+            if(ColumnarIndexFile.isIndexFile(ponSvFile))
+                loadPonSvIndex(ponSvFile);
+            else
+                loadPonSvFile(ponSvFile);
+        }
 
         if(ponSglFile != null)
-            loadPonSglFile(ponSglFile);
+        {
+            if(ColumnarIndexFile.isIndexFile(ponSglFile))
+                loadPonSglIndex(ponSglFile);
+            else
+                loadPonSglFile(ponSglFile);
+        }
 
         mCurrentSglChromosome = "";
         mCurrentSvChromosome = "";
@@ -84,7 +130,7 @@ public class PonCache
 
         if(var.isSgl())
         {
-            List<PonSglRegion> regions = mSglRegions.get(var.chromosomeStart());
+            ChromosomeColumns regions = mSglRegions.get(var.chromosomeStart());
             if(regions != null)
             {
                 if(!mCurrentSglChromosome.equals(var.chromosomeStart()))
@@ -98,7 +144,7 @@ public class PonCache
         }
         else
         {
-            List<PonSvRegion> regions = mSvRegions.get(var.chromosomeStart());
+            ChromosomeColumns regions = mSvRegions.get(var.chromosomeStart());
             if(regions != null)
             {
                 if(!mCurrentSvChromosome.equals(var.chromosomeStart()))
@@ -123,32 +169,33 @@ public class PonCache
         return margins;
     }
 
-    private int findPonMatch(final List<PonSvRegion> regions, final SvData var)
+    private int findPonMatch(final ChromosomeColumns regions, final SvData var)
     {
         final int[] marginStart = breakendMargin(var.breakendStart());
         final int[] marginEnd = breakendMargin(var.breakendEnd());
 
-        BaseRegion svStart = new BaseRegion(
-                var.posStart() + marginStart[SE_START] - mPositionMargin,
-                var.posStart() + marginStart[SE_END] + mPositionMargin);
+        int svStartLower = var.posStart() + marginStart[SE_START] - mPositionMargin;
+        int svStartUpper = var.posStart() + marginStart[SE_END] + mPositionMargin;
 
-        for(; mCurrentSvIndex < regions.size(); ++mCurrentSvIndex)
+        for(; mCurrentSvIndex < regions.Rows; ++mCurrentSvIndex)
         {
-            PonSvRegion region = regions.get(mCurrentSvIndex);
+            int regionStartBegin = regions.getInt(SV_START_BEGIN, mCurrentSvIndex);
 
-            if(region.RegionStart.overlaps(svStart))
+            if(positionsOverlap(regionStartBegin, regions.getInt(SV_START_END, mCurrentSvIndex), svStartLower, svStartUpper))
             {
                 // test the PON entries around this position
-                ChrBaseRegion svEnd = new ChrBaseRegion(
-                        var.chromosomeEnd(),
+                Integer endChrIndex = mChromosomeIndices.get(var.chromosomeEnd());
+
+                int[] svEnd = new int[] {
+                        endChrIndex != null ? endChrIndex : -1,
                         var.posEnd() + marginEnd[SE_START] - mPositionMargin,
-                        var.posEnd() + marginEnd[SE_END] + mPositionMargin);
+                        var.posEnd() + marginEnd[SE_END] + mPositionMargin };
 
-                return findPonMatch(regions, var, svStart, svEnd, mCurrentSvIndex);
+                return findPonMatch(regions, var, svStartLower, svStartUpper, svEnd, mCurrentSvIndex);
             }
 
             // exit if the PON is now past this point and retreat one position
-            if(region.RegionStart.start() > svStart.end())
+            if(regionStartBegin > svStartUpper)
                 break;
         }
 
@@ -159,7 +206,7 @@ public class PonCache
     }
 
     private int findPonMatch(
-            final List<PonSvRegion> regions, final SvData var, final BaseRegion svStart, final ChrBaseRegion svEnd, int startIndex)
+            final ChromosomeColumns regions, final SvData var, int svStartLower, int svStartUpper, final int[] svEnd, int startIndex)
     {
         // search and up and down from this entry point for a PON match
         for(int i = 0; i <= 1; ++i)
@@ -167,18 +214,25 @@ public class PonCache
             boolean searchUp = (i == 0);
             int currentIndex = startIndex;
 
-            while(currentIndex >= 0 && currentIndex < regions.size())
+            while(currentIndex >= 0 && currentIndex < regions.Rows)
             {
-                PonSvRegion region = regions.get(currentIndex);
+                int regionStartBegin = regions.getInt(SV_START_BEGIN, currentIndex);
+                int regionStartEnd = regions.getInt(SV_START_END, currentIndex);
 
-                if(searchUp && region.RegionStart.start() > svStart.end())
+                if(searchUp && regionStartBegin > svStartUpper)
                     break;
 
-                if(!searchUp && region.RegionStart.end() < svStart.start())
+                if(!searchUp && regionStartEnd < svStartLower)
                     break;
 
-                if(region.matches(svStart, svEnd, var.orientStart(), var.orientEnd()))
-                    return region.PonCount;
+                if(positionsOverlap(regionStartBegin, regionStartEnd, svStartLower, svStartUpper)
+                && regions.getInt(SV_END_CHR, currentIndex) == svEnd[0]
+                && positionsOverlap(regions.getInt(SV_END_BEGIN, currentIndex), regions.getInt(SV_END_END, currentIndex), svEnd[1], svEnd[2])
+                && regions.getByte(SV_ORIENT_START, currentIndex) == var.orientStart()
+                && regions.getByte(SV_ORIENT_END, currentIndex) == var.orientEnd())
+                {
+                    return regions.getInt(SV_PON_COUNT, currentIndex);
+                }
 
                 if(searchUp)
                     ++currentIndex;
@@ -190,26 +244,25 @@ public class PonCache
         return 0;
     }
 
-    private int findSglPonMatch(final List<PonSglRegion> regions, final SvData var)
+    private int findSglPonMatch(final ChromosomeColumns regions, final SvData var)
     {
         final int[] marginStart = breakendMargin(var.breakendStart());
 
-        BaseRegion svStart = new BaseRegion(
-                var.posStart() + marginStart[SE_START] - mPositionMargin,
-                var.posStart() + marginStart[SE_END] + mPositionMargin);
+        int svStartLower = var.posStart() + marginStart[SE_START] - mPositionMargin;
+        int svStartUpper = var.posStart() + marginStart[SE_END] + mPositionMargin;
 
-        for(; mCurrentSglIndex < regions.size(); ++mCurrentSglIndex)
+        for(; mCurrentSglIndex < regions.Rows; ++mCurrentSglIndex)
         {
-            PonSglRegion region = regions.get(mCurrentSglIndex);
+            int regionBegin = regions.getInt(SGL_BEGIN, mCurrentSglIndex);
 
-            if(region.Region.overlaps(svStart))
+            if(positionsOverlap(regionBegin, regions.getInt(SGL_END, mCurrentSglIndex), svStartLower, svStartUpper))
             {
                 // test the PON entries around this position
-                return findSglPonMatch(regions, var, svStart, mCurrentSglIndex);
+                return findSglPonMatch(regions, var, svStartLower, svStartUpper, mCurrentSglIndex);
             }
 
             // exit if the PON is now past this point and retreat one position
-            if(region.Region.start() > svStart.end())
+            if(regionBegin > svStartUpper)
             {
                 if(mCurrentSglIndex > 0)
                     --mCurrentSglIndex;
@@ -221,7 +274,7 @@ public class PonCache
         return 0;
     }
 
-    private int findSglPonMatch(final List<PonSglRegion> regions, final SvData var, final BaseRegion svStart, int startIndex)
+    private int findSglPonMatch(final ChromosomeColumns regions, final SvData var, int svStartLower, int svStartUpper, int startIndex)
     {
         // search and up and down from this entry point for a PON match
 
@@ -230,18 +283,22 @@ public class PonCache
             boolean searchUp = (i == 0);
             int currentIndex = startIndex;
 
-            while(currentIndex >= 0 && currentIndex < regions.size())
+            while(currentIndex >= 0 && currentIndex < regions.Rows)
             {
-                PonSglRegion region = regions.get(currentIndex);
+                int regionBegin = regions.getInt(SGL_BEGIN, currentIndex);
+                int regionEnd = regions.getInt(SGL_END, currentIndex);
 
-                if(searchUp && region.Region.start() > svStart.end())
+                if(searchUp && regionBegin > svStartUpper)
                     break;
 
-                if(!searchUp && region.Region.end() < svStart.start())
+                if(!searchUp && regionEnd < svStartLower)
                     break;
 
-                if(region.matches(svStart, var.orientStart()))
-                    return region.PonCount;
+                if(positionsOverlap(regionBegin, regionEnd, svStartLower, svStartUpper)
+                && regions.getByte(SGL_ORIENT, currentIndex) == var.orientStart())
+                {
+                    return regions.getInt(SGL_PON_COUNT, currentIndex);
+                }
 
                 if(searchUp)
                     ++currentIndex;
@@ -264,9 +321,7 @@ public class PonCache
 
             int itemCount = 0;
             String line = null;
-            String currentChr = "";
-            List<PonSvRegion> svRegions = null;
-            BaseRegion lastRegion = null;
+            int lastStart = -1;
 
             // fields: ChrStart,PosStartBegin,PosStartEnd,ChrEnd,PosEndBegin,PosEndEnd,Unknown,PonCount,OrientStart,OrientEnd
 
@@ -277,33 +332,35 @@ public class PonCache
                 String chrStart = items[0];
                 String chrEnd = items[3];
 
-                if(!chrStart.equals(currentChr))
+                ColumnsBuilder builder = mSvBuilders.get(chrStart);
+
+                if(builder == null)
                 {
-                    currentChr = chrStart;
-                    svRegions = Lists.newArrayList();
-                    mSvRegions.put(chrStart, svRegions);
-                    lastRegion = null;
+                    builder = new ColumnsBuilder(chrStart, SV_INT_COLUMNS, SV_BYTE_COLUMNS);
+                    mSvBuilders.put(chrStart, builder);
+                    lastStart = -1;
                 }
 
                 // note BED start position adjustment
-                BaseRegion regionStart = new BaseRegion(Integer.parseInt(items[1]) + 1, Integer.parseInt(items[2]));
-                ChrBaseRegion regionEnd = new ChrBaseRegion(chrEnd, Integer.parseInt(items[4]) + 1, Integer.parseInt(items[5]));
+                int regionStart = Integer.parseInt(items[1]) + 1;
 
-                Byte orientStart = items[8].equals("+") ? POS_ORIENT : NEG_ORIENT;
-                Byte orientEnd = items[9].equals("+") ? POS_ORIENT : NEG_ORIENT;
-                int ponCount = Integer.parseInt(items[7]);
+                addPonSvRow(
+                        builder, regionStart, Integer.parseInt(items[2]),
+                        items[8].equals("+") ? POS_ORIENT : NEG_ORIENT, chrEnd, Integer.parseInt(items[4]) + 1, Integer.parseInt(items[5]),
+                        items[9].equals("+") ? POS_ORIENT : NEG_ORIENT, Integer.parseInt(items[7]));
 
-                svRegions.add(new PonSvRegion(regionStart, orientStart, regionEnd, orientEnd, ponCount));
                 ++itemCount;
 
-                if(lastRegion != null && lastRegion.start() > regionStart.start())
+                if(lastStart > regionStart)
                 {
-                    GR_LOGGER.warn("SV PON not ordered: last({}) vs this({})", lastRegion, regionStart);
+                    GR_LOGGER.warn("SV PON not ordered: last({}) vs this({})", lastStart, regionStart);
                 }
 
-                lastRegion = regionStart;
+                lastStart = regionStart;
             }
 
+            mSvBuilders.values().forEach(x -> mSvRegions.put(x.chromosome(), x.build()));
+
             GR_LOGGER.info("loaded {} germline SV PON records from file({})", itemCount, filename);
         }
         catch(IOException e)
@@ -325,9 +382,7 @@ public class PonCache
 
             int itemCount = 0;
             String line = null;
-            String currentChr = "";
-            List<PonSglRegion> sglRegions = null;
-            BaseRegion lastRegion = null;
+            int lastStart = -1;
 
             // fields: Chr,PosBegin,PosEnd,Unknown,PonCount,Orientation
 
@@ -337,30 +392,33 @@ public class PonCache
 
                 String chr = items[0];
 
-                if(!chr.equals(currentChr))
+                ColumnsBuilder builder = mSglBuilders.get(chr);
+
+                if(builder == null)
                 {
-                    currentChr = chr;
-                    sglRegions = Lists.newArrayList();
-                    mSglRegions.put(chr, sglRegions);
-                    lastRegion = null;
+                    builder = new ColumnsBuilder(chr, SGL_INT_COLUMNS, SGL_BYTE_COLUMNS);
+                    mSglBuilders.put(chr, builder);
+                    lastStart = -1;
                 }
 
-                BaseRegion region = new BaseRegion(Integer.parseInt(items[1]) + 1, Integer.parseInt(items[2]));
+                int regionStart = Integer.parseInt(items[1]) + 1;
 
-                Byte orient = items[5].equals("+") ? POS_ORIENT : NEG_ORIENT;
-                int ponCount = Integer.parseInt(items[4]);
+                addPonSglRow(
+                        builder, regionStart, Integer.parseInt(items[2]), items[5].equals("+") ? POS_ORIENT : NEG_ORIENT,
+                        Integer.parseInt(items[4]));
 
-                sglRegions.add(new PonSglRegion(region, orient, ponCount));
                 ++itemCount;
-                
-                if(lastRegion != null && lastRegion.start() > region.start())
+
+                if(lastStart > regionStart)
                 {
-                    GR_LOGGER.warn("SGL PON not ordered: last({}) vs this({})", lastRegion, region);
+                    GR_LOGGER.warn("SGL PON not ordered: last({}) vs this({})", lastStart, regionStart);
                 }
 
-                lastRegion = region;
+                lastStart = regionStart;
             }
 
+            mSglBuilders.values().forEach(x -> mSglRegions.put(x.chromosome(), x.build()));
+
             GR_LOGGER.info("loaded {} germline SGL PON records from file({})", itemCount, filename);
         }
         catch(IOException e)
@@ -371,99 +429,154 @@ public class PonCache
         }
     }
 
-    public void addPonSvRegion(
-            final String chrStart, final BaseRegion regionStart, final Byte orientStart, final ChrBaseRegion regionEnd, final Byte orientEnd, final int ponCount)
+    private void loadPonSvIndex(final String filename)
     {
-        List<PonSvRegion> regions = mSvRegions.get(chrStart);
+        try
+        {
+            ColumnarIndexFile indexFile = ColumnarIndexFile.read(filename, ColumnarIndexFile.TYPE_PON_SV);
+
+            // adopt the index's end chromosome table
+            mChromosomes.clear();
+            mChromosomeIndices.clear();
+            indexFile.Strings.forEach(x -> chromosomeIndex(x));
 
-        if(regions == null)
+            indexFile.Chromosomes.forEach(x -> mSvRegions.put(x.Chromosome, x));
+
+            GR_LOGGER.info("loaded {} germline SV PON records from index({})",
+                    indexFile.Chromosomes.stream().mapToInt(x -> x.Rows).sum(), filename);
+        }
+        catch(IOException e)
         {
-            regions = Lists.newArrayList();
-            mSvRegions.put(chrStart, regions);
+            GR_LOGGER.error("failed to load germline SV PON index({}): {}", filename, e.toString());
+            mHasValidData = false;
         }
-
-        regions.add(new PonSvRegion(regionStart, orientStart, regionEnd, orientEnd, ponCount));
     }
 
-    public void addPonSglRegion(final String chromosome, BaseRegion region, final Byte orient, final int ponCount)
+    private void loadPonSglIndex(final String filename)
     {
-        List<PonSglRegion> regions = mSglRegions.get(chromosome);
+        try
+        {
+            ColumnarIndexFile indexFile = ColumnarIndexFile.read(filename, ColumnarIndexFile.TYPE_PON_SGL);
 
-        if(regions == null)
+            indexFile.Chromosomes.forEach(x -> mSglRegions.put(x.Chromosome, x));
+
+            GR_LOGGER.info("loaded {} germline SGL PON records from index({})",
+                    indexFile.Chromosomes.stream().mapToInt(x -> x.Rows).sum(), filename);
+        }
+        catch(IOException e)
         {
-            regions = Lists.newArrayList();
-            mSglRegions.put(chromosome, regions);
+            GR_LOGGER.error("failed to load germline SGL PON index({}): {}", filename, e.toString());
+            mHasValidData = false;
         }
-
-        regions.add(new PonSglRegion(region, orient, ponCount));
     }
 
-    public void clear()
+    public boolean writePonSvIndex(final String filename)
     {
-        mCurrentSvIndex = 0;
-        mCurrentSglIndex = 0;
-        mSvRegions.clear();
-        mSglRegions.clear();
+        return writeIndex(filename, ColumnarIndexFile.TYPE_PON_SV, mSvBuilders, SV_START_BEGIN, mChromosomes);
     }
 
-    public static void addCmdLineArgs(Options options)
+    public boolean writePonSglIndex(final String filename)
     {
-        options.addOption(GERMLINE_PON_BED_SV_FILE, true, "PON for SV positions");
-        options.addOption(GERMLINE_PON_BED_SGL_FILE, true, "PON for SGL positions");
-        options.addOption(GERMLINE_PON_MARGIN, true, "PON permitted matching position margin");
+        return writeIndex(filename, ColumnarIndexFile.TYPE_PON_SGL, mSglBuilders, SGL_BEGIN, Collections.emptyList());
     }
 
-    private class PonSvRegion
+    private static boolean writeIndex(
+            final String filename, int type, final Map<String,ColumnsBuilder> builders, int sortColumn, final List<String> strings)
     {
-        public final BaseRegion RegionStart;
-        public final Byte OrientStart;
-        public final ChrBaseRegion RegionEnd;
-        public final Byte OrientEnd;
-        public final int PonCount;
-
-        public PonSvRegion(
-                final BaseRegion regionStart, final Byte orientStart, final ChrBaseRegion regionEnd, final Byte orientEnd, final int ponCount)
+        // the sequential matching requires entries to be ordered by start position
+        List<ChromosomeColumns> chromosomes = Lists.newArrayList();
+
+        for(ColumnsBuilder builder : builders.values())
         {
-            RegionStart = regionStart;
-            OrientStart = orientStart;
-            RegionEnd = regionEnd;
-            OrientEnd = orientEnd;
-            PonCount = ponCount;
+            builder.sortByColumn(sortColumn);
+            chromosomes.add(builder.build());
         }
 
-        public boolean matches(final BaseRegion svStart, final ChrBaseRegion svEnd, byte orientStart, byte orientEnd)
+        try
         {
-            return RegionStart.overlaps(svStart) && RegionEnd.overlaps(svEnd) && OrientStart == orientStart && OrientEnd == orientEnd;
-        }
+            ColumnarIndexFile.write(filename, new ColumnarIndexFile(type, strings, chromosomes));
 
-        public String toString()
+            GR_LOGGER.info("wrote {} PON records to index({})", chromosomes.stream().mapToInt(x -> x.Rows).sum(), filename);
+            return true;
+        }
+        catch(IOException e)
         {
-            return String.format("region(%s - %s) orients(%d - %d) pon(%d)", RegionStart, RegionEnd, OrientStart, OrientEnd, PonCount);
+            GR_LOGGER.error("failed to write PON index({}): {}", filename, e.toString());
+            return false;
         }
     }
 
-    private class PonSglRegion
+    private int chromosomeIndex(final String chromosome)
     {
-        public final BaseRegion Region;
-        public final Byte Orient;
-        public final int PonCount;
+        Integer index = mChromosomeIndices.get(chromosome);
 
-        public PonSglRegion(final BaseRegion region, final Byte orient, final int ponCount)
-        {
-            Region = region;
-            Orient = orient;
-            PonCount = ponCount;
-        }
+        if(index != null)
+            return index;
 
-        public boolean matches(final BaseRegion svRegion, byte orientation)
-        {
-            return Region.overlaps(svRegion) && Orient == orientation;
-        }
+        mChromosomes.add(chromosome);
+        mChromosomeIndices.put(chromosome, mChromosomes.size() - 1);
+        return mChromosomes.size() - 1;
+    }
 
-        public String toString()
-        {
-            return String.format("region(%s) orient(%d) pon(%d)", Region, Orient, PonCount);
-        }
+    private void addPonSvRow(
+            final ColumnsBuilder builder, int startBegin, int startEnd, byte orientStart,
+            final String chrEnd, int endBegin, int endEnd, byte orientEnd, int ponCount)
+    {
+        int row = builder.addRow();
+        builder.setInt(SV_START_BEGIN, row, startBegin);
+        builder.setInt(SV_START_END, row, startEnd);
+        builder.setInt(SV_END_CHR, row, chromosomeIndex(chrEnd));
+        builder.setInt(SV_END_BEGIN, row, endBegin);
+        builder.setInt(SV_END_END, row, endEnd);
+        builder.setInt(SV_PON_COUNT, row, ponCount);
+        builder.setByte(SV_ORIENT_START, row, orientStart);
+        builder.setByte(SV_ORIENT_END, row, orientEnd);
+    }
+
+    private static void addPonSglRow(final ColumnsBuilder builder, int begin, int end, byte orient, int ponCount)
+    {
+        int row = builder.addRow();
+        builder.setInt(SGL_BEGIN, row, begin);
+        builder.setInt(SGL_END, row, end);
+        builder.setInt(SGL_PON_COUNT, row, ponCount);
+        builder.setByte(SGL_ORIENT, row, orient);
+    }
+
+    public void addPonSvRegion(
+            final String chrStart, final BaseRegion regionStart, final Byte orientStart, final ChrBaseRegion regionEnd, final Byte orientEnd, final int ponCount)
+    {
+        ColumnsBuilder builder = mSvBuilders.computeIfAbsent(chrStart, x -> new ColumnsBuilder(x, SV_INT_COLUMNS, SV_BYTE_COLUMNS));
 
+        addPonSvRow(
+                builder, regionStart.start(), regionStart.end(), orientStart,
+                regionEnd.Chromosome, regionEnd.start(), regionEnd.end(), orientEnd, ponCount);
+
+        mSvRegions.put(chrStart, builder.build());
+    }
+
+    public void addPonSglRegion(final String chromosome, BaseRegion region, final Byte orient, final int ponCount)
+    {
+        ColumnsBuilder builder = mSglBuilders.computeIfAbsent(chromosome, x -> new ColumnsBuilder(x, SGL_INT_COLUMNS, SGL_BYTE_COLUMNS));
+
+        addPonSglRow(builder, region.start(), region.end(), orient, ponCount);
+
+        mSglRegions.put(chromosome, builder.build());
+    }
+
+    public void clear()
+    {
+        mCurrentSvIndex = 0;
+        mCurrentSglIndex = 0;
+        mSvRegions.clear();
+        mSglRegions.clear();
+        mSvBuilders.clear();
+        mSglBuilders.clear();
+    }
+
+    public static void addCmdLineArgs(Options options)
+    {
+        options.addOption(GERMLINE_PON_BED_SV_FILE, true, "PON for SV positions, BED or binary index");
+        options.addOption(GERMLINE_PON_BED_SGL_FILE, true, "PON for SGL positions, BED or binary index");
+        options.addOption(GERMLINE_PON_MARGIN, true, "PON permitted matching position margin");
     }
 }
@@ -0,0 +1,30 @@
+package com.hartwig.hmftools.gripss.index;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+public class ChromosomeColumns
+{
+    // a chromosome's reference entries held as primitive columns, either on the heap or as views onto a memory-mapped index file
+    public final String Chromosome;
+    public final int Rows;
+
+    private final IntBuffer[] mIntColumns;
+    private final ByteBuffer[] mByteColumns;
+
+    public ChromosomeColumns(final String chromosome, int rows, final IntBuffer[] intColumns, final ByteBuffer[] byteColumns)
+    {
+        Chromosome = chromosome;
+        Rows = rows;
+        mIntColumns = intColumns;
+        mByteColumns = byteColumns;
+    }
+
+    public int getInt(int column, int row) { return mIntColumns[column].get(row); }
+    public byte getByte(int column, int row) { return mByteColumns[column].get(row); }
+
+    public int intColumnCount() { return mIntColumns.length; }
+    public int byteColumnCount() { return mByteColumns.length; }
+
+    public String toString() { return String.format("chr(%s) rows(%d)", Chromosome, Rows); }
+}
@@ -0,0 +1,203 @@
+package com.hartwig.hmftools.gripss.index;
+
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+public class ColumnarIndexFile
+{
+    // a binary reference index holding per-chromosome primitive columns, loaded by memory-mapping the file
+    // layout: magic, version, type, string table, chromosome count, then for each chromosome:
+    // name, rows, int column count, byte column count, the int columns, the byte columns and padding to a 4-byte boundary
+    public final int Type;
+    public final List<String> Strings; // shared values referenced by index from int columns
+    public final List<ChromosomeColumns> Chromosomes;
+
+    public static final int TYPE_PON_SV = 1;
+    public static final int TYPE_PON_SGL = 2;
+    public static final int TYPE_REPEAT_MASK = 3;
+
+    public static final String INDEX_FILE_EXTENSION = ".gix";
+
+    private static final int MAGIC = 0x47524958; // 'GRIX'
+    private static final int VERSION = 1;
+
+    public ColumnarIndexFile(final int type, final List<String> strings, final List<ChromosomeColumns> chromosomes)
+    {
+        Type = type;
+        Strings = strings;
+        Chromosomes = chromosomes;
+    }
+
+    public static boolean isIndexFile(final String filename)
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            return inputStream.readInt() == MAGIC;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    public static void write(final String filename, final ColumnarIndexFile indexFile) throws IOException
+    {
+        try(DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+        {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeInt(indexFile.Type);
+
+            outputStream.writeInt(indexFile.Strings.size());
+
+            for(String value : indexFile.Strings)
+            {
+                writeString(outputStream, value);
+            }
+
+            outputStream.writeInt(indexFile.Chromosomes.size());
+
+            for(ChromosomeColumns columns : indexFile.Chromosomes)
+            {
+                writeString(outputStream, columns.Chromosome);
+                outputStream.writeInt(columns.Rows);
+                outputStream.writeInt(columns.intColumnCount());
+                outputStream.writeInt(columns.byteColumnCount());
+
+                for(int c = 0; c < columns.intColumnCount(); ++c)
+                {
+                    for(int row = 0; row < columns.Rows; ++row)
+                    {
+                        outputStream.writeInt(columns.getInt(c, row));
+                    }
+                }
+
+                for(int c = 0; c < columns.byteColumnCount(); ++c)
+                {
+                    for(int row = 0; row < columns.Rows; ++row)
+                    {
+                        outputStream.writeByte(columns.getByte(c, row));
+                    }
+                }
+
+                writePadding(outputStream);
+            }
+        }
+    }
+
+    public static ColumnarIndexFile read(final String filename, final int expectedType) throws IOException
+    {
+        MappedByteBuffer buffer;
+
+        try(RandomAccessFile file = new RandomAccessFile(filename, "r"))
+        {
+            if(file.length() > Integer.MAX_VALUE)
+                throw new IOException(format("index file(%s) exceeds maximum mappable size", filename));
+
+            // the mapping remains valid once the channel is closed
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+
+        if(buffer.getInt() != MAGIC)
+            throw new IOException(format("file(%s) is not a reference index", filename));
+
+        int version = buffer.getInt();
+
+        if(version != VERSION)
+            throw new IOException(format("index file(%s) has unsupported version(%d)", filename, version));
+
+        int type = buffer.getInt();
+
+        if(type != expectedType)
+            throw new IOException(format("index file(%s) has type(%d) but expected(%d)", filename, type, expectedType));
+
+        int stringCount = buffer.getInt();
+        List<String> strings = Lists.newArrayListWithCapacity(stringCount);
+
+        for(int i = 0; i < stringCount; ++i)
+        {
+            strings.add(readString(buffer));
+        }
+
+        int chromosomeCount = buffer.getInt();
+        List<ChromosomeColumns> chromosomes = Lists.newArrayListWithCapacity(chromosomeCount);
+
+        for(int i = 0; i < chromosomeCount; ++i)
+        {
+            String chromosome = readString(buffer);
+            int rows = buffer.getInt();
+            IntBuffer[] intColumns = new IntBuffer[buffer.getInt()];
+            ByteBuffer[] byteColumns = new ByteBuffer[buffer.getInt()];
+
+            for(int c = 0; c < intColumns.length; ++c)
+            {
+                intColumns[c] = sliceColumn(buffer, rows * Integer.BYTES).asIntBuffer();
+            }
+
+            for(int c = 0; c < byteColumns.length; ++c)
+            {
+                byteColumns[c] = sliceColumn(buffer, rows);
+            }
+
+            skipPadding(buffer);
+
+            chromosomes.add(new ChromosomeColumns(chromosome, rows, intColumns, byteColumns));
+        }
+
+        return new ColumnarIndexFile(type, Collections.unmodifiableList(strings), chromosomes);
+    }
+
+    private static ByteBuffer sliceColumn(final ByteBuffer buffer, int length)
+    {
+        ByteBuffer column = buffer.duplicate();
+        column.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return column.slice();
+    }
+
+    private static void writeString(final DataOutputStream outputStream, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeShort(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writePadding(final DataOutputStream outputStream) throws IOException
+    {
+        while((outputStream.size() % Integer.BYTES) != 0)
+        {
+            outputStream.writeByte(0);
+        }
+    }
+
+    private static void skipPadding(final ByteBuffer buffer)
+    {
+        while((buffer.position() % Integer.BYTES) != 0)
+        {
+            buffer.get();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hartwig.hmftools.gripss.index;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+public class ColumnsBuilder
+{
+    // accumulates a chromosome's entries as rows of primitive columns
+    private final String mChromosome;
+    private final int[][] mIntColumns;
+    private final byte[][] mByteColumns;
+    private int mRows;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public ColumnsBuilder(final String chromosome, int intColumnCount, int byteColumnCount)
+    {
+        mChromosome = chromosome;
+        mIntColumns = new int[intColumnCount][INITIAL_CAPACITY];
+        mByteColumns = new byte[byteColumnCount][INITIAL_CAPACITY];
+        mRows = 0;
+    }
+
+    public String chromosome() { return mChromosome; }
+    public int rows() { return mRows; }
+
+    public int addRow()
+    {
+        if(mRows == capacity())
+        {
+            int newCapacity = capacity() * 2;
+
+            for(int i = 0; i < mIntColumns.length; ++i)
+            {
+                mIntColumns[i] = Arrays.copyOf(mIntColumns[i], newCapacity);
+            }
+
+            for(int i = 0; i < mByteColumns.length; ++i)
+            {
+                mByteColumns[i] = Arrays.copyOf(mByteColumns[i], newCapacity);
+            }
+        }
+
+        return mRows++;
+    }
+
+    public void setInt(int column, int row, int value) { mIntColumns[column][row] = value; }
+    public void setByte(int column, int row, byte value) { mByteColumns[column][row] = value; }
+
+    public int getInt(int column, int row) { return mIntColumns[column][row]; }
+
+    private int capacity() { return mIntColumns.length > 0 ? mIntColumns[0].length : mByteColumns[0].length; }
+
+    public void sortByColumn(int column)
+    {
+        // stable sort of all columns by the values in one integer column
+        Integer[] order = new Integer[mRows];
+
+        for(int i = 0; i < mRows; ++i)
+        {
+            order[i] = i;
+        }
+
+        final int[] sortValues = mIntColumns[column];
+        Arrays.sort(order, Comparator.comparingInt(x -> sortValues[x]));
+
+        for(int c = 0; c < mIntColumns.length; ++c)
+        {
+            int[] sorted = new int[capacity()];
+
+            for(int i = 0; i < mRows; ++i)
+            {
+                sorted[i] = mIntColumns[c][order[i]];
+            }
+
+            mIntColumns[c] = sorted;
+        }
+
+        for(int c = 0; c < mByteColumns.length; ++c)
+        {
+            byte[] sorted = new byte[capacity()];
+
+            for(int i = 0; i < mRows; ++i)
+            {
+                sorted[i] = mByteColumns[c][order[i]];
+            }
+
+            mByteColumns[c] = sorted;
+        }
+    }
+
+    public ChromosomeColumns build()
+    {
+        // wraps the current arrays without copying, so later rows require a new build
+        IntBuffer[] intColumns = new IntBuffer[mIntColumns.length];
+        ByteBuffer[] byteColumns = new ByteBuffer[mByteColumns.length];
+
+        for(int i = 0; i < intColumns.length; ++i)
+        {
+            intColumns[i] = IntBuffer.wrap(mIntColumns[i], 0, mRows);
+        }
+
+        for(int i = 0; i < byteColumns.length; ++i)
+        {
+            byteColumns[i] = ByteBuffer.wrap(mByteColumns[i], 0, mRows);
+        }
+
+        return new ChromosomeColumns(mChromosome, mRows, intColumns, byteColumns);
+    }
+}
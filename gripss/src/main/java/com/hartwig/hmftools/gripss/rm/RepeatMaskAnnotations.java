@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.gripss.rm;
 
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
+import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
 import static com.hartwig.hmftools.gripss.GripssConfig.GR_LOGGER;
 import static com.hartwig.hmftools.gripss.rm.AlignmentData.fromInsertSequenceAlignments;
 
@@ -8,19 +9,24 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.utils.sv.BaseRegion;
+import com.hartwig.hmftools.gripss.index.ChromosomeColumns;
+import com.hartwig.hmftools.gripss.index.ColumnarIndexFile;
+import com.hartwig.hmftools.gripss.index.ColumnsBuilder;
 
 import org.apache.commons.cli.Options;
 
 public class RepeatMaskAnnotations
 {
-    private final Map<String,List<RepeatMaskData>> mChrDataMap;
+    private final Map<String,ChromosomeColumns> mChrDataMap;
+    private final Map<String,ColumnsBuilder> mBuilders; // only populated when loading from the text file
+    private final List<String> mStrings; // repeat and class type values, referenced by index
+    private final Map<String,Integer> mStringIndices;
 
     public static final String REPEAT_MASK_FILE = "repeat_mask_file";
     public static final String REPEAT_MASK_FILE_DESC = "Repeat mask definitions file";
@@ -29,6 +35,17 @@ public class RepeatMaskAnnotations
     private static final double MIN_COVERAGE_PERC = 0.1;
     private static final double POLY_A_T_PERC = 0.9;
 
+    // columns
+    private static final int COL_BEGIN = 0;
+    private static final int COL_END = 1;
+    private static final int COL_ID = 2;
+    private static final int COL_SW_SCORE = 3;
+    private static final int COL_REPEAT = 4;
+    private static final int COL_CLASS_TYPE = 5;
+    private static final int INT_COLUMNS = 6;
+    private static final int COL_ORIENTATION = 0;
+    private static final int BYTE_COLUMNS = 1;
+
     private static final RepeatMaskData POLY_T_DATA = new RepeatMaskData(
             0, new BaseRegion(0, 1), 0, ' ', "T(n)", "Simple_repeat");
 
@@ -38,6 +55,9 @@ public class RepeatMaskAnnotations
     public RepeatMaskAnnotations()
     {
         mChrDataMap = Maps.newHashMap();
+        mBuilders = Maps.newHashMap();
+        mStrings = Lists.newArrayList();
+        mStringIndices = Maps.newHashMap();
     }
 
     public static void addCmdLineArgs(Options options)
@@ -121,26 +141,32 @@ public class RepeatMaskAnnotations
 
     public List<RepeatMaskData> findMatches(final String chromosome, final BaseRegion region)
     {
-        List<RepeatMaskData> regions = mChrDataMap.get(chromosome);
+        ChromosomeColumns regions = mChrDataMap.get(chromosome);
+
+        List<RepeatMaskData> matchedRegions = Lists.newArrayList();
+
+        if(regions == null || regions.Rows == 0)
+            return matchedRegions;
 
-        if(regions == null)
-            return Lists.newArrayList();
+        if(regions.Rows < 100)
+        {
+            for(int i = 0; i < regions.Rows; ++i)
+            {
+                if(overlaps(regions, i, region))
+                    matchedRegions.add(createData(regions, i));
+            }
 
-        if(regions.size() < 100)
-            return regions.stream().filter(x -> x.Region.overlaps(region)).collect(Collectors.toList());
+            return matchedRegions;
+        }
 
         // use a binary search since the number of entries is typically > 100K per chromosome
-        int currentIndex = regions.size() / 2;
+        int currentIndex = regions.Rows / 2;
         int lowerIndex = 0;
-        int upperIndex = regions.size() - 1;
-
-        List<RepeatMaskData> matchedRegions = Lists.newArrayList();
+        int upperIndex = regions.Rows - 1;
 
         while(true)
         {
-            RepeatMaskData rmData = regions.get(currentIndex);
-
-            if(region.end() < rmData.Region.start())
+            if(region.end() < regions.getInt(COL_BEGIN, currentIndex))
             {
                 if(lowerIndex + 1 == currentIndex)
                     break;
@@ -148,7 +174,7 @@ public class RepeatMaskAnnotations
                 upperIndex = currentIndex;
                 currentIndex = (lowerIndex + upperIndex) / 2;
             }
-            else if(region.start() > rmData.Region.end())
+            else if(region.start() > regions.getInt(COL_END, currentIndex))
             {
                 // search higher
                 if(currentIndex + 1 == upperIndex)
@@ -157,9 +183,9 @@ public class RepeatMaskAnnotations
                 lowerIndex = currentIndex;
                 currentIndex = (lowerIndex + upperIndex) / 2;
             }
-            else if(rmData.Region.overlaps(region))
+            else if(overlaps(regions, currentIndex, region))
             {
-                matchedRegions.add(rmData);
+                matchedRegions.add(createData(regions, currentIndex));
                 break;
             }
         }
@@ -171,14 +197,12 @@ public class RepeatMaskAnnotations
 
             int index = searchUp ? currentIndex + 1 : currentIndex - 1;
 
-            while(index >= 0 && index < regions.size())
+            while(index >= 0 && index < regions.Rows)
             {
-                RepeatMaskData rmData = regions.get(index);
-
-                if(!rmData.Region.overlaps(region))
+                if(!overlaps(regions, index, region))
                     break;
 
-                matchedRegions.add(rmData);
+                matchedRegions.add(createData(regions, index));
 
                 if(searchUp)
                     ++index;
@@ -190,18 +214,47 @@ public class RepeatMaskAnnotations
         return matchedRegions;
     }
 
+    private static boolean overlaps(final ChromosomeColumns regions, int row, final BaseRegion region)
+    {
+        return positionsOverlap(regions.getInt(COL_BEGIN, row), regions.getInt(COL_END, row), region.start(), region.end());
+    }
+
+    private RepeatMaskData createData(final ChromosomeColumns regions, int row)
+    {
+        // only matched entries are materialised as objects
+        return new RepeatMaskData(
+                regions.getInt(COL_ID, row), new BaseRegion(regions.getInt(COL_BEGIN, row), regions.getInt(COL_END, row)),
+                regions.getInt(COL_SW_SCORE, row), (char)regions.getByte(COL_ORIENTATION, row),
+                mStrings.get(regions.getInt(COL_REPEAT, row)), mStrings.get(regions.getInt(COL_CLASS_TYPE, row)));
+    }
+
+    private int stringIndex(final String value)
+    {
+        Integer index = mStringIndices.get(value);
+
+        if(index != null)
+            return index;
+
+        mStrings.add(value);
+        mStringIndices.put(value, mStrings.size() - 1);
+        return mStrings.size() - 1;
+    }
+
     public boolean load(final String filename, final RefGenomeVersion refGenomeVersion)
     {
         if(filename == null)
             return true;
 
+        if(ColumnarIndexFile.isIndexFile(filename))
+            return loadIndex(filename, refGenomeVersion);
+
         try
         {
             BufferedReader fileReader = createBufferedReader(filename);
 
             String line = null;
             String currentChr = "";
-            List<RepeatMaskData> entries = null;
+            ColumnsBuilder entries = null;
             int index = 0;
 
             // first 3 lines contain the header, then expect columns as:
@@ -225,21 +278,29 @@ public class RepeatMaskAnnotations
                 if(!chromosome.equals(currentChr))
                 {
                     currentChr = chromosome;
-                    entries = Lists.newArrayList();
-                    mChrDataMap.put(chromosome, entries);
+                    entries = new ColumnsBuilder(chromosome, INT_COLUMNS, BYTE_COLUMNS);
+                    mBuilders.put(chromosome, entries);
                 }
 
                 try
                 {
                     // note BED start position adjustment
-                    BaseRegion region = new BaseRegion(Integer.parseInt(values[5]) + 1, Integer.parseInt(values[6]));
+                    int regionStart = Integer.parseInt(values[5]) + 1;
+                    int regionEnd = Integer.parseInt(values[6]);
                     int id = Integer.parseInt(values[14]);
                     int swScore = Integer.parseInt(values[0]);
                     char orientation = values[8].charAt(0);
                     String classType = values[10];
                     String repeat = values[9];
 
-                    entries.add(new RepeatMaskData(id, region, swScore, orientation, repeat, classType));
+                    int row = entries.addRow();
+                    entries.setInt(COL_BEGIN, row, regionStart);
+                    entries.setInt(COL_END, row, regionEnd);
+                    entries.setInt(COL_ID, row, id);
+                    entries.setInt(COL_SW_SCORE, row, swScore);
+                    entries.setInt(COL_REPEAT, row, stringIndex(repeat));
+                    entries.setInt(COL_CLASS_TYPE, row, stringIndex(classType));
+                    entries.setByte(COL_ORIENTATION, row, (byte)orientation);
                 }
                 catch(Exception e)
                 {
@@ -250,8 +311,10 @@ public class RepeatMaskAnnotations
                 ++index;
             }
 
+            mBuilders.values().forEach(x -> mChrDataMap.put(x.chromosome(), x.build()));
+
             GR_LOGGER.info("loaded {} repeat-mask entries from file({})",
-                    mChrDataMap.values().stream().mapToInt(x -> x.size()).sum(), filename);
+                    mChrDataMap.values().stream().mapToInt(x -> x.Rows).sum(), filename);
         }
         catch(IOException e)
         {
@@ -261,4 +324,59 @@ public class RepeatMaskAnnotations
 
         return true;
     }
+
+    private boolean loadIndex(final String filename, final RefGenomeVersion refGenomeVersion)
+    {
+        try
+        {
+            ColumnarIndexFile indexFile = ColumnarIndexFile.read(filename, ColumnarIndexFile.TYPE_REPEAT_MASK);
+
+            mStrings.clear();
+            mStringIndices.clear();
+            indexFile.Strings.forEach(x -> stringIndex(x));
+
+            for(ChromosomeColumns columns : indexFile.Chromosomes)
+            {
+                String chromosome = refGenomeVersion.versionedChromosome(columns.Chromosome);
+
+                if(HumanChromosome.contains(chromosome))
+                    mChrDataMap.put(chromosome, columns);
+            }
+
+            GR_LOGGER.info("loaded {} repeat-mask entries from index({})",
+                    mChrDataMap.values().stream().mapToInt(x -> x.Rows).sum(), filename);
+        }
+        catch(IOException e)
+        {
+            GR_LOGGER.error("failed to load repeat-mask index({}): {}", filename, e.toString());
+            return false;
+        }
+
+        return true;
+    }
+
+    public boolean writeIndex(final String filename)
+    {
+        // the binary search requires entries to be ordered by start position
+        List<ChromosomeColumns> chromosomes = Lists.newArrayList();
+
+        for(ColumnsBuilder builder : mBuilders.values())
+        {
+            builder.sortByColumn(COL_BEGIN);
+            chromosomes.add(builder.build());
+        }
+
+        try
+        {
+            ColumnarIndexFile.write(filename, new ColumnarIndexFile(ColumnarIndexFile.TYPE_REPEAT_MASK, mStrings, chromosomes));
+
+            GR_LOGGER.info("wrote {} repeat-mask entries to index({})", chromosomes.stream().mapToInt(x -> x.Rows).sum(), filename);
+            return true;
+        }
+        catch(IOException e)
+        {
+            GR_LOGGER.error("failed to write repeat-mask index({}): {}", filename, e.toString());
+            return false;
+        }
+    }
 }
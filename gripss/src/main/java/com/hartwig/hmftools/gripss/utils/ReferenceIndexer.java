@@ -0,0 +1,130 @@
+package com.hartwig.hmftools.gripss.utils;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION_CFG_DESC;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.OUTPUT_DIR;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.gripss.GripssConfig.GR_LOGGER;
+import static com.hartwig.hmftools.gripss.PonCache.GERMLINE_PON_BED_SGL_FILE;
+import static com.hartwig.hmftools.gripss.PonCache.GERMLINE_PON_BED_SV_FILE;
+import static com.hartwig.hmftools.gripss.index.ColumnarIndexFile.INDEX_FILE_EXTENSION;
+import static com.hartwig.hmftools.gripss.rm.RepeatMaskAnnotations.REPEAT_MASK_FILE;
+
+import java.nio.file.Paths;
+
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.gripss.PonCache;
+import com.hartwig.hmftools.gripss.index.ColumnarIndexFile;
+import com.hartwig.hmftools.gripss.rm.RepeatMaskAnnotations;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jetbrains.annotations.NotNull;
+
+public class ReferenceIndexer
+{
+    // converts the text PON and repeat-mask files into binary index files, which Gripss memory-maps when passed
+    // in place of the text files
+    private final String mPonSvFile;
+    private final String mPonSglFile;
+    private final String mRepeatMaskFile;
+    private final RefGenomeVersion mRefGenVersion;
+    private final String mOutputDir;
+
+    public ReferenceIndexer(final CommandLine cmd)
+    {
+        mPonSvFile = cmd.getOptionValue(GERMLINE_PON_BED_SV_FILE);
+        mPonSglFile = cmd.getOptionValue(GERMLINE_PON_BED_SGL_FILE);
+        mRepeatMaskFile = cmd.getOptionValue(REPEAT_MASK_FILE);
+        mRefGenVersion = RefGenomeVersion.from(cmd.getOptionValue(REF_GENOME_VERSION, V37.toString()));
+        mOutputDir = parseOutputDir(cmd);
+    }
+
+    public boolean run()
+    {
+        if(mPonSvFile != null || mPonSglFile != null)
+        {
+            PonCache ponCache = new PonCache(0, textFile(mPonSvFile), textFile(mPonSglFile));
+
+            if(!ponCache.hasValidData())
+                return false;
+
+            if(mPonSvFile != null && !ponCache.writePonSvIndex(indexFilename(mPonSvFile)))
+                return false;
+
+            if(mPonSglFile != null && !ponCache.writePonSglIndex(indexFilename(mPonSglFile)))
+                return false;
+        }
+
+        if(textFile(mRepeatMaskFile) != null)
+        {
+            RepeatMaskAnnotations repeatMaskAnnotations = new RepeatMaskAnnotations();
+
+            if(!repeatMaskAnnotations.load(mRepeatMaskFile, mRefGenVersion))
+                return false;
+
+            if(!repeatMaskAnnotations.writeIndex(indexFilename(mRepeatMaskFile)))
+                return false;
+        }
+
+        GR_LOGGER.info("Gripss reference indexing complete");
+        return true;
+    }
+
+    private static String textFile(final String filename)
+    {
+        if(filename == null)
+            return null;
+
+        if(ColumnarIndexFile.isIndexFile(filename))
+        {
+            GR_LOGGER.warn("file({}) is already an index", filename);
+            return null;
+        }
+
+        return filename;
+    }
+
+    private String indexFilename(final String inputFile)
+    {
+        // written alongside the input file unless an output directory is specified
+        if(mOutputDir == null)
+            return inputFile + INDEX_FILE_EXTENSION;
+
+        return mOutputDir + Paths.get(inputFile).getFileName().toString() + INDEX_FILE_EXTENSION;
+    }
+
+    public static void main(@NotNull final String[] args) throws ParseException
+    {
+        final Options options = new Options();
+        PonCache.addCmdLineArgs(options);
+        RepeatMaskAnnotations.addCmdLineArgs(options);
+        options.addOption(REF_GENOME_VERSION, true, REF_GENOME_VERSION_CFG_DESC);
+        options.addOption(OUTPUT_DIR, true, "Output directory for index files");
+        addLoggingOptions(options);
+
+        final CommandLine cmd = createCommandLine(args, options);
+
+        setLogLevel(cmd);
+
+        GR_LOGGER.info("running Gripss reference indexer");
+
+        ReferenceIndexer referenceIndexer = new ReferenceIndexer(cmd);
+
+        if(!referenceIndexer.run())
+            System.exit(1);
+    }
+
+    @NotNull
+    private static CommandLine createCommandLine(@NotNull final String[] args, @NotNull final Options options) throws ParseException
+    {
+        final CommandLineParser parser = new DefaultParser();
+        return parser.parse(options, args);
+    }
+}
@@ -3,18 +3,24 @@ package com.hartwig.hmftools.gripss;
 import static com.hartwig.hmftools.common.utils.sv.SvCommonUtils.NEG_ORIENT;
 import static com.hartwig.hmftools.common.utils.sv.SvCommonUtils.POS_ORIENT;
 import static com.hartwig.hmftools.gripss.GripssTestUtils.CHR_1;
+import static com.hartwig.hmftools.gripss.GripssTestUtils.CHR_2;
 import static com.hartwig.hmftools.gripss.common.VcfUtils.VT_CIPOS;
 import static com.hartwig.hmftools.gripss.common.VcfUtils.VT_IHOMPOS;
+import static com.hartwig.hmftools.gripss.index.ColumnarIndexFile.INDEX_FILE_EXTENSION;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.gripss.common.SvData;
+import com.hartwig.hmftools.gripss.index.ColumnarIndexFile;
 
 import org.junit.Test;
 
@@ -147,4 +153,39 @@ public class PonTest
 
         assertTrue(mPonCache.getPonCount(var) > 0);
     }
+
+    @Test
+    public void testPonIndexFiles() throws IOException
+    {
+        // entries added out of order are sorted when the index is written
+        mPonCache.addPonSvRegion(
+                CHR_1, new BaseRegion(2100, 2110), POS_ORIENT, new ChrBaseRegion(CHR_2, 500, 510), NEG_ORIENT, 3);
+
+        mPonCache.addPonSvRegion(
+                CHR_1, new BaseRegion(100, 110), POS_ORIENT, new ChrBaseRegion(CHR_1, 1000, 1010), NEG_ORIENT, 2);
+
+        mPonCache.addPonSglRegion(CHR_1, new BaseRegion(100, 110), POS_ORIENT, 4);
+
+        File svIndex = File.createTempFile("pon_sv", INDEX_FILE_EXTENSION);
+        File sglIndex = File.createTempFile("pon_sgl", INDEX_FILE_EXTENSION);
+        svIndex.deleteOnExit();
+        sglIndex.deleteOnExit();
+
+        assertTrue(mPonCache.writePonSvIndex(svIndex.getAbsolutePath()));
+        assertTrue(mPonCache.writePonSglIndex(sglIndex.getAbsolutePath()));
+        assertTrue(ColumnarIndexFile.isIndexFile(svIndex.getAbsolutePath()));
+
+        PonCache ponCache = new PonCache(2, svIndex.getAbsolutePath(), sglIndex.getAbsolutePath());
+        assertTrue(ponCache.hasValidData());
+
+        assertEquals(2, ponCache.getPonCount(mGripss.createDel(CHR_1, 105, 1005, null, null)));
+        assertEquals(0, ponCache.getPonCount(mGripss.createDel(CHR_1, 105, 1500, null, null)));
+        assertEquals(3, ponCache.getPonCount(mGripss.createBnd(CHR_1, CHR_2, 2105, 505, POS_ORIENT, NEG_ORIENT, null, null)));
+
+        SvData var = GripssTestUtils.createSgl(
+                mGripss.IdGen.nextEventId(), CHR_1, 105, POS_ORIENT, "",
+                mGripss.GenotypeIds, null, null, null);
+
+        assertEquals(4, ponCache.getPonCount(var));
+    }
 }
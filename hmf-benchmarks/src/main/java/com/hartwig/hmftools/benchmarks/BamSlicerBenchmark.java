@@ -0,0 +1,83 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.SyntheticFixtures.CHROMOSOME;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.samtools.BamSlicer;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import htsjdk.samtools.SamReader;
+
+// BAM decoding and filtering through the shared slicer, for a single large region and for many small panel-like regions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BamSlicerBenchmark
+{
+    private static final int REF_LENGTH = 500_000;
+    private static final int DEPTH = 60;
+    private static final int SMALL_REGION_LENGTH = 200;
+    private static final int SMALL_REGION_SPACING = 2_000;
+
+    private SyntheticFixtures mFixtures;
+    private SamReader mSamReader;
+    private BamSlicer mBamSlicer;
+    private List<ChrBaseRegion> mFullRegion;
+    private List<ChrBaseRegion> mSmallRegions;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        mFixtures = SyntheticFixtures.dnaFixtures(REF_LENGTH, DEPTH);
+        mSamReader = mFixtures.openBam();
+        mBamSlicer = new BamSlicer(0);
+
+        mFullRegion = Lists.newArrayList(new ChrBaseRegion(CHROMOSOME, 1, REF_LENGTH));
+        mSmallRegions = Lists.newArrayList();
+
+        for(int start = 1; start + SMALL_REGION_LENGTH <= REF_LENGTH; start += SMALL_REGION_SPACING)
+        {
+            mSmallRegions.add(new ChrBaseRegion(CHROMOSOME, start, start + SMALL_REGION_LENGTH - 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        mSamReader.close();
+        mFixtures.delete();
+    }
+
+    @Benchmark
+    public void sliceRegion(final Blackhole blackhole)
+    {
+        mBamSlicer.slice(mSamReader, mFullRegion, blackhole::consume);
+    }
+
+    @Benchmark
+    public void sliceSmallRegions(final Blackhole blackhole)
+    {
+        mBamSlicer.slice(mSamReader, mSmallRegions, blackhole::consume);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.cobalt.CobaltConstants.ROLLING_MEDIAN_MAX_DISTANCE;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.cobalt.ratio.RollingMedian;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// the rolling median used for diploid ratio normalisation, sliding over a chromosome's worth of 1K window ratios
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CobaltBenchmark
+{
+    private static final int RATIO_COUNT = 100_000;
+    private static final long SEED = 42;
+
+    private double[] mRatios;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        final Random random = new Random(SEED);
+        mRatios = new double[RATIO_COUNT];
+
+        for(int i = 0; i < RATIO_COUNT; ++i)
+        {
+            mRatios[i] = Math.max(1 + 0.2 * random.nextGaussian(), 0.01);
+        }
+    }
+
+    @Benchmark
+    public void rollingMedian(final Blackhole blackhole)
+    {
+        final RollingMedian rollingMedian = new RollingMedian();
+
+        for(int i = 0; i < mRatios.length; ++i)
+        {
+            rollingMedian.add(mRatios[i]);
+
+            if(i > 2 * ROLLING_MEDIAN_MAX_DISTANCE)
+                rollingMedian.remove(mRatios[i - 2 * ROLLING_MEDIAN_MAX_DISTANCE - 1]);
+
+            blackhole.consume(rollingMedian.median());
+        }
+    }
+}
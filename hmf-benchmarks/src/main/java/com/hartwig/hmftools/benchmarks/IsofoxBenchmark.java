@@ -0,0 +1,126 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.SyntheticFixtures.CHROMOSOME;
+import static com.hartwig.hmftools.isofox.IsofoxFunction.TRANSCRIPT_COUNTS;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.gene.ExonData;
+import com.hartwig.hmftools.common.gene.GeneData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.isofox.BamFragmentAllocator;
+import com.hartwig.hmftools.isofox.IsofoxConfig;
+import com.hartwig.hmftools.isofox.common.GeneCollection;
+import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.ReadRecord;
+import com.hartwig.hmftools.isofox.results.ResultsWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.samtools.SAMRecord;
+
+// fragment allocation to transcripts for a gene with two splice isoforms, with spliced read pairs sampled from the longer one
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class IsofoxBenchmark
+{
+    private static final int REF_LENGTH = 60_000;
+    private static final int DEPTH = 1_000;
+
+    private static final String GENE_ID = "ENSG0001";
+    private static final int EXON_COUNT = 10;
+    private static final int EXON_LENGTH = 300;
+    private static final int EXON_SPACING = 5_000;
+
+    private SyntheticFixtures mFixtures;
+    private IsofoxConfig mConfig;
+    private BamFragmentAllocator mFragmentAllocator;
+    private GeneData mGeneData;
+    private List<TranscriptData> mTranscripts;
+    private List<SAMRecord> mReads;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        final TranscriptData fullTranscript = createTranscript(1, false);
+        final TranscriptData skippingTranscript = createTranscript(2, true);
+
+        mTranscripts = Lists.newArrayList(fullTranscript, skippingTranscript);
+
+        mGeneData = new GeneData(
+                GENE_ID, GENE_ID, CHROMOSOME, (byte)1, fullTranscript.TransStart, fullTranscript.TransEnd, "");
+
+        final List<int[]> exons = Lists.newArrayList();
+        fullTranscript.exons().forEach(x -> exons.add(new int[] { x.Start, x.End }));
+
+        mFixtures = SyntheticFixtures.rnaFixtures(REF_LENGTH, DEPTH, exons);
+        mReads = mFixtures.readRecords();
+
+        mConfig = new IsofoxConfig();
+        mConfig.Functions.clear();
+        mConfig.Functions.add(TRANSCRIPT_COUNTS);
+
+        mFragmentAllocator = new BamFragmentAllocator(mConfig, new ResultsWriter(mConfig));
+    }
+
+    private static TranscriptData createTranscript(int transId, boolean skipExons)
+    {
+        int transStart = EXON_SPACING;
+        int transEnd = EXON_SPACING * EXON_COUNT + EXON_LENGTH - 1;
+
+        TranscriptData transData = new TranscriptData(
+                transId, "TRANS0" + transId, GENE_ID, !skipExons, (byte)1, transStart, transEnd, null, null, "");
+
+        for(int rank = 1; rank <= EXON_COUNT; ++rank)
+        {
+            // the alternate isoform skips every third exon
+            if(skipExons && rank % 3 == 0)
+                continue;
+
+            int exonStart = EXON_SPACING * rank;
+            transData.exons().add(new ExonData(transId, exonStart, exonStart + EXON_LENGTH - 1, rank, -1, -1));
+        }
+
+        return transData;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mFixtures.delete();
+    }
+
+    @Benchmark
+    public GeneCollection bamFragmentAllocator()
+    {
+        // gene collections accumulate fragment counts, so are created for each invocation
+        GeneReadData geneReadData = new GeneReadData(mGeneData);
+        geneReadData.setTranscripts(mTranscripts);
+        GeneCollection geneCollection = new GeneCollection(0, Lists.newArrayList(geneReadData));
+
+        final List<ReadRecord> reads = Lists.newArrayListWithExpectedSize(mReads.size());
+        mReads.forEach(x -> reads.add(ReadRecord.from(x)));
+
+        mFragmentAllocator.clearCache();
+        mFragmentAllocator.processReadRecords(geneCollection, reads);
+        return geneCollection;
+    }
+}
@@ -0,0 +1,196 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.common.codon.Codons.isStopCodon;
+import static com.hartwig.hmftools.lilac.LilacConstants.GENE_A;
+import static com.hartwig.hmftools.lilac.LilacConstants.HLA_A;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.codon.Codons;
+import com.hartwig.hmftools.lilac.coverage.FragmentAlleleMapper;
+import com.hartwig.hmftools.lilac.coverage.FragmentAlleles;
+import com.hartwig.hmftools.lilac.fragment.Fragment;
+import com.hartwig.hmftools.lilac.hla.HlaAllele;
+import com.hartwig.hmftools.lilac.seq.HlaSequenceLoci;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// matching of fragments to candidate alleles in both nucleotide and amino acid space, for a set of alleles which
+// differ from a common sequence at heterozygous loci, with fragments sampled from those alleles
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LilacBenchmark
+{
+    private static final int ALLELE_COUNT = 200;
+    private static final int AMINO_ACID_LENGTH = 365;
+    private static final int HET_LOCUS_SPACING = 6;
+    private static final int HET_LOCUS_VARIANTS = 3;
+    private static final int FRAGMENT_COUNT = 5_000;
+    private static final int FRAGMENT_LENGTH = 150;
+    private static final long SEED = 42;
+
+    private List<HlaSequenceLoci> mAminoAcidSequences;
+    private List<HlaSequenceLoci> mNucleotideSequences;
+    private Map<String,Map<Integer,Set<String>>> mGeneAminoAcidHetLoci;
+    private Map<String,List<Integer>> mRefNucleotideHetLoci;
+    private List<Set<String>> mRefNucleotides;
+    private List<Fragment> mFragments;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        final Random random = new Random(SEED);
+
+        final List<String> senseCodons = Lists.newArrayList();
+
+        for(char first : "ACGT".toCharArray())
+        {
+            for(char second : "ACGT".toCharArray())
+            {
+                for(char third : "ACGT".toCharArray())
+                {
+                    String codon = new String(new char[] { first, second, third });
+
+                    if(!isStopCodon(codon))
+                        senseCodons.add(codon);
+                }
+            }
+        }
+
+        // each allele takes the common codon except at het loci, where it takes one of a few codon variants
+        final String[][] locusCodons = new String[AMINO_ACID_LENGTH][];
+
+        for(int locus = 0; locus < AMINO_ACID_LENGTH; ++locus)
+        {
+            int variantCount = locus % HET_LOCUS_SPACING == 0 ? HET_LOCUS_VARIANTS : 1;
+            locusCodons[locus] = new String[variantCount];
+
+            for(int i = 0; i < variantCount; ++i)
+            {
+                locusCodons[locus][i] = senseCodons.get(random.nextInt(senseCodons.size()));
+            }
+        }
+
+        mAminoAcidSequences = Lists.newArrayList();
+        mNucleotideSequences = Lists.newArrayList();
+
+        final List<String> alleleBases = Lists.newArrayList();
+
+        for(int a = 0; a < ALLELE_COUNT; ++a)
+        {
+            HlaAllele allele = HlaAllele.fromString(String.format("%s*%02d:%02d", GENE_A, a / 50 + 1, a % 50 + 1));
+
+            StringBuilder bases = new StringBuilder();
+
+            for(int locus = 0; locus < AMINO_ACID_LENGTH; ++locus)
+            {
+                bases.append(locusCodons[locus][random.nextInt(locusCodons[locus].length)]);
+            }
+
+            alleleBases.add(bases.toString());
+
+            List<String> nucleotides = Lists.newArrayList();
+            bases.chars().forEach(x -> nucleotides.add(String.valueOf((char)x)));
+            mNucleotideSequences.add(new HlaSequenceLoci(allele, nucleotides));
+
+            List<String> aminoAcids = Lists.newArrayList();
+            Codons.aminoAcidFromBases(bases.toString()).chars().forEach(x -> aminoAcids.add(String.valueOf((char)x)));
+            mAminoAcidSequences.add(new HlaSequenceLoci(allele, aminoAcids));
+        }
+
+        // het loci are those where the candidate sequences differ
+        int nucleotideLength = AMINO_ACID_LENGTH * 3;
+        mRefNucleotides = Lists.newArrayList();
+        final List<Integer> nucleotideHetLoci = Lists.newArrayList();
+
+        for(int locus = 0; locus < nucleotideLength; ++locus)
+        {
+            Set<String> nucleotides = Sets.newHashSet();
+
+            for(HlaSequenceLoci sequence : mNucleotideSequences)
+            {
+                nucleotides.add(sequence.sequence(locus));
+            }
+
+            mRefNucleotides.add(nucleotides);
+
+            if(nucleotides.size() > 1)
+                nucleotideHetLoci.add(locus);
+        }
+
+        mRefNucleotideHetLoci = Maps.newHashMap();
+        mRefNucleotideHetLoci.put(GENE_A, nucleotideHetLoci);
+
+        final Map<Integer,Set<String>> aminoAcidHetLoci = Maps.newLinkedHashMap();
+
+        for(int locus = 0; locus < AMINO_ACID_LENGTH; ++locus)
+        {
+            Set<String> aminoAcids = Sets.newHashSet();
+
+            for(HlaSequenceLoci sequence : mAminoAcidSequences)
+            {
+                aminoAcids.add(sequence.sequence(locus));
+            }
+
+            if(aminoAcids.size() > 1)
+                aminoAcidHetLoci.put(locus, aminoAcids);
+        }
+
+        mGeneAminoAcidHetLoci = Maps.newHashMap();
+        mGeneAminoAcidHetLoci.put(GENE_A, aminoAcidHetLoci);
+
+        mFragments = Lists.newArrayList();
+
+        for(int i = 0; i < FRAGMENT_COUNT; ++i)
+        {
+            String bases = alleleBases.get(random.nextInt(ALLELE_COUNT));
+            int start = random.nextInt(nucleotideLength - FRAGMENT_LENGTH);
+
+            List<Integer> loci = Lists.newArrayList();
+            List<Integer> qualities = Lists.newArrayList();
+            List<String> nucleotides = Lists.newArrayList();
+
+            for(int locus = start; locus < start + FRAGMENT_LENGTH; ++locus)
+            {
+                loci.add(locus);
+                qualities.add(37);
+                nucleotides.add(String.valueOf(bases.charAt(locus)));
+            }
+
+            Fragment fragment = new Fragment(
+                    String.format("READ_%05d", i), "", HLA_A, Sets.newHashSet(HLA_A), loci, qualities, nucleotides);
+
+            fragment.buildAminoAcids();
+            mFragments.add(fragment);
+        }
+    }
+
+    @Benchmark
+    public List<FragmentAlleles> fragmentAlleleMapping()
+    {
+        FragmentAlleleMapper fragAlleleMapper = new FragmentAlleleMapper(mGeneAminoAcidHetLoci, mRefNucleotideHetLoci, mRefNucleotides);
+
+        return fragAlleleMapper.createFragmentAlleles(mFragments, mAminoAcidSequences, mNucleotideSequences);
+    }
+}
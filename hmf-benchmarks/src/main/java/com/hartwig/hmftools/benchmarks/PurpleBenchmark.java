@@ -0,0 +1,101 @@
+package com.hartwig.hmftools.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.cobalt.CobaltTestUtils;
+import com.hartwig.hmftools.common.genome.chromosome.CobaltChromosomes;
+import com.hartwig.hmftools.common.purple.GermlineStatus;
+import com.hartwig.hmftools.common.purple.segment.SegmentSupport;
+import com.hartwig.hmftools.purple.purity.FittedPurityFactory;
+import com.hartwig.hmftools.purple.region.FittedRegionFactory;
+import com.hartwig.hmftools.purple.region.ObservedRegion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the purity and ploidy grid search over the default fitting ranges, on regions observed from a tumor of known purity
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PurpleBenchmark
+{
+    private static final int REGION_COUNT = 200;
+    private static final double PURITY = 0.6;
+    private static final long SEED = 42;
+
+    @Param({ "false", "true" })
+    public boolean CoarseToFine;
+
+    private CobaltChromosomes mCobaltChromosomes;
+    private FittedRegionFactory mFittedRegionFactory;
+    private List<ObservedRegion> mRegions;
+    private ExecutorService mExecutorService;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        mCobaltChromosomes = CobaltTestUtils.female();
+        mFittedRegionFactory = new FittedRegionFactory(mCobaltChromosomes, 100, 0.4, 0.05, 1.5, 1, 1.5, 0.1);
+        mExecutorService = Executors.newSingleThreadExecutor();
+
+        // a mix of copy number states with noise on the observed ratio and BAF
+        final int[][] alleleCopyNumbers = { { 1, 1 }, { 2, 1 }, { 1, 0 }, { 2, 0 }, { 2, 2 }, { 3, 1 } };
+        final Random random = new Random(SEED);
+
+        mRegions = Lists.newArrayList();
+
+        for(int i = 0; i < REGION_COUNT; ++i)
+        {
+            int[] alleles = alleleCopyNumbers[random.nextInt(alleleCopyNumbers.length)];
+            double copyNumber = alleles[0] + alleles[1];
+            double tumorRatio = (PURITY * copyNumber + 2 * (1 - PURITY)) / 2;
+            double baf = (PURITY * alleles[0] + (1 - PURITY)) / (PURITY * copyNumber + 2 * (1 - PURITY));
+
+            String chromosome = String.valueOf(1 + i % 21);
+            int start = 1 + (i / 21) * 1_000_000;
+
+            ObservedRegion region = new ObservedRegion(
+                    chromosome, start, start + 999_999, true, SegmentSupport.NONE, 50 + random.nextInt(200), 0.5, 1,
+                    1, 1, 1, GermlineStatus.DIPLOID, false, 0.93, 0, 0);
+
+            region.setObservedTumorRatio(tumorRatio * (1 + 0.05 * random.nextGaussian()));
+            region.setObservedBAF(Math.max(0.5, Math.min(1, baf + 0.02 * random.nextGaussian())));
+            mRegions.add(region);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mExecutorService.shutdown();
+    }
+
+    @Benchmark
+    public FittedPurityFactory fittedPurityFactory() throws ExecutionException, InterruptedException
+    {
+        return new FittedPurityFactory(
+                mExecutorService, mCobaltChromosomes, 0.08, 1.0, 0.01, 1, 8, 0, false, CoarseToFine,
+                mFittedRegionFactory, mRegions, Collections.emptyList());
+    }
+}
@@ -0,0 +1,190 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.SyntheticFixtures.CHROMOSOME;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.candidate.AltContext;
+import com.hartwig.hmftools.sage.candidate.Candidate;
+import com.hartwig.hmftools.sage.candidate.RefContextCache;
+import com.hartwig.hmftools.sage.candidate.RefContextConsumer;
+import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.RefSequence;
+import com.hartwig.hmftools.sage.common.VariantTier;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounterFactory;
+import com.hartwig.hmftools.sage.quality.QualityCalculator;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
+import com.hartwig.hmftools.sage.read.NumberEvents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+// candidate discovery, evidence collection and quality scoring over a single region, as run by each SAGE region task
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SageBenchmark
+{
+    private static final int REGION_LENGTH = 100_000;
+    private static final int DEPTH = 100;
+
+    private SyntheticFixtures mFixtures;
+    private SageConfig mConfig;
+    private ChrBaseRegion mRegion;
+    private RefSequence mRefSequence;
+    private List<SAMRecord> mReads;
+    private int[] mReadEvents;
+
+    private List<Candidate> mCandidates;
+    private int[][] mReadCandidates; // the candidates covered by each read
+    private QualityCalculator mQualityCalculator;
+
+    // read and candidate pairs where the read covers the variant position, with the read index of that position
+    private List<ReadContextCounter> mReadCounters;
+    private int[] mScoredReads;
+    private int[] mScoredCandidates;
+    private int[] mScoredReadIndices;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        mFixtures = SyntheticFixtures.dnaFixtures(REGION_LENGTH, DEPTH);
+        mConfig = new SageConfig();
+        mRegion = new ChrBaseRegion(CHROMOSOME, 1, REGION_LENGTH);
+
+        try(IndexedFastaSequenceFile refGenome = new IndexedFastaSequenceFile(mFixtures.RefGenomeFile))
+        {
+            mRefSequence = new RefSequence(mRegion, refGenome);
+        }
+
+        mReads = mFixtures.readRecords();
+        mReadEvents = new int[mReads.size()];
+
+        for(int i = 0; i < mReads.size(); ++i)
+        {
+            mReadEvents[i] = NumberEvents.calc(mReads.get(i), mRefSequence);
+        }
+
+        mCandidates = Lists.newArrayList();
+
+        for(AltContext altContext : findAltContexts())
+        {
+            mCandidates.add(Candidate.fromAltContext(VariantTier.LOW_CONFIDENCE, altContext));
+        }
+
+        mReadCandidates = new int[mReads.size()][];
+
+        for(int i = 0; i < mReads.size(); ++i)
+        {
+            final SAMRecord read = mReads.get(i);
+
+            mReadCandidates[i] = IntStream.range(0, mCandidates.size())
+                    .filter(x -> mCandidates.get(x).position() >= read.getAlignmentStart())
+                    .filter(x -> mCandidates.get(x).position() <= read.getAlignmentEnd())
+                    .toArray();
+        }
+
+        mQualityCalculator = new QualityCalculator(
+                mConfig.Quality, new QualityRecalibrationMap(Collections.emptyList()), mRefSequence.IndexedBases);
+
+        mReadCounters = new ReadContextCounterFactory(mConfig).create(mCandidates);
+
+        final List<int[]> scoredPairs = Lists.newArrayList();
+
+        for(int i = 0; i < mReads.size(); ++i)
+        {
+            for(int candidateIndex : mReadCandidates[i])
+            {
+                final SAMRecord read = mReads.get(i);
+                final ReadContext readContext = mCandidates.get(candidateIndex).readContext();
+                int readIndex = read.getReadPositionAtReferencePosition(mCandidates.get(candidateIndex).position()) - 1;
+
+                // only score reads which cover the variant's core, as evidence collection does
+                int leftCoreIndex = readIndex - (readContext.readBasesPositionIndex() - readContext.readBasesLeftCentreIndex());
+                int rightCoreIndex = readIndex + (readContext.readBasesRightCentreIndex() - readContext.readBasesPositionIndex());
+
+                if(readIndex >= 0 && leftCoreIndex >= 0 && rightCoreIndex < read.getReadLength())
+                    scoredPairs.add(new int[] { i, candidateIndex, readIndex });
+            }
+        }
+
+        mScoredReads = scoredPairs.stream().mapToInt(x -> x[0]).toArray();
+        mScoredCandidates = scoredPairs.stream().mapToInt(x -> x[1]).toArray();
+        mScoredReadIndices = scoredPairs.stream().mapToInt(x -> x[2]).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mFixtures.delete();
+    }
+
+    private List<AltContext> findAltContexts()
+    {
+        RefContextCache refContextCache = new RefContextCache(mConfig, Collections.emptyList(), Collections.emptyList());
+
+        RefContextConsumer refContextConsumer = new RefContextConsumer(
+                mConfig, mRegion, mRefSequence, refContextCache, Collections.emptyList());
+
+        mReads.forEach(refContextConsumer);
+        return refContextCache.altContexts();
+    }
+
+    @Benchmark
+    public List<AltContext> refContextConsumer()
+    {
+        return findAltContexts();
+    }
+
+    @Benchmark
+    public void readContextCounter(final Blackhole blackhole)
+    {
+        // counters accumulate support, so are created for each invocation as they are for each region
+        final List<ReadContextCounter> readCounters = new ReadContextCounterFactory(mConfig).create(mCandidates);
+
+        for(int i = 0; i < mReads.size(); ++i)
+        {
+            for(int candidateIndex : mReadCandidates[i])
+            {
+                blackhole.consume(readCounters.get(candidateIndex).processRead(mReads.get(i), mConfig, mQualityCalculator, mReadEvents[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void qualityCalculator(final Blackhole blackhole)
+    {
+        for(int i = 0; i < mScoredReads.length; ++i)
+        {
+            int readIndex = mScoredReads[i];
+
+            blackhole.consume(mQualityCalculator.calculateQualityScore(
+                    mReadCounters.get(mScoredCandidates[i]), mScoredReadIndices[i], mReads.get(readIndex), mReadEvents[readIndex]));
+        }
+    }
+}
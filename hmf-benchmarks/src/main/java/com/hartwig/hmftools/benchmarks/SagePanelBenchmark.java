@@ -0,0 +1,89 @@
+package com.hartwig.hmftools.benchmarks;
+
+import static com.hartwig.hmftools.benchmarks.SyntheticFixtures.CHROMOSOME;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.hartwig.hmftools.common.utils.sv.BaseRegion;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.candidate.AltContext;
+import com.hartwig.hmftools.sage.candidate.RefContextCache;
+import com.hartwig.hmftools.sage.candidate.RefContextConsumer;
+import com.hartwig.hmftools.sage.common.RefSequence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+// candidate discovery over a small panel region at high depth, where the candidate stage's allocations dominate - run with '-prof gc'
+// to report the bytes allocated per operation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SagePanelBenchmark
+{
+    private static final int REGION_LENGTH = 2_000;
+    private static final int DEPTH = 5_000;
+
+    private SyntheticFixtures mFixtures;
+    private SageConfig mConfig;
+    private ChrBaseRegion mRegion;
+    private List<BaseRegion> mPanel;
+    private RefSequence mRefSequence;
+    private List<SAMRecord> mReads;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        mFixtures = SyntheticFixtures.dnaFixtures(REGION_LENGTH, DEPTH);
+        mConfig = new SageConfig();
+        mRegion = new ChrBaseRegion(CHROMOSOME, 1, REGION_LENGTH);
+
+        // mark the region as panel so the panel depth limit applies rather than the lower standard limit
+        mPanel = Collections.singletonList(new BaseRegion(1, REGION_LENGTH));
+
+        try(IndexedFastaSequenceFile refGenome = new IndexedFastaSequenceFile(mFixtures.RefGenomeFile))
+        {
+            mRefSequence = new RefSequence(mRegion, refGenome);
+        }
+
+        mReads = mFixtures.readRecords();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mFixtures.delete();
+    }
+
+    @Benchmark
+    public List<AltContext> refContextConsumer()
+    {
+        RefContextCache refContextCache = new RefContextCache(mConfig, Collections.emptyList(), mPanel);
+
+        RefContextConsumer refContextConsumer = new RefContextConsumer(
+                mConfig, mRegion, mRefSequence, refContextCache, Collections.emptyList());
+
+        mReads.forEach(refContextConsumer);
+        return refContextCache.altContexts();
+    }
+}
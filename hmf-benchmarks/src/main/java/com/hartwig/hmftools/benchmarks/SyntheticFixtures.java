@@ -0,0 +1,322 @@
+package com.hartwig.hmftools.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriter;
+import htsjdk.samtools.SAMFileWriterFactory;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.reference.FastaSequenceIndexCreator;
+
+// writes a random reference sequence and a sorted, indexed BAM of read pairs sampled from it, with a fixed seed so that every
+// benchmark run sees identical inputs - germline-like variants are carried by a fraction of fragments, plus random sequencing errors
+public class SyntheticFixtures
+{
+    public static final String CHROMOSOME = "1";
+    public static final int READ_LENGTH = 151;
+    public static final int MIN_FRAGMENT_LENGTH = 300;
+    public static final int MAX_FRAGMENT_LENGTH = 500;
+
+    private static final long SEED = 42;
+    private static final int VARIANT_SPACING = 500;
+    private static final double VARIANT_FRACTION = 0.3;
+    private static final double ERROR_RATE = 0.002;
+    private static final int MAP_QUALITY = 60;
+
+    private static final byte[] DNA_BASES = { 'A', 'C', 'G', 'T' };
+
+    private static final byte SNV = 1;
+    private static final byte DELETED = 2;
+
+    public final File Directory;
+    public final File RefGenomeFile;
+    public final File BamFile;
+    public final byte[] RefBases;
+
+    private final byte[] mVariantTypes; // indexed by position, with a deletion marked on its deleted base
+    private final byte[] mAltBases;
+    private final Random mRandom;
+
+    private SyntheticFixtures(final File directory, int refLength)
+    {
+        Directory = directory;
+        RefGenomeFile = new File(directory, "ref_genome.fasta");
+        BamFile = new File(directory, "sample.bam");
+
+        mRandom = new Random(SEED);
+
+        RefBases = new byte[refLength];
+
+        for(int i = 0; i < refLength; ++i)
+        {
+            RefBases[i] = DNA_BASES[mRandom.nextInt(DNA_BASES.length)];
+        }
+
+        mVariantTypes = new byte[refLength + 1];
+        mAltBases = new byte[refLength + 1];
+
+        for(int position = VARIANT_SPACING; position < refLength - VARIANT_SPACING; position += VARIANT_SPACING)
+        {
+            int variantPosition = position + mRandom.nextInt(VARIANT_SPACING / 2);
+
+            // every fifth variant is a single-base deletion, the rest are SNVs
+            if(mRandom.nextInt(5) == 0)
+            {
+                mVariantTypes[variantPosition + 1] = DELETED;
+            }
+            else
+            {
+                mVariantTypes[variantPosition] = SNV;
+                mAltBases[variantPosition] = otherBase(refBase(variantPosition));
+            }
+        }
+    }
+
+    public static SyntheticFixtures dnaFixtures(int refLength, int depth) throws IOException
+    {
+        return createFixtures(refLength, depth, Lists.newArrayList(new int[] { 1, refLength }));
+    }
+
+    public static SyntheticFixtures rnaFixtures(int refLength, int depth, final List<int[]> exons) throws IOException
+    {
+        // read pairs are sampled from the spliced transcript, so reads spanning an exon boundary have an N cigar element
+        return createFixtures(refLength, depth, exons);
+    }
+
+    private static SyntheticFixtures createFixtures(int refLength, int depth, final List<int[]> segments) throws IOException
+    {
+        final File directory = Files.createTempDirectory("hmf-benchmarks").toFile();
+
+        SyntheticFixtures fixtures = new SyntheticFixtures(directory, refLength);
+        fixtures.writeRefGenome();
+        fixtures.writeBam(depth, segments);
+        return fixtures;
+    }
+
+    public List<SAMRecord> readRecords()
+    {
+        final List<SAMRecord> records = Lists.newArrayList();
+
+        try(SamReader samReader = openBam())
+        {
+            samReader.forEach(records::add);
+        }
+        catch(IOException e)
+        {
+            throw new IllegalStateException("failed to read fixture BAM: " + e);
+        }
+
+        return records;
+    }
+
+    public SamReader openBam()
+    {
+        return SamReaderFactory.makeDefault().referenceSequence(RefGenomeFile).open(BamFile);
+    }
+
+    public void delete()
+    {
+        final File[] files = Directory.listFiles();
+
+        if(files != null)
+        {
+            for(File file : files)
+            {
+                file.delete();
+            }
+        }
+
+        Directory.delete();
+    }
+
+    private byte refBase(int position) { return RefBases[position - 1]; }
+
+    private byte otherBase(byte base)
+    {
+        byte other = base;
+
+        while(other == base)
+        {
+            other = DNA_BASES[mRandom.nextInt(DNA_BASES.length)];
+        }
+
+        return other;
+    }
+
+    private void writeRefGenome() throws IOException
+    {
+        try(BufferedWriter writer = Files.newBufferedWriter(RefGenomeFile.toPath()))
+        {
+            writer.write(">" + CHROMOSOME);
+            writer.newLine();
+
+            for(int i = 0; i < RefBases.length; i += 60)
+            {
+                writer.write(new String(RefBases, i, Math.min(60, RefBases.length - i)));
+                writer.newLine();
+            }
+        }
+
+        FastaSequenceIndexCreator.create(RefGenomeFile.toPath(), true);
+
+        final File dictFile = new File(Directory, "ref_genome.dict");
+
+        try(BufferedWriter writer = Files.newBufferedWriter(dictFile.toPath()))
+        {
+            writer.write("@HD\tVN:1.6");
+            writer.newLine();
+            writer.write(String.format("@SQ\tSN:%s\tLN:%d", CHROMOSOME, RefBases.length));
+            writer.newLine();
+        }
+    }
+
+    private void writeBam(int depth, final List<int[]> segments)
+    {
+        // flatten the segments into a list of positions so fragments can be sampled across segment boundaries
+        int segmentsLength = segments.stream().mapToInt(x -> x[1] - x[0] + 1).sum();
+        final int[] positions = new int[segmentsLength];
+        int index = 0;
+
+        for(int[] segment : segments)
+        {
+            for(int position = segment[0]; position <= segment[1]; ++position)
+            {
+                positions[index++] = position;
+            }
+        }
+
+        final SAMFileHeader header = new SAMFileHeader();
+        header.addSequence(new SAMSequenceRecord(CHROMOSOME, RefBases.length));
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+
+        int fragmentCount = (int)((long)depth * segmentsLength / (2 * READ_LENGTH));
+
+        try(SAMFileWriter writer = new SAMFileWriterFactory().setCreateIndex(true).makeBAMWriter(header, false, BamFile))
+        {
+            for(int i = 0; i < fragmentCount; ++i)
+            {
+                int fragmentLength = MIN_FRAGMENT_LENGTH + mRandom.nextInt(MAX_FRAGMENT_LENGTH - MIN_FRAGMENT_LENGTH + 1);
+
+                if(fragmentLength > positions.length)
+                    break;
+
+                int fragmentStart = mRandom.nextInt(positions.length - fragmentLength + 1);
+                boolean hasVariants = mRandom.nextDouble() < VARIANT_FRACTION;
+
+                String readName = String.format("READ_%07d", i);
+
+                SAMRecord read1 = buildRead(header, readName, positions, fragmentStart, hasVariants);
+                SAMRecord read2 = buildRead(header, readName, positions, fragmentStart + fragmentLength - READ_LENGTH, hasVariants);
+
+                setPairInfo(read1, read2, true);
+                setPairInfo(read2, read1, false);
+
+                writer.addAlignment(read1);
+                writer.addAlignment(read2);
+            }
+        }
+    }
+
+    private SAMRecord buildRead(
+            final SAMFileHeader header, final String readName, final int[] positions, int startIndex, boolean hasVariants)
+    {
+        final byte[] bases = new byte[READ_LENGTH];
+        final List<CigarElement> elements = Lists.newArrayList();
+
+        int readIndex = 0;
+        int alignmentStart = 0;
+        int lastPosition = 0;
+
+        for(int i = startIndex; i < positions.length && readIndex < READ_LENGTH; ++i)
+        {
+            int position = positions[i];
+
+            if(hasVariants && mVariantTypes[position] == DELETED)
+            {
+                // a read cannot start with a deletion
+                if(readIndex > 0)
+                    addElement(elements, CigarOperator.D, 1);
+
+                lastPosition = position;
+                continue;
+            }
+
+            if(readIndex == 0)
+                alignmentStart = position;
+            else if(position > lastPosition + 1)
+                addElement(elements, CigarOperator.N, position - lastPosition - 1);
+
+            byte base = hasVariants && mVariantTypes[position] == SNV ? mAltBases[position] : refBase(position);
+
+            if(mRandom.nextDouble() < ERROR_RATE)
+                base = otherBase(base);
+
+            bases[readIndex++] = base;
+            addElement(elements, CigarOperator.M, 1);
+            lastPosition = position;
+        }
+
+        // a read running off the end of the segments cannot end with a deletion either
+        if(elements.get(elements.size() - 1).getOperator() != CigarOperator.M)
+            elements.remove(elements.size() - 1);
+
+        final byte[] qualities = new byte[readIndex];
+
+        for(int i = 0; i < readIndex; ++i)
+        {
+            qualities[i] = (byte)(mRandom.nextInt(10) == 0 ? 25 : 37);
+        }
+
+        SAMRecord record = new SAMRecord(header);
+        record.setReadName(readName);
+        record.setReferenceName(CHROMOSOME);
+        record.setAlignmentStart(alignmentStart);
+        record.setMappingQuality(MAP_QUALITY);
+        record.setCigar(new Cigar(elements));
+        record.setReadBases(readIndex == READ_LENGTH ? bases : Arrays.copyOf(bases, readIndex));
+        record.setBaseQualities(qualities);
+        return record;
+    }
+
+    private static void addElement(final List<CigarElement> elements, final CigarOperator operator, int length)
+    {
+        int lastIndex = elements.size() - 1;
+
+        if(lastIndex >= 0 && elements.get(lastIndex).getOperator() == operator)
+            elements.set(lastIndex, new CigarElement(elements.get(lastIndex).getLength() + length, operator));
+        else
+            elements.add(new CigarElement(length, operator));
+    }
+
+    private static void setPairInfo(final SAMRecord record, final SAMRecord mate, boolean isFirst)
+    {
+        record.setReadPairedFlag(true);
+        record.setProperPairFlag(true);
+        record.setFirstOfPairFlag(isFirst);
+        record.setSecondOfPairFlag(!isFirst);
+        record.setReadNegativeStrandFlag(!isFirst);
+        record.setMateNegativeStrandFlag(isFirst);
+        record.setMateReferenceName(mate.getReferenceName());
+        record.setMateAlignmentStart(mate.getAlignmentStart());
+
+        int insertSize = Math.max(record.getAlignmentEnd(), mate.getAlignmentEnd())
+                - Math.min(record.getAlignmentStart(), mate.getAlignmentStart()) + 1;
+
+        record.setInferredInsertSize(isFirst ? insertSize : -insertSize);
+        record.setAttribute("MC", mate.getCigarString());
+    }
+}
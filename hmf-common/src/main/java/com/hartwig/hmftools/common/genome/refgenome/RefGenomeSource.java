@@ -17,6 +17,7 @@ public class RefGenomeSource implements RefGenomeInterface
 {
     public static final String REF_GENOME = "ref_genome";
     public static final String REF_GENOME_CFG_DESC = "Path to reference genome fasta files";
+    public static final String REF_GENOME_TWO_BIT_CFG_DESC = "Path to reference genome fasta or 2bit file";
 
     private final IndexedFastaSequenceFile mRefGenome;
 
@@ -78,4 +79,13 @@ public class RefGenomeSource implements RefGenomeInterface
         }
     }
 
+    public static RefGenomeInterface loadRefGenomeFile(final String filename)
+    {
+        // for tools which only need reference bases, a 2bit file can be used in place of an indexed fasta
+        if(RefGenomeTwoBit.isTwoBitFile(filename))
+            return RefGenomeTwoBit.loadRefGenome(filename);
+
+        return loadRefGenome(filename);
+    }
+
 }
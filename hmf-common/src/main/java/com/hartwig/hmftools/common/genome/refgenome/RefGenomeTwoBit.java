@@ -0,0 +1,270 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// reference genome in the UCSC 2bit format - bases are packed 4 per byte with N and lower-case (soft-masked) blocks held as ranges,
+// and the packed bases are memory-mapped so lookups decode directly from the OS page cache, which is shared by all processes on a host
+public class RefGenomeTwoBit implements RefGenomeInterface
+{
+    public static final String TWO_BIT_EXTENSION = ".2bit";
+
+    public static final int SIGNATURE = 0x1A412743;
+
+    // the 2-bit codes for T, C, A and G respectively
+    private static final byte[] BASES = { 'T', 'C', 'A', 'G' };
+    private static final byte LOWER_CASE_OFFSET = 'a' - 'A';
+
+    private final Map<String,SequenceData> mSequences;
+
+    private static final Logger LOGGER = LogManager.getLogger(RefGenomeTwoBit.class);
+
+    private static class SequenceData
+    {
+        public final int Length;
+        public final int[] NBlockStarts; // zero-based
+        public final int[] NBlockEnds; // exclusive
+        public final int[] MaskBlockStarts;
+        public final int[] MaskBlockEnds;
+        public final MappedByteBuffer PackedBases;
+
+        public SequenceData(
+                int length, final int[] nBlockStarts, final int[] nBlockEnds, final int[] maskBlockStarts, final int[] maskBlockEnds,
+                final MappedByteBuffer packedBases)
+        {
+            Length = length;
+            NBlockStarts = nBlockStarts;
+            NBlockEnds = nBlockEnds;
+            MaskBlockStarts = maskBlockStarts;
+            MaskBlockEnds = maskBlockEnds;
+            PackedBases = packedBases;
+        }
+    }
+
+    public RefGenomeTwoBit(final String filename) throws IOException
+    {
+        mSequences = new LinkedHashMap<>();
+
+        try(RandomAccessFile file = new RandomAccessFile(new File(filename), "r"); FileChannel channel = file.getChannel())
+        {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            // the signature indicates the byte order the file was written in
+            ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+            if(header.getInt(0) != SIGNATURE)
+            {
+                byteOrder = ByteOrder.BIG_ENDIAN;
+                header.order(byteOrder);
+
+                if(header.getInt(0) != SIGNATURE)
+                    throw new IOException("invalid 2bit file signature: " + filename);
+            }
+
+            int version = header.getInt(4);
+            int sequenceCount = header.getInt(8);
+
+            if(version != 0 && version != 1)
+                throw new IOException("unsupported 2bit file version: " + version);
+
+            // version 1 has 64-bit sequence offsets
+            int offsetSize = version == 0 ? 4 : 8;
+            ByteBuffer index = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 16, Math.min(channel.size() - 16, Integer.MAX_VALUE)).order(byteOrder);
+
+            for(int i = 0; i < sequenceCount; ++i)
+            {
+                int nameLength = index.get() & 0xFF;
+                byte[] nameBytes = new byte[nameLength];
+                index.get(nameBytes);
+
+                long offset = offsetSize == 4 ? Integer.toUnsignedLong(index.getInt()) : index.getLong();
+
+                mSequences.put(new String(nameBytes, StandardCharsets.US_ASCII), loadSequence(channel, offset, byteOrder));
+            }
+        }
+
+        LOGGER.debug("loaded {} sequences from 2bit reference file {}", mSequences.size(), filename);
+    }
+
+    public static boolean isTwoBitFile(final String filename) { return filename != null && filename.endsWith(TWO_BIT_EXTENSION); }
+
+    public static RefGenomeTwoBit loadRefGenome(final String filename)
+    {
+        if(filename == null || filename.isEmpty())
+            return null;
+
+        try
+        {
+            return new RefGenomeTwoBit(filename);
+        }
+        catch(IOException e)
+        {
+            LOGGER.error("2bit reference file loading failed: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static SequenceData loadSequence(final FileChannel channel, long offset, final ByteOrder byteOrder) throws IOException
+    {
+        ByteBuffer counts = channel.map(FileChannel.MapMode.READ_ONLY, offset, 8).order(byteOrder);
+        int length = counts.getInt(0);
+        int nBlockCount = counts.getInt(4);
+        offset += 8;
+
+        int[] nBlockStarts = readInts(channel, offset, nBlockCount, byteOrder);
+        offset += 4L * nBlockCount;
+        int[] nBlockEnds = readInts(channel, offset, nBlockCount, byteOrder);
+        offset += 4L * nBlockCount;
+
+        int maskBlockCount = channel.map(FileChannel.MapMode.READ_ONLY, offset, 4).order(byteOrder).getInt(0);
+        offset += 4;
+
+        int[] maskBlockStarts = readInts(channel, offset, maskBlockCount, byteOrder);
+        offset += 4L * maskBlockCount;
+        int[] maskBlockEnds = readInts(channel, offset, maskBlockCount, byteOrder);
+        offset += 4L * maskBlockCount;
+
+        // skip the reserved field
+        offset += 4;
+
+        // blocks are held as start and size, converted here to start and end
+        toBlockEnds(nBlockStarts, nBlockEnds);
+        toBlockEnds(maskBlockStarts, maskBlockEnds);
+
+        MappedByteBuffer packedBases = channel.map(FileChannel.MapMode.READ_ONLY, offset, (length + 3) / 4);
+
+        return new SequenceData(length, nBlockStarts, nBlockEnds, maskBlockStarts, maskBlockEnds, packedBases);
+    }
+
+    private static int[] readInts(final FileChannel channel, long offset, int count, final ByteOrder byteOrder) throws IOException
+    {
+        int[] values = new int[count];
+
+        if(count > 0)
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, 4L * count).order(byteOrder).asIntBuffer().get(values);
+
+        return values;
+    }
+
+    private static void toBlockEnds(final int[] blockStarts, final int[] blockSizes)
+    {
+        for(int i = 0; i < blockStarts.length; ++i)
+        {
+            blockSizes[i] += blockStarts[i];
+        }
+    }
+
+    public Set<String> chromosomes() { return mSequences.keySet(); }
+
+    @Override
+    public String getBaseString(final String chromosome, int posStart, int posEnd)
+    {
+        return new String(getBases(chromosome, posStart, posEnd), StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String getBaseString(final String chromosome, final List<int[]> baseRanges)
+    {
+        StringBuilder refBases = new StringBuilder();
+        baseRanges.forEach(x -> refBases.append(getBaseString(chromosome, x[0], x[1])));
+        return refBases.toString();
+    }
+
+    @Override
+    public int getChromosomeLength(final String chromosome)
+    {
+        return getSequence(chromosome).Length;
+    }
+
+    @Override
+    public byte[] getBases(final String chromosome, int posStart, int posEnd)
+    {
+        final SequenceData sequence = getSequence(chromosome);
+
+        if(posStart < 1 || posEnd > sequence.Length || posEnd < posStart - 1)
+        {
+            throw new IllegalArgumentException(String.format("invalid range %s:%d-%d for sequence length %d",
+                    chromosome, posStart, posEnd, sequence.Length));
+        }
+
+        // positions are 1-based and inclusive, blocks are zero-based and end-exclusive
+        int start = posStart - 1;
+        int end = posEnd;
+        byte[] bases = new byte[end - start];
+
+        final MappedByteBuffer packedBases = sequence.PackedBases;
+
+        for(int pos = start; pos < end; ++pos)
+        {
+            int packed = packedBases.get(pos >> 2);
+            bases[pos - start] = BASES[(packed >> (6 - 2 * (pos & 3))) & 3];
+        }
+
+        for(int i = firstOverlappingBlock(sequence.NBlockEnds, start); i < sequence.NBlockStarts.length; ++i)
+        {
+            if(sequence.NBlockStarts[i] >= end)
+                break;
+
+            for(int pos = Math.max(sequence.NBlockStarts[i], start); pos < Math.min(sequence.NBlockEnds[i], end); ++pos)
+            {
+                bases[pos - start] = 'N';
+            }
+        }
+
+        for(int i = firstOverlappingBlock(sequence.MaskBlockEnds, start); i < sequence.MaskBlockStarts.length; ++i)
+        {
+            if(sequence.MaskBlockStarts[i] >= end)
+                break;
+
+            for(int pos = Math.max(sequence.MaskBlockStarts[i], start); pos < Math.min(sequence.MaskBlockEnds[i], end); ++pos)
+            {
+                bases[pos - start] += LOWER_CASE_OFFSET;
+            }
+        }
+
+        return bases;
+    }
+
+    private SequenceData getSequence(final String chromosome)
+    {
+        final SequenceData sequence = mSequences.get(chromosome);
+
+        if(sequence == null)
+            throw new IllegalArgumentException("unknown sequence: " + chromosome);
+
+        return sequence;
+    }
+
+    private static int firstOverlappingBlock(final int[] blockEnds, int position)
+    {
+        // blocks are sorted and non-overlapping, so find the first ending after the position
+        int low = 0;
+        int high = blockEnds.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(blockEnds[mid] <= position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,224 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME_CFG_DESC;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeTwoBit.SIGNATURE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import htsjdk.samtools.reference.FastaSequenceIndex;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+// converts an indexed FASTA reference genome to the 2bit format read by RefGenomeTwoBit
+// the format only holds A, C, G, T and N, so IUPAC ambiguity codes (R, Y, K, M etc) are written as N - this is lossy, and the
+// number converted in each sequence is logged as a warning
+public final class RefGenomeTwoBitConverter
+{
+    private static final String OUTPUT_FILE = "output_file";
+
+    private static final Logger LOGGER = LogManager.getLogger(RefGenomeTwoBitConverter.class);
+
+    public static void main(final String[] args) throws ParseException, IOException
+    {
+        final Options options = new Options();
+        options.addOption(REF_GENOME, true, REF_GENOME_CFG_DESC);
+        options.addOption(OUTPUT_FILE, true, "Output 2bit reference genome file, with IUPAC ambiguity codes written as N");
+
+        final CommandLine cmd = new DefaultParser().parse(options, args);
+
+        if(!cmd.hasOption(REF_GENOME) || !cmd.hasOption(OUTPUT_FILE))
+        {
+            LOGGER.error("missing config: {} and {} are required", REF_GENOME, OUTPUT_FILE);
+            System.exit(1);
+        }
+
+        convert(cmd.getOptionValue(REF_GENOME), cmd.getOptionValue(OUTPUT_FILE));
+    }
+
+    // returns the number of IUPAC ambiguity bases written as N
+    public static long convert(final String fastaFile, final String outputFile) throws IOException
+    {
+        final List<String> sequenceNames = Lists.newArrayList();
+        new FastaSequenceIndex(Paths.get(fastaFile + ".fai")).forEach(x -> sequenceNames.add(x.getContig()));
+
+        LOGGER.info("converting {} sequences from {} to 2bit file {}", sequenceNames.size(), fastaFile, outputFile);
+
+        // the index holds each sequence's offset, so is written once all sequences have been written and their offsets known
+        long indexSize = 0;
+
+        for(String name : sequenceNames)
+        {
+            if(name.length() > 255)
+                throw new IOException("sequence name too long for 2bit format: " + name);
+
+            indexSize += 1 + name.length() + 8;
+        }
+
+        final long[] offsets = new long[sequenceNames.size()];
+        long totalAmbiguousBases = 0;
+
+        try(IndexedFastaSequenceFile refGenome = new IndexedFastaSequenceFile(new File(fastaFile));
+            FileChannel channel = FileChannel.open(Paths.get(outputFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            long offset = 16 + indexSize;
+            channel.position(offset);
+
+            for(int i = 0; i < sequenceNames.size(); ++i)
+            {
+                offsets[i] = offset;
+
+                byte[] bases = refGenome.getSequence(sequenceNames.get(i)).getBases();
+                offset += writeSequence(channel, bases);
+
+                LOGGER.debug("converted sequence {} length({})", sequenceNames.get(i), bases.length);
+
+                int ambiguousBases = countAmbiguousBases(bases);
+
+                if(ambiguousBases > 0)
+                {
+                    LOGGER.warn("sequence {} has {} IUPAC ambiguity bases written as N", sequenceNames.get(i), ambiguousBases);
+                    totalAmbiguousBases += ambiguousBases;
+                }
+            }
+
+            // always use 64-bit offsets (version 1) since a large genome can exceed 4GB
+            ByteBuffer header = ByteBuffer.allocate((int)(16 + indexSize)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(SIGNATURE);
+            header.putInt(1);
+            header.putInt(sequenceNames.size());
+            header.putInt(0);
+
+            for(int i = 0; i < sequenceNames.size(); ++i)
+            {
+                byte[] name = sequenceNames.get(i).getBytes(StandardCharsets.US_ASCII);
+                header.put((byte)name.length);
+                header.put(name);
+                header.putLong(offsets[i]);
+            }
+
+            header.flip();
+
+            while(header.hasRemaining())
+            {
+                channel.write(header, header.position());
+            }
+        }
+
+        LOGGER.info("2bit conversion complete, ambiguity bases written as N({})", totalAmbiguousBases);
+        return totalAmbiguousBases;
+    }
+
+    private static int countAmbiguousBases(final byte[] bases)
+    {
+        int count = 0;
+
+        for(byte base : bases)
+        {
+            if(baseCode(base) < 0 && base != 'N' && base != 'n')
+                ++count;
+        }
+
+        return count;
+    }
+
+    private static long writeSequence(final FileChannel channel, final byte[] bases) throws IOException
+    {
+        final List<int[]> nBlocks = findBlocks(bases, true);
+        final List<int[]> maskBlocks = findBlocks(bases, false);
+
+        int headerSize = 4 + 4 + 8 * nBlocks.size() + 4 + 8 * maskBlocks.size() + 4;
+        int packedSize = (bases.length + 3) / 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + packedSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(bases.length);
+        putBlocks(buffer, nBlocks);
+        putBlocks(buffer, maskBlocks);
+        buffer.putInt(0);
+
+        for(int i = 0; i < bases.length; i += 4)
+        {
+            int packed = 0;
+
+            for(int j = 0; j < 4; ++j)
+            {
+                packed <<= 2;
+
+                if(i + j < bases.length)
+                    packed |= Math.max(baseCode(bases[i + j]), 0);
+            }
+
+            buffer.put((byte)packed);
+        }
+
+        buffer.flip();
+
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+
+        return headerSize + packedSize;
+    }
+
+    private static void putBlocks(final ByteBuffer buffer, final List<int[]> blocks)
+    {
+        // block starts then block sizes
+        buffer.putInt(blocks.size());
+        blocks.forEach(x -> buffer.putInt(x[0]));
+        blocks.forEach(x -> buffer.putInt(x[1] - x[0]));
+    }
+
+    private static List<int[]> findBlocks(final byte[] bases, boolean unknownBases)
+    {
+        // find runs of unknown bases (any other than A, C, G or T, which are read back as N) or of lower-case bases, as [start, end) ranges
+        final List<int[]> blocks = Lists.newArrayList();
+        int blockStart = -1;
+
+        for(int i = 0; i <= bases.length; ++i)
+        {
+            boolean inBlock = i < bases.length && (unknownBases ? baseCode(bases[i]) < 0 : Character.isLowerCase(bases[i]));
+
+            if(inBlock && blockStart < 0)
+            {
+                blockStart = i;
+            }
+            else if(!inBlock && blockStart >= 0)
+            {
+                blocks.add(new int[] { blockStart, i });
+                blockStart = -1;
+            }
+        }
+
+        return blocks;
+    }
+
+    private static int baseCode(byte base)
+    {
+        switch(base)
+        {
+            case 'T': case 't': return 0;
+            case 'C': case 'c': return 1;
+            case 'A': case 'a': return 2;
+            case 'G': case 'g': return 3;
+            default: return -1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.hartwig.hmftools.common.stats;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.Matrix;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
+
+public class CosineSimilarityMatrix
+{
+    // reference vectors with their norms pre-computed, so that a sample's similarity to every reference is a single pass
+    // over the reference rows, giving the same values as CosineSimilarity.calcCosineSim(sample, ref)
+    // rows are shared with the source data rather than copied, so it must not change once this is built
+    public final int Rows;
+    public final int Cols;
+
+    private final double[][] mData;
+    private final double[] mRowNorms; // square root of each row's sum of squares
+
+    // reference rows are processed in blocks which fit in cache, with each block applied to all samples in a batch
+    private static final int BLOCK_BYTES = 256 * 1024;
+
+    public CosineSimilarityMatrix(final Matrix refMatrix)
+    {
+        this(refMatrix.getData(), refMatrix.Rows, refMatrix.Cols);
+    }
+
+    public CosineSimilarityMatrix(final double[][] refData, int rows, int cols)
+    {
+        Rows = rows;
+        Cols = cols;
+        mData = refData;
+        mRowNorms = new double[rows];
+
+        for(int r = 0; r < rows; ++r)
+        {
+            mRowNorms[r] = sqrt(sumSquares(refData[r]));
+        }
+    }
+
+    public double calcCosineSim(final double[] sample, int row)
+    {
+        if(sample.length != Cols)
+            return 0;
+
+        return calcCosineSim(sample, sqrt(sumSquares(sample)), row);
+    }
+
+    public double[] calcCosineSims(final double[] sample)
+    {
+        double[] sims = new double[Rows];
+
+        if(sample.length != Cols)
+            return sims;
+
+        double sampleNorm = sqrt(sumSquares(sample));
+
+        for(int r = 0; r < Rows; ++r)
+        {
+            sims[r] = calcCosineSim(sample, sampleNorm, r);
+        }
+
+        return sims;
+    }
+
+    public double[][] calcCosineSims(final List<double[]> samples, int threadCount)
+    {
+        // returns each sample's similarities to all reference rows, with samples divided between threads
+        double[][] sims = new double[samples.size()][];
+
+        if(samples.isEmpty())
+            return sims;
+
+        int taskCount = max(min(threadCount, samples.size()), 1);
+        int samplesPerTask = (samples.size() + taskCount - 1) / taskCount;
+
+        List<Callable> tasks = Lists.newArrayList();
+
+        for(int start = 0; start < samples.size(); start += samplesPerTask)
+        {
+            final int startIndex = start;
+            final int endIndex = min(start + samplesPerTask, samples.size());
+
+            tasks.add(() -> { calcBlockSims(samples, startIndex, endIndex, sims); return 0L; });
+        }
+
+        TaskExecutor.executeTasks(tasks, taskCount);
+        return sims;
+    }
+
+    private void calcBlockSims(final List<double[]> samples, int startIndex, int endIndex, final double[][] sims)
+    {
+        double[] sampleNorms = new double[endIndex - startIndex];
+
+        for(int s = startIndex; s < endIndex; ++s)
+        {
+            sims[s] = new double[Rows];
+            sampleNorms[s - startIndex] = samples.get(s).length == Cols ? sqrt(sumSquares(samples.get(s))) : 0;
+        }
+
+        int blockRows = max(BLOCK_BYTES / max(Cols * Double.BYTES, 1), 1);
+
+        for(int blockStart = 0; blockStart < Rows; blockStart += blockRows)
+        {
+            int blockEnd = min(blockStart + blockRows, Rows);
+
+            for(int s = startIndex; s < endIndex; ++s)
+            {
+                double sampleNorm = sampleNorms[s - startIndex];
+
+                if(sampleNorm <= 0)
+                    continue;
+
+                for(int r = blockStart; r < blockEnd; ++r)
+                {
+                    sims[s][r] = calcCosineSim(samples.get(s), sampleNorm, r);
+                }
+            }
+        }
+    }
+
+    private double calcCosineSim(final double[] sample, double sampleNorm, int row)
+    {
+        if(Cols < 2 || sampleNorm <= 0 || mRowNorms[row] <= 0)
+            return 0;
+
+        final double[] refValues = mData[row];
+        double abTotal = 0;
+
+        for(int c = 0; c < Cols; ++c)
+        {
+            abTotal += sample[c] * refValues[c];
+        }
+
+        return min(abTotal / (sampleNorm * mRowNorms[row]), 1.0);
+    }
+
+    private static double sumSquares(final double[] values)
+    {
+        double total = 0;
+
+        for(double value : values)
+        {
+            total += value * value;
+        }
+
+        return total;
+    }
+}
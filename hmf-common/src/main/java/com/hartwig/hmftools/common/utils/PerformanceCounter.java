@@ -6,6 +6,7 @@ import static java.lang.Math.max;
 import java.util.List;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.metrics.StageEvent;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -105,6 +106,8 @@ public class PerformanceCounter
 
         long sampleTime = System.nanoTime() - mStartTime;
         sampleTime += mPausedTime;
+        StageEvent.commit(mName, mCurrentIntervalName, sampleTime);
+
         double sampleTimeSeconds = sampleTime / NANOS_IN_SECOND;
 
         mMaxTime = max(sampleTimeSeconds, mMaxTime);
@@ -0,0 +1,23 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// a monotonically increasing count, safe to update from multiple threads
+public class Counter
+{
+    private final String mName;
+    private final LongAdder mValue;
+
+    public Counter(final String name)
+    {
+        mName = name;
+        mValue = new LongAdder();
+    }
+
+    public String name() { return mName; }
+
+    public void increment() { mValue.increment(); }
+    public void add(long value) { mValue.add(value); }
+
+    public long value() { return mValue.sum(); }
+}
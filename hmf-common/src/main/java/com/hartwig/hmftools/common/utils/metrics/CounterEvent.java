@@ -0,0 +1,31 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+// periodic snapshot of each registered counter, so a recording shows throughput over the course of a run
+@Name("com.hartwig.hmftools.Counter")
+@Label("Counter")
+@Category("HMF Tools")
+@Description("Current value of a tool metrics counter")
+@Period("1 s")
+@StackTrace(false)
+public class CounterEvent extends Event
+{
+    @Label("Tool")
+    public String tool;
+
+    @Label("Sample")
+    public String sample;
+
+    @Label("Counter")
+    public String counter;
+
+    @Label("Value")
+    public long value;
+}
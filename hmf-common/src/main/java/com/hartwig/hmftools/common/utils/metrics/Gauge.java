@@ -0,0 +1,23 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a point-in-time value such as memory usage or an input file size
+public class Gauge
+{
+    private final String mName;
+    private final AtomicLong mValue;
+
+    public Gauge(final String name)
+    {
+        mName = name;
+        mValue = new AtomicLong();
+    }
+
+    public String name() { return mName; }
+
+    public void set(long value) { mValue.set(value); }
+    public void setMax(long value) { mValue.accumulateAndGet(value, Math::max); }
+
+    public long value() { return mValue.get(); }
+}
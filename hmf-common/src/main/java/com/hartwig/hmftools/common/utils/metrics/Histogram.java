@@ -0,0 +1,72 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// counts of observed values in fixed buckets, plus their total and maximum, safe to update from multiple threads
+public class Histogram
+{
+    private final String mName;
+    private final double[] mUpperBounds; // ascending, with a final implicit bucket for larger values
+    private final LongAdder[] mBucketCounts;
+    private final LongAdder mCount;
+    private final DoubleAdder mTotal;
+    private final DoubleAccumulator mMax;
+
+    // stage latencies in seconds, from a single small region up to a whole-genome stage
+    public static final double[] LATENCY_BOUNDS = { 0.001, 0.01, 0.1, 0.5, 1, 5, 10, 30, 60, 300, 1800 };
+
+    public Histogram(final String name, final double[] upperBounds)
+    {
+        mName = name;
+        mUpperBounds = upperBounds;
+        mBucketCounts = new LongAdder[upperBounds.length + 1];
+
+        for(int i = 0; i < mBucketCounts.length; ++i)
+        {
+            mBucketCounts[i] = new LongAdder();
+        }
+
+        mCount = new LongAdder();
+        mTotal = new DoubleAdder();
+        mMax = new DoubleAccumulator(Math::max, 0);
+    }
+
+    public String name() { return mName; }
+
+    public void record(double value)
+    {
+        int index = 0;
+
+        while(index < mUpperBounds.length && value > mUpperBounds[index])
+        {
+            ++index;
+        }
+
+        mBucketCounts[index].increment();
+        mCount.increment();
+        mTotal.add(value);
+        mMax.accumulate(value);
+    }
+
+    public long count() { return mCount.sum(); }
+    public double total() { return mTotal.sum(); }
+    public double max() { return mMax.get(); }
+    public double mean() { return count() > 0 ? total() / count() : 0; }
+
+    public double[] upperBounds() { return mUpperBounds; }
+
+    // per-bucket counts, the last being values above the final bound
+    public long[] bucketCounts()
+    {
+        long[] counts = new long[mBucketCounts.length];
+
+        for(int i = 0; i < counts.length; ++i)
+        {
+            counts[i] = mBucketCounts[i].sum();
+        }
+
+        return counts;
+    }
+}
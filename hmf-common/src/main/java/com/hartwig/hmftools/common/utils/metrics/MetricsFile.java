@@ -0,0 +1,183 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.time.Instant;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public final class MetricsFile
+{
+    public static final String PROMETHEUS_EXTENSION = ".prom";
+
+    private static final String METRIC_PREFIX = "hmftools_";
+
+    private static final Logger LOGGER = LogManager.getLogger(MetricsFile.class);
+
+    public static void write(final String filename, final MetricsRegistry registry)
+    {
+        try
+        {
+            BufferedWriter writer = createBufferedWriter(filename, false);
+
+            if(filename.endsWith(PROMETHEUS_EXTENSION))
+                writer.write(toPrometheus(registry));
+            else
+                writer.write(toJson(registry));
+
+            writer.newLine();
+            writer.close();
+        }
+        catch(IOException e)
+        {
+            LOGGER.error("failed to write metrics file({}): {}", filename, e.toString());
+        }
+    }
+
+    public static String toJson(final MetricsRegistry registry)
+    {
+        double elapsedSeconds = registry.elapsedSeconds();
+
+        JsonObject json = new JsonObject();
+        json.addProperty("tool", registry.tool());
+        json.addProperty("sample", registry.sampleId());
+        json.addProperty("startTime", Instant.ofEpochMilli(registry.startTimeMs()).toString());
+        json.addProperty("elapsedSeconds", elapsedSeconds);
+
+        JsonObject counters = new JsonObject();
+
+        for(Counter counter : registry.counters())
+        {
+            JsonObject counterJson = new JsonObject();
+            counterJson.addProperty("value", counter.value());
+            counterJson.addProperty("perSecond", elapsedSeconds > 0 ? counter.value() / elapsedSeconds : 0);
+            counters.add(counter.name(), counterJson);
+        }
+
+        json.add("counters", counters);
+
+        JsonObject gauges = new JsonObject();
+        registry.gauges().forEach(x -> gauges.addProperty(x.name(), x.value()));
+        json.add("gauges", gauges);
+
+        JsonObject histograms = new JsonObject();
+        registry.histograms().forEach(x -> histograms.add(x.name(), toJson(x)));
+        json.add("histograms", histograms);
+
+        JsonObject stages = new JsonObject();
+        registry.stageTimes().forEach(x -> stages.add(x.name(), toJson(x)));
+        json.add("stageSeconds", stages);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+
+    private static JsonObject toJson(final Histogram histogram)
+    {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.count());
+        json.addProperty("total", histogram.total());
+        json.addProperty("mean", histogram.mean());
+        json.addProperty("max", histogram.max());
+
+        JsonObject buckets = new JsonObject();
+        long[] bucketCounts = histogram.bucketCounts();
+
+        for(int i = 0; i < bucketCounts.length; ++i)
+        {
+            buckets.addProperty(bucketLabel(histogram, i), bucketCounts[i]);
+        }
+
+        json.add("buckets", buckets);
+        return json;
+    }
+
+    public static String toPrometheus(final MetricsRegistry registry)
+    {
+        StringBuilder sb = new StringBuilder();
+        String labels = String.format("tool=\"%s\",sample=\"%s\"", escapeLabel(registry.tool()), escapeLabel(registry.sampleId()));
+
+        addMetric(sb, "elapsed_seconds", "gauge", labels, String.valueOf(registry.elapsedSeconds()));
+
+        for(Counter counter : registry.counters())
+        {
+            addMetric(sb, counter.name() + "_total", "counter", labels, String.valueOf(counter.value()));
+        }
+
+        for(Gauge gauge : registry.gauges())
+        {
+            addMetric(sb, gauge.name(), "gauge", labels, String.valueOf(gauge.value()));
+        }
+
+        for(Histogram histogram : registry.histograms())
+        {
+            addHistogram(sb, metricName(histogram.name()), labels, histogram);
+        }
+
+        // stage latencies share a single metric, distinguished by a stage label
+        if(!registry.stageTimes().isEmpty())
+        {
+            String name = METRIC_PREFIX + "stage_seconds";
+            sb.append(String.format("# TYPE %s histogram\n", name));
+
+            for(Histogram histogram : registry.stageTimes())
+            {
+                addHistogramValues(sb, name, labels + String.format(",stage=\"%s\"", escapeLabel(histogram.name())), histogram);
+            }
+        }
+
+        return sb.toString().trim();
+    }
+
+    private static void addMetric(final StringBuilder sb, final String name, final String type, final String labels, final String value)
+    {
+        String metricName = metricName(name);
+        sb.append(String.format("# TYPE %s %s\n", metricName, type));
+        sb.append(String.format("%s{%s} %s\n", metricName, labels, value));
+    }
+
+    private static void addHistogram(final StringBuilder sb, final String name, final String labels, final Histogram histogram)
+    {
+        sb.append(String.format("# TYPE %s histogram\n", name));
+        addHistogramValues(sb, name, labels, histogram);
+    }
+
+    private static void addHistogramValues(final StringBuilder sb, final String name, final String labels, final Histogram histogram)
+    {
+        // Prometheus buckets are cumulative
+        long[] bucketCounts = histogram.bucketCounts();
+        long cumulativeCount = 0;
+
+        for(int i = 0; i < bucketCounts.length; ++i)
+        {
+            cumulativeCount += bucketCounts[i];
+            sb.append(String.format("%s_bucket{%s,le=\"%s\"} %d\n", name, labels, bucketLabel(histogram, i), cumulativeCount));
+        }
+
+        sb.append(String.format("%s_sum{%s} %s\n", name, labels, histogram.total()));
+        sb.append(String.format("%s_count{%s} %d\n", name, labels, histogram.count()));
+    }
+
+    private static String bucketLabel(final Histogram histogram, int index)
+    {
+        return index < histogram.upperBounds().length ? String.valueOf(histogram.upperBounds()[index]) : "+Inf";
+    }
+
+    private static String metricName(final String name)
+    {
+        return METRIC_PREFIX + name.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+    }
+
+    private static String escapeLabel(final String value)
+    {
+        if(value == null)
+            return "";
+
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
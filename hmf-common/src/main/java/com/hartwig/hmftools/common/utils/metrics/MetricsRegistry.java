@@ -0,0 +1,170 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import static com.hartwig.hmftools.common.utils.MemoryCalcs.calcMemoryUsage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import jdk.jfr.FlightRecorder;
+
+// counters, gauges and histograms recorded by a tool over a run, written to a metrics file at the end of the run
+public class MetricsRegistry
+{
+    private final String mTool;
+    private final String mSampleId;
+    private final long mStartTimeMs;
+
+    private final Map<String,Counter> mCounters;
+    private final Map<String,Gauge> mGauges;
+    private final Map<String,Histogram> mHistograms;
+    private final Map<String,Histogram> mStageTimes; // latencies in seconds keyed by stage
+
+    // common metric names
+    public static final String READS_PROCESSED = "reads_processed";
+    public static final String REGIONS_PROCESSED = "regions_processed";
+    public static final String BYTES_READ = "bytes_read";
+    public static final String INPUT_BYTES = "input_bytes";
+    public static final String MAX_MEMORY_MB = "max_memory_mb";
+
+    public static final String METRICS_FILE = "metrics_file";
+
+    private static final Logger LOGGER = LogManager.getLogger(MetricsRegistry.class);
+
+    // registries whose counters are emitted as periodic Flight Recorder events
+    private static final Set<MetricsRegistry> REGISTRIES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static
+    {
+        try
+        {
+            FlightRecorder.addPeriodicEvent(CounterEvent.class, MetricsRegistry::emitCounterEvents);
+        }
+        catch(Throwable e)
+        {
+            // metrics are still recorded and written without Flight Recorder support
+            LOGGER.debug("flight recorder unavailable: {}", e.toString());
+        }
+    }
+
+    public MetricsRegistry(final String tool, final String sampleId)
+    {
+        mTool = tool;
+        mSampleId = sampleId;
+        mStartTimeMs = System.currentTimeMillis();
+        mCounters = new ConcurrentHashMap<>();
+        mGauges = new ConcurrentHashMap<>();
+        mHistograms = new ConcurrentHashMap<>();
+        mStageTimes = new ConcurrentHashMap<>();
+
+        REGISTRIES.add(this);
+    }
+
+    public static void addMetricsOptions(final Options options)
+    {
+        options.addOption(METRICS_FILE, true, "Write run metrics to file, as Prometheus text if the file ends in '.prom', otherwise JSON");
+    }
+
+    public static String metricsFile(final CommandLine cmd) { return cmd.getOptionValue(METRICS_FILE); }
+
+    public String tool() { return mTool; }
+    public String sampleId() { return mSampleId; }
+    public long startTimeMs() { return mStartTimeMs; }
+
+    public Counter counter(final String name) { return mCounters.computeIfAbsent(name, Counter::new); }
+    public Gauge gauge(final String name) { return mGauges.computeIfAbsent(name, Gauge::new); }
+
+    public Histogram histogram(final String name, final double[] upperBounds)
+    {
+        return mHistograms.computeIfAbsent(name, x -> new Histogram(x, upperBounds));
+    }
+
+    public Histogram stageTimes(final String stage)
+    {
+        return mStageTimes.computeIfAbsent(stage, x -> new Histogram(x, Histogram.LATENCY_BOUNDS));
+    }
+
+    public void recordStageTime(final String stage, double seconds) { stageTimes(stage).record(seconds); }
+
+    // records each interval timed by a counter, which will usually have been merged across threads or regions
+    public void addPerfCounter(final PerformanceCounter perfCounter)
+    {
+        Histogram stageTimes = stageTimes(perfCounter.getName());
+        perfCounter.getTimes().forEach(x -> stageTimes.record(x));
+    }
+
+    public void addPerfCounters(final List<PerformanceCounter> perfCounters) { perfCounters.forEach(x -> addPerfCounter(x)); }
+
+    // times a stage which runs once per sample, such as loading or fitting
+    public PerformanceCounter startStage(final String stage)
+    {
+        PerformanceCounter perfCounter = new PerformanceCounter(stage);
+        perfCounter.start();
+        return perfCounter;
+    }
+
+    public void stopStage(final PerformanceCounter perfCounter)
+    {
+        perfCounter.stop();
+        addPerfCounter(perfCounter);
+    }
+
+    public void recordMemoryUsage() { gauge(MAX_MEMORY_MB).setMax(calcMemoryUsage()); }
+
+    public double elapsedSeconds() { return (System.currentTimeMillis() - mStartTimeMs) / 1000.0; }
+
+    public List<Counter> counters() { return sortedValues(mCounters); }
+    public List<Gauge> gauges() { return sortedValues(mGauges); }
+    public List<Histogram> histograms() { return sortedValues(mHistograms); }
+    public List<Histogram> stageTimes() { return sortedValues(mStageTimes); }
+
+    private static <T> List<T> sortedValues(final Map<String,T> metrics)
+    {
+        List<T> values = Lists.newArrayListWithCapacity(metrics.size());
+        metrics.keySet().stream().sorted().forEach(x -> values.add(metrics.get(x)));
+        return values;
+    }
+
+    public void writeMetrics(final String filename)
+    {
+        if(filename == null)
+            return;
+
+        REGISTRIES.remove(this);
+        MetricsFile.write(filename, this);
+    }
+
+    private static void emitCounterEvents()
+    {
+        List<MetricsRegistry> registries;
+
+        synchronized(REGISTRIES)
+        {
+            registries = Lists.newArrayList(REGISTRIES);
+        }
+
+        for(MetricsRegistry registry : registries)
+        {
+            for(Counter counter : registry.counters())
+            {
+                CounterEvent event = new CounterEvent();
+                event.tool = registry.mTool;
+                event.sample = registry.mSampleId;
+                event.counter = counter.name();
+                event.value = counter.value();
+                event.commit();
+            }
+        }
+    }
+}
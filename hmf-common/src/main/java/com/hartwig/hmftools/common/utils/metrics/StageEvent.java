@@ -0,0 +1,46 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// a completed timed stage, emitted to any active Flight Recorder recording
+@Name("com.hartwig.hmftools.Stage")
+@Label("Stage")
+@Category("HMF Tools")
+@Description("Completion of a timed processing stage")
+@StackTrace(false)
+public class StageEvent extends Event
+{
+    @Label("Stage")
+    public String stage;
+
+    @Label("Interval")
+    @Description("Region or item processed by the stage, if named")
+    public String interval;
+
+    @Label("Active Time")
+    @Description("Time spent in the stage excluding any pauses")
+    @Timespan(Timespan.NANOSECONDS)
+    public long activeTime;
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(StageEvent.class);
+
+    public static void commit(final String stage, final String interval, long activeNanos)
+    {
+        // checked on the event type so that no event is allocated unless a recording has enabled it
+        if(!EVENT_TYPE.isEnabled())
+            return;
+
+        StageEvent event = new StageEvent();
+        event.stage = stage;
+        event.interval = interval;
+        event.activeTime = activeNanos;
+        event.commit();
+    }
+}
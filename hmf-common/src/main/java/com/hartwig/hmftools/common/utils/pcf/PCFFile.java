@@ -1,5 +1,8 @@
 package com.hartwig.hmftools.common.utils.pcf;
 
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
+
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -17,6 +20,7 @@ import com.hartwig.hmftools.common.genome.position.GenomePosition;
 import com.hartwig.hmftools.common.genome.region.GenomeRegion;
 import com.hartwig.hmftools.common.genome.region.GenomeRegions;
 import com.hartwig.hmftools.common.genome.window.Window;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter.PCFSegment;
 
 import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
@@ -105,6 +109,23 @@ public final class PCFFile
         return result;
     }
 
+    public static void write(final String filename, final String sampleId, final List<PCFSegment> segments) throws IOException
+    {
+        // matches the output of the R copynumber package
+        try(BufferedWriter writer = createBufferedWriter(filename))
+        {
+            writer.write(String.join(DELIMITER, HEADER_PREFIX, "chrom", "arm", "start.pos", "end.pos", "n.probes", "mean"));
+            writer.newLine();
+
+            for(PCFSegment segment : segments)
+            {
+                writer.write(String.format("%s\t%s\t%s\t%d\t%d\t%d\t%.4f",
+                        sampleId, segment.Chromosome, segment.Arm, segment.PosStart, segment.PosEnd, segment.Count, segment.Mean));
+                writer.newLine();
+            }
+        }
+    }
+
     public static Multimap<String, GenomeRegion> read(int windowSize, final String filename) throws IOException
     {
         return fromLines(windowSize, Files.readAllLines(new File(filename).toPath()));
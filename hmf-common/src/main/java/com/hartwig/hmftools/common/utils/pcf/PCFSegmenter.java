@@ -0,0 +1,153 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import static com.hartwig.hmftools.common.genome.chromosome.HumanChromosome.chromosomeRank;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates.COORDS_37;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates.COORDS_38;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+
+// segments per-position values by chromosome arm, replacing the R copynumber::pcf routine - see PiecewiseConstantFit for how
+// the exact fit differs from R's default on large arms
+public class PCFSegmenter
+{
+    private final int mKmin;
+    private final double mGamma;
+    private final RefGenomeCoordinates mRefGenomeCoords;
+
+    public static final String ARM_P = "p";
+    public static final String ARM_Q = "q";
+
+    public PCFSegmenter(int kmin, double gamma, final RefGenomeVersion refGenomeVersion)
+    {
+        mKmin = kmin;
+        mGamma = gamma;
+        mRefGenomeCoords = refGenomeVersion.is37() ? COORDS_37 : COORDS_38;
+    }
+
+    public static class PCFSegment
+    {
+        public final String Chromosome;
+        public final String Arm;
+        public final int PosStart;
+        public final int PosEnd;
+        public final int Count;
+        public final double Mean;
+
+        public PCFSegment(final String chromosome, final String arm, int posStart, int posEnd, int count, double mean)
+        {
+            Chromosome = chromosome;
+            Arm = arm;
+            PosStart = posStart;
+            PosEnd = posEnd;
+            Count = count;
+            Mean = mean;
+        }
+
+        public String toString() { return String.format("%s%s:%d-%d count(%d) mean(%.4f)", Chromosome, Arm, PosStart, PosEnd, Count, Mean); }
+    }
+
+    private class ArmData
+    {
+        public final String Chromosome;
+        public final String Arm;
+        public final int[] Positions;
+        public final double[] Values;
+
+        public ArmData(final String chromosome, final String arm, final List<? extends GenomePosition> items, final double[] values)
+        {
+            Chromosome = chromosome;
+            Arm = arm;
+            Positions = items.stream().mapToInt(GenomePosition::position).toArray();
+            Values = values;
+        }
+
+        public List<PCFSegment> segment(double gamma)
+        {
+            return PiecewiseConstantFit.fit(Values, mKmin, gamma).stream()
+                    .map(x -> new PCFSegment(Chromosome, Arm, Positions[x.StartIndex], Positions[x.EndIndex], x.count(), x.Mean))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public <T extends GenomePosition> List<PCFSegment> segment(
+            final Collection<T> items, final ToDoubleFunction<T> valueFunction, final ExecutorService executorService)
+            throws ExecutionException, InterruptedException
+    {
+        // values which are NaN are excluded, then the remainder ordered by chromosome and position
+        List<T> validItems = items.stream()
+                .filter(x -> HumanChromosome.contains(x.chromosome()))
+                .filter(x -> !Double.isNaN(valueFunction.applyAsDouble(x)))
+                .sorted(Comparator.comparingInt((T x) -> chromosomeRank(x.chromosome())).thenComparingInt(GenomePosition::position))
+                .collect(Collectors.toList());
+
+        double[] allValues = validItems.stream().mapToDouble(valueFunction).toArray();
+
+        // as per the R implementation, gamma is scaled by the noise variance across all values since the cost is a sum of
+        // squared errors
+        double noiseSd = PiecewiseConstantFit.estimateNoise(allValues);
+        double gamma = mGamma * noiseSd * noiseSd;
+
+        // split each chromosome at its centromere in the configured ref genome version
+        List<ArmData> arms = Lists.newArrayList();
+
+        int index = 0;
+
+        while(index < validItems.size())
+        {
+            String chromosome = validItems.get(index).chromosome();
+            int centromere = mRefGenomeCoords.centromere(chromosome);
+            int armStart = index;
+
+            while(index < validItems.size() && validItems.get(index).chromosome().equals(chromosome))
+            {
+                if(index > armStart && validItems.get(index - 1).position() <= centromere && validItems.get(index).position() > centromere)
+                {
+                    arms.add(createArm(validItems, allValues, armStart, index, centromere));
+                    armStart = index;
+                }
+
+                ++index;
+            }
+
+            arms.add(createArm(validItems, allValues, armStart, index, centromere));
+        }
+
+        List<Future<List<PCFSegment>>> futures = Lists.newArrayList();
+
+        for(ArmData arm : arms)
+        {
+            futures.add(executorService.submit(() -> arm.segment(gamma)));
+        }
+
+        List<PCFSegment> segments = Lists.newArrayList();
+
+        for(Future<List<PCFSegment>> future : futures)
+        {
+            segments.addAll(future.get());
+        }
+
+        return segments;
+    }
+
+    private <T extends GenomePosition> ArmData createArm(
+            final List<T> items, final double[] values, int startIndex, int endIndex, int centromere)
+    {
+        T first = items.get(startIndex);
+        String arm = first.position() <= centromere ? ARM_P : ARM_Q;
+        return new ArmData(first.chromosome(), arm, items.subList(startIndex, endIndex), Arrays.copyOfRange(values, startIndex, endIndex));
+    }
+}
@@ -0,0 +1,260 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+// native implementation of the piecewise constant fit (PCF) from the R copynumber package, which finds the segmentation minimising
+// the sum of squared errors plus a penalty of gamma per breakpoint, with each segment having at least kmin observations
+// the fit is always exact - R's pcf by default (fast=TRUE) instead restricts breakpoints to candidate positions on arms with 1000
+// or more probes, as a speed-up of the same minimisation, so on such arms its segmentation is never better under this cost and can
+// differ where the heuristic misses the optimum - the exact fit is used since it is deterministic and fast enough with pruning
+public final class PiecewiseConstantFit
+{
+    public static final int MAD_FILTER_HALF_WIDTH = 25;
+
+    private static final double MAD_SCALE_FACTOR = 1.4826;
+
+    private PiecewiseConstantFit() {}
+
+    public static class Segment
+    {
+        public final int StartIndex; // inclusive
+        public final int EndIndex; // inclusive
+        public final double Mean;
+
+        public Segment(int startIndex, int endIndex, double mean)
+        {
+            StartIndex = startIndex;
+            EndIndex = endIndex;
+            Mean = mean;
+        }
+
+        public int count() { return EndIndex - StartIndex + 1; }
+
+        public String toString() { return String.format("%d-%d mean(%.4f)", StartIndex, EndIndex, Mean); }
+    }
+
+    public static List<Segment> fit(final double[] values, int kmin, double gamma)
+    {
+        int n = values.length;
+        List<Segment> segments = Lists.newArrayList();
+
+        if(n == 0)
+            return segments;
+
+        // cumulative sums give the cost of any segment in constant time
+        double[] sums = new double[n + 1];
+        double[] squares = new double[n + 1];
+
+        for(int i = 0; i < n; ++i)
+        {
+            sums[i + 1] = sums[i] + values[i];
+            squares[i + 1] = squares[i] + values[i] * values[i];
+        }
+
+        if(n < 2 * kmin)
+        {
+            segments.add(new Segment(0, n - 1, sums[n] / n));
+            return segments;
+        }
+
+        // bestCost[s] is the optimal penalised cost of the first s values, with the last segment starting after bestSplit[s]
+        double[] bestCost = new double[n + 1];
+        int[] bestSplit = new int[n + 1];
+
+        // the SSE cost is additive, so a split which cannot beat the current optimum will never do so later and can be
+        // pruned (as per PELT) - this only holds without a minimum segment length
+        boolean prune = kmin <= 1;
+        int[] candidates = new int[n + 1];
+        int candidateCount = 0;
+
+        for(int s = kmin; s <= n; ++s)
+        {
+            // make the split ending kmin observations ago available
+            int newCandidate = s - kmin;
+
+            if(newCandidate >= kmin)
+                candidates[candidateCount++] = newCandidate;
+
+            // splitting is penalised by gamma, and ties are resolved in favour of the earliest split, as per the R implementation
+            double minCost = Double.MAX_VALUE;
+            int minSplit = -1;
+
+            for(int c = 0; c < candidateCount; ++c)
+            {
+                int t = candidates[c];
+                double cost = bestCost[t] + segmentCost(sums, squares, t, s) + gamma;
+
+                if(cost < minCost)
+                {
+                    minCost = cost;
+                    minSplit = t;
+                }
+            }
+
+            double wholeCost = segmentCost(sums, squares, 0, s);
+
+            if(minSplit < 0 || wholeCost < minCost)
+            {
+                minCost = wholeCost;
+                minSplit = 0;
+            }
+
+            bestCost[s] = minCost;
+            bestSplit[s] = minSplit;
+
+            if(prune && candidateCount > 0)
+            {
+                int retained = 0;
+
+                for(int c = 0; c < candidateCount; ++c)
+                {
+                    int t = candidates[c];
+
+                    if(bestCost[t] + segmentCost(sums, squares, t, s) <= minCost)
+                        candidates[retained++] = t;
+                }
+
+                candidateCount = retained;
+            }
+        }
+
+        int end = n;
+
+        while(end > 0)
+        {
+            int start = bestSplit[end];
+            segments.add(0, new Segment(start, end - 1, (sums[end] - sums[start]) / (end - start)));
+            end = start;
+        }
+
+        return segments;
+    }
+
+    private static double segmentCost(final double[] sums, final double[] squares, int start, int end)
+    {
+        // sum of squared errors about the mean of values in (start, end]
+        double sum = sums[end] - sums[start];
+        return squares[end] - squares[start] - sum * sum / (end - start);
+    }
+
+    public static double estimateNoise(final double[] values)
+    {
+        // the standard deviation is estimated from the MAD of the residuals of a running median, excluding zeros which are
+        // likely imputed values, and its square used to scale gamma
+        double[] nonZero = Arrays.stream(values).filter(x -> x != 0).toArray();
+
+        if(nonZero.length == 0)
+            return 0;
+
+        double[] runningMedian = medianFilter(nonZero, MAD_FILTER_HALF_WIDTH);
+
+        double[] residuals = new double[nonZero.length];
+
+        for(int i = 0; i < nonZero.length; ++i)
+        {
+            residuals[i] = nonZero[i] - runningMedian[i];
+        }
+
+        return mad(residuals);
+    }
+
+    public static double mad(final double[] values)
+    {
+        double median = median(values);
+
+        double[] deviations = new double[values.length];
+
+        for(int i = 0; i < values.length; ++i)
+        {
+            deviations[i] = Math.abs(values[i] - median);
+        }
+
+        return MAD_SCALE_FACTOR * median(deviations);
+    }
+
+    public static double median(final double[] values)
+    {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        int mid = sorted.length / 2;
+        return (sorted.length % 2) == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    public static double[] medianFilter(final double[] values, int halfWidth)
+    {
+        // running median of odd width, with Tukey's end-point rule applied to the ends, as per R's runmed with endrule 'median'
+        int n = values.length;
+        int width = 2 * halfWidth + 1;
+
+        if(width > n)
+            width = n == 0 ? 1 : ((n % 2) == 0 ? n - 1 : n);
+
+        int k = width / 2;
+
+        double[] result = values.clone();
+
+        if(k < 1)
+            return result;
+
+        // maintain a sorted copy of the current window
+        double[] window = Arrays.copyOfRange(values, 0, width);
+        Arrays.sort(window);
+        result[k] = window[k];
+
+        for(int i = k + 1; i < n - k; ++i)
+        {
+            double removed = values[i - k - 1];
+            double added = values[i + k];
+
+            int removeIndex = Arrays.binarySearch(window, removed);
+            System.arraycopy(window, removeIndex + 1, window, removeIndex, width - removeIndex - 1);
+
+            int insertIndex = Arrays.binarySearch(window, 0, width - 1, added);
+
+            if(insertIndex < 0)
+                insertIndex = -insertIndex - 1;
+
+            System.arraycopy(window, insertIndex, window, insertIndex + 1, width - insertIndex - 1);
+            window[insertIndex] = added;
+
+            result[i] = window[k];
+        }
+
+        return smoothEnds(result, k);
+    }
+
+    private static double[] smoothEnds(final double[] y, int k)
+    {
+        int n = y.length;
+        double[] smoothed = y.clone();
+
+        if(k >= 2)
+        {
+            smoothed[1] = median3(y[0], y[1], y[2]);
+            smoothed[n - 2] = median3(y[n - 1], y[n - 2], y[n - 3]);
+
+            for(int i = 3; i <= k; ++i)
+            {
+                if(2 * i > n)
+                    break;
+
+                smoothed[i - 1] = median(Arrays.copyOfRange(y, 0, 2 * i - 1));
+                smoothed[n - i] = median(Arrays.copyOfRange(y, n + 1 - 2 * i, n));
+            }
+        }
+
+        smoothed[0] = median3(y[0], smoothed[1], 3 * smoothed[1] - 2 * smoothed[2]);
+        smoothed[n - 1] = median3(y[n - 1], smoothed[n - 2], 3 * smoothed[n - 2] - 2 * smoothed[n - 3]);
+
+        return smoothed;
+    }
+
+    private static double median3(double a, double b, double c)
+    {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
@@ -0,0 +1,133 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import htsjdk.samtools.reference.FastaSequenceIndexCreator;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+public class RefGenomeTwoBitTest
+{
+    @Test
+    public void testMatchesFastaReference() throws IOException
+    {
+        Path directory = Files.createTempDirectory("ref_genome");
+        File fastaFile = directory.resolve("ref.fasta").toFile();
+        File twoBitFile = directory.resolve("ref.2bit").toFile();
+
+        // sequences with odd lengths, unknown bases at the ends and within, and soft-masked bases
+        Random random = new Random(7);
+        StringBuilder fasta = new StringBuilder();
+        List<String> sequences = Lists.newArrayList();
+
+        for(int s = 0; s < 3; ++s)
+        {
+            StringBuilder bases = new StringBuilder();
+            int length = 997 + s * 250;
+
+            for(int i = 0; i < length; ++i)
+            {
+                char base = "ACGT".charAt(random.nextInt(4));
+
+                if(i < 10 * s || (i >= 300 && i < 320) || i == length - 1)
+                    base = 'N';
+                else if(i == 500)
+                    base = 'R';
+
+                if((i >= 310 && i < 350) || (i >= 700 && i < 703))
+                    base = Character.toLowerCase(base);
+
+                bases.append(base);
+            }
+
+            sequences.add(bases.toString());
+            fasta.append(">chr").append(s + 1).append(" description\n");
+
+            for(int i = 0; i < length; i += 60)
+            {
+                fasta.append(bases, i, Math.min(i + 60, length)).append('\n');
+            }
+        }
+
+        Files.write(fastaFile.toPath(), fasta.toString().getBytes());
+        FastaSequenceIndexCreator.create(fastaFile.toPath(), true);
+
+        assertEquals(3, RefGenomeTwoBitConverter.convert(fastaFile.getAbsolutePath(), twoBitFile.getAbsolutePath()));
+
+        RefGenomeSource fastaRefGenome = new RefGenomeSource(new IndexedFastaSequenceFile(fastaFile));
+        RefGenomeTwoBit twoBitRefGenome = new RefGenomeTwoBit(twoBitFile.getAbsolutePath());
+
+        assertEquals(3, twoBitRefGenome.chromosomes().size());
+
+        for(int s = 0; s < sequences.size(); ++s)
+        {
+            String chromosome = "chr" + (s + 1);
+            int length = sequences.get(s).length();
+            assertEquals(length, twoBitRefGenome.getChromosomeLength(chromosome));
+
+            // IUPAC codes other than N are read back as N
+            String expected = sequences.get(s).replace('R', 'N');
+            assertEquals(expected, twoBitRefGenome.getBaseString(chromosome, 1, length));
+
+            for(int i = 0; i < 200; ++i)
+            {
+                int posStart = 1 + random.nextInt(length);
+                int posEnd = Math.min(length, posStart + random.nextInt(100));
+
+                assertEquals(expected.substring(posStart - 1, posEnd), twoBitRefGenome.getBaseString(chromosome, posStart, posEnd));
+
+                if(!sequences.get(s).substring(posStart - 1, posEnd).contains("R"))
+                {
+                    assertEquals(fastaRefGenome.getBaseString(chromosome, posStart, posEnd),
+                            twoBitRefGenome.getBaseString(chromosome, posStart, posEnd));
+                }
+            }
+        }
+
+        assertEquals("NNNNNNNNNNNN", twoBitRefGenome.getBaseString("chr2", List.of(new int[] { 1, 10 }, new int[] { 301, 302 })));
+
+        // the loader picks the implementation from the file extension
+        assertTrue(RefGenomeSource.loadRefGenomeFile(twoBitFile.getAbsolutePath()) instanceof RefGenomeTwoBit);
+        assertTrue(RefGenomeSource.loadRefGenomeFile(fastaFile.getAbsolutePath()) instanceof RefGenomeSource);
+
+        twoBitFile.delete();
+        fastaFile.delete();
+        new File(fastaFile.getAbsolutePath() + ".fai").delete();
+        directory.toFile().delete();
+    }
+
+    @Test
+    public void testAmbiguityCodesWrittenAsN() throws IOException
+    {
+        Path directory = Files.createTempDirectory("ref_genome");
+        File fastaFile = directory.resolve("ref.fasta").toFile();
+        File twoBitFile = directory.resolve("ref.2bit").toFile();
+
+        // every IUPAC ambiguity code, upper and soft-masked, between known bases
+        String bases = "ACGTRYKMSWBDHVNACGTrykmswbdhvnACGT";
+        Files.write(fastaFile.toPath(), (">chr1\n" + bases + "\n").getBytes());
+        FastaSequenceIndexCreator.create(fastaFile.toPath(), true);
+
+        // the N bases are not counted since the 2bit format holds them
+        assertEquals(20, RefGenomeTwoBitConverter.convert(fastaFile.getAbsolutePath(), twoBitFile.getAbsolutePath()));
+
+        RefGenomeTwoBit twoBitRefGenome = new RefGenomeTwoBit(twoBitFile.getAbsolutePath());
+        assertEquals("ACGTNNNNNNNNNNNACGTnnnnnnnnnnnACGT", twoBitRefGenome.getBaseString("chr1", 1, bases.length()));
+
+        twoBitFile.delete();
+        fastaFile.delete();
+        new File(fastaFile.getAbsolutePath() + ".fai").delete();
+        directory.toFile().delete();
+    }
+}
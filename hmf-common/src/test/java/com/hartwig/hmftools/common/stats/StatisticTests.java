@@ -3,6 +3,13 @@ package com.hartwig.hmftools.common.stats;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 
+import static com.hartwig.hmftools.common.stats.CosineSimilarity.calcCosineSim;
+
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
 import org.junit.Test;
 
 public class StatisticTests
@@ -34,4 +41,66 @@ public class StatisticTests
         assertEquals(0.052, result.PValue, 0.001);
 
     }
+
+    @Test
+    public void testCosineSimilarityMatrix()
+    {
+        Random random = new Random(1);
+
+        int refCount = 50;
+        int cols = 96;
+        double[][] refData = new double[refCount][cols];
+
+        for(int r = 0; r < refCount; ++r)
+        {
+            for(int c = 0; c < cols; ++c)
+            {
+                refData[r][c] = random.nextInt(100);
+            }
+        }
+
+        // an empty reference has no similarity
+        refData[10] = new double[cols];
+
+        CosineSimilarityMatrix simMatrix = new CosineSimilarityMatrix(refData, refCount, cols);
+
+        List<double[]> samples = Lists.newArrayList();
+
+        for(int s = 0; s < 7; ++s)
+        {
+            double[] sample = new double[cols];
+
+            for(int c = 0; c < cols; ++c)
+            {
+                sample[c] = random.nextInt(50);
+            }
+
+            samples.add(sample);
+        }
+
+        samples.add(refData[3].clone());
+        samples.add(new double[cols]);
+
+        double[][] batchSims = simMatrix.calcCosineSims(samples, 3);
+        assertEquals(samples.size(), batchSims.length);
+
+        for(int s = 0; s < samples.size(); ++s)
+        {
+            double[] sampleSims = simMatrix.calcCosineSims(samples.get(s));
+
+            for(int r = 0; r < refCount; ++r)
+            {
+                double css = calcCosineSim(samples.get(s), refData[r]);
+
+                // matches the pairwise calculation exactly
+                assertEquals(css, sampleSims[r]);
+                assertEquals(css, batchSims[s][r]);
+                assertEquals(css, simMatrix.calcCosineSim(samples.get(s), r));
+            }
+        }
+
+        assertEquals(1.0, batchSims[7][3], 1e-10);
+        assertEquals(0.0, batchSims[0][10]);
+        assertEquals(0.0, batchSims[8][0]);
+    }
 }
@@ -0,0 +1,148 @@
+package com.hartwig.hmftools.common.utils.metrics;
+
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.READS_PROCESSED;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class MetricsRegistryTest
+{
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    public void testCountersAcrossThreads()
+    {
+        MetricsRegistry registry = new MetricsRegistry("test", "SAMPLE");
+
+        IntStream.range(0, 1000).parallel().forEach(x -> registry.counter(READS_PROCESSED).add(2));
+
+        assertEquals(2000, registry.counter(READS_PROCESSED).value());
+        assertEquals(1, registry.counters().size());
+    }
+
+    @Test
+    public void testHistogramBuckets()
+    {
+        Histogram histogram = new Histogram("depth", new double[] { 10, 100 });
+
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(50);
+        histogram.record(500);
+
+        assertArrayEquals(new long[] { 2, 1, 1 }, histogram.bucketCounts());
+        assertEquals(4, histogram.count());
+        assertEquals(565, histogram.total(), EPSILON);
+        assertEquals(500, histogram.max(), EPSILON);
+    }
+
+    @Test
+    public void testPerfCounterStageTimes()
+    {
+        MetricsRegistry registry = new MetricsRegistry("test", "SAMPLE");
+
+        PerformanceCounter perfCounter = new PerformanceCounter("Evidence");
+        perfCounter.start();
+        perfCounter.stop();
+        perfCounter.start();
+        perfCounter.stop();
+
+        registry.addPerfCounter(perfCounter);
+
+        Histogram stageTimes = registry.stageTimes("Evidence");
+        assertEquals(2, stageTimes.count());
+        assertEquals(perfCounter.getTotalTime(), stageTimes.total(), EPSILON);
+    }
+
+    @Test
+    public void testPrometheusFormat()
+    {
+        MetricsRegistry registry = new MetricsRegistry("sage", "SAMPLE");
+        registry.counter(READS_PROCESSED).add(100);
+        registry.gauge("max_memory_mb").setMax(20);
+        registry.gauge("max_memory_mb").setMax(10);
+        registry.recordStageTime("Candidates", 0.05);
+        registry.recordStageTime("Candidates", 2);
+
+        List<String> lines = MetricsFile.toPrometheus(registry).lines().collect(Collectors.toList());
+
+        assertTrue(lines.contains("# TYPE hmftools_reads_processed_total counter"));
+        assertTrue(lines.contains("hmftools_reads_processed_total{tool=\"sage\",sample=\"SAMPLE\"} 100"));
+        assertTrue(lines.contains("hmftools_max_memory_mb{tool=\"sage\",sample=\"SAMPLE\"} 20"));
+
+        // buckets are cumulative
+        assertTrue(lines.contains("hmftools_stage_seconds_bucket{tool=\"sage\",sample=\"SAMPLE\",stage=\"Candidates\",le=\"0.01\"} 0"));
+        assertTrue(lines.contains("hmftools_stage_seconds_bucket{tool=\"sage\",sample=\"SAMPLE\",stage=\"Candidates\",le=\"0.1\"} 1"));
+        assertTrue(lines.contains("hmftools_stage_seconds_bucket{tool=\"sage\",sample=\"SAMPLE\",stage=\"Candidates\",le=\"+Inf\"} 2"));
+        assertTrue(lines.contains("hmftools_stage_seconds_count{tool=\"sage\",sample=\"SAMPLE\",stage=\"Candidates\"} 2"));
+    }
+
+    @Test
+    public void testJsonFile() throws IOException
+    {
+        MetricsRegistry registry = new MetricsRegistry("purple", "SAMPLE");
+        registry.counter("regions_processed").add(5);
+        registry.recordStageTime("Fitting", 1.5);
+
+        File file = File.createTempFile("metrics", ".json");
+        file.deleteOnExit();
+        registry.writeMetrics(file.getAbsolutePath());
+
+        JsonObject json = JsonParser.parseString(Files.readString(file.toPath())).getAsJsonObject();
+
+        assertEquals("purple", json.get("tool").getAsString());
+        assertEquals(5, json.getAsJsonObject("counters").getAsJsonObject("regions_processed").get("value").getAsLong());
+
+        JsonObject fitting = json.getAsJsonObject("stageSeconds").getAsJsonObject("Fitting");
+        assertEquals(1, fitting.get("count").getAsLong());
+        assertEquals(1.5, fitting.get("max").getAsDouble(), EPSILON);
+    }
+
+    @Test
+    public void testStageFlightRecorderEvents() throws IOException
+    {
+        Path recordingFile = Files.createTempFile("stages", ".jfr");
+
+        try(Recording recording = new Recording())
+        {
+            recording.enable(StageEvent.class);
+            recording.start();
+
+            PerformanceCounter perfCounter = new PerformanceCounter("Variants");
+            perfCounter.start("1:1-1000");
+            perfCounter.stop();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(x -> x.getEventType().getName().equals("com.hartwig.hmftools.Stage"))
+                .collect(Collectors.toList());
+
+        Files.delete(recordingFile);
+
+        assertEquals(1, events.size());
+        assertEquals("Variants", events.get(0).getString("stage"));
+        assertEquals("1:1-1000", events.get(0).getString("interval"));
+    }
+}
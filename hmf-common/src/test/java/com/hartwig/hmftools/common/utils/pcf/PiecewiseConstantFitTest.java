@@ -0,0 +1,360 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V38;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Resources;
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.genome.position.GenomePositions;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter.PCFSegment;
+import com.hartwig.hmftools.common.utils.pcf.PiecewiseConstantFit.Segment;
+
+import org.junit.Test;
+
+public class PiecewiseConstantFitTest
+{
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testStepChanges()
+    {
+        double[] values = { 0.1, -0.1, 0.05, -0.05, 0, 2.1, 1.9, 2.0, 2.05, 1.95, 0.02, -0.02 };
+
+        List<Segment> segments = PiecewiseConstantFit.fit(values, 1, 1);
+
+        assertEquals(3, segments.size());
+        assertEquals(0, segments.get(0).StartIndex);
+        assertEquals(4, segments.get(0).EndIndex);
+        assertEquals(0, segments.get(0).Mean, EPSILON);
+        assertEquals(5, segments.get(1).StartIndex);
+        assertEquals(9, segments.get(1).EndIndex);
+        assertEquals(2.0, segments.get(1).Mean, EPSILON);
+        assertEquals(2, segments.get(2).count());
+
+        // a large penalty leaves a single segment
+        segments = PiecewiseConstantFit.fit(values, 1, 100);
+        assertEquals(1, segments.size());
+        assertEquals(values.length, segments.get(0).count());
+    }
+
+    @Test
+    public void testMatchesUnprunedSolution()
+    {
+        Random random = new Random(42);
+
+        for(int test = 0; test < 50; ++test)
+        {
+            int count = 20 + random.nextInt(200);
+            double[] values = new double[count];
+            double level = 0;
+
+            for(int i = 0; i < count; ++i)
+            {
+                if(random.nextDouble() < 0.05)
+                    level = random.nextGaussian() * 2;
+
+                values[i] = level + random.nextGaussian() * 0.3;
+            }
+
+            for(int kmin : new int[] { 1, 3 })
+            {
+                double gamma = 0.5 + random.nextDouble() * 5;
+                assertArrayEquals(bruteForceBreaks(values, kmin, gamma), segmentStarts(PiecewiseConstantFit.fit(values, kmin, gamma)));
+            }
+        }
+    }
+
+    @Test
+    public void testMedianFilter()
+    {
+        double[] values = { 1, 5, 2, 8, 3, 9, 4 };
+        assertArrayEquals(new double[] { 1, 2, 5, 3, 8, 4, 4 }, PiecewiseConstantFit.medianFilter(values, 1), EPSILON);
+
+        // interior values are plain running medians
+        values = new double[] { 4, 1, 7, 3, 9, 2, 8, 6, 5, 0, 11, 10 };
+        double[] filtered = PiecewiseConstantFit.medianFilter(values, 2);
+        assertEquals(4, filtered[2], EPSILON);
+        assertEquals(3, filtered[3], EPSILON);
+        assertEquals(7, filtered[4], EPSILON);
+        assertEquals(6, filtered[5], EPSILON);
+        assertEquals(6, filtered[6], EPSILON);
+        assertEquals(5, filtered[7], EPSILON);
+        assertEquals(6, filtered[8], EPSILON);
+        assertEquals(6, filtered[9], EPSILON);
+
+        // ends use medians of shrinking windows and Tukey's rule
+        assertEquals(4, filtered[1], EPSILON);
+        assertEquals(4, filtered[0], EPSILON);
+        assertEquals(10, filtered[10], EPSILON);
+        assertEquals(10, filtered[11], EPSILON);
+    }
+
+    @Test
+    public void testMad()
+    {
+        assertEquals(1.4826, PiecewiseConstantFit.mad(new double[] { 1, 2, 3, 4, 5 }), EPSILON);
+        assertEquals(0, PiecewiseConstantFit.estimateNoise(new double[] { 0, 0, 0 }), EPSILON);
+    }
+
+    @Test
+    public void testSegmentsByArm() throws ExecutionException, InterruptedException
+    {
+        // chromosome 1's centromere lies between these positions
+        List<GenomePosition> positions = Lists.newArrayList();
+        List<Double> values = Lists.newArrayList();
+
+        Random random = new Random(1);
+
+        for(int i = 0; i < 200; ++i)
+        {
+            positions.add(GenomePositions.create("1", 123_000_000 + i * 1000));
+            values.add((i < 36 ? 0 : 1) + random.nextGaussian() * 0.05);
+        }
+
+        for(int i = 0; i < 50; ++i)
+        {
+            positions.add(GenomePositions.create("2", 1000 + i * 1000));
+            values.add(Double.NaN);
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        PCFSegmenter segmenter = new PCFSegmenter(1, 10, V37);
+        List<PCFSegment> segments = segmenter.segment(positions, x -> values.get(positions.indexOf(x)), executorService);
+
+        executorService.shutdown();
+
+        assertEquals(2, segments.size());
+        assertEquals(PCFSegmenter.ARM_P, segments.get(0).Arm);
+        assertEquals(123_000_000, segments.get(0).PosStart);
+        assertEquals(123_035_000, segments.get(0).PosEnd);
+        assertEquals(36, segments.get(0).Count);
+        assertEquals(PCFSegmenter.ARM_Q, segments.get(1).Arm);
+        assertEquals(123_036_000, segments.get(1).PosStart);
+        assertEquals(164, segments.get(1).Count);
+        assertEquals(1, segments.get(1).Mean, 0.05);
+    }
+
+    @Test
+    public void testSegmentsByArmV38() throws ExecutionException, InterruptedException
+    {
+        // chromosome 1's V38 centromere lies between the 36th and 37th positions, whereas its V37 centromere lies before them all
+        List<GenomePosition> positions = Lists.newArrayList();
+        List<Double> values = Lists.newArrayList();
+
+        Random random = new Random(1);
+
+        for(int i = 0; i < 200; ++i)
+        {
+            positions.add(GenomePositions.create("chr1", 123_570_000 + i * 1000));
+            values.add((i < 36 ? 0 : 1) + random.nextGaussian() * 0.05);
+        }
+
+        List<PCFSegment> segments = segmentByArm(positions, values, V38);
+
+        assertEquals(2, segments.size());
+        assertEquals(PCFSegmenter.ARM_P, segments.get(0).Arm);
+        assertEquals(123_605_000, segments.get(0).PosEnd);
+        assertEquals(36, segments.get(0).Count);
+        assertEquals(PCFSegmenter.ARM_Q, segments.get(1).Arm);
+        assertEquals(123_606_000, segments.get(1).PosStart);
+        assertEquals(164, segments.get(1).Count);
+
+        segments = segmentByArm(positions, values, V37);
+        assertTrue(segments.stream().allMatch(x -> x.Arm.equals(PCFSegmenter.ARM_Q)));
+    }
+
+    private static List<PCFSegment> segmentByArm(
+            final List<GenomePosition> positions, final List<Double> values, final RefGenomeVersion refGenomeVersion)
+            throws ExecutionException, InterruptedException
+    {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        List<PCFSegment> segments = new PCFSegmenter(1, 10, refGenomeVersion).segment(
+                positions, x -> values.get(positions.indexOf(x)), executorService);
+
+        executorService.shutdown();
+        return segments;
+    }
+
+    @Test
+    public void testSegmentsPlantedSteps() throws IOException, ExecutionException, InterruptedException
+    {
+        // planted steps in noise with SD 0.2, segmented with gamma 100 and kmin 1 as per COBALT and AMBER - since the penalty is
+        // scaled by the noise variance the smaller steps are found, which a penalty scaled by the SD alone would miss
+        // the expected segments are a regression fixture from this implementation, not output from R's copynumber pcf, and each
+        // arm has fewer than 1000 probes so is below the size at which R's default heuristic would apply
+        List<String> inputLines = Files.readAllLines(Paths.get(Resources.getResource("pcf/segment_input.tsv").getPath()));
+
+        List<GenomePosition> positions = Lists.newArrayList();
+        Map<GenomePosition,Double> values = Maps.newHashMap();
+
+        for(String line : inputLines.subList(1, inputLines.size()))
+        {
+            String[] items = line.split("\t");
+            GenomePosition position = GenomePositions.create(items[0], Integer.parseInt(items[1]));
+            positions.add(position);
+            values.put(position, Double.parseDouble(items[2]));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        List<PCFSegment> segments = new PCFSegmenter(1, 100, V37).segment(positions, values::get, executorService);
+
+        executorService.shutdown();
+
+        List<String> expectedLines = Files.readAllLines(Paths.get(Resources.getResource("pcf/segment_expected.pcf").getPath()));
+        assertEquals(expectedLines.size() - 1, segments.size());
+
+        for(int i = 0; i < segments.size(); ++i)
+        {
+            String[] items = expectedLines.get(i + 1).split("\t");
+            PCFSegment segment = segments.get(i);
+
+            assertEquals(items[1], segment.Chromosome);
+            assertEquals(items[2], segment.Arm);
+            assertEquals(Integer.parseInt(items[3]), segment.PosStart);
+            assertEquals(Integer.parseInt(items[4]), segment.PosEnd);
+            assertEquals(Integer.parseInt(items[5]), segment.Count);
+            assertEquals(Double.parseDouble(items[6]), segment.Mean, 0.0001);
+        }
+    }
+
+    @Test
+    public void testExactOnLargeArms()
+    {
+        // arms of at least 1000 probes, where R's default pcf(fast=TRUE) would restrict breakpoints to candidate positions
+        // the exact fit must match the unrestricted optimum, and no fit restricted to a subset of breakpoints can have a lower cost
+        Random random = new Random(7);
+
+        for(int test = 0; test < 4; ++test)
+        {
+            boolean isBaf = test % 2 == 1;
+            int count = 1000 + random.nextInt(400);
+            double[] values = new double[count];
+            double level = isBaf ? 0.5 : 0;
+
+            for(int i = 0; i < count; ++i)
+            {
+                if(random.nextDouble() < 0.005)
+                {
+                    // COBALT log2 ratios of a copy number change, or AMBER tumor modified BAFs of an allelic imbalance
+                    level = isBaf ? 0.5 + random.nextDouble() * 0.5 : Math.log(1 + random.nextInt(5)) / Math.log(2) - 1;
+                }
+
+                values[i] = isBaf ? Math.min(level + Math.abs(random.nextGaussian()) * 0.05, 1) : level + random.nextGaussian() * 0.15;
+            }
+
+            // gamma as scaled by COBALT and AMBER's segmenter
+            double noiseSd = PiecewiseConstantFit.estimateNoise(values);
+            double gamma = 100 * noiseSd * noiseSd;
+
+            int[] exactStarts = segmentStarts(PiecewiseConstantFit.fit(values, 1, gamma));
+            assertArrayEquals(bruteForceBreaks(values, 1, gamma), exactStarts);
+
+            boolean[] candidateSplits = new boolean[count + 1];
+
+            for(int i = 0; i <= count; ++i)
+            {
+                candidateSplits[i] = random.nextDouble() < 0.1;
+            }
+
+            int[] restrictedStarts = bruteForceBreaks(values, 1, gamma, candidateSplits);
+            assertTrue(penalisedCost(values, exactStarts, gamma) <= penalisedCost(values, restrictedStarts, gamma) + EPSILON);
+        }
+    }
+
+    private static int[] segmentStarts(final List<Segment> segments)
+    {
+        return segments.stream().mapToInt(x -> x.StartIndex).toArray();
+    }
+
+    private static int[] bruteForceBreaks(final double[] values, int kmin, double gamma)
+    {
+        return bruteForceBreaks(values, kmin, gamma, null);
+    }
+
+    private static int[] bruteForceBreaks(final double[] values, int kmin, double gamma, final boolean[] allowedSplits)
+    {
+        // exhaustive optimal partitioning without pruning, optionally restricted to the allowed split positions
+        int n = values.length;
+        double[] cost = new double[n + 1];
+        int[] split = new int[n + 1];
+
+        double[] sums = new double[n + 1];
+        double[] squares = new double[n + 1];
+
+        for(int i = 0; i < n; ++i)
+        {
+            sums[i + 1] = sums[i] + values[i];
+            squares[i + 1] = squares[i] + values[i] * values[i];
+        }
+
+        for(int s = kmin; s <= n; ++s)
+        {
+            cost[s] = sse(sums, squares, 0, s);
+            split[s] = 0;
+
+            for(int t = kmin; t <= s - kmin; ++t)
+            {
+                if(allowedSplits != null && !allowedSplits[t])
+                    continue;
+
+                double splitCost = cost[t] + sse(sums, squares, t, s) + gamma;
+
+                if(splitCost < cost[s] - EPSILON)
+                {
+                    cost[s] = splitCost;
+                    split[s] = t;
+                }
+            }
+        }
+
+        List<Integer> starts = Lists.newArrayList();
+
+        for(int end = n; end > 0; end = split[end])
+        {
+            starts.add(0, split[end]);
+        }
+
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static double penalisedCost(final double[] values, final int[] starts, double gamma)
+    {
+        double cost = gamma * (starts.length - 1);
+
+        for(int i = 0; i < starts.length; ++i)
+        {
+            int end = i < starts.length - 1 ? starts[i + 1] : values.length;
+            double mean = Arrays.stream(values, starts[i], end).average().orElse(0);
+            cost += Arrays.stream(values, starts[i], end).map(x -> (x - mean) * (x - mean)).sum();
+        }
+
+        return cost;
+    }
+
+    private static double sse(final double[] sums, final double[] squares, int start, int end)
+    {
+        double sum = sums[end] - sums[start];
+        return squares[end] - squares[start] - sum * sum / (end - start);
+    }
+}
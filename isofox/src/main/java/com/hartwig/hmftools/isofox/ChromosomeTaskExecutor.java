@@ -136,6 +136,7 @@ public class ChromosomeTaskExecutor implements Callable
     public final ChimericStats getChimericStats() { return mChromosomeFusions.chimericStats(); }
     public boolean isValid() { return mIsValid; }
     public int totalReadCount() { return mTotalReadsProcessed; }
+    public int geneCollectionCount() { return mCollectionId; }
 
     public void setTaskType(TaskType taskType) { mCurrentTaskType = taskType; }
 
@@ -5,6 +5,9 @@ import static java.lang.Math.max;
 import static com.hartwig.hmftools.common.sigs.SigUtils.convertToPercentages;
 import static com.hartwig.hmftools.common.utils.VectorUtils.copyVector;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.INPUT_BYTES;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.READS_PROCESSED;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.REGIONS_PROCESSED;
 import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
 import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
 import static com.hartwig.hmftools.isofox.IsofoxConfig.createCmdLineOptions;
@@ -25,6 +28,7 @@ import static com.hartwig.hmftools.isofox.expression.TranscriptExpression.calcTp
 import static com.hartwig.hmftools.isofox.expression.TranscriptExpression.setTranscriptsPerMillion;
 import static com.hartwig.hmftools.isofox.results.SummaryStats.createSummaryStats;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +42,7 @@ import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.rna.RnaStatistics;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.isofox.adjusts.FragmentSize;
@@ -76,6 +81,7 @@ public class Isofox
     private int mMaxObservedReadLength;
     private final List<FragmentSize> mFragmentLengthDistribution;
     private final PerformanceTracking mPerfTracking;
+    private final MetricsRegistry mMetrics;
 
     public Isofox(final IsofoxConfig config, final CommandLine cmd)
     {
@@ -83,6 +89,7 @@ public class Isofox
 
         mResultsWriter = new ResultsWriter(mConfig);
         mPerfTracking = new PerformanceTracking(mConfig);
+        mMetrics = new MetricsRegistry("isofox", mConfig.SampleId);
 
         mGeneTransCache = new EnsemblDataCache(cmd, config.RefGenVersion);
 
@@ -145,9 +152,21 @@ public class Isofox
         }
 
         // BAM processing for the key routines - novel junctions, fusions and gene expression
-        if(!allocateBamFragments(chrGeneMap))
+        boolean allocated = allocateBamFragments(chrGeneMap);
+
+        if(mExpectedCountsCache != null)
+            mExpectedCountsCache.close();
+
+        if(!allocated)
             return false;
 
+        if(mConfig.MetricsFile != null)
+        {
+            mMetrics.gauge(INPUT_BYTES).set(new File(mConfig.BamFile).length());
+            mMetrics.recordMemoryUsage();
+            mMetrics.writeMetrics(mConfig.MetricsFile);
+        }
+
         return true;
     }
 
@@ -209,6 +228,9 @@ public class Isofox
         int totalReadsProcessed = chrTasks.stream().mapToInt(x -> x.totalReadCount()).sum();
         ISF_LOGGER.info("read {} total BAM records", totalReadsProcessed);
 
+        mMetrics.counter(READS_PROCESSED).add(totalReadsProcessed);
+        mMetrics.counter(REGIONS_PROCESSED).add(chrTasks.stream().mapToInt(x -> x.geneCollectionCount()).sum());
+
         logMemory(mConfig, "BamReading");
 
         if(!mConfig.runFusionsOnly())
@@ -234,6 +256,9 @@ public class Isofox
         final List<PerformanceCounter[]> perfCounters = chrTasks.stream().map(x -> x.getPerfCounters()).collect(Collectors.toList());
         chrTasks.clear();
 
+        // record before the counters are merged for logging
+        perfCounters.forEach(x -> mMetrics.addPerfCounters(Arrays.asList(x)));
+
         mPerfTracking.logPerformanceStats(perfCounters);
         return true;
     }
@@ -248,6 +273,12 @@ public class Isofox
             totalCounts[i] += chrTasks.stream().mapToInt(x -> x.getCombinedCounts()[fragIndex]).sum();
         }
 
+        for(FragmentType type : FragmentType.values())
+        {
+            if(type != FragmentType.MAX)
+                mMetrics.counter("fragments_" + type.toString().toLowerCase()).add(totalCounts[typeAsInt(type)]);
+        }
+
         int enrichedGeneFragCount = chrTasks.stream().mapToInt(x -> x.getEnrichedGenesFragmentCount()).sum();
 
         GcRatioCounts nonEnrichedGcRatioCounts = new GcRatioCounts();
@@ -18,6 +18,8 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.OUTPUT_DIR;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.OUTPUT_ID;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.addOutputDir;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.addMetricsOptions;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.metricsFile;
 import static com.hartwig.hmftools.isofox.IsofoxConstants.DEFAULT_FRAG_LENGTH_MIN_COUNT;
 import static com.hartwig.hmftools.isofox.IsofoxConstants.DEFAULT_MAX_FRAGMENT_SIZE;
 import static com.hartwig.hmftools.isofox.IsofoxConstants.DEFAULT_SINGLE_MAP_QUALITY;
@@ -101,6 +103,7 @@ public class IsofoxConfig
 
     public final String OutputDir;
     public final String OutputIdentifier; // optionally include extra identifier in output files
+    public final String MetricsFile;
 
     public final List<IsofoxFunction> Functions;
 
@@ -171,6 +174,7 @@ public class IsofoxConfig
 
         OutputDir = parseOutputDir(cmd);
         OutputIdentifier = cmd.getOptionValue(OUTPUT_ID);
+        MetricsFile = metricsFile(cmd);
 
         BamFile = cmd.getOptionValue(BAM_FILE);
 
@@ -396,6 +400,7 @@ public class IsofoxConfig
 
         Filters = new GeneRegionFilters(V37);
         OutputDir = null;
+        MetricsFile = null;
         BamFile = null;
         RefGenomeFile = null;
         RefGenVersion = V37;
@@ -439,6 +444,7 @@ public class IsofoxConfig
         addEnsemblDir(options);
         addOutputDir(options);
         addLoggingOptions(options);
+        addMetricsOptions(options);
 
         options.addOption(FUNCTIONS, true, "Optional: list of functional routines to run (see documentation)");
         options.addOption(CANONICAL_ONLY, false, "Check all transcripts, not just canonical");
@@ -25,27 +25,59 @@ public class ExpectedCountsCache
 {
     private final IsofoxConfig mConfig;
 
-    // map of chrGeneSetId to category counts data
+    // map of chrGeneSetId to category counts data, when loaded from the CSV file
     private final Map<String,List<CategoryCountsData>> mGeneSetCategoryDataMap;
+    private final Map<String,List<String>> mGeneIdGeneSetIds;
+
+    // otherwise gene sets are loaded on demand from the binary index
+    private ExpectedCountsIndex mCountsIndex;
 
     private boolean mValidData;
 
     public ExpectedCountsCache(final IsofoxConfig config)
     {
         mConfig = config;
-        mGeneSetCategoryDataMap = Maps.newHashMap();
+        mGeneSetCategoryDataMap = Maps.newLinkedHashMap();
+        mGeneIdGeneSetIds = Maps.newHashMap();
+        mCountsIndex = null;
         mValidData = true;
 
         if(config.ExpCountsFile != null && Files.exists(Paths.get(mConfig.ExpCountsFile)))
         {
-            mValidData = loadExpCountsFile();
+            if(ExpectedCountsIndex.isIndexFile(mConfig.ExpCountsFile))
+                mValidData = loadExpCountsIndex();
+            else
+                mValidData = loadExpCountsFile();
         }
     }
 
     public boolean isValid() { return mValidData; }
 
+    public void close()
+    {
+        // releases the binary index file once all gene collections have been processed
+        if(mCountsIndex != null)
+        {
+            mCountsIndex.close();
+            mCountsIndex = null;
+        }
+    }
+
     public List<CategoryCountsData> getGeneExpectedRatesData(final String chrId, final List<String> geneIds)
     {
+        if(mCountsIndex != null)
+        {
+            try
+            {
+                return mCountsIndex.getGeneSetCounts(chrId, geneIds);
+            }
+            catch(IOException e)
+            {
+                ISF_LOGGER.error("failed to read expected counts for geneSet({}): {}", chrId, e.toString());
+                return null;
+            }
+        }
+
         List<CategoryCountsData> geneSetCountsData = mGeneSetCategoryDataMap.get(chrId);
 
         if (geneSetCountsData == null || !geneSetCountsDataMatches(geneIds, geneSetCountsData))
@@ -67,9 +99,16 @@ public class ExpectedCountsCache
 
     private final List<CategoryCountsData> findGeneSetCountsData(final List<String> geneIds)
     {
-        // manually find the gene set by looking for a match of all geneIds
-        for(final List<CategoryCountsData> geneCounts : mGeneSetCategoryDataMap.values())
+        // find the gene set by looking for a match of all geneIds amongst those containing the first gene
+        List<String> geneSetIds = !geneIds.isEmpty() ? mGeneIdGeneSetIds.get(geneIds.get(0)) : null;
+
+        if(geneSetIds == null)
+            return null;
+
+        for(String geneSetId : geneSetIds)
         {
+            final List<CategoryCountsData> geneCounts = mGeneSetCategoryDataMap.get(geneSetId);
+
             if(geneSetCountsDataMatches(geneIds, geneCounts))
                 return geneCounts;
         }
@@ -77,60 +116,115 @@ public class ExpectedCountsCache
         return null;
     }
 
-    // GeneSetId,TransId,Category,Counts for each fragment length
-    private boolean loadExpCountsFile()
+    private boolean loadExpCountsIndex()
     {
-        if (!Files.exists(Paths.get(mConfig.ExpCountsFile)))
+        try
         {
-            ISF_LOGGER.warn("invalid gene ID file({})", mConfig.ExpCountsFile);
-            return false;
-        }
+            mCountsIndex = ExpectedCountsIndex.open(mConfig.ExpCountsFile);
 
-        try
+            if(!setFragmentLengths(mCountsIndex.fragmentLengths()))
+                return false;
+
+            ISF_LOGGER.info("indexed {} gene expected counts from file({})", mCountsIndex.geneSetCount(), mConfig.ExpCountsFile);
+        }
+        catch(IOException e)
         {
-            BufferedReader fileReader = new BufferedReader(new FileReader(mConfig.ExpCountsFile));
+            ISF_LOGGER.warn("failed to load expected counts index({}): {}", mConfig.ExpCountsFile, e.toString());
+            return false;
+        }
 
-            // skip field names
-            String line = fileReader.readLine();
+        return true;
+    }
 
-            if (line == null)
+    private boolean setFragmentLengths(final List<Integer> fragmentLengths)
+    {
+        // take the fragment lengths from the file if not already populated (in which case they must match)
+        if(mConfig.FragmentSizeData.size() == 0)
+        {
+            StringJoiner sj = new StringJoiner(", ");
+            for(Integer fragmentLength : fragmentLengths)
             {
-                ISF_LOGGER.error("empty calculated expected counts file({})", mConfig.ExpCountsFile);
-                return false;
+                // set default of 1 for frequency in case it is not sampled
+                mConfig.FragmentSizeData.add(new FragmentSize(fragmentLength, 1));
+                sj.add(String.valueOf(fragmentLength));
             }
 
-            String[] headerItems = line.split(DELIMITER, -1);
+            ISF_LOGGER.info("fragment lengths({}) set from expected transcript counts file", sj.toString());
+        }
+        else if(mConfig.FragmentSizeData.size() != fragmentLengths.size())
+        {
+            ISF_LOGGER.error("expected counts file has {} fragment lengths vs configuredCount({})",
+                    fragmentLengths.size(), mConfig.FragmentSizeData.size());
+            return false;
+        }
 
-            // extract the fragment lengths from the header if not already populated (in which case they must match)
-            int fileFragmentLengthCount = headerItems.length - 2;
+        return true;
+    }
+
+    private boolean loadExpCountsFile()
+    {
+        List<Integer> fragmentLengths = Lists.newArrayList();
 
-            if(mConfig.FragmentSizeData.size() == 0)
+        if(!loadExpCountsFile(mConfig.ExpCountsFile, fragmentLengths, mGeneSetCategoryDataMap))
+            return false;
+
+        if(!setFragmentLengths(fragmentLengths))
+            return false;
+
+        for(Map.Entry<String,List<CategoryCountsData>> entry : mGeneSetCategoryDataMap.entrySet())
+        {
+            for(CategoryCountsData catCounts : entry.getValue())
             {
-                StringJoiner sj = new StringJoiner(", ");
-                for(int i = 3; i < headerItems.length; ++i)
+                for(String geneId : catCounts.unsplicedGeneIds())
                 {
-                    int fragmentLength = Integer.parseInt(headerItems[i].replaceAll(EXP_COUNT_LENGTH_HEADER, ""));
+                    List<String> geneSetIds = mGeneIdGeneSetIds.computeIfAbsent(geneId, x -> Lists.newArrayList());
 
-                    // set default of 1 for frequency in case it is not sampled
-                    mConfig.FragmentSizeData.add(new FragmentSize(fragmentLength, 1));
-                    sj.add(String.valueOf(fragmentLength));
+                    if(!geneSetIds.contains(entry.getKey()))
+                        geneSetIds.add(entry.getKey());
                 }
-
-                ISF_LOGGER.info("fragment lengths({}) set from expected transcript counts file", sj.toString());
             }
-            else if(mConfig.FragmentSizeData.size() != fileFragmentLengthCount)
+        }
+
+        ISF_LOGGER.info("loaded {} gene expected counts from file({})", mGeneSetCategoryDataMap.size(), mConfig.ExpCountsFile);
+        return true;
+    }
+
+    // GeneSetId,Category,Counts for each fragment length
+    public static boolean loadExpCountsFile(
+            final String filename, final List<Integer> fragmentLengths, final Map<String,List<CategoryCountsData>> geneSetCategoryDataMap)
+    {
+        if (!Files.exists(Paths.get(filename)))
+        {
+            ISF_LOGGER.warn("invalid gene ID file({})", filename);
+            return false;
+        }
+
+        try
+        {
+            BufferedReader fileReader = new BufferedReader(new FileReader(filename));
+
+            String line = fileReader.readLine();
+
+            if (line == null)
             {
-                ISF_LOGGER.error("expected counts file has {} fragment lengths vs configuredCount({})",
-                        fileFragmentLengthCount, mConfig.FragmentSizeData.size());
+                ISF_LOGGER.error("empty calculated expected counts file({})", filename);
                 return false;
             }
 
-            int fragLengths = mConfig.FragmentSizeData.size();
-
             final Map<String,Integer> fieldsIndexMap = createFieldsIndexMap(line, DELIMITER);
             int geneSetIdIndex = fieldsIndexMap.get("GeneSetId");
             int categoryIndex = fieldsIndexMap.get("Category");
 
+            // fragment lengths follow the category
+            String[] headerItems = line.split(DELIMITER, -1);
+
+            for(int i = categoryIndex + 1; i < headerItems.length; ++i)
+            {
+                fragmentLengths.add(Integer.parseInt(headerItems[i].replaceAll(EXP_COUNT_LENGTH_HEADER, "")));
+            }
+
+            int fragLengths = fragmentLengths.size();
+
             String currentGeneSetId = "";
             List<CategoryCountsData> categoryDataList = null;
 
@@ -145,7 +239,7 @@ public class ExpectedCountsCache
                 {
                     currentGeneSetId = geneSetId;
                     categoryDataList = Lists.newArrayList();
-                    mGeneSetCategoryDataMap.put(geneSetId, categoryDataList);
+                    geneSetCategoryDataMap.put(geneSetId, categoryDataList);
                 }
 
                 CategoryCountsData catCounts = new CategoryCountsData(categoryStr, fragLengths);
@@ -157,18 +251,13 @@ public class ExpectedCountsCache
                     catCounts.addFragLengthCounts(count, i);
                 }
             }
-
-            ISF_LOGGER.info("loaded {} gene expected counts from file({})",
-                    mGeneSetCategoryDataMap.size(), mConfig.ExpCountsFile);
         }
         catch (IOException e)
         {
-            ISF_LOGGER.warn("failed to load expected counts file({}): {}", mConfig.ExpCountsFile, e.toString());
+            ISF_LOGGER.warn("failed to load expected counts file({}): {}", filename, e.toString());
             return false;
         }
 
         return true;
     }
-
-
 }
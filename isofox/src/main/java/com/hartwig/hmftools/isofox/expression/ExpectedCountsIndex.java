@@ -0,0 +1,273 @@
+package com.hartwig.hmftools.isofox.expression;
+
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class ExpectedCountsIndex
+{
+    // binary form of the expected counts file, with a directory of gene sets at the end of the file so each gene set's
+    // categories can be memory-mapped and decoded only when its gene collection is processed
+    // layout: magic, version, fragment lengths, gene set data, directory, directory offset
+    // gene set data: for each category, its combined key and counts per fragment length
+    // directory: for each gene set, its ID, data offset and length, and its unspliced gene IDs
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final List<Integer> mFragmentLengths;
+    private final Map<String,GeneSetEntry> mGeneSets; // keyed by gene set ID
+    private final Map<String,List<GeneSetEntry>> mGeneIdGeneSets;
+
+    public static final String INDEX_FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x49534543; // 'ISEC'
+    private static final int VERSION = 1;
+
+    private static class GeneSetEntry
+    {
+        public final String GeneSetId;
+        public final long Offset;
+        public final int Length;
+        public final int CategoryCount;
+        public final List<String> GeneIds;
+
+        public GeneSetEntry(final String geneSetId, long offset, int length, int categoryCount, final List<String> geneIds)
+        {
+            GeneSetId = geneSetId;
+            Offset = offset;
+            Length = length;
+            CategoryCount = categoryCount;
+            GeneIds = geneIds;
+        }
+    }
+
+    private ExpectedCountsIndex(final String filename) throws IOException
+    {
+        mFile = new RandomAccessFile(filename, "r");
+        mChannel = mFile.getChannel();
+        mGeneSets = Maps.newLinkedHashMap();
+        mGeneIdGeneSets = Maps.newHashMap();
+
+        ByteBuffer header = mChannel.map(FileChannel.MapMode.READ_ONLY, 0, Integer.BYTES * 3);
+
+        if(header.getInt() != MAGIC)
+            throw new IOException(format("file(%s) is not an expected counts index", filename));
+
+        int version = header.getInt();
+
+        if(version != VERSION)
+            throw new IOException(format("expected counts index(%s) has unsupported version(%d)", filename, version));
+
+        int fragLengthCount = header.getInt();
+        ByteBuffer lengths = mChannel.map(FileChannel.MapMode.READ_ONLY, Integer.BYTES * 3, (long)Integer.BYTES * fragLengthCount);
+
+        List<Integer> fragmentLengths = Lists.newArrayListWithCapacity(fragLengthCount);
+
+        for(int i = 0; i < fragLengthCount; ++i)
+        {
+            fragmentLengths.add(lengths.getInt());
+        }
+
+        mFragmentLengths = Collections.unmodifiableList(fragmentLengths);
+
+        long fileLength = mChannel.size();
+        long directoryOffset = mChannel.map(FileChannel.MapMode.READ_ONLY, fileLength - Long.BYTES, Long.BYTES).getLong();
+
+        ByteBuffer directory = mChannel.map(
+                FileChannel.MapMode.READ_ONLY, directoryOffset, fileLength - Long.BYTES - directoryOffset);
+
+        int geneSetCount = directory.getInt();
+
+        for(int i = 0; i < geneSetCount; ++i)
+        {
+            String geneSetId = readString(directory);
+            long offset = directory.getLong();
+            int length = directory.getInt();
+            int categoryCount = directory.getInt();
+            int geneCount = directory.getInt();
+
+            List<String> geneIds = Lists.newArrayListWithCapacity(geneCount);
+
+            for(int j = 0; j < geneCount; ++j)
+            {
+                geneIds.add(readString(directory));
+            }
+
+            GeneSetEntry entry = new GeneSetEntry(geneSetId, offset, length, categoryCount, geneIds);
+            mGeneSets.put(geneSetId, entry);
+
+            for(String geneId : geneIds)
+            {
+                mGeneIdGeneSets.computeIfAbsent(geneId, x -> Lists.newArrayList()).add(entry);
+            }
+        }
+    }
+
+    public static ExpectedCountsIndex open(final String filename) throws IOException
+    {
+        return new ExpectedCountsIndex(filename);
+    }
+
+    public static boolean isIndexFile(final String filename)
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            return inputStream.readInt() == MAGIC;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    public List<Integer> fragmentLengths() { return mFragmentLengths; }
+    public int geneSetCount() { return mGeneSets.size(); }
+
+    public List<CategoryCountsData> getGeneSetCounts(final String geneSetId, final List<String> geneIds) throws IOException
+    {
+        GeneSetEntry entry = mGeneSets.get(geneSetId);
+
+        if(entry != null && entry.GeneIds.containsAll(geneIds))
+            return loadGeneSet(entry);
+
+        // otherwise find a gene set containing all the genes via the genes' index entries
+        List<GeneSetEntry> candidates = !geneIds.isEmpty() ? mGeneIdGeneSets.get(geneIds.get(0)) : null;
+
+        if(candidates == null)
+            return null;
+
+        for(GeneSetEntry candidate : candidates)
+        {
+            if(candidate.GeneIds.containsAll(geneIds))
+                return loadGeneSet(candidate);
+        }
+
+        return null;
+    }
+
+    private List<CategoryCountsData> loadGeneSet(final GeneSetEntry entry) throws IOException
+    {
+        // categories are decoded into new instances since callers adjust their counts
+        ByteBuffer data = mChannel.map(FileChannel.MapMode.READ_ONLY, entry.Offset, entry.Length);
+
+        int fragLengths = mFragmentLengths.size();
+        List<CategoryCountsData> categories = Lists.newArrayListWithCapacity(entry.CategoryCount);
+
+        for(int i = 0; i < entry.CategoryCount; ++i)
+        {
+            CategoryCountsData catCounts = new CategoryCountsData(readString(data), fragLengths);
+
+            for(int j = 0; j < fragLengths; ++j)
+            {
+                catCounts.addFragLengthCounts(data.getInt(), j);
+            }
+
+            categories.add(catCounts);
+        }
+
+        return categories;
+    }
+
+    public void close()
+    {
+        try
+        {
+            mFile.close();
+        }
+        catch(IOException e)
+        {
+            // nothing to recover
+        }
+    }
+
+    public static void write(
+            final String filename, final List<Integer> fragmentLengths, final Map<String,List<CategoryCountsData>> geneSetCategoryData)
+            throws IOException
+    {
+        try(DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+        {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeInt(fragmentLengths.size());
+
+            for(Integer fragLength : fragmentLengths)
+            {
+                outputStream.writeInt(fragLength);
+            }
+
+            long offset = Integer.BYTES * (3L + fragmentLengths.size());
+
+            ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+            DataOutputStream directory = new DataOutputStream(directoryBytes);
+            directory.writeInt(geneSetCategoryData.size());
+
+            for(Map.Entry<String,List<CategoryCountsData>> entry : geneSetCategoryData.entrySet())
+            {
+                ByteArrayOutputStream geneSetBytes = new ByteArrayOutputStream();
+                DataOutputStream geneSetData = new DataOutputStream(geneSetBytes);
+                List<String> geneIds = Lists.newArrayList();
+
+                for(CategoryCountsData catCounts : entry.getValue())
+                {
+                    writeString(geneSetData, catCounts.combinedKey());
+
+                    for(double count : catCounts.fragmentCountsByLength())
+                    {
+                        geneSetData.writeInt((int)Math.round(count));
+                    }
+
+                    catCounts.unsplicedGeneIds().stream().filter(x -> !geneIds.contains(x)).forEach(x -> geneIds.add(x));
+                }
+
+                geneSetData.flush();
+                outputStream.write(geneSetBytes.toByteArray());
+
+                writeString(directory, entry.getKey());
+                directory.writeLong(offset);
+                directory.writeInt(geneSetBytes.size());
+                directory.writeInt(entry.getValue().size());
+                directory.writeInt(geneIds.size());
+
+                for(String geneId : geneIds)
+                {
+                    writeString(directory, geneId);
+                }
+
+                offset += geneSetBytes.size();
+            }
+
+            directory.flush();
+            outputStream.write(directoryBytes.toByteArray());
+            outputStream.writeLong(offset);
+        }
+    }
+
+    private static void writeString(final DataOutputStream outputStream, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeShort(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
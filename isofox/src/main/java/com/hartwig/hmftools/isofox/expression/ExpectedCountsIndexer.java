@@ -0,0 +1,74 @@
+package com.hartwig.hmftools.isofox.expression;
+
+import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
+import static com.hartwig.hmftools.isofox.expression.ExpectedCountsIndex.INDEX_FILE_EXTENSION;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jetbrains.annotations.NotNull;
+
+public class ExpectedCountsIndexer
+{
+    // converts an expected counts CSV into the binary form, which Isofox loads when it is passed as the expected counts file
+    private static final String EXP_COUNTS_FILE = "exp_counts_file";
+    private static final String OUTPUT_FILE = "output_file";
+
+    public static boolean convert(final String expCountsFile, final String outputFile)
+    {
+        List<Integer> fragmentLengths = Lists.newArrayList();
+        Map<String,List<CategoryCountsData>> geneSetCategoryDataMap = Maps.newLinkedHashMap();
+
+        if(!ExpectedCountsCache.loadExpCountsFile(expCountsFile, fragmentLengths, geneSetCategoryDataMap))
+            return false;
+
+        try
+        {
+            ExpectedCountsIndex.write(outputFile, fragmentLengths, geneSetCategoryDataMap);
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to write expected counts index({}): {}", outputFile, e.toString());
+            return false;
+        }
+
+        ISF_LOGGER.info("wrote {} gene expected counts to index({})", geneSetCategoryDataMap.size(), outputFile);
+        return true;
+    }
+
+    public static void main(@NotNull final String[] args) throws ParseException
+    {
+        final Options options = new Options();
+        options.addOption(EXP_COUNTS_FILE, true, "Expected counts CSV file");
+        options.addOption(OUTPUT_FILE, true, "Output binary expected counts file, default is the input file with " + INDEX_FILE_EXTENSION);
+        addLoggingOptions(options);
+
+        final CommandLineParser parser = new DefaultParser();
+        final CommandLine cmd = parser.parse(options, args);
+
+        setLogLevel(cmd);
+
+        if(!cmd.hasOption(EXP_COUNTS_FILE))
+        {
+            ISF_LOGGER.error("missing config: {}", EXP_COUNTS_FILE);
+            System.exit(1);
+        }
+
+        String expCountsFile = cmd.getOptionValue(EXP_COUNTS_FILE);
+        String outputFile = cmd.getOptionValue(OUTPUT_FILE, expCountsFile + INDEX_FILE_EXTENSION);
+
+        if(!convert(expCountsFile, outputFile))
+            System.exit(1);
+    }
+}
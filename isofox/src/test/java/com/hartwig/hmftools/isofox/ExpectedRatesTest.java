@@ -14,10 +14,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.gene.ExonData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
@@ -26,6 +31,8 @@ import com.hartwig.hmftools.isofox.common.FragmentMatchType;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
 import com.hartwig.hmftools.isofox.expression.CategoryCountsData;
+import com.hartwig.hmftools.isofox.expression.ExpectedCountsCache;
+import com.hartwig.hmftools.isofox.expression.ExpectedCountsIndex;
 import com.hartwig.hmftools.common.sigs.ExpectationMaxFit;
 import com.hartwig.hmftools.isofox.expression.ExpectedRatesData;
 import com.hartwig.hmftools.isofox.expression.ExpectedRatesGenerator;
@@ -702,4 +709,52 @@ public class ExpectedRatesTest
 
     }
 
+    @Test
+    public void testExpectedCountsIndex() throws IOException
+    {
+        File csvFile = File.createTempFile("exp_counts", ".csv");
+        File indexFile = File.createTempFile("exp_counts", ExpectedCountsIndex.INDEX_FILE_EXTENSION);
+        csvFile.deleteOnExit();
+        indexFile.deleteOnExit();
+
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(csvFile)))
+        {
+            writer.write("GeneSetId,Category,Length_50,Length_100,Length_150\n");
+            writer.write("1_0,1-2,10,20,30\n");
+            writer.write("1_0,2-ENSG001,0,5,1\n");
+            writer.write("1_1,3-ENSG002-ENSG003,7,0,2\n");
+            writer.write("1_1,ENSG003,4,4,4\n");
+        }
+
+        List<Integer> fragmentLengths = Lists.newArrayList();
+        Map<String,List<CategoryCountsData>> geneSetData = Maps.newLinkedHashMap();
+        assertTrue(ExpectedCountsCache.loadExpCountsFile(csvFile.getAbsolutePath(), fragmentLengths, geneSetData));
+
+        assertEquals(Lists.newArrayList(50, 100, 150), fragmentLengths);
+        assertEquals(2, geneSetData.size());
+
+        ExpectedCountsIndex.write(indexFile.getAbsolutePath(), fragmentLengths, geneSetData);
+        assertTrue(ExpectedCountsIndex.isIndexFile(indexFile.getAbsolutePath()));
+        assertFalse(ExpectedCountsIndex.isIndexFile(csvFile.getAbsolutePath()));
+
+        ExpectedCountsIndex countsIndex = ExpectedCountsIndex.open(indexFile.getAbsolutePath());
+        assertEquals(fragmentLengths, countsIndex.fragmentLengths());
+        assertEquals(2, countsIndex.geneSetCount());
+
+        List<CategoryCountsData> categories = countsIndex.getGeneSetCounts("1_0", Lists.newArrayList("ENSG001"));
+        assertEquals(2, categories.size());
+        assertEquals("1-2", categories.get(0).combinedKey());
+        assertEquals(60, categories.get(0).fragmentCount(), 0.001);
+        assertEquals(20, categories.get(0).fragmentCountsByLength()[1], 0.001);
+
+        // an unmatched gene set ID falls back to the genes' index entries
+        categories = countsIndex.getGeneSetCounts("1_5", Lists.newArrayList("ENSG003", "ENSG002"));
+        assertEquals(2, categories.size());
+        assertEquals("ENSG003", categories.get(1).combinedKey());
+        assertEquals(12, categories.get(1).fragmentCount(), 0.001);
+
+        assertEquals(null, countsIndex.getGeneSetCounts("1_0", Lists.newArrayList("ENSG004")));
+
+        countsIndex.close();
+    }
 }
@@ -1,23 +1,26 @@
 package com.hartwig.hmftools.lilac.coverage;
 
+import static java.lang.Math.min;
+
 import static com.hartwig.hmftools.lilac.LilacConfig.LL_LOGGER;
+import static com.hartwig.hmftools.lilac.coverage.CoverageCalcTask.CULL_COMPLEX_COUNT;
 
 import com.google.common.collect.Lists;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hartwig.hmftools.lilac.hla.HlaAllele;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ComplexCoverageCalculator
 {
     private final int mThreadCount;
     private final double mTopScoreThreshold;
 
+    private static final int TASK_COMPLEX_COUNT = 5000;
+
     public ComplexCoverageCalculator(int threadCount, double topScoreThreshold)
     {
         mThreadCount = threadCount;
@@ -42,58 +45,51 @@ public class ComplexCoverageCalculator
 
     private List<ComplexCoverage> calcMultiThreadResults(final List<HlaComplex> complexes, final FragmentAlleleMatrix fragAlleleMatrix)
     {
-        final ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("Lilac-%d").build();
-        ExecutorService executorService = Executors.newFixedThreadPool(mThreadCount, namedThreadFactory);
+        // complexes are scored in small batches on a work-stealing pool so threads stay busy however uneven the batches are,
+        // with the top total coverage shared between batches for culling
+        ExecutorService executorService = Executors.newWorkStealingPool(mThreadCount);
 
-        List<CoverageCalcTask> coverageCalcTasks = Lists.newArrayList();
-        List<FutureTask<Long>> taskList = new ArrayList<>();
+        boolean checkCull = complexes.size() >= CULL_COMPLEX_COUNT;
+        AtomicInteger maxFragments = new AtomicInteger();
 
-        List<HlaComplex>[] complexLists = new List[mThreadCount];
-
-        for(int i = 0; i < mThreadCount; ++i)
-        {
-            complexLists[i] = Lists.newArrayList();
-        }
+        List<CoverageCalcTask> coverageCalcTasks = Lists.newArrayList();
+        List<Future<Long>> taskList = Lists.newArrayList();
 
-        int listIndex = 0;
-        for (HlaComplex complex : complexes)
+        for(int startIndex = 0; startIndex < complexes.size(); startIndex += TASK_COMPLEX_COUNT)
         {
-            complexLists[listIndex].add(complex);
+            List<HlaComplex> complexList = complexes.subList(startIndex, min(startIndex + TASK_COMPLEX_COUNT, complexes.size()));
 
-            ++listIndex;
-            if(listIndex >= complexLists.length)
-                listIndex = 0;
-        }
+            CoverageCalcTask coverageTask = new CoverageCalcTask(
+                    coverageCalcTasks.size(), complexList, fragAlleleMatrix, mTopScoreThreshold, checkCull, maxFragments);
 
-        int threadIndex = 0;
-        for(List<HlaComplex> complexList : complexLists)
-        {
-            CoverageCalcTask coverageTask = new CoverageCalcTask(threadIndex++, complexList, fragAlleleMatrix, mTopScoreThreshold);
             coverageCalcTasks.add(coverageTask);
-
-            FutureTask<Long> futureTask = new FutureTask<>(coverageTask);
-
-            taskList.add(futureTask);
-            executorService.execute(futureTask);
+            taskList.add(executorService.submit(coverageTask));
         }
 
         try
         {
-            for (FutureTask<Long> futureTask : taskList)
+            for(Future<Long> future : taskList)
             {
-                futureTask.get();
+                future.get();
             }
 
             executorService.shutdown();
 
             coverageCalcTasks.forEach(x -> x.logPerfResults());
 
+            if(checkCull)
+            {
+                int lowScoreCount = coverageCalcTasks.stream().mapToInt(x -> x.lowScoreCount()).sum();
+
+                LL_LOGGER.debug(String.format("complexes(%d) processed, discard(%d, %.0f%%)",
+                        complexes.size(), lowScoreCount, 100.0 * lowScoreCount / complexes.size()));
+            }
+
             List<ComplexCoverage> results = Lists.newArrayList();
             coverageCalcTasks.forEach(x -> results.addAll(x.getCoverageResults()));
             return results;
-
         }
-        catch (Exception e)
+        catch(Exception e)
         {
             LL_LOGGER.error("task execution error: {}", e.toString());
             e.printStackTrace();
@@ -102,5 +98,4 @@ public class ComplexCoverageCalculator
             return null;
         }
     }
-
 }
@@ -1,12 +1,12 @@
 package com.hartwig.hmftools.lilac.coverage;
 
-import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.lilac.LilacConfig.LL_LOGGER;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.Lists;
 
@@ -18,14 +18,21 @@ public class CoverageCalcTask implements Callable<Long>
 
     private final FragmentAlleleMatrix mFragAlleleMatrix;
     private final double mTopScorePercDiff;
-    private int mMaxFragments;
+    private final boolean mCheckCull;
+    private final AtomicInteger mMaxFragments; // may be shared between tasks
     private int mLowScoreCount;
 
-    private static final int CULL_COMPLEX_COUNT = 500000;
-    private static final int LOG_COMPLEX_COUNT = 250000;
+    public static final int CULL_COMPLEX_COUNT = 500000;
     private static final int MIN_FRAG_DIFF = 40;
 
     public CoverageCalcTask(final int id, final List<HlaComplex> complexes, FragmentAlleleMatrix fragAlleleMatrix, double topScoreThreshold)
+    {
+        this(id, complexes, fragAlleleMatrix, topScoreThreshold, complexes.size() >= CULL_COMPLEX_COUNT, new AtomicInteger());
+    }
+
+    public CoverageCalcTask(
+            final int id, final List<HlaComplex> complexes, FragmentAlleleMatrix fragAlleleMatrix, double topScoreThreshold,
+            boolean checkCull, final AtomicInteger maxFragments)
     {
         mId = id;
         mComplexes = complexes;
@@ -33,29 +40,40 @@ public class CoverageCalcTask implements Callable<Long>
 
         mFragAlleleMatrix = fragAlleleMatrix;
         mTopScorePercDiff = min(topScoreThreshold * 5, 0.99);
-        mMaxFragments = 0;
+        mCheckCull = checkCull;
+        mMaxFragments = maxFragments;
         mLowScoreCount = 0;
     }
 
     public ComplexCoverage getCoverage() { return mCoverageResults.get(0); }
     public List<ComplexCoverage> getCoverageResults() { return mCoverageResults; }
+    public int lowScoreCount() { return mLowScoreCount; }
 
     @Override
     public Long call()
     {
-        boolean checkCull = mComplexes.size() >= CULL_COMPLEX_COUNT;
-
         for(int i = 0; i < mComplexes.size(); ++i)
         {
-            if(checkCull && i > 0 && (i % LOG_COMPLEX_COUNT) == 0)
+            HlaComplex complex = mComplexes.get(i);
+            int[] alleleIndices = mFragAlleleMatrix.alleleIndices(complex);
+
+            if(alleleIndices == null)
+            {
+                mCoverageResults.add(ComplexCoverage.create(Lists.newArrayList()));
+                continue;
+            }
+
+            // total coverage can exceed the fragments covered by at most 1 from rounding, so skip complexes which cannot
+            // reach the cull threshold before calculating their full coverage
+            if(mCheckCull && isLowScore(mFragAlleleMatrix.coveredFragments(alleleIndices) + 1))
             {
-                LL_LOGGER.debug(String.format("thread %d: complexes(%d) processed, discard(%d, %.0f%%)",
-                        mId, i, mLowScoreCount, 100.0 * mLowScoreCount / i));
+                ++mLowScoreCount;
+                continue;
             }
 
-            ComplexCoverage result = calcCoverage(mComplexes.get(i));
+            ComplexCoverage result = ComplexCoverage.create(mFragAlleleMatrix.create(complex, alleleIndices));
 
-            if(checkCull && canCull(result))
+            if(mCheckCull && canCull(result))
                 continue;
 
             mCoverageResults.add(result);
@@ -66,26 +84,29 @@ public class CoverageCalcTask implements Callable<Long>
 
     private boolean canCull(final ComplexCoverage result)
     {
-        if(result.TotalCoverage > mMaxFragments)
+        int maxFragments = mMaxFragments.get();
+
+        if(result.TotalCoverage > maxFragments)
         {
-            mMaxFragments = result.TotalCoverage;
+            mMaxFragments.accumulateAndGet(result.TotalCoverage, Math::max);
             return false;
         }
 
-        if(mMaxFragments - result.TotalCoverage < MIN_FRAG_DIFF)
-            return false;
-
-        if(result.TotalCoverage > mMaxFragments * (1 - mTopScorePercDiff))
+        if(!isLowScore(result.TotalCoverage))
             return false;
 
         ++mLowScoreCount;
         return true;
     }
 
-    private ComplexCoverage calcCoverage(final HlaComplex complex)
+    private boolean isLowScore(int totalCoverage)
     {
-        List<AlleleCoverage> alleleCoverage = mFragAlleleMatrix.create(complex);
-        return ComplexCoverage.create(alleleCoverage);
+        int maxFragments = mMaxFragments.get();
+
+        if(maxFragments - totalCoverage < MIN_FRAG_DIFF)
+            return false;
+
+        return totalCoverage <= maxFragments * (1 - mTopScorePercDiff);
     }
 
     public void logPerfResults()
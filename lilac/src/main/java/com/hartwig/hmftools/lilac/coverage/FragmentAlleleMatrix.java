@@ -9,6 +9,8 @@ import com.hartwig.hmftools.lilac.hla.HlaAllele;
 
 public class FragmentAlleleMatrix
 {
+    // each allele's full and wildcard support is held as a bitset over the fragments, so that a complex's coverage
+    // is calculated 64 fragments at a time from the bitsets of its alleles
     private final List<FragmentAlleles> mFragmentAlleles;
     private final List<HlaAllele> mAlleles;
 
@@ -16,12 +18,10 @@ public class FragmentAlleleMatrix
 
     private final int mAlleleCount;
     private final int mFragCount;
+    private final int mWordCount;
 
-    private final boolean[][][] mMatrix;
-
-    private static int FULL = 0;
-    private static int WILD = 1;
-    private static int ITEMS = WILD + 1;
+    private final long[][] mFullBits; // indexed by allele then fragment word
+    private final long[][] mWildBits;
 
     public FragmentAlleleMatrix(final List<FragmentAlleles> fragmentAlleles, final List<HlaAllele> alleles)
     {
@@ -32,8 +32,10 @@ public class FragmentAlleleMatrix
 
         mAlleleCount = alleles.size();
         mFragCount = fragmentAlleles.size();
+        mWordCount = (mFragCount + Long.SIZE - 1) / Long.SIZE;
 
-        mMatrix = new boolean[mFragCount][mAlleleCount][ITEMS];
+        mFullBits = new long[mAlleleCount][mWordCount];
+        mWildBits = new long[mAlleleCount][mWordCount];
 
         buildAlleleFragmentMatrix();
     }
@@ -50,86 +52,148 @@ public class FragmentAlleleMatrix
         {
             FragmentAlleles fragment = mFragmentAlleles.get(fragIndex);
 
-            for(int type = FULL; type <= WILD; ++type)
-            {
-                List<HlaAllele> alleles = type == FULL ? fragment.getFull() : fragment.getWild();
-                for(HlaAllele allele : alleles)
-                {
-                    Integer alleleIndex = mAlleleIndexMap.get(allele);
-
-                    if(alleleIndex == null)
-                        continue;
+            int word = fragIndex / Long.SIZE;
+            long fragBit = 1L << (fragIndex % Long.SIZE);
 
-                    mMatrix[fragIndex][alleleIndex][type] = true;
-                }
-            }
+            setAlleleBits(fragment.getFull(), mFullBits, word, fragBit);
+            setAlleleBits(fragment.getWild(), mWildBits, word, fragBit);
         }
     }
 
-    public List<AlleleCoverage> create(final HlaComplex complex)
+    private void setAlleleBits(final List<HlaAllele> alleles, final long[][] alleleBits, int word, long fragBit)
     {
-        List<HlaAllele> alleles = complex.Alleles;
-        int alleleCount = alleles.size();
+        for(HlaAllele allele : alleles)
+        {
+            Integer alleleIndex = mAlleleIndexMap.get(allele);
 
-        int[] alleleIndices = new int[alleleCount];
-        int[] uniqueCoverage = new int[alleleCount];
-        double[] combinedCoverage = new double[alleleCount];
-        double[] wildCoverage = new double[alleleCount];
+            if(alleleIndex == null)
+                continue;
 
-        for(int i = 0; i < alleleCount; ++i)
+            alleleBits[alleleIndex][word] |= fragBit;
+        }
+    }
+
+    public int[] alleleIndices(final HlaComplex complex)
+    {
+        // returns null if any of the complex's alleles are not in the matrix
+        int[] alleleIndices = new int[complex.Alleles.size()];
+
+        for(int i = 0; i < alleleIndices.length; ++i)
         {
-            Integer alleleIndex = mAlleleIndexMap.get(alleles.get(i));
+            Integer alleleIndex = mAlleleIndexMap.get(complex.Alleles.get(i));
+
             if(alleleIndex == null)
-                return Lists.newArrayList();
+                return null;
 
             alleleIndices[i] = alleleIndex;
         }
 
-        boolean[] full = new boolean[alleleCount];
-        boolean[] wild = new boolean[alleleCount];
+        return alleleIndices;
+    }
+
+    public int coveredFragments(final int[] alleleIndices)
+    {
+        // count of fragments supported by any of the alleles, which bounds a complex's total coverage
+        int covered = 0;
 
-        for(int fragIndex = 0; fragIndex < mFragCount; ++fragIndex)
+        for(int word = 0; word < mWordCount; ++word)
         {
-            int fullCount = 0;
-            int fullAlleleIndex = -1;
-            int wildCount = 0;
+            long bits = 0;
 
-            for(int i = 0; i < alleleCount; ++i)
+            for(int alleleIndex : alleleIndices)
             {
-                full[i] = false;
-                wild[i] = false;
+                bits |= mFullBits[alleleIndex][word] | mWildBits[alleleIndex][word];
+            }
 
-                int alleleIndex = alleleIndices[i];
+            covered += Long.bitCount(bits);
+        }
 
-                if(mMatrix[fragIndex][alleleIndex][FULL])
-                {
-                    full[i] = true;
-                    ++fullCount;
-                    fullAlleleIndex = i;
-                }
+        return covered;
+    }
 
-                if(mMatrix[fragIndex][alleleIndex][WILD])
-                {
-                    wild[i] = true;
-                    ++wildCount;
-                }
+    public List<AlleleCoverage> create(final HlaComplex complex)
+    {
+        int[] alleleIndices = alleleIndices(complex);
+
+        if(alleleIndices == null)
+            return Lists.newArrayList();
+
+        return create(complex, alleleIndices);
+    }
+
+    public List<AlleleCoverage> create(final HlaComplex complex, final int[] alleleIndices)
+    {
+        List<HlaAllele> alleles = complex.Alleles;
+        int alleleCount = alleles.size();
+
+        // a fragment supported by a single allele's full match is unique to it, otherwise it is shared between each supporting
+        // allele in proportion to the number of full and wild matches, so record per allele how many fragments it
+        // shares with each possible number of matches
+        int maxMatches = alleleCount * 2;
+        int[] uniqueCoverage = new int[alleleCount];
+        int[][] sharedCounts = new int[alleleCount][maxMatches + 1];
+        int[][] wildCounts = new int[alleleCount][maxMatches + 1];
+
+        for(int word = 0; word < mWordCount; ++word)
+        {
+            // bit-sliced count of matches per fragment, supporting up to 15
+            long count0 = 0;
+            long count1 = 0;
+            long count2 = 0;
+            long count3 = 0;
+            long fullAny = 0;
+
+            for(int i = 0; i < alleleCount * 2; ++i)
+            {
+                int alleleIndex = alleleIndices[i / 2];
+                long bits = (i % 2) == 0 ? mFullBits[alleleIndex][word] : mWildBits[alleleIndex][word];
+
+                if((i % 2) == 0)
+                    fullAny |= bits;
+
+                long carry0 = count0 & bits;
+                count0 ^= bits;
+                long carry1 = count1 & carry0;
+                count1 ^= carry0;
+                long carry2 = count2 & carry1;
+                count2 ^= carry1;
+                count3 ^= carry2;
             }
 
-            if(fullCount == 1 && wildCount == 0)
+            long covered = count0 | count1 | count2 | count3;
+
+            if(covered == 0)
+                continue;
+
+            long uniqueMask = fullAny & count0 & ~count1 & ~count2 & ~count3;
+
+            if(uniqueMask != 0)
             {
-                ++uniqueCoverage[fullAlleleIndex];
+                for(int i = 0; i < alleleCount; ++i)
+                {
+                    uniqueCoverage[i] += Long.bitCount(mFullBits[alleleIndices[i]][word] & uniqueMask);
+                }
             }
-            else if(fullCount > 0 || wildCount > 0)
+
+            long sharedMask = covered & ~uniqueMask;
+
+            for(int matches = 1; matches <= maxMatches && sharedMask != 0; ++matches)
             {
-                double contribution = 1.0 / (fullCount + wildCount);
+                long matchMask = sharedMask
+                        & ((matches & 1) != 0 ? count0 : ~count0)
+                        & ((matches & 2) != 0 ? count1 : ~count1)
+                        & ((matches & 4) != 0 ? count2 : ~count2)
+                        & ((matches & 8) != 0 ? count3 : ~count3);
+
+                if(matchMask == 0)
+                    continue;
+
+                sharedMask &= ~matchMask;
 
                 for(int i = 0; i < alleleCount; ++i)
                 {
-                    if(full[i])
-                        combinedCoverage[i] += contribution;
-
-                    if(wild[i])
-                        wildCoverage[i] += contribution;
+                    sharedCounts[i][matches] += Long.bitCount(mFullBits[alleleIndices[i]][word] & matchMask);
+                    wildCounts[i][matches] += Long.bitCount(mWildBits[alleleIndices[i]][word] & matchMask);
                 }
             }
         }
@@ -138,7 +202,16 @@ public class FragmentAlleleMatrix
 
         for(int i = 0; i < alleleCount; ++i)
         {
-            alleleCoverages.add(new AlleleCoverage(alleles.get(i), uniqueCoverage[i], combinedCoverage[i], wildCoverage[i]));
+            double combinedCoverage = 0;
+            double wildCoverage = 0;
+
+            for(int matches = 1; matches <= maxMatches; ++matches)
+            {
+                combinedCoverage += sharedCounts[i][matches] / (double)matches;
+                wildCoverage += wildCounts[i][matches] / (double)matches;
+            }
+
+            alleleCoverages.add(new AlleleCoverage(alleles.get(i), uniqueCoverage[i], combinedCoverage, wildCoverage));
         }
 
         return alleleCoverages;
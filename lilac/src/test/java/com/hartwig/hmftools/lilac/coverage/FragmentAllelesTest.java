@@ -14,6 +14,7 @@ import static junit.framework.TestCase.assertTrue;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -208,4 +209,67 @@ public class FragmentAllelesTest
         assertEquals(0.33, coverages.get(1).WildCoverage, 0.01);
         assertEquals(0.67, coverages.get(2).WildCoverage, 0.01);
     }
+
+    @Test
+    public void testFragmentAlleleCoverageMultipleWords()
+    {
+        // spans several bitset words, compared against a direct per-fragment calculation
+        List<HlaAllele> alleles = Lists.newArrayList(
+                HlaAllele.fromString("A*01:01"), HlaAllele.fromString("A*02:01"), HlaAllele.fromString("B*01:01"),
+                HlaAllele.fromString("B*02:01"), HlaAllele.fromString("C*01:01"), HlaAllele.fromString("C*02:01"));
+
+        Random random = new Random(1);
+        List<FragmentAlleles> fragmentAlleles = Lists.newArrayList();
+
+        for(int i = 0; i < 200; ++i)
+        {
+            List<HlaAllele> full = alleles.stream().filter(x -> random.nextInt(4) == 0).collect(Collectors.toList());
+            List<HlaAllele> wild = alleles.stream().filter(x -> random.nextInt(6) == 0).collect(Collectors.toList());
+            fragmentAlleles.add(new FragmentAlleles(createFragment(String.valueOf(i)), full, wild));
+        }
+
+        FragmentAlleleMatrix matrix = new FragmentAlleleMatrix(fragmentAlleles, alleles);
+
+        HlaComplex complex = new HlaComplex(Lists.newArrayList(alleles.get(0), alleles.get(3), alleles.get(4), alleles.get(5)));
+        List<AlleleCoverage> coverages = matrix.create(complex);
+
+        int covered = 0;
+
+        for(int a = 0; a < complex.Alleles.size(); ++a)
+        {
+            HlaAllele allele = complex.Alleles.get(a);
+            int unique = 0;
+            double shared = 0;
+            double wildCoverage = 0;
+
+            for(FragmentAlleles fragment : fragmentAlleles)
+            {
+                long fullCount = complex.Alleles.stream().filter(x -> fragment.getFull().contains(x)).count();
+                long wildCount = complex.Alleles.stream().filter(x -> fragment.getWild().contains(x)).count();
+
+                if(a == 0 && fullCount + wildCount > 0)
+                    ++covered;
+
+                if(fullCount == 1 && wildCount == 0)
+                {
+                    if(fragment.getFull().contains(allele))
+                        ++unique;
+                }
+                else if(fullCount + wildCount > 0)
+                {
+                    if(fragment.getFull().contains(allele))
+                        shared += 1.0 / (fullCount + wildCount);
+
+                    if(fragment.getWild().contains(allele))
+                        wildCoverage += 1.0 / (fullCount + wildCount);
+                }
+            }
+
+            assertEquals(unique, coverages.get(a).UniqueCoverage);
+            assertEquals(shared, coverages.get(a).SharedCoverage, 1e-9);
+            assertEquals(wildCoverage, coverages.get(a).WildCoverage, 1e-9);
+        }
+
+        assertEquals(covered, matrix.coveredFragments(matrix.alleleIndices(complex)));
+    }
 }
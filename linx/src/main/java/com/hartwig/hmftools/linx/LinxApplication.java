@@ -5,6 +5,8 @@ import static java.lang.Math.min;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkCreateOutputDir;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.addMetricsOptions;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.metricsFile;
 import static com.hartwig.hmftools.linx.LinxConfig.LNX_LOGGER;
 import static com.hartwig.hmftools.linx.LinxConfig.RG_VERSION;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.MIN_SAMPLE_PURITY;
@@ -21,6 +23,7 @@ import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.linx.fusion.FusionDisruptionAnalyser;
 import com.hartwig.hmftools.linx.fusion.FusionFinder;
@@ -87,6 +90,8 @@ public class LinxApplication
                 config.IsGermline ? "germline SV" : "SV",
                 config.hasMultipleSamples() ? String.format("%d samples", samplesList.size()) : samplesList.get(0));
 
+        MetricsRegistry metrics = new MetricsRegistry("linx", config.isSingleSample() ? samplesList.get(0) : "cohort");
+
         FusionResources fusionResources = new FusionResources(cmd);
 
         if(config.RunFusions && !fusionResources.knownFusionCache().hasValidData())
@@ -210,7 +215,9 @@ public class LinxApplication
         svAnnotators.close();
         cohortDataWriter.close();
 
-        if(LNX_LOGGER.isDebugEnabled() || config.hasMultipleSamples())
+        String metricsFile = metricsFile(cmd);
+
+        if(LNX_LOGGER.isDebugEnabled() || config.hasMultipleSamples() || metricsFile != null)
         {
             // combine and log performance counters
             Map<String,PerformanceCounter> combinedPerfCounters = sampleAnalysers.get(0).getPerfCounters();
@@ -233,6 +240,9 @@ public class LinxApplication
             {
                 entry.getValue().logStats();
             }
+
+            if(metricsFile != null)
+                writeMetrics(metricsFile, metrics, sampleAnalysers, combinedPerfCounters);
         }
 
         if(config.isSingleSample())
@@ -253,6 +263,22 @@ public class LinxApplication
         }
     }
 
+    private static void writeMetrics(
+            final String metricsFile, final MetricsRegistry metrics, final List<SampleAnalyser> sampleAnalysers,
+            final Map<String,PerformanceCounter> combinedPerfCounters)
+    {
+        for(SampleAnalyser sampleAnalyser : sampleAnalysers)
+        {
+            metrics.counter("samples_processed").add(sampleAnalyser.samplesProcessed());
+            metrics.counter("structural_variants").add(sampleAnalyser.svCount());
+            metrics.counter("clusters").add(sampleAnalyser.clusterCount());
+        }
+
+        combinedPerfCounters.values().forEach(x -> metrics.addPerfCounter(x));
+        metrics.recordMemoryUsage();
+        metrics.writeMetrics(metricsFile);
+    }
+
     private static List<String> getStructuralVariantSamplesList(@NotNull DatabaseAccess dbAccess, boolean filterQCPassOnly)
     {
         final List<String> sampleIds = filterQCPassOnly ? dbAccess.readPurpleSampleListPassingQC(MIN_SAMPLE_PURITY) : dbAccess.readPurpleSampleList();
@@ -296,6 +322,7 @@ public class LinxApplication
         LinxConfig.addCmdLineArgs(options);
         FusionFinder.addCmdLineArgs(options);
         FusionDisruptionAnalyser.addCmdLineArgs(options);
+        addMetricsOptions(options);
 
         return options;
     }
@@ -85,6 +85,9 @@ public class SampleAnalyser implements Callable
     private boolean mIsValid;
 
     private final Map<String,PerformanceCounter> mPerfCounters;
+    private int mSamplesProcessed;
+    private long mSvCount;
+    private long mClusterCount;
 
     public static final String PERF_COUNTER_TOTAL = "Total";
     public static final String PERF_COUNTER_PREP = "Preparation";
@@ -128,6 +131,9 @@ public class SampleAnalyser implements Callable
         mAnalyser.setGeneCollection(ensemblDataCache);
 
         mPerfCounters = Maps.newHashMap();
+        mSamplesProcessed = 0;
+        mSvCount = 0;
+        mClusterCount = 0;
         mPerfCounters.put(PERF_COUNTER_TOTAL, new PerformanceCounter(PERF_COUNTER_TOTAL));
         mPerfCounters.put(PERF_COUNTER_PREP, new PerformanceCounter(PERF_COUNTER_PREP));
         mPerfCounters.put(PERF_COUNTER_CLUSTER, new PerformanceCounter(PERF_COUNTER_CLUSTER));
@@ -148,6 +154,9 @@ public class SampleAnalyser implements Callable
     }
 
     public Map<String,PerformanceCounter> getPerfCounters() { return mPerfCounters; }
+    public int samplesProcessed() { return mSamplesProcessed; }
+    public long svCount() { return mSvCount; }
+    public long clusterCount() { return mClusterCount; }
 
     public void setSampleIds(final List<String> sampleIds)
     {
@@ -204,6 +213,9 @@ public class SampleAnalyser implements Callable
 
         final List<SvVarData> svDataList = createSvData(svRecords, mConfig);
 
+        ++mSamplesProcessed;
+        mSvCount += svDataList.size();
+
         if(svDataList.isEmpty())
         {
             LNX_LOGGER.info("sample({}) has no passing SVs", mCurrentSampleId);
@@ -225,6 +237,7 @@ public class SampleAnalyser implements Callable
         }
 
         analyse();
+        mClusterCount += mAnalyser.getClusters().size();
 
         if(!inValidState())
         {
@@ -20,6 +20,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +73,54 @@ public class BindScoreMatrix
         return score;
     }
 
+    public double[] flattenedPosWeights()
+    {
+        // by position then amino acid, so each peptide's weights are read from one contiguous block
+        double[] posWeights = new double[PeptideLength * AMINO_ACID_COUNT];
+
+        for(int pos = 0; pos < PeptideLength; ++pos)
+        {
+            for(int aa = 0; aa < AMINO_ACID_COUNT; ++aa)
+            {
+                posWeights[pos * AMINO_ACID_COUNT + aa] = mPosWeights[aa][pos];
+            }
+        }
+
+        return posWeights;
+    }
+
+    public void calcScores(final EncodedPeptides peptides, final double[] scores)
+    {
+        // batch equivalent of calcScore, summing in the same order so scores are identical
+        if(peptides.PeptideLength != PeptideLength)
+        {
+            Arrays.fill(scores, 0, peptides.count(), INVALID_SCORE);
+            return;
+        }
+
+        final double[] posWeights = flattenedPosWeights();
+
+        for(int p = 0; p < peptides.count(); ++p)
+        {
+            double score = 0;
+
+            for(int pos = 0; pos < PeptideLength; ++pos)
+            {
+                int aaIndex = peptides.aminoAcid(p, pos);
+
+                if(aaIndex == INVALID_AMINO_ACID)
+                {
+                    score = INVALID_SCORE;
+                    break;
+                }
+
+                score += posWeights[pos * AMINO_ACID_COUNT + aaIndex];
+            }
+
+            scores[p] = score;
+        }
+    }
+
     public static BufferedWriter initMatrixWriter(final String filename, int peptideLength)
     {
         try
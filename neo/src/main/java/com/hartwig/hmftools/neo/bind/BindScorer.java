@@ -130,19 +130,14 @@ public class BindScorer
 
             for(Map.Entry<Integer,List<BindData>> pepLenEntry : pepLenBindDataMap.entrySet())
             {
-                final List<BindData> bindDataList = pepLenEntry.getValue();
+                BindScoreMatrix matrix = pepLenMatrixMap.get(pepLenEntry.getKey());
 
-                for(BindData bindData : bindDataList)
-                {
-                    BindScoreMatrix matrix = pepLenMatrixMap.get(bindData.peptideLength());
-
-                    if(matrix == null)
-                        continue;
+                if(matrix == null)
+                    continue;
 
-                    calcScoreData(
-                            bindData, matrix, mFlankScores, mRandomDistribution, mBindingLikelihood,
-                            mExpressionLikelihood, mRecognitionSimilarity);
-                }
+                calcScoreData(
+                        pepLenEntry.getValue(), matrix, mFlankScores, mRandomDistribution, mBindingLikelihood,
+                        mExpressionLikelihood, mRecognitionSimilarity);
             }
         }
     }
@@ -161,6 +156,58 @@ public class BindScorer
         return score;
     }
 
+    public static double[] calcScores(final BindScoreMatrix matrix, final FlankScores flankScores, final EncodedPeptides peptides)
+    {
+        // batch equivalent of calcScore
+        double[] scores = new double[peptides.count()];
+        matrix.calcScores(peptides, scores);
+
+        if(flankScores.hasData())
+        {
+            double[] peptideFlankScores = new double[peptides.count()];
+            flankScores.calcScores(peptides, peptideFlankScores);
+
+            for(int i = 0; i < scores.length; ++i)
+            {
+                scores[i] += peptideFlankScores[i];
+            }
+        }
+
+        return scores;
+    }
+
+    public void calcScoreData(final List<BindData> bindDataList)
+    {
+        // scores peptides in batches by allele and length
+        Map<String,Map<Integer,List<BindData>>> alleleBindDataMap = Maps.newHashMap();
+
+        for(BindData bindData : bindDataList)
+        {
+            alleleBindDataMap.computeIfAbsent(bindData.Allele, k -> Maps.newHashMap())
+                    .computeIfAbsent(bindData.peptideLength(), k -> Lists.newArrayList()).add(bindData);
+        }
+
+        for(Map.Entry<String,Map<Integer,List<BindData>>> alleleEntry : alleleBindDataMap.entrySet())
+        {
+            Map<Integer,BindScoreMatrix> pepLenMatrixMap = mAlleleBindMatrices.get(alleleEntry.getKey());
+
+            if(pepLenMatrixMap == null)
+                continue;
+
+            for(Map.Entry<Integer,List<BindData>> pepLenEntry : alleleEntry.getValue().entrySet())
+            {
+                BindScoreMatrix matrix = pepLenMatrixMap.get(pepLenEntry.getKey());
+
+                if(matrix == null)
+                    continue;
+
+                calcScoreData(
+                        pepLenEntry.getValue(), matrix, mFlankScores, mRandomDistribution,
+                        mBindingLikelihood, mExpressionLikelihood, mRecognitionSimilarity);
+            }
+        }
+    }
+
     public void calcScoreData(final BindData bindData)
     {
         if(!mAlleleBindMatrices.containsKey(bindData.Allele))
@@ -190,6 +237,51 @@ public class BindScorer
             score += flankScore;
         }
 
+        setScoreData(
+                bindData, score, flankScore, randomDistribution, bindingLikelihood, expressionLikelihood, recognitionSimilarity);
+    }
+
+    public static void calcScoreData(
+            final List<BindData> bindDataList, final BindScoreMatrix matrix, final FlankScores flankScores,
+            final RandomPeptideDistribution randomDistribution, final BindingLikelihood bindingLikelihood,
+            final ExpressionLikelihood expressionLikelihood, final RecognitionSimilarity recognitionSimilarity)
+    {
+        // batch equivalent for peptides of the matrix's length, with peptides encoded once and scored together
+        EncodedPeptides peptides = EncodedPeptides.fromBindData(matrix.PeptideLength, bindDataList);
+
+        double[] scores = new double[peptides.count()];
+        matrix.calcScores(peptides, scores);
+
+        double[] peptideFlankScores = null;
+
+        if(flankScores.hasData())
+        {
+            peptideFlankScores = new double[peptides.count()];
+            flankScores.calcScores(peptides, peptideFlankScores);
+        }
+
+        for(int i = 0; i < bindDataList.size(); ++i)
+        {
+            BindData bindData = bindDataList.get(i);
+            double score = scores[i];
+
+            double flankScore = 0;
+            if(peptideFlankScores != null && bindData.hasFlanks())
+            {
+                flankScore = peptideFlankScores[i];
+                score += flankScore;
+            }
+
+            setScoreData(
+                    bindData, score, flankScore, randomDistribution, bindingLikelihood, expressionLikelihood, recognitionSimilarity);
+        }
+    }
+
+    private static void setScoreData(
+            final BindData bindData, double score, double flankScore, final RandomPeptideDistribution randomDistribution,
+            final BindingLikelihood bindingLikelihood, final ExpressionLikelihood expressionLikelihood,
+            final RecognitionSimilarity recognitionSimilarity)
+    {
         double rankPercentile = randomDistribution.getScoreRank(bindData.Allele, bindData.peptideLength(), score);
 
         double likelihood = INVALID_CALC;
@@ -0,0 +1,125 @@
+package com.hartwig.hmftools.neo.bind;
+
+import static com.hartwig.hmftools.common.codon.Codons.STOP_AMINO_ACID;
+import static com.hartwig.hmftools.neo.bind.BindConstants.INVALID_AMINO_ACID;
+import static com.hartwig.hmftools.neo.bind.BindConstants.aminoAcidIndex;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.DOWN_1;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.START_AMINO_ACID_ID;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.TOTAL_FLANK_AA_COUNT;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.UP_1;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.flankAminoAcidIndex;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.hartwig.hmftools.neo.PeptideData;
+
+public class EncodedPeptides
+{
+    // peptides of a single length and their flanks, held as amino acid indices so they are decoded once rather than on
+    // every scoring call - flank positions without a weight are left invalid, as are peptides with unknown amino acids
+    public final int PeptideLength;
+
+    private final byte[] mAminoAcids; // by peptide then position
+    private final byte[] mFlankAminoAcids; // by peptide then flank position
+    private int mCount;
+
+    public EncodedPeptides(int peptideLength, int capacity)
+    {
+        PeptideLength = peptideLength;
+        mAminoAcids = new byte[capacity * peptideLength];
+        mFlankAminoAcids = new byte[capacity * TOTAL_FLANK_AA_COUNT];
+        mCount = 0;
+    }
+
+    public static EncodedPeptides fromPeptideData(int peptideLength, final List<PeptideData> peptides)
+    {
+        EncodedPeptides encodedPeptides = new EncodedPeptides(peptideLength, peptides.size());
+        peptides.forEach(x -> encodedPeptides.add(x.Peptide, x.UpFlank, x.DownFlank));
+        return encodedPeptides;
+    }
+
+    public static EncodedPeptides fromBindData(int peptideLength, final List<BindData> bindDataList)
+    {
+        EncodedPeptides encodedPeptides = new EncodedPeptides(peptideLength, bindDataList.size());
+        bindDataList.forEach(x -> encodedPeptides.add(x.Peptide, x.UpFlank, x.DownFlank));
+        return encodedPeptides;
+    }
+
+    public int count() { return mCount; }
+
+    public int aminoAcid(int peptideIndex, int position) { return mAminoAcids[peptideIndex * PeptideLength + position]; }
+
+    public int flankAminoAcid(int peptideIndex, int flankPosition)
+    {
+        return mFlankAminoAcids[peptideIndex * TOTAL_FLANK_AA_COUNT + flankPosition];
+    }
+
+    public void add(final String peptide, final String upFlank, final String downFlank)
+    {
+        if(peptide.length() != PeptideLength)
+        {
+            throw new IllegalArgumentException(String.format("peptide(%s) does not have length(%d)", peptide, PeptideLength));
+        }
+
+        int offset = mCount * PeptideLength;
+
+        for(int i = 0; i < PeptideLength; ++i)
+        {
+            int aaIndex = aminoAcidIndex(peptide.charAt(i));
+
+            if(aaIndex == INVALID_AMINO_ACID)
+            {
+                Arrays.fill(mAminoAcids, offset, offset + PeptideLength, (byte)INVALID_AMINO_ACID);
+                break;
+            }
+
+            mAminoAcids[offset + i] = (byte)aaIndex;
+        }
+
+        encodeFlanks(upFlank, downFlank, mCount * TOTAL_FLANK_AA_COUNT);
+        ++mCount;
+    }
+
+    private void encodeFlanks(final String upFlank, final String downFlank, int offset)
+    {
+        // flank amino acids are placed against the peptide as in FlankScores, with start and stop placeholders for missing flanks
+        Arrays.fill(mFlankAminoAcids, offset, offset + TOTAL_FLANK_AA_COUNT, (byte)INVALID_AMINO_ACID);
+
+        if(upFlank.isEmpty() && downFlank.isEmpty())
+            return;
+
+        if(upFlank.isEmpty())
+        {
+            setFlankAminoAcid(offset, UP_1, START_AMINO_ACID_ID);
+        }
+        else
+        {
+            int flankLength = Math.min(upFlank.length(), UP_1 + 1);
+
+            for(int i = 0; i < flankLength; ++i)
+            {
+                setFlankAminoAcid(offset, UP_1 + 1 - flankLength + i, upFlank.charAt(i));
+            }
+        }
+
+        if(downFlank.isEmpty())
+        {
+            setFlankAminoAcid(offset, DOWN_1, STOP_AMINO_ACID);
+        }
+        else
+        {
+            int flankLength = Math.min(downFlank.length(), TOTAL_FLANK_AA_COUNT - DOWN_1);
+
+            for(int i = 0; i < flankLength; ++i)
+            {
+                setFlankAminoAcid(offset, DOWN_1 + i, downFlank.charAt(i));
+            }
+        }
+    }
+
+    private void setFlankAminoAcid(int offset, int flankPosition, char aminoAcid)
+    {
+        mFlankAminoAcids[offset + flankPosition] = (byte)flankAminoAcidIndex(aminoAcid);
+    }
+}
@@ -27,6 +27,7 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -111,6 +112,41 @@ public class FlankScores
         return score;
     }
 
+    public void calcScores(final EncodedPeptides peptides, final double[] scores)
+    {
+        // batch equivalent of calcScore, summing in the same order so scores are identical
+        if(!mHasData)
+        {
+            Arrays.fill(scores, 0, peptides.count(), 0);
+            return;
+        }
+
+        double[] posWeights = new double[TOTAL_FLANK_AA_COUNT * FLANK_AMINO_ACID_COUNT];
+
+        for(int pos = 0; pos < TOTAL_FLANK_AA_COUNT; ++pos)
+        {
+            for(int aa = 0; aa < FLANK_AMINO_ACID_COUNT; ++aa)
+            {
+                posWeights[pos * FLANK_AMINO_ACID_COUNT + aa] = mPosWeights[aa][pos];
+            }
+        }
+
+        for(int p = 0; p < peptides.count(); ++p)
+        {
+            double score = 0;
+
+            for(int pos = 0; pos < TOTAL_FLANK_AA_COUNT; ++pos)
+            {
+                int aaIndex = peptides.flankAminoAcid(p, pos);
+
+                if(aaIndex != INVALID_AMINO_ACID)
+                    score += posWeights[pos * FLANK_AMINO_ACID_COUNT + aaIndex];
+            }
+
+            scores[p] = score;
+        }
+    }
+
     private double getPosWeight(int position, char aminoAcid)
     {
         int aaIndex = flankAminoAcidIndex(aminoAcid);
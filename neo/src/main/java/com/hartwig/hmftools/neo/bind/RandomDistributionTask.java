@@ -8,6 +8,7 @@ import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_LENGTH;
 import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_MAX_LENGTH;
 import static com.hartwig.hmftools.neo.bind.RandomPeptideDistribution.getScoreRank;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -15,7 +16,6 @@ import java.util.concurrent.Callable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.utils.Doubles;
-import com.hartwig.hmftools.common.utils.VectorUtils;
 import com.hartwig.hmftools.neo.PeptideData;
 
 public class RandomDistributionTask implements Callable
@@ -23,6 +23,7 @@ public class RandomDistributionTask implements Callable
     private final String mAllele;
 
     private final Map<Integer,List<PeptideData>> mRandomPeptideMap; // by length and with flanking data
+    private final Map<Integer,EncodedPeptides> mEncodedRandomPeptides;
     private final Map<String,Map<Integer,List<ScoreDistributionData>>> mAlleleScoreDistributions;
     private final FlankScores mFlankScores;
     private final Map<Integer,BindScoreMatrix> mPeptideLengthMatrixMap;
@@ -47,25 +48,27 @@ public class RandomDistributionTask implements Callable
     // instantiate one of 2 tasks
     public RandomDistributionTask(
             final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores)
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,EncodedPeptides> encodedRandomPeptides,
+            final FlankScores flankScores)
     {
-        this(TASK_TYPE_SCORE_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, flankScores,
+        this(TASK_TYPE_SCORE_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, encodedRandomPeptides, flankScores,
                 null, null, null);
     }
 
     public RandomDistributionTask(
             final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores,
-            final Map<String,Map<Integer,List<ScoreDistributionData>>> alleleScoreDistributions,
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,EncodedPeptides> encodedRandomPeptides,
+            final FlankScores flankScores, final Map<String,Map<Integer,List<ScoreDistributionData>>> alleleScoreDistributions,
             final BindingLikelihood bindingLikelihood, final ExpressionLikelihood expressionLikelihood)
     {
-        this(TASK_TYPE_LIKELIHOOD_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, flankScores,
+        this(TASK_TYPE_LIKELIHOOD_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, encodedRandomPeptides, flankScores,
                 alleleScoreDistributions, bindingLikelihood, expressionLikelihood);
     }
 
     private RandomDistributionTask(
             final int taskType, final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores,
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,EncodedPeptides> encodedRandomPeptides,
+            final FlankScores flankScores,
             final Map<String,Map<Integer,List<ScoreDistributionData>>> alleleScoreDistributions,
             final BindingLikelihood bindingLikelihood, final ExpressionLikelihood expressionLikelihood)
     {
@@ -73,6 +76,7 @@ public class RandomDistributionTask implements Callable
         mAllele = allele;
         mPeptideLengthMatrixMap = peptideLengthMatrixMap;
         mRandomPeptideMap = randomPeptideMap;
+        mEncodedRandomPeptides = encodedRandomPeptides;
         mFlankScores = flankScores;
         mAlleleScoreDistributions = alleleScoreDistributions;
         mBindingLikelihood = bindingLikelihood;
@@ -120,31 +124,19 @@ public class RandomDistributionTask implements Callable
 
         for(BindScoreMatrix matrix : mPeptideLengthMatrixMap.values())
         {
-            List<PeptideData> randomPeptides = mRandomPeptideMap.get(matrix.PeptideLength);
+            EncodedPeptides randomPeptides = mEncodedRandomPeptides.get(matrix.PeptideLength);
 
-            if(randomPeptides == null || randomPeptides.isEmpty())
+            if(randomPeptides == null || randomPeptides.count() == 0)
             {
                 NE_LOGGER.error("missing random peptide data for length({})", matrix.PeptideLength);
                 return;
             }
 
-            List<Double> peptideScores = Lists.newArrayListWithExpectedSize(randomPeptides.size());
+            double[] scores = BindScorer.calcScores(matrix, mFlankScores, randomPeptides);
 
-            int count = 0;
+            List<Double> peptideScores = sortDescending(scores, scores.length);
 
-            for(PeptideData peptideData : randomPeptides)
-            {
-                double score = BindScorer.calcScore(matrix, mFlankScores, peptideData.Peptide, peptideData.UpFlank, peptideData.DownFlank);
-
-                VectorUtils.optimisedAdd(peptideScores, score, false);
-
-                ++count;
-
-                if(count > 0 && (count % 500000) == 0)
-                {
-                    NE_LOGGER.debug("added {} sorted random peptide scores", count);
-                }
-            }
+            NE_LOGGER.debug("added {} sorted random peptide scores", peptideScores.size());
 
             List<ScoreDistributionData> scoresDistributions = generateDistribution(matrix.Allele, matrix.PeptideLength, peptideScores);
             mPeptideLengthDistributions.put(matrix.PeptideLength, scoresDistributions);
@@ -158,7 +150,8 @@ public class RandomDistributionTask implements Callable
 
         NE_LOGGER.debug("building likelihood distribution for allele({})", mAllele);
 
-        List<Double> likelihoodScores = Lists.newArrayList();
+        double[] likelihoods = new double[mRandomPeptideMap.values().stream().mapToInt(x -> x.size()).sum()];
+        int likelihoodCount = 0;
 
         for(BindScoreMatrix matrix : mPeptideLengthMatrixMap.values())
         {
@@ -166,16 +159,17 @@ public class RandomDistributionTask implements Callable
             if(matrix.PeptideLength > PAN_PEPTIDE_MAX_LENGTH)
                 continue;
 
-            int count = 0;
-
             List<PeptideData> randomPeptides = mRandomPeptideMap.get(matrix.PeptideLength);
 
             if(randomPeptides == null || randomPeptides.isEmpty())
                 return;
 
-            for(PeptideData peptideData : randomPeptides)
+            double[] scores = BindScorer.calcScores(matrix, mFlankScores, mEncodedRandomPeptides.get(matrix.PeptideLength));
+
+            for(int i = 0; i < randomPeptides.size(); ++i)
             {
-                double score = BindScorer.calcScore(matrix, mFlankScores, peptideData.Peptide, peptideData.UpFlank, peptideData.DownFlank);
+                PeptideData peptideData = randomPeptides.get(i);
+                double score = scores[i];
                 double rank = getScoreRank(mAlleleScoreDistributions, mAllele, matrix.PeptideLength, score);
                 double likelihood = mBindingLikelihood.getBindingLikelihood(mAllele, peptideData.Peptide, rank);
 
@@ -185,20 +179,33 @@ public class RandomDistributionTask implements Callable
                     likelihood *= expLikelihood;
                 }
 
-                VectorUtils.optimisedAdd(likelihoodScores, likelihood, false);
-
-                ++count;
-
-                if(count > 0 && (count % 500000) == 0)
-                {
-                    NE_LOGGER.debug("added {} sorted random peptide likelihood scores", count);
-                }
+                likelihoods[likelihoodCount++] = likelihood;
             }
         }
 
+        List<Double> likelihoodScores = sortDescending(likelihoods, likelihoodCount);
+
+        NE_LOGGER.debug("added {} sorted random peptide likelihood scores", likelihoodScores.size());
+
         mLikelihoodDistributions.addAll(generateDistribution(mAllele, PAN_PEPTIDE_LENGTH, likelihoodScores));
     }
 
+    private static List<Double> sortDescending(final double[] values, int count)
+    {
+        // sorted once rather than by inserting each value into a sorted list
+        double[] sortedValues = Arrays.copyOf(values, count);
+        Arrays.sort(sortedValues);
+
+        List<Double> sortedList = Lists.newArrayListWithExpectedSize(count);
+
+        for(int i = count - 1; i >= 0; --i)
+        {
+            sortedList.add(sortedValues[i]);
+        }
+
+        return sortedList;
+    }
+
     private List<ScoreDistributionData> generateDistribution(final String allele, final int peptideLength, final List<Double> peptideScores)
     {
         return generateDistribution(allele, peptideLength, peptideScores, mDiscreteScoreData);
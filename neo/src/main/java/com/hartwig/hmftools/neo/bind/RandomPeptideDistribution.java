@@ -37,6 +37,7 @@ public class RandomPeptideDistribution
     private boolean mDataLoaded;
 
     private final Map<Integer,List<PeptideData>> mRandomPeptideMap; // by length and with flanking data
+    private final Map<Integer,EncodedPeptides> mEncodedRandomPeptides; // the same peptides encoded once for all alleles
 
     // allele to peptide length to distribution
     private final Map<String,Map<Integer,List<ScoreDistributionData>>> mAlleleScoreDistributions;
@@ -55,6 +56,7 @@ public class RandomPeptideDistribution
         mAlleleLikelihoodDistributions = Maps.newHashMap();
         mAlleleExpressionLikelihoodDistributions = Maps.newHashMap();
         mRandomPeptideMap = Maps.newHashMap();
+        mEncodedRandomPeptides = Maps.newHashMap();
         mDataLoaded = false;
     }
 
@@ -168,6 +170,11 @@ public class RandomPeptideDistribution
         if(!loadRandomPeptides(mConfig.RandomPeptidesFile, peptideLengths, mRandomPeptideMap) || mRandomPeptideMap.isEmpty())
             return;
 
+        if(mEncodedRandomPeptides.isEmpty())
+        {
+            mRandomPeptideMap.forEach((k, v) -> mEncodedRandomPeptides.put(k, EncodedPeptides.fromPeptideData(k, v)));
+        }
+
         mAlleleScoreDistributions.clear();
 
         List<RandomDistributionTask> alleleTasks = Lists.newArrayList();
@@ -183,7 +190,8 @@ public class RandomPeptideDistribution
 
             final Map<Integer, BindScoreMatrix> peptideLengthMatrixMap = alleleEntry.getValue();
 
-            alleleTasks.add(new RandomDistributionTask(allele, peptideLengthMatrixMap, mRandomPeptideMap, flankScores));
+            alleleTasks.add(new RandomDistributionTask(
+                    allele, peptideLengthMatrixMap, mRandomPeptideMap, mEncodedRandomPeptides, flankScores));
         }
 
         NE_LOGGER.info("building distribution for {} allele(s)", alleleTasks.size());
@@ -225,7 +233,7 @@ public class RandomPeptideDistribution
             final Map<Integer, BindScoreMatrix> peptideLengthMatrixMap = alleleEntry.getValue();
 
             alleleTasks.add(new RandomDistributionTask(
-                    allele, peptideLengthMatrixMap, mRandomPeptideMap, flankScores, mAlleleScoreDistributions,
+                    allele, peptideLengthMatrixMap, mRandomPeptideMap, mEncodedRandomPeptides, flankScores, mAlleleScoreDistributions,
                     bindingLikelihood, expressionLikelihood));
         }
 
@@ -65,7 +65,7 @@ public class NeoScorerTask implements Callable
 
         Map<Integer,NeoPredictionData> neoPredictionsMap = Maps.newHashMap();
 
-        int peptideAlleleCount = 0;
+        List<BindData> sampleBindData = Lists.newArrayList();
 
         for(Map.Entry<Integer,NeoEpitopeData> entry : neoEpitopeMap.entrySet())
         {
@@ -103,19 +103,14 @@ public class NeoScorerTask implements Callable
 
             neoPredictionsMap.put(neoData.Id, predData);
 
-            for(List<BindData> bindDataList : predData.getPeptidePredictions().values())
-            {
-                for(BindData bindData : bindDataList)
-                {
-                    mScorer.calcScoreData(bindData);
-                }
-            }
-
-            peptideAlleleCount += predData.getPeptidePredictions().values().stream().mapToInt(x -> x.size()).sum();
+            predData.getPeptidePredictions().values().forEach(x -> sampleBindData.addAll(x));
         }
 
+        // the sample's peptides are scored together, in batches by allele and peptide length
+        mScorer.calcScoreData(sampleBindData);
+
         NE_LOGGER.debug("sample({}) neoepitopes({}) scored {} allele-peptides",
-                mSampleId, neoEpitopeMap.size(), peptideAlleleCount);
+                mSampleId, neoEpitopeMap.size(), sampleBindData.size());
 
         if(mConfig.WriteTypes.contains(OutputType.ALLELE_PEPTIDE))
         {
@@ -1,8 +1,8 @@
 package com.hartwig.hmftools.neo.epitope;
 
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
-import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME_CFG_DESC;
-import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadRefGenome;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME_TWO_BIT_CFG_DESC;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadRefGenomeFile;
 import static com.hartwig.hmftools.common.neo.NeoEpitopeFile.DELIMITER;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_DEBUG;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.loadGeneIdsFile;
@@ -125,7 +125,7 @@ public class NeoConfig
         PeptideFlanks = Integer.parseInt(cmd.getOptionValue(PEPTIDE_FLANKS, "0"));
 
         final String refGenomeFilename = cmd.getOptionValue(REF_GENOME);
-        RefGenome = loadRefGenome(refGenomeFilename);
+        RefGenome = loadRefGenomeFile(refGenomeFilename);
 
         SvFusionsDir = cmd.getOptionValue(SV_FUSION_DATA_DIR);
         SomaticVcf = cmd.getOptionValue(SOMATIC_VCF);
@@ -162,7 +162,7 @@ public class NeoConfig
         options.addOption(PEPTIDE_FLANKS, true, "Peptide flanking amino acids");
         EnsemblDataCache.addEnsemblDir(options);
         options.addOption(GENE_ID_FILE, true, "Restrict to specific genes");
-        options.addOption(REF_GENOME, true, REF_GENOME_CFG_DESC);
+        options.addOption(REF_GENOME, true, REF_GENOME_TWO_BIT_CFG_DESC);
         options.addOption(SV_FUSION_DATA_DIR, true, "Linx neoepitope directory");
         options.addOption(SOMATIC_VCF, true, "Purple somatic VCF (use '*') as required");
         options.addOption(CANCER_TPM_FILE, true, "TPM per cancer type and pan-cancer");
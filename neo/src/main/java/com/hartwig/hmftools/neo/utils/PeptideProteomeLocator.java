@@ -2,7 +2,6 @@ package com.hartwig.hmftools.neo.utils;
 
 import static java.lang.Math.min;
 
-import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.addEnsemblDir;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.CSV_DELIM;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
@@ -23,16 +22,13 @@ import static com.hartwig.hmftools.neo.bind.TranscriptExpression.IMMUNE_EXPRESSI
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader;
 import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.neo.bind.BindCommon;
@@ -51,7 +47,7 @@ public class PeptideProteomeLocator
     private final int mThreads;
     private final boolean mFindRepeats;
 
-    private final Map<String,TranscriptAminoAcids> mTransAminoAcidMap;
+    private final ProteomeIndex mProteomeIndex;
     private final TranscriptExpression mTranscriptExpression;
 
     private final List<String> mPeptides;
@@ -66,8 +62,7 @@ public class PeptideProteomeLocator
     {
         mPeptides = loadDelimitedIdFile(cmd.getOptionValue(PEPTIDE_FILE), FLD_PEPTIDE, CSV_DELIM);
 
-        mTransAminoAcidMap = Maps.newHashMap();
-        EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), mTransAminoAcidMap, Lists.newArrayList(), false);
+        mProteomeIndex = ProteomeIndex.fromConfig(cmd);
 
         mTranscriptExpression = new TranscriptExpression(cmd.getOptionValue(IMMUNE_EXPRESSION_FILE));
 
@@ -86,6 +81,12 @@ public class PeptideProteomeLocator
             System.exit(1);
         }
 
+        if(mProteomeIndex == null)
+        {
+            NE_LOGGER.error("proteome index unavailable");
+            System.exit(1);
+        }
+
         NE_LOGGER.info("searching for {} peptides", mPeptides.size());
 
         List<PeptideSearchTask> searchTasks = Lists.newArrayList();
@@ -102,7 +103,7 @@ public class PeptideProteomeLocator
                 taskPeptideLists.add(peptideList);
 
                 searchTasks.add(new PeptideSearchTask(
-                        i, mTransAminoAcidMap, mTranscriptExpression, peptideList, mFindRepeats, mFlankLength, mWriter));
+                        i, mProteomeIndex, mTranscriptExpression, peptideList, mFindRepeats, mFlankLength, mWriter));
             }
 
             int taskIndex = 0;
@@ -121,7 +122,7 @@ public class PeptideProteomeLocator
         else
         {
             PeptideSearchTask searchTask = new PeptideSearchTask(
-                    0, mTransAminoAcidMap, mTranscriptExpression, mPeptides, mFindRepeats, mFlankLength, mWriter);
+                    0, mProteomeIndex, mTranscriptExpression, mPeptides, mFindRepeats, mFlankLength, mWriter);
 
             searchTasks.add(searchTask);
             searchTask.run();
@@ -179,7 +180,7 @@ public class PeptideProteomeLocator
     private class PeptideSearchTask implements Callable
     {
         private final int mTaskId;
-        private final Map<String,TranscriptAminoAcids> mTransAminoAcidMap;
+        private final ProteomeIndex mProteomeIndex;
         private final TranscriptExpression mTranscriptExpression;
         private final List<String> mPeptides;
         private final int mFlankLength;
@@ -188,12 +189,12 @@ public class PeptideProteomeLocator
         private int mFound;
 
         public PeptideSearchTask(
-                int taskId, final Map<String,TranscriptAminoAcids> transAminoAcidMap, final TranscriptExpression transcriptExpression,
+                int taskId, final ProteomeIndex proteomeIndex, final TranscriptExpression transcriptExpression,
                 final List<String> peptides, boolean findRepeats, final int flankLength, final BufferedWriter writer)
         {
             mTaskId = taskId;
             mFlankLength = flankLength;
-            mTransAminoAcidMap = transAminoAcidMap;
+            mProteomeIndex = proteomeIndex;
             mTranscriptExpression = transcriptExpression;
             mPeptides = peptides;
             mFindRepeats = findRepeats;
@@ -239,12 +240,19 @@ public class PeptideProteomeLocator
             Set<String> geneNames = Sets.newHashSet();
             List<String> transNames = Lists.newArrayList();
 
-            for(TranscriptAminoAcids transAminoAcids : mTransAminoAcidMap.values())
+            TranscriptAminoAcids prevTransAminoAcids = null;
+
+            for(ProteomeMatch match : mProteomeIndex.findPeptide(peptide))
             {
-                int aaIndex = transAminoAcids.AminoAcids.indexOf(peptide);
-                if(aaIndex < 0)
+                // matches are in transcript order, and only the first in each transcript is counted
+                TranscriptAminoAcids transAminoAcids = match.Transcript;
+
+                if(transAminoAcids == prevTransAminoAcids)
                     continue;
 
+                prevTransAminoAcids = transAminoAcids;
+                int aaIndex = match.AminoAcidIndex;
+
                 ++matches;
 
                 if(geneNames.isEmpty())
@@ -287,8 +295,6 @@ public class PeptideProteomeLocator
 
                 if(!mFindRepeats)
                     break;
-
-                // NE_LOGGER.info("found {} random peptides from {} coding transcripts", totalPeptideCount, transCodingCount);
             }
 
             if(!geneNames.isEmpty())
@@ -316,6 +322,7 @@ public class PeptideProteomeLocator
         options.addOption(THREADS, true, "Threads (default none)");
         options.addOption(OUTPUT_ID, true, "Output file identifier");
         addEnsemblDir(options);
+        ProteomeIndex.addCmdLineArgs(options);
         addLoggingOptions(options);
         addOutputDir(options);
 
@@ -2,9 +2,7 @@ package com.hartwig.hmftools.neo.utils;
 
 import static java.lang.Math.min;
 
-import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.addEnsemblDir;
-import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader.convertAminoAcidsToGeneMap;
 import static com.hartwig.hmftools.common.neo.NeoEpitopeFile.DELIMITER;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_DEBUG;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
@@ -28,17 +26,14 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
-import com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader;
-import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.neo.bind.BindCommon;
 import com.hartwig.hmftools.neo.bind.BindData;
@@ -58,7 +53,8 @@ public class PeptideProteomeSimilarity
 {
     private final List<PeptideSimilarity> mPeptideSimilarities;
 
-    private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+    private final ProteomeIndex mProteomeIndex;
+    private final Map<Integer,int[]> mUniquePeptidePositions; // by peptide length
     private final RankedProteomePeptides mRankedProteomePeptides;
     private final BindScorer mScorer;
 
@@ -73,15 +69,13 @@ public class PeptideProteomeSimilarity
         mPeptideSimilarities = Lists.newArrayList();
         loadPeptides(cmd.getOptionValue(PEPTIDES_FILE));
 
-        if(cmd.hasOption(ENSEMBL_DATA_DIR))
-        {
-            Map<String, TranscriptAminoAcids> transAminoAcidMap = Maps.newHashMap();
-            EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), transAminoAcidMap, Lists.newArrayList(), false);
-            mTransAminoAcidMap = convertAminoAcidsToGeneMap(transAminoAcidMap);
-        }
-        else
+        mProteomeIndex = ProteomeIndex.isConfigured(cmd) ? ProteomeIndex.fromConfig(cmd) : null;
+        mUniquePeptidePositions = Maps.newHashMap();
+
+        if(mProteomeIndex != null)
         {
-            mTransAminoAcidMap = null;
+            mPeptideSimilarities.stream().map(x -> x.Peptide.length()).distinct()
+                    .forEach(x -> mUniquePeptidePositions.put(x, findUniquePeptides(mProteomeIndex, x)));
         }
 
         if(cmd.hasOption(PROTEOME_RANKS_FILE))
@@ -131,7 +125,7 @@ public class PeptideProteomeSimilarity
 
             for(int i = 0; i < threads; ++i)
             {
-                searchTasks.add(new PeptideSearchTask(i, mTransAminoAcidMap, mRankedProteomePeptides));
+                searchTasks.add(new PeptideSearchTask(i, mProteomeIndex, mUniquePeptidePositions, mRankedProteomePeptides));
             }
 
             int taskIndex = 0;
@@ -149,7 +143,7 @@ public class PeptideProteomeSimilarity
         }
         else
         {
-            PeptideSearchTask searchTask = new PeptideSearchTask(0, mTransAminoAcidMap, mRankedProteomePeptides);
+            PeptideSearchTask searchTask = new PeptideSearchTask(0, mProteomeIndex, mUniquePeptidePositions, mRankedProteomePeptides);
             searchTask.getPeptides().addAll(mPeptideSimilarities);
             searchTasks.add(searchTask);
             searchTask.run();
@@ -169,7 +163,7 @@ public class PeptideProteomeSimilarity
 
             writer.write("Allele,Peptide,PeptideLikelihoodRank");
 
-            if(mTransAminoAcidMap != null)
+            if(mProteomeIndex != null)
             {
                 writer.write(",TopPeptide,TopLikelihoodRank,TopDtoS,TopPosDiffs,GeneName,TransName");
             }
@@ -197,7 +191,7 @@ public class PeptideProteomeSimilarity
                 writer.write(String.format("%s,%s,%.6f",
                         peptideSim.Allele, peptideSim.Peptide, peptideRank));
 
-                if(mTransAminoAcidMap != null)
+                if(mProteomeIndex != null)
                 {
                     double topSimRank = calcPeptideLikelihoodRank(peptideSim.Allele, peptideSim.topPeptide());
                     String topSimPosDiff = peptideSim.positionDiffs(peptideSim.topPeptide());
@@ -246,6 +240,36 @@ public class PeptideProteomeSimilarity
         return bindData.likelihoodRank();
     }
 
+    private static int[] findUniquePeptides(final ProteomeIndex proteomeIndex, int peptideLength)
+    {
+        // each distinct proteome peptide is compared once, excluding each transcript's final window and any with an unknown amino acid
+        int[] positions = proteomeIndex.uniquePeptidePositions(peptideLength, true);
+
+        int validCount = 0;
+        char unknownAminoAcid = AMINO_ACID_21ST.charAt(0);
+
+        for(int position : positions)
+        {
+            boolean valid = true;
+
+            for(int i = 0; i < peptideLength; ++i)
+            {
+                if(proteomeIndex.aminoAcid(position + i) == unknownAminoAcid)
+                {
+                    valid = false;
+                    break;
+                }
+            }
+
+            if(valid)
+                positions[validCount++] = position;
+        }
+
+        NE_LOGGER.debug("found {} unique proteome peptides of length({})", validCount, peptideLength);
+
+        return Arrays.copyOf(positions, validCount);
+    }
+
     private void loadPeptides(final String filename)
     {
         if(filename == null || !Files.exists(Paths.get(filename)))
@@ -294,7 +318,8 @@ public class PeptideProteomeSimilarity
     private class PeptideSearchTask implements Callable
     {
         private final int mTaskId;
-        private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+        private final ProteomeIndex mProteomeIndex;
+        private final Map<Integer,int[]> mUniquePeptidePositions;
         private final RankedProteomePeptides mRankedProteomePeptides;
 
         private final List<PeptideSimilarity> mPeptideSimilarities;
@@ -302,11 +327,12 @@ public class PeptideProteomeSimilarity
         private final BlosumMapping mBlosumMapping;
 
         public PeptideSearchTask(
-                int taskId, final Map<String,List<TranscriptAminoAcids>> transAminoAcidMap,
+                int taskId, final ProteomeIndex proteomeIndex, final Map<Integer,int[]> uniquePeptidePositions,
                 final RankedProteomePeptides rankedProteomePeptides)
         {
             mTaskId = taskId;
-            mTransAminoAcidMap = transAminoAcidMap;
+            mProteomeIndex = proteomeIndex;
+            mUniquePeptidePositions = uniquePeptidePositions;
             mRankedProteomePeptides = rankedProteomePeptides;
 
             mPeptideSimilarities = Lists.newArrayList();
@@ -421,81 +447,66 @@ public class PeptideProteomeSimilarity
 
         private void findTopSimilarity(final PeptideSimilarity peptideSim)
         {
-            if(mTransAminoAcidMap == null)
+            if(mProteomeIndex == null)
                 return;
 
             // search the proteome for the nearest peptide
-            String topPeptide = "";
-            double topSimiliarity = 0;
-            TranscriptAminoAcids topTrans = null;
-
             String peptide = peptideSim.Peptide;
 
-            int peptideLength = peptide.length();
+            List<ProteomeMatch> exactMatches = mProteomeIndex.findPeptide(peptide);
 
-            for(List<TranscriptAminoAcids> transAaList : mTransAminoAcidMap.values())
+            if(!exactMatches.isEmpty())
             {
-                Set<String> uniquePeptides = Sets.newHashSet();
-
-                for(TranscriptAminoAcids transAminoAcids : transAaList)
-                {
-                    final String aminoAcids = transAminoAcids.AminoAcids;
-
-                    if(aminoAcids.contains(peptide))
-                    {
-                        peptideSim.setTopSimilarity(peptide, 0, transAminoAcids);
-                        return;
-                    }
-
-                    int aaLength = aminoAcids.length();
-
-                    for(int startIndex = 0; startIndex < aaLength - peptideLength; ++startIndex)
-                    {
-                        String aaPeptide = aminoAcids.substring(startIndex, startIndex + peptideLength);
-
-                        if(uniquePeptides.contains(aaPeptide))
-                            continue;
+                peptideSim.setTopSimilarity(peptide, 0, exactMatches.get(0).Transcript);
+                return;
+            }
 
-                        uniquePeptides.add(aaPeptide);
+            int topPosition = -1;
+            double topSimiliarity = 0;
 
-                        if(aaPeptide.contains(AMINO_ACID_21ST))
-                            continue;
+            int peptideLength = peptide.length();
 
-                        double similarity = 0;
-                        boolean skip = false;
+            for(int position : mUniquePeptidePositions.get(peptideLength))
+            {
+                double similarity = 0;
+                boolean skip = false;
 
-                        for(int i = 0; i < peptide.length(); ++i)
-                        {
-                            char aa1 = peptide.charAt(i);
-                            char aa2 = aaPeptide.charAt(i);
+                for(int i = 0; i < peptideLength; ++i)
+                {
+                    char aa1 = peptide.charAt(i);
+                    char aa2 = mProteomeIndex.aminoAcid(position + i);
 
-                            int bs1 = mBlosumMapping.selfMapping(aa1);
-                            int bs2 = mBlosumMapping.selfMapping(aa2);
-                            int map = mBlosumMapping.map(aa1, aa2);
+                    int bs1 = mBlosumMapping.selfMapping(aa1);
+                    int bs2 = mBlosumMapping.selfMapping(aa2);
+                    int map = mBlosumMapping.map(aa1, aa2);
 
-                            similarity += (bs1 + bs2) * 0.5 - map;
+                    similarity += (bs1 + bs2) * 0.5 - map;
 
-                            if(topTrans != null && similarity >= topSimiliarity) // skip if cannot be better
-                            {
-                                skip = true;
-                                break;
-                            }
-                        }
+                    if(topPosition >= 0 && similarity >= topSimiliarity) // skip if cannot be better
+                    {
+                        skip = true;
+                        break;
+                    }
+                }
 
-                        if(skip)
-                            continue;
+                if(skip)
+                    continue;
 
-                        if(topTrans == null || similarity < topSimiliarity)
-                        {
-                            topPeptide = aaPeptide;
-                            topSimiliarity = similarity;
-                            topTrans = transAminoAcids;
-                        }
-                    }
+                if(topPosition < 0 || similarity < topSimiliarity)
+                {
+                    topPosition = position;
+                    topSimiliarity = similarity;
                 }
             }
 
-            peptideSim.setTopSimilarity(topPeptide, topSimiliarity, topTrans);
+            if(topPosition < 0)
+            {
+                peptideSim.setTopSimilarity("", 0, null);
+                return;
+            }
+
+            peptideSim.setTopSimilarity(
+                    mProteomeIndex.peptide(topPosition, peptideLength), topSimiliarity, mProteomeIndex.transcriptAt(topPosition));
         }
     }
 
@@ -503,6 +514,7 @@ public class PeptideProteomeSimilarity
     {
         final Options options = new Options();
         addEnsemblDir(options);
+        ProteomeIndex.addCmdLineArgs(options);
         options.addOption(PEPTIDES_FILE, true, "Peptides file");
         options.addOption(PROTEOME_RANKS_FILE, true, "Proteome ranks file");
         options.addOption(OUTPUT_DIR, true, "Output directory");
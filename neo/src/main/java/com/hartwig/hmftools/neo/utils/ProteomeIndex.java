@@ -0,0 +1,666 @@
+package com.hartwig.hmftools.neo.utils;
+
+import static java.lang.Math.min;
+
+import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
+import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader;
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Options;
+
+public class ProteomeIndex
+{
+    // a suffix array over every transcript's amino acids, concatenated with a separator, so that peptides are located by binary
+    // search rather than a scan of the proteome - suffixes are only ordered to a fixed depth, beyond which matches are verified
+    // the index is not changed once built or loaded, so can be shared by any number of search threads
+    private final List<TranscriptAminoAcids> mTranscripts;
+    private final int[] mTranscriptStarts; // position of each transcript's first amino acid in the sequence
+    private final byte[] mSequence;
+    private final int[] mSuffixArray;
+
+    public static final String PROTEOME_INDEX_FILE = "proteome_index_file";
+
+    // suffixes are sorted by a key packing a number of amino acid codes above the suffix's position
+    private static final int CODE_BITS = 5;
+    private static final int CODES_PER_KEY = 6;
+    private static final int POSITION_BITS = 29;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final long CODE_MASK = (1L << CODE_BITS) - 1;
+
+    protected static final int SORT_DEPTH = CODES_PER_KEY * 4;
+
+    private static final byte SEPARATOR = 0;
+    private static final byte[] CODES = aminoAcidCodes();
+
+    private static final int MAGIC = 0x4E455049; // 'NEPI'
+    private static final int VERSION = 1;
+    private static final int FILE_BUFFER_SIZE = 1 << 20;
+
+    public interface PeptideHandler
+    {
+        // positions of each occurrence of a peptide, in a buffer reused between calls
+        void handle(final int[] positions, int count);
+    }
+
+    public ProteomeIndex(final List<TranscriptAminoAcids> transcripts)
+    {
+        mTranscripts = Lists.newArrayList(transcripts);
+        mTranscriptStarts = new int[mTranscripts.size()];
+        mSequence = buildSequence(mTranscripts, mTranscriptStarts);
+        mSuffixArray = buildSuffixArray(mSequence);
+    }
+
+    private ProteomeIndex(final List<TranscriptAminoAcids> transcripts, final int[] suffixArray)
+    {
+        mTranscripts = transcripts;
+        mTranscriptStarts = new int[mTranscripts.size()];
+        mSequence = buildSequence(mTranscripts, mTranscriptStarts);
+        mSuffixArray = suffixArray;
+    }
+
+    public List<TranscriptAminoAcids> transcripts() { return mTranscripts; }
+    public int aminoAcidCount() { return mSuffixArray.length; }
+
+    public char aminoAcid(int position) { return (char)mSequence[position]; }
+
+    public String peptide(int position, int length)
+    {
+        return new String(mSequence, position, length, StandardCharsets.US_ASCII);
+    }
+
+    public TranscriptAminoAcids transcriptAt(int position) { return mTranscripts.get(transcriptIndex(position)); }
+
+    public int aminoAcidIndex(int position) { return position - mTranscriptStarts[transcriptIndex(position)]; }
+
+    public boolean containsPeptide(final String peptide)
+    {
+        return !findPeptide(peptide).isEmpty();
+    }
+
+    public List<ProteomeMatch> findPeptide(final String peptide)
+    {
+        List<ProteomeMatch> matches = Lists.newArrayList();
+
+        int length = peptide.length();
+
+        if(length == 0)
+            return matches;
+
+        byte[] codes = encode(peptide);
+        int searchLength = min(length, SORT_DEPTH);
+        int lower = lowerBound(codes, 0, searchLength);
+        int upper = upperBound(codes, 0, searchLength);
+
+        // matches are returned in proteome order, ie by transcript and then amino acid index
+        int[] positions = Arrays.copyOfRange(mSuffixArray, lower, upper);
+        Arrays.sort(positions);
+
+        for(int position : positions)
+        {
+            if(length > SORT_DEPTH && compareSuffix(position, codes, 0, length) != 0)
+                continue;
+
+            matches.add(createMatch(position, length, 0));
+        }
+
+        return matches;
+    }
+
+    public List<ProteomeMatch> findPeptide(final String peptide, int maxMismatches)
+    {
+        if(maxMismatches == 0)
+            return findPeptide(peptide);
+
+        int length = peptide.length();
+
+        if(maxMismatches < 0 || maxMismatches >= length)
+        {
+            throw new IllegalArgumentException(String.format("invalid mismatches(%d) for peptide(%s)", maxMismatches, peptide));
+        }
+
+        // split the peptide into one more segment than mismatches allowed, so any match has at least one segment matching exactly
+        int segmentCount = maxMismatches + 1;
+        int[] segmentStarts = new int[segmentCount + 1];
+
+        for(int s = 0; s <= segmentCount; ++s)
+        {
+            segmentStarts[s] = s * length / segmentCount;
+        }
+
+        byte[] codes = encode(peptide);
+        List<Long> matchKeys = Lists.newArrayList(); // mismatches then position, to order matches
+
+        for(int s = 0; s < segmentCount; ++s)
+        {
+            int segmentStart = segmentStarts[s];
+            int segmentLength = segmentStarts[s + 1] - segmentStart;
+            int searchLength = min(segmentLength, SORT_DEPTH);
+            int lower = lowerBound(codes, segmentStart, searchLength);
+            int upper = upperBound(codes, segmentStart, searchLength);
+
+            for(int i = lower; i < upper; ++i)
+            {
+                int segmentPosition = mSuffixArray[i];
+
+                if(segmentLength > SORT_DEPTH && compareSuffix(segmentPosition, codes, segmentStart, segmentLength) != 0)
+                    continue;
+
+                int position = segmentPosition - segmentStart;
+
+                if(position < 0)
+                    continue;
+
+                // most candidates fail on their mismatches, so this is checked first
+                int mismatches = 0;
+
+                for(int j = 0; j < length && mismatches <= maxMismatches; ++j)
+                {
+                    if(code(position + j) != codes[j])
+                        ++mismatches;
+                }
+
+                if(mismatches > maxMismatches || !isWindow(position, length, false))
+                    continue;
+
+                // a match is only taken from the first of its segments which matches exactly, so is not reported twice
+                boolean matchedEarlierSegment = false;
+
+                for(int prev = 0; prev < s; ++prev)
+                {
+                    int prevStart = segmentStarts[prev];
+
+                    if(compareSuffix(position + prevStart, codes, prevStart, segmentStarts[prev + 1] - prevStart) == 0)
+                    {
+                        matchedEarlierSegment = true;
+                        break;
+                    }
+                }
+
+                if(!matchedEarlierSegment)
+                    matchKeys.add(((long)mismatches << Integer.SIZE) | position);
+            }
+        }
+
+        Collections.sort(matchKeys);
+
+        List<ProteomeMatch> matches = Lists.newArrayListWithCapacity(matchKeys.size());
+
+        for(long matchKey : matchKeys)
+        {
+            matches.add(createMatch((int)(matchKey & POSITION_MASK), length, (int)(matchKey >>> Integer.SIZE)));
+        }
+
+        return matches;
+    }
+
+    public void forEachUniquePeptide(int length, boolean excludeFinalWindow, final PeptideHandler handler)
+    {
+        // adjacent suffixes share their leading amino acids, so each distinct peptide is a run in the suffix array
+        // windows crossing a transcript's end are skipped, as is each transcript's final window if requested
+        if(length < 1 || length > SORT_DEPTH)
+            throw new IllegalArgumentException(String.format("invalid unique peptide length(%d)", length));
+
+        int[] positions = new int[16];
+        int count = 0;
+        int groupPosition = -1;
+
+        for(int i = 0; i < mSuffixArray.length; ++i)
+        {
+            int position = mSuffixArray[i];
+
+            if(groupPosition < 0 || !samePrefix(groupPosition, position, length))
+            {
+                if(count > 0)
+                    handler.handle(positions, count);
+
+                count = 0;
+                groupPosition = position;
+            }
+
+            if(!isWindow(position, length, excludeFinalWindow))
+                continue;
+
+            if(count == positions.length)
+                positions = Arrays.copyOf(positions, count * 2);
+
+            positions[count++] = position;
+        }
+
+        if(count > 0)
+            handler.handle(positions, count);
+    }
+
+    public int[] uniquePeptidePositions(int length, boolean excludeFinalWindow)
+    {
+        // the position of one occurrence of each distinct peptide of the specified length
+        final int[][] positions = { new int[1024] };
+        final int[] count = { 0 };
+
+        forEachUniquePeptide(length, excludeFinalWindow, (groupPositions, groupCount) ->
+        {
+            if(count[0] == positions[0].length)
+                positions[0] = Arrays.copyOf(positions[0], count[0] * 2);
+
+            positions[0][count[0]++] = groupPositions[0];
+        });
+
+        return Arrays.copyOf(positions[0], count[0]);
+    }
+
+    private ProteomeMatch createMatch(int position, int length, int mismatches)
+    {
+        int transIndex = transcriptIndex(position);
+
+        return new ProteomeMatch(
+                mTranscripts.get(transIndex), position - mTranscriptStarts[transIndex], peptide(position, length), mismatches);
+    }
+
+    private int transcriptIndex(int position)
+    {
+        int index = Arrays.binarySearch(mTranscriptStarts, position);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private boolean isWindow(int position, int length, boolean excludeFinalWindow)
+    {
+        // a window within a transcript has no separator, and the separator directly follows a transcript's final window
+        int end = position + length + (excludeFinalWindow ? 1 : 0);
+
+        if(end > mSequence.length)
+            return false;
+
+        for(int i = position; i < end; ++i)
+        {
+            if(mSequence[i] == SEPARATOR)
+                return false;
+        }
+
+        return true;
+    }
+
+    private int code(int position)
+    {
+        return position < mSequence.length ? CODES[mSequence[position] & 0xFF] : SEPARATOR;
+    }
+
+    private boolean samePrefix(int position1, int position2, int length)
+    {
+        for(int i = 0; i < length; ++i)
+        {
+            int code = code(position1 + i);
+
+            if(code != code(position2 + i))
+                return false;
+
+            if(code == SEPARATOR)
+                return true;
+        }
+
+        return true;
+    }
+
+    private int compareSuffix(int position, final byte[] codes, int offset, int length)
+    {
+        for(int i = 0; i < length; ++i)
+        {
+            // the peptide has no separators so a suffix ending early always compares lower
+            int diff = code(position + i) - codes[offset + i];
+
+            if(diff != 0)
+                return diff;
+        }
+
+        return 0;
+    }
+
+    private int lowerBound(final byte[] codes, int offset, int length)
+    {
+        int low = 0;
+        int high = mSuffixArray.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(compareSuffix(mSuffixArray[mid], codes, offset, length) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    private int upperBound(final byte[] codes, int offset, int length)
+    {
+        int low = 0;
+        int high = mSuffixArray.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(compareSuffix(mSuffixArray[mid], codes, offset, length) <= 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+
+    private static byte[] aminoAcidCodes()
+    {
+        // letters are coded in order, with anything else sorting after them
+        byte[] codes = new byte[256];
+        Arrays.fill(codes, (byte)('Z' - 'A' + 2));
+        codes[SEPARATOR] = SEPARATOR;
+
+        for(char aa = 'A'; aa <= 'Z'; ++aa)
+        {
+            codes[aa] = (byte)(aa - 'A' + 1);
+        }
+
+        return codes;
+    }
+
+    private static byte[] encode(final String peptide)
+    {
+        byte[] codes = new byte[peptide.length()];
+
+        for(int i = 0; i < peptide.length(); ++i)
+        {
+            char aa = peptide.charAt(i);
+            codes[i] = aa < CODES.length && aa != SEPARATOR ? CODES[aa] : CODES['*'];
+        }
+
+        return codes;
+    }
+
+    private static byte[] buildSequence(final List<TranscriptAminoAcids> transcripts, final int[] transcriptStarts)
+    {
+        long sequenceLength = transcripts.stream().mapToLong(x -> x.AminoAcids.length() + 1).sum();
+
+        if(sequenceLength > POSITION_MASK)
+        {
+            throw new IllegalArgumentException(String.format("proteome length(%d) exceeds index limit", sequenceLength));
+        }
+
+        byte[] sequence = new byte[(int)sequenceLength];
+        int position = 0;
+
+        for(int i = 0; i < transcripts.size(); ++i)
+        {
+            transcriptStarts[i] = position;
+
+            String aminoAcids = transcripts.get(i).AminoAcids;
+
+            for(int j = 0; j < aminoAcids.length(); ++j)
+            {
+                char aa = aminoAcids.charAt(j);
+                sequence[position++] = aa < CODES.length && aa != SEPARATOR ? (byte)aa : (byte)'*';
+            }
+
+            sequence[position++] = SEPARATOR;
+        }
+
+        return sequence;
+    }
+
+    private static int[] buildSuffixArray(final byte[] sequence)
+    {
+        int suffixCount = 0;
+
+        for(byte aa : sequence)
+        {
+            if(aa != SEPARATOR)
+                ++suffixCount;
+        }
+
+        long[] keys = new long[suffixCount];
+        int index = 0;
+
+        for(int position = 0; position < sequence.length; ++position)
+        {
+            if(sequence[position] != SEPARATOR)
+                keys[index++] = packKey(sequence, position, 0);
+        }
+
+        Arrays.parallelSort(keys);
+
+        int[] suffixArray = new int[suffixCount];
+
+        for(int i = 0; i < suffixCount; ++i)
+        {
+            suffixArray[i] = (int)(keys[i] & POSITION_MASK);
+        }
+
+        sortTiedSuffixes(sequence, suffixArray, keys, 0, CODES_PER_KEY);
+        return suffixArray;
+    }
+
+    private static void sortTiedSuffixes(final byte[] sequence, final int[] suffixArray, final long[] keys, int offset, int depth)
+    {
+        // suffixes with the same key are ordered by their next amino acids, unless they already reached a separator
+        if(depth >= SORT_DEPTH)
+            return;
+
+        int runStart = 0;
+
+        for(int i = 1; i <= keys.length; ++i)
+        {
+            if(i < keys.length && (keys[i] >>> POSITION_BITS) == (keys[runStart] >>> POSITION_BITS))
+                continue;
+
+            boolean reachedSeparator = ((keys[runStart] >>> POSITION_BITS) & CODE_MASK) == SEPARATOR;
+
+            if(i - runStart > 1 && !reachedSeparator)
+            {
+                int from = offset + runStart;
+                long[] runKeys = new long[i - runStart];
+
+                for(int j = 0; j < runKeys.length; ++j)
+                {
+                    runKeys[j] = packKey(sequence, suffixArray[from + j], depth);
+                }
+
+                Arrays.sort(runKeys);
+
+                for(int j = 0; j < runKeys.length; ++j)
+                {
+                    suffixArray[from + j] = (int)(runKeys[j] & POSITION_MASK);
+                }
+
+                sortTiedSuffixes(sequence, suffixArray, runKeys, from, depth + CODES_PER_KEY);
+            }
+
+            runStart = i;
+        }
+    }
+
+    private static long packKey(final byte[] sequence, int position, int depth)
+    {
+        // codes after a separator are left as zero, so suffixes ending at the same point are tied
+        long key = 0;
+        boolean reachedSeparator = false;
+
+        for(int i = 0; i < CODES_PER_KEY; ++i)
+        {
+            int index = position + depth + i;
+            int code = SEPARATOR;
+
+            if(!reachedSeparator && index < sequence.length)
+            {
+                code = CODES[sequence[index] & 0xFF];
+                reachedSeparator = code == SEPARATOR;
+            }
+
+            key = (key << CODE_BITS) | code;
+        }
+
+        return (key << POSITION_BITS) | position;
+    }
+
+    public void write(final String filename) throws IOException
+    {
+        DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), FILE_BUFFER_SIZE));
+
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(VERSION);
+        outputStream.writeInt(SORT_DEPTH);
+        outputStream.writeInt(mTranscripts.size());
+
+        for(TranscriptAminoAcids transAminoAcids : mTranscripts)
+        {
+            writeString(outputStream, transAminoAcids.GeneId);
+            writeString(outputStream, transAminoAcids.GeneName);
+            writeString(outputStream, transAminoAcids.TransName);
+            outputStream.writeBoolean(transAminoAcids.Canonical);
+            writeString(outputStream, transAminoAcids.AminoAcids);
+        }
+
+        outputStream.writeInt(mSuffixArray.length);
+
+        for(int position : mSuffixArray)
+        {
+            outputStream.writeInt(position);
+        }
+
+        outputStream.close();
+    }
+
+    public static ProteomeIndex read(final String filename) throws IOException
+    {
+        try(DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), FILE_BUFFER_SIZE)))
+        {
+            if(inputStream.readInt() != MAGIC)
+                throw new IOException(String.format("file(%s) is not a proteome index", filename));
+
+            int version = inputStream.readInt();
+            int sortDepth = inputStream.readInt();
+
+            if(version != VERSION || sortDepth != SORT_DEPTH)
+            {
+                throw new IOException(String.format("proteome index(%s) version(%d) depth(%d) not supported, rebuild required",
+                        filename, version, sortDepth));
+            }
+
+            int transcriptCount = inputStream.readInt();
+            List<TranscriptAminoAcids> transcripts = Lists.newArrayListWithCapacity(transcriptCount);
+
+            for(int i = 0; i < transcriptCount; ++i)
+            {
+                String geneId = readString(inputStream);
+                String geneName = readString(inputStream);
+                String transName = readString(inputStream);
+                boolean canonical = inputStream.readBoolean();
+                String aminoAcids = readString(inputStream);
+                transcripts.add(new TranscriptAminoAcids(geneId, geneName, transName, canonical, aminoAcids));
+            }
+
+            int[] suffixArray = new int[inputStream.readInt()];
+
+            for(int i = 0; i < suffixArray.length; ++i)
+            {
+                suffixArray[i] = inputStream.readInt();
+            }
+
+            ProteomeIndex index = new ProteomeIndex(transcripts, suffixArray);
+
+            if(index.mSequence.length - transcriptCount != suffixArray.length)
+                throw new IOException(String.format("proteome index(%s) suffix count does not match its transcripts", filename));
+
+            return index;
+        }
+    }
+
+    private static void writeString(final DataOutputStream outputStream, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final DataInputStream inputStream) throws IOException
+    {
+        byte[] bytes = new byte[inputStream.readInt()];
+        inputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void addCmdLineArgs(final Options options)
+    {
+        options.addOption(PROTEOME_INDEX_FILE, true, "Proteome index file, built from the Ensembl data cache and written if absent");
+    }
+
+    public static boolean isConfigured(final CommandLine cmd)
+    {
+        return cmd.hasOption(PROTEOME_INDEX_FILE) || cmd.hasOption(ENSEMBL_DATA_DIR);
+    }
+
+    public static ProteomeIndex fromConfig(final CommandLine cmd)
+    {
+        String indexFile = cmd.getOptionValue(PROTEOME_INDEX_FILE);
+
+        try
+        {
+            if(indexFile != null && Files.exists(Paths.get(indexFile)))
+            {
+                ProteomeIndex index = read(indexFile);
+                NE_LOGGER.info("loaded proteome index({}) with {} transcripts", indexFile, index.transcripts().size());
+                return index;
+            }
+
+            if(!cmd.hasOption(ENSEMBL_DATA_DIR))
+            {
+                NE_LOGGER.error("proteome index({}) not found and no Ensembl data dir to build it from", indexFile);
+                return null;
+            }
+
+            Map<String,TranscriptAminoAcids> transAminoAcidMap = Maps.newHashMap();
+            EnsemblDataLoader.loadTranscriptAminoAcidData(
+                    cmd.getOptionValue(ENSEMBL_DATA_DIR), transAminoAcidMap, Lists.newArrayList(), false);
+
+            // ordered so that the first match of a peptide is the same from run to run
+            List<TranscriptAminoAcids> transcripts = Lists.newArrayList(transAminoAcidMap.values());
+            transcripts.sort(Comparator.comparing(x -> x.TransName));
+
+            ProteomeIndex index = new ProteomeIndex(transcripts);
+            NE_LOGGER.info("built proteome index from {} transcripts", transcripts.size());
+
+            if(indexFile != null)
+            {
+                index.write(indexFile);
+                NE_LOGGER.info("wrote proteome index({})", indexFile);
+            }
+
+            return index;
+        }
+        catch(IOException e)
+        {
+            NE_LOGGER.error("failed to load proteome index({}): {}", indexFile, e.toString());
+            return null;
+        }
+    }
+}
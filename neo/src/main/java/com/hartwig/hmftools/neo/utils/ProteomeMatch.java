@@ -0,0 +1,24 @@
+package com.hartwig.hmftools.neo.utils;
+
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+public class ProteomeMatch
+{
+    public final TranscriptAminoAcids Transcript;
+    public final int AminoAcidIndex; // of the peptide's first amino acid within the transcript
+    public final String Peptide; // as found in the proteome
+    public final int Mismatches;
+
+    public ProteomeMatch(final TranscriptAminoAcids transcript, int aminoAcidIndex, final String peptide, int mismatches)
+    {
+        Transcript = transcript;
+        AminoAcidIndex = aminoAcidIndex;
+        Peptide = peptide;
+        Mismatches = mismatches;
+    }
+
+    public String toString()
+    {
+        return String.format("%s: trans(%s) index(%d) mismatches(%d)", Peptide, Transcript.TransName, AminoAcidIndex, Mismatches);
+    }
+}
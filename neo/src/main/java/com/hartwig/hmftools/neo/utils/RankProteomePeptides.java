@@ -2,9 +2,7 @@ package com.hartwig.hmftools.neo.utils;
 
 import static java.lang.Math.min;
 
-import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.addEnsemblDir;
-import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader.convertAminoAcidsToGeneMap;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.CSV_DELIM;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.loadDelimitedIdFile;
@@ -33,7 +31,6 @@ import java.util.stream.Collectors;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.hartwig.hmftools.common.ensemblcache.EnsemblDataLoader;
 import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.neo.bind.BindCommon;
@@ -50,7 +47,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class RankProteomePeptides
 {
-    private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+    private final ProteomeIndex mProteomeIndex;
 
     private final List<String> mAlleles;
     private final BindScorer mScorer;
@@ -67,9 +64,7 @@ public class RankProteomePeptides
     {
         mAlleles = loadDelimitedIdFile(cmd.getOptionValue(ALLELE_FILE), FLD_ALLELE, CSV_DELIM);
 
-        Map<String,TranscriptAminoAcids> transAminoAcidMap = Maps.newHashMap();
-        EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), transAminoAcidMap, Lists.newArrayList(), false);
-        mTransAminoAcidMap = convertAminoAcidsToGeneMap(transAminoAcidMap);
+        mProteomeIndex = ProteomeIndex.fromConfig(cmd);
 
         mRankCuttoff = Double.parseDouble(cmd.getOptionValue(RANK_CUTOFF, "0.01"));
         mScorer = new BindScorer(new ScoreConfig(cmd));
@@ -93,6 +88,12 @@ public class RankProteomePeptides
             System.exit(1);
         }
 
+        if(mProteomeIndex == null)
+        {
+            NE_LOGGER.error("proteome index unavailable");
+            System.exit(1);
+        }
+
         NE_LOGGER.info("searching for {} alleles", mAlleles.size());
 
         List<PeptideRankTask> searchTasks = Lists.newArrayList();
@@ -103,7 +104,7 @@ public class RankProteomePeptides
 
             for(int i = 0; i < threads; ++i)
             {
-                searchTasks.add(new PeptideRankTask(i, mTransAminoAcidMap, mScorer, mRankCuttoff, mWriter));
+                searchTasks.add(new PeptideRankTask(i, mProteomeIndex, mScorer, mRankCuttoff, mWriter));
             }
 
             int taskIndex = 0;
@@ -121,7 +122,7 @@ public class RankProteomePeptides
         }
         else
         {
-            PeptideRankTask searchTask = new PeptideRankTask(0, mTransAminoAcidMap, mScorer, mRankCuttoff, mWriter);
+            PeptideRankTask searchTask = new PeptideRankTask(0, mProteomeIndex, mScorer, mRankCuttoff, mWriter);
             searchTask.getAlleles().addAll(mAlleles);
             searchTasks.add(searchTask);
             searchTask.run();
@@ -171,7 +172,7 @@ public class RankProteomePeptides
     private class PeptideRankTask implements Callable
     {
         private final int mTaskId;
-        private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+        private final ProteomeIndex mProteomeIndex;
 
         private final BindScorer mScorer;
         private final double mRankCuttoff;
@@ -180,11 +181,11 @@ public class RankProteomePeptides
         private final List<String> mAlleles;
 
         public PeptideRankTask(
-                int taskId, final Map<String,List<TranscriptAminoAcids>> transAminoAcidMap,
+                int taskId, final ProteomeIndex proteomeIndex,
                 final BindScorer scorer, final double rankCuttoff, final BufferedWriter writer)
         {
             mTaskId = taskId;
-            mTransAminoAcidMap = transAminoAcidMap;
+            mProteomeIndex = proteomeIndex;
             mRankCuttoff = rankCuttoff;
             mScorer = scorer;
             mWriter = writer;
@@ -219,62 +220,69 @@ public class RankProteomePeptides
 
             for(int peptideLength : RANKED_PROTEOME_PEPTIDE_LENGTHS)
             {
-                for(List<TranscriptAminoAcids> transAaList : mTransAminoAcidMap.values())
-                {
-                    for(TranscriptAminoAcids transAminoAcids : transAaList)
-                    {
-                        final String aminoAcids = transAminoAcids.AminoAcids;
-                        int aaLength = aminoAcids.length();
+                // each distinct peptide is visited once with all its occurrences, excluding each transcript's final window
+                mProteomeIndex.forEachUniquePeptide(
+                        peptideLength, true, (positions, count) -> rankPeptide(allele, peptideLength, positions, count, results));
+            }
+
+            NE_LOGGER.debug("{}: allele({}) search found {} ranked peptides", mTaskId, allele, results.size());
+
+            writePeptides(mWriter, allele, results.values().stream().collect(Collectors.toList()));
+        }
 
-                        for(int startIndex = 0; startIndex < aaLength - peptideLength; ++startIndex)
-                        {
-                            int endIndex = startIndex + peptideLength;
-                            String aaPeptide = aminoAcids.substring(startIndex, endIndex);
+        private void rankPeptide(
+                final String allele, int peptideLength, final int[] positions, int count, final Map<String,PeptideData> results)
+        {
+            String aaPeptide = mProteomeIndex.peptide(positions[0], peptideLength);
 
-                            PeptideData peptideData = results.get(aaPeptide);
+            if(aaPeptide.contains(AMINO_ACID_21ST))
+                return;
 
-                            if(peptideData != null)
-                            {
-                                peptideData.GeneNames.add(transAminoAcids.GeneName);
-                                peptideData.TransNames.add(transAminoAcids.TransName);
-                                continue;
-                            }
+            // the score depends on the flanks, so occurrences are scored until one passes, once per distinct pair of flanks
+            Set<String> scoredFlanks = Sets.newHashSet();
+            PeptideData peptideData = null;
 
-                            if(aaPeptide.contains(AMINO_ACID_21ST))
-                                continue;
+            for(int i = 0; i < count && peptideData == null; ++i)
+            {
+                TranscriptAminoAcids transAminoAcids = mProteomeIndex.transcriptAt(positions[i]);
+                int startIndex = mProteomeIndex.aminoAcidIndex(positions[i]);
+                int endIndex = startIndex + peptideLength;
 
-                            String upFlank = "";
-                            String downFlank = "";
+                String upFlank = "";
+                String downFlank = "";
 
-                            int upFlankLength = min(startIndex, FLANK_AA_COUNT);
+                int upFlankLength = min(startIndex, FLANK_AA_COUNT);
 
-                            if(upFlankLength > 0)
-                                upFlank = transAminoAcids.AminoAcids.substring(startIndex - upFlankLength, startIndex);
+                if(upFlankLength > 0)
+                    upFlank = transAminoAcids.AminoAcids.substring(startIndex - upFlankLength, startIndex);
 
-                            int downFlankLength = min(transAminoAcids.AminoAcids.length() - endIndex - 1, FLANK_AA_COUNT);
+                int downFlankLength = min(transAminoAcids.AminoAcids.length() - endIndex - 1, FLANK_AA_COUNT);
 
-                            if(downFlankLength > 0)
-                                downFlank = transAminoAcids.AminoAcids.substring(endIndex, endIndex + downFlankLength);
+                if(downFlankLength > 0)
+                    downFlank = transAminoAcids.AminoAcids.substring(endIndex, endIndex + downFlankLength);
 
-                            BindData bindData = new BindData(allele, aaPeptide, "", upFlank, downFlank);
+                if(!scoredFlanks.add(upFlank + ITEM_DELIM + downFlank))
+                    continue;
 
-                            mScorer.calcScoreData(bindData);
+                BindData bindData = new BindData(allele, aaPeptide, "", upFlank, downFlank);
 
-                            if(bindData.likelihoodRank() < mRankCuttoff)
-                            {
-                                peptideData = new PeptideData(aaPeptide, bindData.likelihoodRank(), transAminoAcids);
-                                peptideData.GeneNames.add(transAminoAcids.GeneName);
-                                peptideData.TransNames.add(transAminoAcids.TransName);
-                                results.put(aaPeptide, peptideData);
-                            }
-                        }
-                    }
-                }
+                mScorer.calcScoreData(bindData);
+
+                if(bindData.likelihoodRank() < mRankCuttoff)
+                    peptideData = new PeptideData(aaPeptide, bindData.likelihoodRank(), transAminoAcids);
             }
 
-            NE_LOGGER.debug("{}: allele({}) search found {} ranked peptides", mTaskId, allele, results.size());
+            if(peptideData == null)
+                return;
 
-            writePeptides(mWriter, allele, results.values().stream().collect(Collectors.toList()));
+            for(int i = 0; i < count; ++i)
+            {
+                TranscriptAminoAcids transAminoAcids = mProteomeIndex.transcriptAt(positions[i]);
+                peptideData.GeneNames.add(transAminoAcids.GeneName);
+                peptideData.TransNames.add(transAminoAcids.TransName);
+            }
+
+            results.put(aaPeptide, peptideData);
         }
     }
 
@@ -324,6 +332,7 @@ public class RankProteomePeptides
         options.addOption(OUTPUT_ID, true, "Output file identifier");
         ScoreConfig.addCmdLineArgs(options);
         addEnsemblDir(options);
+        ProteomeIndex.addCmdLineArgs(options);
         addLoggingOptions(options);
         addOutputDir(options);
 
@@ -1,12 +1,18 @@
 package com.hartwig.hmftools.neo.bind;
 
+import static com.hartwig.hmftools.neo.bind.BindConstants.AMINO_ACIDS;
+import static com.hartwig.hmftools.neo.bind.BindConstants.AMINO_ACID_COUNT;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.FLANK_AMINO_ACID_COUNT;
+import static com.hartwig.hmftools.neo.bind.FlankCounts.TOTAL_FLANK_AA_COUNT;
 import static com.hartwig.hmftools.neo.bind.RandomDistributionTask.generateDistribution;
 
 import static junit.framework.TestCase.assertEquals;
 
 import java.util.List;
+import java.util.Random;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.neo.PeptideData;
 
 import org.junit.Test;
 
@@ -45,4 +51,71 @@ public class BindUtilsTest
         assertEquals(peptideScores.get(peptideScores.size() - 1), data.Score);
         assertEquals(peptideScores.size(), data.CumulativeCount);
     }
+
+    @Test
+    public void testBatchScoring()
+    {
+        Random random = new Random(1);
+        int peptideLength = 9;
+
+        BindScoreMatrix matrix = new BindScoreMatrix("A0101", peptideLength);
+
+        for(int aa = 0; aa < AMINO_ACID_COUNT; ++aa)
+        {
+            for(int pos = 0; pos < peptideLength; ++pos)
+            {
+                matrix.getBindScores()[aa][pos] = random.nextGaussian();
+            }
+        }
+
+        int[][] flankCounts = new int[FLANK_AMINO_ACID_COUNT][TOTAL_FLANK_AA_COUNT];
+
+        for(int aa = 0; aa < FLANK_AMINO_ACID_COUNT; ++aa)
+        {
+            for(int pos = 0; pos < TOTAL_FLANK_AA_COUNT; ++pos)
+            {
+                flankCounts[aa][pos] = random.nextInt(100);
+            }
+        }
+
+        FlankScores flankScores = new FlankScores();
+        flankScores.createMatrix(flankCounts);
+
+        List<PeptideData> peptides = Lists.newArrayList();
+
+        for(int i = 0; i < 1000; ++i)
+        {
+            peptides.add(new PeptideData(
+                    randomAminoAcids(random, peptideLength), randomAminoAcids(random, random.nextInt(5)),
+                    randomAminoAcids(random, random.nextInt(5))));
+        }
+
+        peptides.add(new PeptideData("ACDEFGHIX", "KL", ""));
+        peptides.add(new PeptideData("ACDEFGHIK", "", ""));
+        peptides.add(new PeptideData("ACDEFGHIK", "B", "*"));
+
+        double[] scores = BindScorer.calcScores(matrix, flankScores, EncodedPeptides.fromPeptideData(peptideLength, peptides));
+
+        assertEquals(peptides.size(), scores.length);
+
+        // batch scores are identical to scoring peptides one at a time
+        for(int i = 0; i < peptides.size(); ++i)
+        {
+            PeptideData peptide = peptides.get(i);
+            double score = BindScorer.calcScore(matrix, flankScores, peptide.Peptide, peptide.UpFlank, peptide.DownFlank);
+            assertEquals(Double.doubleToLongBits(score), Double.doubleToLongBits(scores[i]));
+        }
+    }
+
+    private static String randomAminoAcids(final Random random, int length)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int i = 0; i < length; ++i)
+        {
+            sb.append(AMINO_ACIDS.get(random.nextInt(AMINO_ACID_COUNT)));
+        }
+
+        return sb.toString();
+    }
 }
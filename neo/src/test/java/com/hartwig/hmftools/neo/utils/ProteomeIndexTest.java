@@ -0,0 +1,196 @@
+package com.hartwig.hmftools.neo.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+import org.junit.Test;
+
+public class ProteomeIndexTest
+{
+    private static final String AMINO_ACIDS = "ACDEFGHIKLMNPQRSTVWY";
+
+    @Test
+    public void testExactSearch()
+    {
+        List<TranscriptAminoAcids> transcripts = Lists.newArrayList(
+                new TranscriptAminoAcids("GENE01", "GENE_1", "TRANS_01", true, "MKLVAAGGTLVAAK"),
+                new TranscriptAminoAcids("GENE02", "GENE_2", "TRANS_02", true, "PQLVAAGR"),
+                new TranscriptAminoAcids("GENE02", "GENE_2", "TRANS_03", false, "AAGRW"));
+
+        ProteomeIndex index = new ProteomeIndex(transcripts);
+        assertEquals(27, index.aminoAcidCount());
+
+        List<ProteomeMatch> matches = index.findPeptide("LVAA");
+        assertEquals(3, matches.size());
+        assertEquals("TRANS_01", matches.get(0).Transcript.TransName);
+        assertEquals(2, matches.get(0).AminoAcidIndex);
+        assertEquals(9, matches.get(1).AminoAcidIndex);
+        assertEquals("TRANS_02", matches.get(2).Transcript.TransName);
+        assertEquals(2, matches.get(2).AminoAcidIndex);
+
+        // peptides do not span transcripts
+        assertTrue(index.findPeptide("AAGRW").size() == 1);
+        assertFalse(index.containsPeptide("AAKPQ"));
+        assertFalse(index.containsPeptide("LVAAGRW"));
+        assertTrue(index.containsPeptide("MKLVAAGGTLVAAK"));
+        assertFalse(index.containsPeptide("MKLVAAGGTLVAAKP"));
+        assertFalse(index.containsPeptide("Y"));
+    }
+
+    @Test
+    public void testSearchMatchesTranscriptScan()
+    {
+        Random random = new Random(1);
+        List<TranscriptAminoAcids> transcripts = Lists.newArrayList();
+
+        // a small alphabet gives many repeated and near-matching peptides
+        for(int i = 0; i < 40; ++i)
+        {
+            transcripts.add(new TranscriptAminoAcids(
+                    "GENE" + i, "GENE_" + i, "TRANS_" + i, true, randomAminoAcids(random, "ACDE", 20 + random.nextInt(60))));
+        }
+
+        // long repeats need ordering beyond the sort depth
+        String repeat = randomAminoAcids(random, "ACDE", 40);
+        transcripts.add(new TranscriptAminoAcids("GENE_R1", "GENE_R1", "TRANS_R1", true, repeat + "K"));
+        transcripts.add(new TranscriptAminoAcids("GENE_R2", "GENE_R2", "TRANS_R2", true, "W" + repeat + "W"));
+
+        ProteomeIndex index = new ProteomeIndex(transcripts);
+
+        for(int i = 0; i < 200; ++i)
+        {
+            String peptide = randomAminoAcids(random, "ACDE", 5 + random.nextInt(5));
+
+            for(int maxMismatches = 0; maxMismatches <= 2; ++maxMismatches)
+            {
+                assertEquals(scanProteome(transcripts, peptide, maxMismatches), toKeys(index.findPeptide(peptide, maxMismatches)));
+            }
+        }
+
+        String longPeptide = repeat.substring(2, 38);
+        assertEquals(scanProteome(transcripts, longPeptide, 0), toKeys(index.findPeptide(longPeptide)));
+        assertEquals(2, index.findPeptide(longPeptide).size());
+        assertEquals(1, index.findPeptide(repeat + "K").size());
+    }
+
+    @Test
+    public void testUniquePeptides()
+    {
+        List<TranscriptAminoAcids> transcripts = Lists.newArrayList(
+                new TranscriptAminoAcids("GENE01", "GENE_1", "TRANS_01", true, "ACDACDE"),
+                new TranscriptAminoAcids("GENE02", "GENE_2", "TRANS_02", true, "CDAC"));
+
+        ProteomeIndex index = new ProteomeIndex(transcripts);
+
+        Set<String> peptides = Sets.newHashSet();
+        final int[] occurrences = { 0 };
+
+        index.forEachUniquePeptide(3, false, (positions, count) ->
+        {
+            peptides.add(index.peptide(positions[0], 3));
+            occurrences[0] += count;
+        });
+
+        assertEquals(Sets.newHashSet("ACD", "CDA", "DAC", "CDE"), peptides);
+        assertEquals(7, occurrences[0]);
+
+        // excluding each transcript's final window drops CDE, while DAC remains from TRANS_01
+        int[] positions = index.uniquePeptidePositions(3, true);
+        Set<String> nonFinalPeptides = Sets.newHashSet();
+
+        for(int position : positions)
+        {
+            nonFinalPeptides.add(index.peptide(position, 3));
+        }
+
+        assertEquals(Sets.newHashSet("ACD", "CDA", "DAC"), nonFinalPeptides);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException
+    {
+        Random random = new Random(2);
+        List<TranscriptAminoAcids> transcripts = Lists.newArrayList();
+
+        for(int i = 0; i < 10; ++i)
+        {
+            transcripts.add(new TranscriptAminoAcids(
+                    "GENE" + i, "GENE_" + i, "TRANS_" + i, i % 2 == 0, randomAminoAcids(random, AMINO_ACIDS, 50)));
+        }
+
+        ProteomeIndex index = new ProteomeIndex(transcripts);
+
+        File indexFile = File.createTempFile("proteome_index", ".bin");
+        indexFile.deleteOnExit();
+        index.write(indexFile.getAbsolutePath());
+
+        ProteomeIndex loadedIndex = ProteomeIndex.read(indexFile.getAbsolutePath());
+        assertEquals(index.aminoAcidCount(), loadedIndex.aminoAcidCount());
+        assertEquals(transcripts.size(), loadedIndex.transcripts().size());
+        assertFalse(loadedIndex.transcripts().get(1).Canonical);
+
+        for(TranscriptAminoAcids transAminoAcids : transcripts)
+        {
+            String peptide = transAminoAcids.AminoAcids.substring(20, 29);
+            assertEquals(toKeys(index.findPeptide(peptide, 1)), toKeys(loadedIndex.findPeptide(peptide, 1)));
+            assertTrue(loadedIndex.findPeptide(peptide).stream().anyMatch(x -> x.Transcript.TransName.equals(transAminoAcids.TransName)));
+        }
+    }
+
+    private static String randomAminoAcids(final Random random, final String alphabet, int length)
+    {
+        StringBuilder sb = new StringBuilder();
+
+        for(int i = 0; i < length; ++i)
+        {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        return sb.toString();
+    }
+
+    private static Set<String> scanProteome(final List<TranscriptAminoAcids> transcripts, final String peptide, int maxMismatches)
+    {
+        Set<String> matches = Sets.newHashSet();
+
+        for(TranscriptAminoAcids transAminoAcids : transcripts)
+        {
+            String aminoAcids = transAminoAcids.AminoAcids;
+
+            for(int start = 0; start + peptide.length() <= aminoAcids.length(); ++start)
+            {
+                int mismatches = 0;
+
+                for(int i = 0; i < peptide.length(); ++i)
+                {
+                    if(aminoAcids.charAt(start + i) != peptide.charAt(i))
+                        ++mismatches;
+                }
+
+                if(mismatches <= maxMismatches)
+                    matches.add(transAminoAcids.TransName + ":" + start + ":" + mismatches);
+            }
+        }
+
+        return matches;
+    }
+
+    private static Set<String> toKeys(final List<ProteomeMatch> matches)
+    {
+        Set<String> keys = Sets.newHashSet();
+        matches.forEach(x -> keys.add(x.Transcript.TransName + ":" + x.AminoAcidIndex + ":" + x.Mismatches));
+        assertEquals(matches.size(), keys.size());
+        return keys;
+    }
+}
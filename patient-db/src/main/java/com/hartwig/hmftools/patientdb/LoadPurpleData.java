@@ -5,6 +5,7 @@ import static com.hartwig.hmftools.common.purple.PurpleCommon.PURPLE_SOMATIC_VCF
 import static com.hartwig.hmftools.common.purple.PurpleCommon.PURPLE_SV_VCF_SUFFIX;
 import static com.hartwig.hmftools.common.sv.StructuralVariantData.convertSvData;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkAddDirSeparator;
+import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.DB_WRITER_THREADS;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.addDatabaseCmdLineArgs;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.databaseAccess;
 
@@ -92,6 +93,16 @@ public class LoadPurpleData
                 System.exit(1);
             }
 
+            int writerThreads = Integer.parseInt(cmd.getOptionValue(DB_WRITER_THREADS, "0"));
+
+            if(writerThreads > 1)
+            {
+                // writers on other connections would wait on the locks taken by the sample deletes until the transaction commits
+                LOGGER.error("invalid {}({}), at most 1 writer thread is supported within the load transaction",
+                        DB_WRITER_THREADS, writerThreads);
+                System.exit(1);
+            }
+
             boolean loadGermline = !cmd.hasOption(SOMATIC_ONLY);
             boolean loadSomatic = !cmd.hasOption(GERMLINE_ONLY);
 
@@ -107,10 +118,10 @@ public class LoadPurpleData
                 loadCommonData(sample, dbAccess, purpleDir);
 
                 if(loadSomatic)
-                    loadSomaticData(sample, referenceId, rnaId, dbAccess, purpleDir);
+                    loadSomaticData(sample, referenceId, rnaId, dbAccess, purpleDir, writerThreads);
 
                 if(loadGermline)
-                    loadGermlineData(sample, referenceId, rnaId, dbAccess, purpleDir);
+                    loadGermlineData(sample, referenceId, rnaId, dbAccess, purpleDir, writerThreads);
             });
 
             LOGGER.info("Purple data loading complete");
@@ -134,7 +145,7 @@ public class LoadPurpleData
 
     private static void loadSomaticData(
             final String sampleId, final String referenceId, final String rnaId,
-            final DatabaseAccess dbAccess, final String purpleDir) throws Exception
+            final DatabaseAccess dbAccess, final String purpleDir, int writerThreads) throws Exception
     {
         // check all somatic files exist before attempting to load
         final String geneCopyNumberFile = GeneCopyNumberFile.generateFilenameForReading(purpleDir, sampleId);
@@ -185,7 +196,7 @@ public class LoadPurpleData
         LOGGER.info("loading {} SVs", structuralVariants.size());
         dbAccess.writeStructuralVariants(sampleId, structuralVariants);
 
-        BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId);
+        BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId, writerThreads);
 
         SomaticVariantFactory somaticVariantFactory = new SomaticVariantFactory();
 
@@ -198,7 +209,7 @@ public class LoadPurpleData
 
     private static void loadGermlineData(
             final String sampleId, final String referenceId, final String rnaId,
-            final DatabaseAccess dbAccess, final String purpleDir) throws Exception
+            final DatabaseAccess dbAccess, final String purpleDir, int writerThreads) throws Exception
     {
         final String germlineVcf = purpleDir + sampleId + PURPLE_GERMLINE_VCF_SUFFIX;
         final String germlineDeletionsFile = GermlineDeletion.generateFilename(purpleDir, sampleId);
@@ -230,7 +241,7 @@ public class LoadPurpleData
 
         try(AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(germlineVcf, new VCFCodec(), false);
 
-        BufferedWriter<VariantContext> dbWriter = dbAccess.germlineVariantWriter(sampleId, referenceId, rnaId))
+        BufferedWriter<VariantContext> dbWriter = dbAccess.germlineVariantWriter(sampleId, referenceId, rnaId, writerThreads))
         {
             dbWriter.initialise();
 
@@ -272,6 +283,7 @@ public class LoadPurpleData
         options.addOption(PURPLE_DIR, true, "Path to the Purple directory");
         options.addOption(SOMATIC_ONLY, false, "Only load somatic data");
         options.addOption(GERMLINE_ONLY, false, "Only load germline data");
+        options.addOption(DB_WRITER_THREADS, true, "Insert variants on a background thread within the load transaction, 0 or 1");
         addDatabaseCmdLineArgs(options);
         return options;
     }
@@ -3,6 +3,8 @@ package com.hartwig.hmftools.patientdb;
 import static com.hartwig.hmftools.common.purple.PurpleCommon.PURPLE_SOMATIC_VCF_SUFFIX;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_DEBUG;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkAddDirSeparator;
+import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.DB_WRITER_THREADS;
+import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.DB_WRITER_THREADS_DESC;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.addDatabaseCmdLineArgs;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.databaseAccess;
 import static com.hartwig.hmftools.patientdb.database.hmfpatients.tables.Somaticvariant.SOMATICVARIANT;
@@ -62,6 +64,7 @@ public class LoadPurpleSomaticVariants
             String purpleDir = checkAddDirSeparator(cmd.getOptionValue(PURPLE_DIR));
 
             boolean dryRunOnly = cmd.hasOption(DRY_RUN);
+            int writerThreads = Integer.parseInt(cmd.getOptionValue(DB_WRITER_THREADS, "0"));
 
             if(sampleIds == null && sampleId == null && referenceId == null)
             {
@@ -81,7 +84,7 @@ public class LoadPurpleSomaticVariants
 
                     try
                     {
-                        loadSomaticData(sample, ref, null, dbAccess, sampleDir, dryRunOnly);
+                        loadSomaticData(sample, ref, null, dbAccess, sampleDir, dryRunOnly, writerThreads);
                     }
                     catch(Exception e)
                     {
@@ -106,7 +109,7 @@ public class LoadPurpleSomaticVariants
                 if(sampleId == null)
                     sampleId = referenceId;
 
-                loadSomaticData(sampleId, referenceId, rnaId, dbAccess, purpleDir, dryRunOnly);
+                loadSomaticData(sampleId, referenceId, rnaId, dbAccess, purpleDir, dryRunOnly, writerThreads);
             }
 
             LOGGER.info("Purple data loading complete");
@@ -121,7 +124,7 @@ public class LoadPurpleSomaticVariants
 
     private static void loadSomaticData(
             final String sampleId, final String referenceId, final String rnaId,
-            final DatabaseAccess dbAccess, final String purpleDir, boolean dryRunOnly) throws Exception
+            final DatabaseAccess dbAccess, final String purpleDir, boolean dryRunOnly, int writerThreads) throws Exception
     {
         final String somaticVcf = purpleDir + sampleId + PURPLE_SOMATIC_VCF_SUFFIX;
 
@@ -147,7 +150,7 @@ public class LoadPurpleSomaticVariants
         if(dryRunOnly)
             return;
 
-        BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId);
+        BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId, writerThreads);
         somaticVariants.forEach(x -> somaticWriter.accept(x));
         somaticWriter.close();
 
@@ -181,6 +184,7 @@ public class LoadPurpleSomaticVariants
         options.addOption(RNA, true, "RNA sample ID");
         options.addOption(DRY_RUN, false, "Only examine differences in counts");
         options.addOption(PURPLE_DIR, true, "Path to the Purple directory");
+        options.addOption(DB_WRITER_THREADS, true, DB_WRITER_THREADS_DESC);
         addDatabaseCmdLineArgs(options);
         ConfigUtils.addLoggingOptions(options);
         return options;
@@ -53,10 +53,15 @@ public class BufferedWriter<T> implements Consumer<T>, AutoCloseable
 
     private void writeBuffer()
     {
-        mConsumer.accept(mTimestamp, mBuffer);
+        writeEntries(mTimestamp, mBuffer);
         mBuffer.clear();
     }
 
+    protected void writeEntries(final Timestamp timestamp, final List<T> entries)
+    {
+        mConsumer.accept(timestamp, entries);
+    }
+
     @Override
     public void close()
     {
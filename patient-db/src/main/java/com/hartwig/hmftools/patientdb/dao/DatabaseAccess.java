@@ -7,6 +7,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.amber.AmberAnonymous;
 import com.hartwig.hmftools.common.amber.AmberMapping;
 import com.hartwig.hmftools.common.amber.AmberPatient;
@@ -80,11 +81,25 @@ public class DatabaseAccess implements AutoCloseable {
 
     public static final String DB_DEFAULT_ARGS = "?serverTimezone=UTC&useSSL=false";
 
+    public static final String DB_WRITER_THREADS = "db_writer_threads";
+    public static final String DB_WRITER_THREADS_DESC =
+            "Insert variants on this many background threads, with more than one using separate connections";
+
+    @NotNull
+    private final String userName;
+    @NotNull
+    private final String password;
+    @NotNull
+    private final String url;
     @NotNull
     private final Connection connection;
     @NotNull
     private final DSLContext context;
     @NotNull
+    private final List<Connection> writerConnections;
+    @NotNull
+    private final List<DSLContext> writerContexts;
+    @NotNull
     private final EcrfDAO ecrfDAO;
     @NotNull
     private final ClinicalDAO clinicalDAO;
@@ -141,10 +156,15 @@ public class DatabaseAccess implements AutoCloseable {
         System.setProperty("org.jooq.no-logo", "true");
         System.setProperty("org.jooq.no-tips", "true");
 
+        this.userName = userName;
+        this.password = password;
+        this.url = url;
         this.connection = DriverManager.getConnection(url, userName, password);
         String catalog = connection.getCatalog();
         LOGGER.debug("Connecting to database '{}'", catalog);
         this.context = DSL.using(connection, SQLDialect.MYSQL, settings(catalog));
+        this.writerConnections = Lists.newArrayList();
+        this.writerContexts = Lists.newArrayList();
 
         this.ecrfDAO = new EcrfDAO(context);
         this.clinicalDAO = new ClinicalDAO(context);
@@ -226,12 +246,36 @@ public class DatabaseAccess implements AutoCloseable {
         return context;
     }
 
+    @NotNull
+    private List<DSLContext> writerContexts(int writerThreads) throws SQLException {
+        // a single writer shares the main connection, otherwise each writer has its own, opened on first use and then reused
+        if (writerThreads <= 1) {
+            return Lists.newArrayList(context);
+        }
+
+        while (writerContexts.size() < writerThreads) {
+            Connection writerConnection = DriverManager.getConnection(url, userName, password);
+            writerConnections.add(writerConnection);
+            writerContexts.add(DSL.using(writerConnection, SQLDialect.MYSQL, settings(writerConnection.getCatalog())));
+        }
+
+        return writerContexts.subList(0, writerThreads);
+    }
+
     @Override
     public void close() {
         try {
             connection.close();
         } catch (SQLException e) {
             LOGGER.error("DB connection close failed: {}", e.toString());
+        } finally {
+            for (Connection writerConnection : writerConnections) {
+                try {
+                    writerConnection.close();
+                } catch (SQLException e) {
+                    LOGGER.error("DB writer connection close failed: {}", e.toString());
+                }
+            }
         }
     }
 
@@ -250,6 +294,16 @@ public class DatabaseAccess implements AutoCloseable {
         return germlineVariantDAO.writer(tumorSample, referenceSample, rnaSample);
     }
 
+    @NotNull
+    public BufferedWriter<VariantContext> germlineVariantWriter(String tumorSample, String referenceSample, String rnaSample,
+            int writerThreads) throws SQLException {
+        if (writerThreads <= 0) {
+            return germlineVariantWriter(tumorSample, referenceSample, rnaSample);
+        }
+
+        return germlineVariantDAO.writer(tumorSample, referenceSample, rnaSample, writerContexts(writerThreads));
+    }
+
     @NotNull
     public List<String> readPurpleSampleList() {
         return purityDAO.getSampleIds();
@@ -406,6 +460,16 @@ public class DatabaseAccess implements AutoCloseable {
         return somaticVariantDAO.writer(sampleId);
     }
 
+    @NotNull
+    public BufferedWriter<SomaticVariant> somaticVariantWriter(@NotNull final String sampleId, int writerThreads)
+            throws SQLException {
+        if (writerThreads <= 0) {
+            return somaticVariantWriter(sampleId);
+        }
+
+        return somaticVariantDAO.writer(sampleId, writerContexts(writerThreads));
+    }
+
     public void writeStructuralVariants(@NotNull String sampleId, @NotNull List<StructuralVariantData> variants) {
         structuralVariantDAO.write(sampleId, variants);
     }
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.patientdb.dao;
 
 import static com.hartwig.hmftools.common.genotype.GenotypeStatus.UNKNOWN;
 import static com.hartwig.hmftools.common.sv.StructuralVariantType.SGL;
+import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.DB_BATCH_INSERT_SIZE;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.checkStringLength;
 import static com.hartwig.hmftools.patientdb.database.hmfpatients.Tables.SOMATICVARIANT;
 import static com.hartwig.hmftools.patientdb.database.hmfpatients.Tables.STRUCTURALVARIANTGERMLINE;
@@ -10,6 +11,7 @@ import static com.hartwig.hmftools.patientdb.database.hmfpatients.tables.Germlin
 import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.genotype.GenotypeStatus;
@@ -53,7 +55,24 @@ public class GermlineVariantDAO
     @NotNull
     public BufferedWriter<VariantContext> writer(String tumorSample, String referenceSample, String rnaSample)
     {
-        BufferedWriterConsumer<VariantContext> consumer = new BufferedWriterConsumer<VariantContext>()
+        return new BufferedWriter<>(writerConsumer(tumorSample, referenceSample, rnaSample));
+    }
+
+    @NotNull
+    public BufferedWriter<VariantContext> writer(
+            String tumorSample, String referenceSample, String rnaSample, @NotNull List<DSLContext> writerContexts)
+    {
+        // batches are inserted on a background thread per context
+        List<BufferedWriterConsumer<VariantContext>> consumers = writerContexts.stream()
+                .map(x -> new GermlineVariantDAO(x).writerConsumer(tumorSample, referenceSample, rnaSample))
+                .collect(Collectors.toList());
+
+        return new PipelinedBufferedWriter<>(consumers, DB_BATCH_INSERT_SIZE);
+    }
+
+    private BufferedWriterConsumer<VariantContext> writerConsumer(String tumorSample, String referenceSample, String rnaSample)
+    {
+        return new BufferedWriterConsumer<VariantContext>()
         {
             @Override
             public void initialise()
@@ -67,8 +86,6 @@ public class GermlineVariantDAO
                 writeAll(timestamp, tumorSample, referenceSample, rnaSample, entries);
             }
         };
-
-        return new BufferedWriter<>(consumer);
     }
 
     private void writeAll(@NotNull final Timestamp timestamp, String tumorSample, String referenceSample, String rnaSample,
@@ -0,0 +1,172 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class PipelinedBufferedWriter<T> extends BufferedWriter<T>
+{
+    // hands each full batch to background writer threads, each with its own consumer and so its own DB connection,
+    // so that inserts overlap with the caller reading the next batch
+    // existing records are cleared by the first consumer on the caller's thread, before any batch is queued
+    private static final Logger LOGGER = LogManager.getLogger(PipelinedBufferedWriter.class);
+
+    private final BlockingQueue<EntryBatch<T>> mBatches;
+    private final List<WriterThread> mWriterThreads;
+    private final AtomicReference<RuntimeException> mWriteError;
+    private boolean mClosed;
+
+    // batches queued per writer thread, beyond which the caller waits for inserts to catch up
+    private static final int QUEUED_BATCHES_PER_THREAD = 2;
+
+    private static class EntryBatch<T>
+    {
+        public final Timestamp WriteTime;
+        public final List<T> Entries;
+
+        public EntryBatch(final Timestamp timestamp, final List<T> entries)
+        {
+            WriteTime = timestamp;
+            Entries = entries;
+        }
+
+        public boolean isEndMarker() { return Entries == null; }
+    }
+
+    public PipelinedBufferedWriter(final List<BufferedWriterConsumer<T>> consumers, int batchInsertSize)
+    {
+        super(consumers.get(0), batchInsertSize);
+
+        mBatches = new ArrayBlockingQueue<>(consumers.size() * QUEUED_BATCHES_PER_THREAD);
+        mWriteError = new AtomicReference<>();
+        mWriterThreads = Lists.newArrayListWithCapacity(consumers.size());
+        mClosed = false;
+
+        for(BufferedWriterConsumer<T> consumer : consumers)
+        {
+            mWriterThreads.add(new WriterThread(consumer));
+        }
+    }
+
+    @Override
+    protected void writeEntries(final Timestamp timestamp, final List<T> entries)
+    {
+        checkWriteError();
+
+        // the base writer reuses its buffer so the entries are copied
+        queueBatch(new EntryBatch<>(timestamp, Lists.newArrayList(entries)));
+    }
+
+    @Override
+    public void close()
+    {
+        if(mClosed)
+            return;
+
+        mClosed = true;
+
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            stopWriterThreads();
+        }
+
+        checkWriteError();
+    }
+
+    private void stopWriterThreads()
+    {
+        mWriterThreads.forEach(x -> queueBatch(new EntryBatch<>(null, null)));
+
+        for(WriterThread writerThread : mWriterThreads)
+        {
+            try
+            {
+                writerThread.join();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted waiting for DB writer threads");
+            }
+        }
+    }
+
+    private void queueBatch(final EntryBatch<T> batch)
+    {
+        try
+        {
+            mBatches.put(batch);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted queueing DB write batch");
+        }
+    }
+
+    private void checkWriteError()
+    {
+        RuntimeException writeError = mWriteError.get();
+
+        if(writeError != null)
+            throw writeError;
+    }
+
+    private class WriterThread extends Thread
+    {
+        private final BufferedWriterConsumer<T> mConsumer;
+
+        public WriterThread(final BufferedWriterConsumer<T> consumer)
+        {
+            mConsumer = consumer;
+            setDaemon(true);
+            start();
+        }
+
+        public void run()
+        {
+            while(true)
+            {
+                EntryBatch<T> batch;
+
+                try
+                {
+                    batch = mBatches.take();
+                }
+                catch(InterruptedException e)
+                {
+                    LOGGER.error("DB writer thread interrupted: {}", e.toString());
+                    break;
+                }
+
+                if(batch.isEndMarker())
+                    break;
+
+                // after a failure remaining batches are discarded so the caller is never left waiting on a full queue
+                if(mWriteError.get() != null)
+                    continue;
+
+                try
+                {
+                    mConsumer.accept(batch.WriteTime, batch.Entries);
+                }
+                catch(RuntimeException e)
+                {
+                    LOGGER.error("DB batch write failed: {}", e.toString());
+                    mWriteError.compareAndSet(null, e);
+                }
+            }
+        }
+    }
+}
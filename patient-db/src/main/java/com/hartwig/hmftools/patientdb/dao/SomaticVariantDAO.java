@@ -11,6 +11,7 @@ import static org.jooq.impl.DSL.count;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.drivercatalog.dnds.DndsMutationalLoad;
@@ -53,7 +54,23 @@ public class SomaticVariantDAO
     @NotNull
     public BufferedWriter<SomaticVariant> writer(String tumorSample)
     {
-        BufferedWriterConsumer<SomaticVariant> consumer = new BufferedWriterConsumer<SomaticVariant>()
+        return new BufferedWriter<>(writerConsumer(tumorSample), DB_BATCH_INSERT_SIZE);
+    }
+
+    @NotNull
+    public BufferedWriter<SomaticVariant> writer(String tumorSample, @NotNull List<DSLContext> writerContexts)
+    {
+        // batches are inserted on a background thread per context
+        List<BufferedWriterConsumer<SomaticVariant>> consumers = writerContexts.stream()
+                .map(x -> new SomaticVariantDAO(x).writerConsumer(tumorSample))
+                .collect(Collectors.toList());
+
+        return new PipelinedBufferedWriter<>(consumers, DB_BATCH_INSERT_SIZE);
+    }
+
+    private BufferedWriterConsumer<SomaticVariant> writerConsumer(String tumorSample)
+    {
+        return new BufferedWriterConsumer<SomaticVariant>()
         {
             @Override
             public void initialise()
@@ -67,8 +84,6 @@ public class SomaticVariantDAO
                 writeAll(timestamp, tumorSample, entries);
             }
         };
-
-        return new BufferedWriter<>(consumer, DB_BATCH_INSERT_SIZE);
     }
 
     public DndsMutationalLoad readDndsLoad(@NotNull String sample)
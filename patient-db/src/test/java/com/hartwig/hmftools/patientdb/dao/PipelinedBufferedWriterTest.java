@@ -0,0 +1,96 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+public class PipelinedBufferedWriterTest
+{
+    private static class TestConsumer implements BufferedWriterConsumer<Integer>
+    {
+        public final List<Integer> Written = Collections.synchronizedList(Lists.newArrayList());
+        public final AtomicInteger Initialised = new AtomicInteger();
+        public final int FailOnEntry;
+
+        public TestConsumer(int failOnEntry)
+        {
+            FailOnEntry = failOnEntry;
+        }
+
+        @Override
+        public void initialise() { Initialised.incrementAndGet(); }
+
+        @Override
+        public void accept(final Timestamp timestamp, final List<Integer> entries)
+        {
+            if(entries.contains(FailOnEntry))
+                throw new IllegalStateException("write failed");
+
+            Written.addAll(entries);
+        }
+    }
+
+    @Test
+    public void testAllEntriesWritten()
+    {
+        List<TestConsumer> consumers = Lists.newArrayList(new TestConsumer(-1), new TestConsumer(-1), new TestConsumer(-1));
+
+        PipelinedBufferedWriter<Integer> writer = new PipelinedBufferedWriter<>(Lists.newArrayList(consumers), 10);
+
+        int entryCount = 1005;
+
+        for(int i = 0; i < entryCount; ++i)
+        {
+            writer.accept(i);
+        }
+
+        writer.close();
+
+        // only the first consumer clears existing records
+        assertEquals(1, consumers.get(0).Initialised.get());
+        assertEquals(0, consumers.get(1).Initialised.get());
+
+        List<Integer> written = Lists.newArrayList();
+        consumers.forEach(x -> written.addAll(x.Written));
+        Collections.sort(written);
+
+        assertEquals(entryCount, written.size());
+
+        for(int i = 0; i < entryCount; ++i)
+        {
+            assertEquals(i, written.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testWriteFailure()
+    {
+        PipelinedBufferedWriter<Integer> writer = new PipelinedBufferedWriter<>(Lists.newArrayList(new TestConsumer(55)), 10);
+
+        boolean failed = false;
+
+        try
+        {
+            for(int i = 0; i < 1000; ++i)
+            {
+                writer.accept(i);
+            }
+
+            writer.close();
+        }
+        catch(IllegalStateException e)
+        {
+            failed = true;
+        }
+
+        assertTrue(failed);
+    }
+}
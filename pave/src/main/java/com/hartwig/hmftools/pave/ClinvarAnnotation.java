@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.pave;
 
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_CLINVAR;
 
 import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
 import static htsjdk.variant.vcf.VCFHeaderLineCount.UNBOUNDED;
@@ -13,6 +14,10 @@ import java.util.Map;
 
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions;
+import com.hartwig.hmftools.pave.index.AnnotationIndex;
+import com.hartwig.hmftools.pave.index.AnnotationIndexWriter;
+import com.hartwig.hmftools.pave.index.ChromosomeEntries;
+import com.hartwig.hmftools.pave.index.ChromosomeEntriesBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -30,8 +35,14 @@ public class ClinvarAnnotation
 {
     private final Map<String,List<ClinvarEntry>> mChrEntries;
     private boolean mHasValidData;
+    private AnnotationIndex mIndex; // set when the Clinvar file is a binary index
 
-    private static final String CLINVAR_VCF = "clinvar_vcf";
+    public static final String CLINVAR_VCF = "clinvar_vcf";
+
+    // index columns hold each value's position in the index's string table
+    private static final int SIGNIFICANCE_COLUMN = 0;
+    private static final int CONFLICT_COLUMN = 1;
+    private static final int INT_COLUMN_COUNT = 2;
 
     public static final String CLNSIG = "CLNSIG";
     public static final String CLNSIGCONF = "CLNSIGCONF";
@@ -43,20 +54,30 @@ public class ClinvarAnnotation
     {
         mChrEntries = Maps.newHashMap();
         mHasValidData = true;
+        mIndex = null;
 
         if(cmd.hasOption(CLINVAR_VCF))
         {
-            loadEntries(cmd.getOptionValue(CLINVAR_VCF));
+            if(AnnotationIndex.isIndexFile(cmd.getOptionValue(CLINVAR_VCF)))
+                loadIndex(cmd.getOptionValue(CLINVAR_VCF));
+            else
+                loadEntries(cmd.getOptionValue(CLINVAR_VCF));
         }
     }
 
-    public boolean hasData() { return !mChrEntries.isEmpty(); }
+    public boolean hasData() { return !mChrEntries.isEmpty() || mIndex != null; }
     public boolean hasValidData() { return mHasValidData; }
 
     public void annotateVariant(final VariantData variant)
     {
         String chromosome = RefGenomeFunctions.stripChrPrefix(variant.Chromosome);
 
+        if(mIndex != null)
+        {
+            annotateIndexedVariant(variant, chromosome);
+            return;
+        }
+
         List<ClinvarEntry> entries = mChrEntries.get(chromosome);
 
         if(entries == null)
@@ -76,6 +97,33 @@ public class ClinvarAnnotation
         }
     }
 
+    private void annotateIndexedVariant(final VariantData variant, final String chromosome)
+    {
+        try
+        {
+            ChromosomeEntries entries = mIndex.getChromosome(chromosome);
+
+            if(entries == null)
+                return;
+
+            int row = entries.findVariant(variant.Position, variant.Ref, variant.Alt);
+
+            if(row < 0)
+                return;
+
+            variant.context().getCommonInfo().putAttribute(CLNSIG, mIndex.getString(entries.getInt(SIGNIFICANCE_COLUMN, row)));
+
+            String conflict = mIndex.getString(entries.getInt(CONFLICT_COLUMN, row));
+
+            if(!conflict.isEmpty())
+                variant.context().getCommonInfo().putAttribute(CLNSIGCONF, conflict);
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to read Clinvar index chromosome({}): {}", chromosome, e.toString());
+        }
+    }
+
     public static void addHeader(final VCFHeader header)
     {
         header.addMetaDataLine(new VCFInfoHeaderLine(CLNSIG, UNBOUNDED, VCFHeaderLineType.String, CLNSIG_DESC));
@@ -84,7 +132,7 @@ public class ClinvarAnnotation
 
     public static void addCmdLineArgs(Options options)
     {
-        options.addOption(CLINVAR_VCF, true, "Clinvar annotation VCF");
+        options.addOption(CLINVAR_VCF, true, "Clinvar annotation VCF or binary index");
     }
 
     private void loadEntries(final String filename)
@@ -141,6 +189,42 @@ public class ClinvarAnnotation
         }
     }
 
+    private void loadIndex(final String filename)
+    {
+        try
+        {
+            mIndex = AnnotationIndex.open(filename, TYPE_CLINVAR);
+            PV_LOGGER.info("opened Clinvar index({}) with {} chromosomes", filename, mIndex.chromosomes().size());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to open Clinvar index({}): {}", filename, e.toString());
+            mHasValidData = false;
+        }
+    }
+
+    public void writeIndex(final String filename) throws IOException
+    {
+        AnnotationIndexWriter writer = new AnnotationIndexWriter(filename, TYPE_CLINVAR, true, INT_COLUMN_COUNT, 0);
+
+        for(Map.Entry<String,List<ClinvarEntry>> chrEntry : mChrEntries.entrySet())
+        {
+            ChromosomeEntriesBuilder builder = new ChromosomeEntriesBuilder(chrEntry.getKey(), true, INT_COLUMN_COUNT, 0);
+
+            for(ClinvarEntry entry : chrEntry.getValue())
+            {
+                int row = builder.addRow(entry.Position, entry.Ref, entry.Alt);
+                builder.setInt(SIGNIFICANCE_COLUMN, row, writer.stringIndex(entry.Significance));
+                builder.setInt(CONFLICT_COLUMN, row, writer.stringIndex(entry.Conflict));
+            }
+
+            builder.sortByPosition();
+            writer.writeChromosome(builder.build());
+        }
+
+        writer.close();
+    }
+
     private static String stripBrackets(final String clinvarStr)
     {
         return clinvarStr.replaceAll("\\[", "").replaceAll("\\]", "").replaceAll(" ", "");
@@ -65,6 +65,26 @@ public class GeneDataCache
         mGeneNameMapping = requireMapping ? new GeneNameMapping() : null;
     }
 
+    public GeneDataCache(final GeneDataCache other)
+    {
+        // shares the other cache's loaded data but keeps its own search position, for use by another thread
+        mEnsemblDataCache = other.mEnsemblDataCache;
+
+        mDriverGeneFile = other.mDriverGeneFile;
+        mDriverGenes = other.mDriverGenes;
+        mDriverGeneNames = other.mDriverGeneNames;
+        mOtherReportableTranscripts = other.mOtherReportableTranscripts;
+
+        mUseIndexing = other.mUseIndexing;
+        mCurrentChromosome = null;
+        mCurrentChromosomeGenes = null;
+        mCurrentPosStrandGeneIndex = 0;
+        mCurrentNegStrandGeneIndex = 0;
+        mCurrentGenes = Lists.newArrayList();
+
+        mGeneNameMapping = other.mGeneNameMapping;
+    }
+
     public EnsemblDataCache getEnsemblCache() { return mEnsemblDataCache; }
     public boolean isDriverPanelGene(final String geneName) { return mDriverGeneNames.contains(geneName); }
     public List<DriverGene> getDriverPanel() { return mDriverGenes; }
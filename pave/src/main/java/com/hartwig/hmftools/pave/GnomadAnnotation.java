@@ -6,6 +6,7 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedRe
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.external.GnomadCacheBuilder.GNOMAD_FILE_ID;
 import static com.hartwig.hmftools.pave.external.GnomadCacheBuilder.formFileId;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_GNOMAD;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -22,6 +23,10 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.pave.index.AnnotationIndex;
+import com.hartwig.hmftools.pave.index.AnnotationIndexWriter;
+import com.hartwig.hmftools.pave.index.ChromosomeEntries;
+import com.hartwig.hmftools.pave.index.ChromosomeEntriesBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -38,6 +43,7 @@ public class GnomadAnnotation
     private final boolean mLoadChromosomeOnDemand;
     private final Map<String,String> mChromosomeFiles;
     private final double mPonFilterThreshold;
+    private AnnotationIndex mIndex; // set when the frequency file is a binary index
 
     public static final String GNOMAD_FREQUENCY_FILE = "gnomad_freq_file";
     public static final String GNOMAD_FREQUENCY_DIR = "gnomad_freq_dir";
@@ -49,17 +55,24 @@ public class GnomadAnnotation
 
     private static final double DEFAULT_PON_FILTER_THRESHOLD = 0.00015;
 
+    private static final int FREQUENCY_COLUMN = 0;
+
     public GnomadAnnotation(final CommandLine cmd)
     {
         mFrequencies = Maps.newHashMap();
         mChromosomeFiles = Maps.newHashMap();
+        mIndex = null;
 
         if(cmd != null)
         {
             mRefGenomeVersion = RefGenomeVersion.from(cmd.getOptionValue(REF_GENOME_VERSION, V37.toString()));
             mLoadChromosomeOnDemand = cmd.hasOption(GNOMAD_LOAD_CHR_ON_DEMAND);
 
-            if(cmd.hasOption(GNOMAD_FREQUENCY_FILE))
+            if(cmd.hasOption(GNOMAD_FREQUENCY_FILE) && AnnotationIndex.isIndexFile(cmd.getOptionValue(GNOMAD_FREQUENCY_FILE)))
+            {
+                loadIndex(cmd.getOptionValue(GNOMAD_FREQUENCY_FILE));
+            }
+            else if(cmd.hasOption(GNOMAD_FREQUENCY_FILE))
             {
                 loadFrequency(cmd.getOptionValue(GNOMAD_FREQUENCY_FILE), null);
             }
@@ -79,7 +92,7 @@ public class GnomadAnnotation
         }
     }
 
-    public boolean hasData() { return !mFrequencies.isEmpty() || !mChromosomeFiles.isEmpty(); }
+    public boolean hasData() { return !mFrequencies.isEmpty() || !mChromosomeFiles.isEmpty() || mIndex != null; }
 
     public void annotateVariant(final VariantData variant)
     {
@@ -126,6 +139,9 @@ public class GnomadAnnotation
 
     public Double getFrequency(final String chromosome, int position, final String ref, final String alt)
     {
+        if(mIndex != null)
+            return getIndexedFrequency(chromosome, position, ref, alt);
+
         Map<Integer,List<GnomadVariant>> posMap = mFrequencies.get(chromosome);
 
         if(posMap == null)
@@ -140,6 +156,25 @@ public class GnomadAnnotation
         return match != null ? match.Frequency : null;
     }
 
+    private Double getIndexedFrequency(final String chromosome, int position, final String ref, final String alt)
+    {
+        try
+        {
+            ChromosomeEntries entries = mIndex.getChromosome(chromosome);
+
+            if(entries == null)
+                return null;
+
+            int row = entries.findVariant(position, ref, alt);
+            return row >= 0 ? entries.getDouble(FREQUENCY_COLUMN, row) : null;
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to read Gnomad index chromosome({}): {}", chromosome, e.toString());
+            return null;
+        }
+    }
+
     private void checkLoadChromosome(final String chromosome)
     {
         if(!mLoadChromosomeOnDemand)
@@ -270,9 +305,57 @@ public class GnomadAnnotation
         }
     }
 
+    private void loadIndex(final String filename)
+    {
+        try
+        {
+            mIndex = AnnotationIndex.open(filename, TYPE_GNOMAD);
+            PV_LOGGER.debug("opened Gnomad frequency index({}) with {} chromosomes", filename, mIndex.chromosomes().size());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to open Gnomad frequency index({}): {}", filename, e.toString());
+        }
+    }
+
+    public void writeIndex(final String filename) throws IOException
+    {
+        // chromosomes loaded on demand are loaded in turn, so only one is held in memory at a time
+        AnnotationIndexWriter writer = new AnnotationIndexWriter(filename, TYPE_GNOMAD, true, 0, 1);
+
+        List<String> chromosomes = mLoadChromosomeOnDemand
+                ? Lists.newArrayList(mChromosomeFiles.keySet()) : Lists.newArrayList(mFrequencies.keySet());
+
+        for(String chromosome : chromosomes)
+        {
+            checkLoadChromosome(chromosome);
+
+            Map<Integer,List<GnomadVariant>> posMap = mFrequencies.get(chromosome);
+
+            if(posMap == null)
+                continue;
+
+            ChromosomeEntriesBuilder builder = new ChromosomeEntriesBuilder(chromosome, true, 0, 1);
+
+            for(Map.Entry<Integer,List<GnomadVariant>> entry : posMap.entrySet())
+            {
+                for(GnomadVariant variant : entry.getValue())
+                {
+                    int row = builder.addRow(entry.getKey(), variant.Ref, variant.Alt);
+                    builder.setDouble(FREQUENCY_COLUMN, row, variant.Frequency);
+                }
+            }
+
+            builder.sortByPosition();
+            writer.writeChromosome(builder.build());
+        }
+
+        writer.close();
+    }
+
     public static void addCmdLineArgs(Options options)
     {
-        options.addOption(GNOMAD_FREQUENCY_FILE, true, "Gnomad frequency file");
+        options.addOption(GNOMAD_FREQUENCY_FILE, true, "Gnomad frequency file, either CSV or binary index");
         options.addOption(GNOMAD_FREQUENCY_DIR, true, "Gnomad frequency directory");
         options.addOption(GNOMAD_LOAD_CHR_ON_DEMAND, false, "Gnomad load frequency files by chromosome on demand");
         options.addOption(GNOMAD_PON_FILTER, true, "Gnomad PON frequency filter (default: 0.00015)");
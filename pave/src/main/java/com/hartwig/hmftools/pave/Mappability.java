@@ -2,15 +2,22 @@ package com.hartwig.hmftools.pave;
 
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_MAPPABILITY;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.pave.index.AnnotationIndex;
+import com.hartwig.hmftools.pave.index.AnnotationIndexWriter;
+import com.hartwig.hmftools.pave.index.ChromosomeEntries;
+import com.hartwig.hmftools.pave.index.ChromosomeEntriesBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -27,8 +34,13 @@ public class Mappability
     private List<MapEntry> mEntries;
     private MapEntry mNextChromosomeEntry;
     private boolean mHasValidData;
+    private AnnotationIndex mIndex; // set when the mappability file is a binary index
 
     private static final int MAX_LIST_COUNT = 1000;
+
+    // index entries are regions starting at their position, with their end position in an int column
+    private static final int END_COLUMN = 0;
+    private static final int MAPPABILITY_COLUMN = 0;
     public static final String MAPPABILITY_BED = "mappability_bed";
 
     public static final String MAPPABILITY = "MAPPABILITY";
@@ -42,18 +54,28 @@ public class Mappability
         mEntries = Lists.newArrayList();
         mNextChromosomeEntry = null;
         mHasValidData = true;
+        mIndex = null;
 
         if(cmd.hasOption(MAPPABILITY_BED))
         {
-            initialiseFile(cmd.getOptionValue(MAPPABILITY_BED));
+            if(AnnotationIndex.isIndexFile(cmd.getOptionValue(MAPPABILITY_BED)))
+                loadIndex(cmd.getOptionValue(MAPPABILITY_BED));
+            else
+                initialiseFile(cmd.getOptionValue(MAPPABILITY_BED));
         }
     }
 
-    public boolean hasData() { return mFileReader != null; }
+    public boolean hasData() { return mFileReader != null || mIndex != null; }
     public boolean hasValidData() { return mHasValidData; }
 
     public void annotateVariant(final VariantData variant)
     {
+        if(mIndex != null)
+        {
+            annotateIndexedVariant(variant);
+            return;
+        }
+
         if(mFileReader == null && mEntries.isEmpty())
             return;
 
@@ -99,6 +121,32 @@ public class Mappability
         return false;
     }
 
+    private void annotateIndexedVariant(final VariantData variant)
+    {
+        try
+        {
+            ChromosomeEntries entries = mIndex.getChromosome(variant.Chromosome);
+
+            // as for the BED file, a variant between regions takes the previous region's value but one past the last region has none
+            int row = entries != null ? entries.lastRowAtOrBefore(variant.Position) : -1;
+
+            if(row >= 0 && row == entries.Rows - 1 && entries.getInt(END_COLUMN, row) < variant.Position)
+                row = -1;
+
+            if(row < 0)
+            {
+                PV_LOGGER.warn("variant({}) no mappability entry found", variant);
+                return;
+            }
+
+            variant.context().getCommonInfo().putAttribute(MAPPABILITY, entries.getDouble(MAPPABILITY_COLUMN, row));
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to read mappability index chromosome({}): {}", variant.Chromosome, e.toString());
+        }
+    }
+
     public static void addHeader(final VCFHeader header)
     {
         header.addMetaDataLine(new VCFInfoHeaderLine(MAPPABILITY, 1, VCFHeaderLineType.Float, MAPPABILITY_DESC));
@@ -106,7 +154,7 @@ public class Mappability
 
     public static void addCmdLineArgs(Options options)
     {
-        options.addOption(MAPPABILITY_BED, true, "Mappability BED file");
+        options.addOption(MAPPABILITY_BED, true, "Mappability BED file or binary index");
     }
 
     private void initialiseFile(final String filename)
@@ -134,6 +182,55 @@ public class Mappability
         }
     }
 
+    private void loadIndex(final String filename)
+    {
+        try
+        {
+            mIndex = AnnotationIndex.open(filename, TYPE_MAPPABILITY);
+            PV_LOGGER.info("opened mappability index({}) with {} chromosomes", filename, mIndex.chromosomes().size());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to open mappability index({}): {}", filename, e.toString());
+            mHasValidData = false;
+        }
+    }
+
+    public static void writeIndex(final String bedFile, final String filename) throws IOException
+    {
+        Map<String,ChromosomeEntriesBuilder> chrBuilders = Maps.newLinkedHashMap();
+
+        BufferedReader fileReader = createBufferedReader(bedFile);
+        String line = null;
+
+        while((line = fileReader.readLine()) != null)
+        {
+            final String[] values = line.split("\t", -1);
+
+            if(values.length != 4)
+                throw new IOException(String.format("invalid mappability entry(%s)", line));
+
+            ChromosomeEntriesBuilder builder = chrBuilders.computeIfAbsent(
+                    values[0], x -> new ChromosomeEntriesBuilder(x, false, 1, 1));
+
+            int row = builder.addRow(Integer.parseInt(values[1]) + 1);
+            builder.setInt(END_COLUMN, row, Integer.parseInt(values[2]));
+            builder.setDouble(MAPPABILITY_COLUMN, row, Double.parseDouble(values[3]));
+        }
+
+        fileReader.close();
+
+        AnnotationIndexWriter writer = new AnnotationIndexWriter(filename, TYPE_MAPPABILITY, false, 1, 1);
+
+        for(ChromosomeEntriesBuilder builder : chrBuilders.values())
+        {
+            builder.sortByPosition();
+            writer.writeChromosome(builder.build());
+        }
+
+        writer.close();
+    }
+
     private void loadEntries(final String requestedChromosome)
     {
         if(mFileReader == null)
@@ -3,7 +3,7 @@ package com.hartwig.hmftools.pave;
 import static com.hartwig.hmftools.common.drivercatalog.panel.DriverGenePanelConfig.DRIVER_GENE_PANEL_OPTION;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.ENSEMBL_DATA_DIR;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
-import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadRefGenome;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadRefGenomeFile;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
@@ -15,9 +15,8 @@ import static com.hartwig.hmftools.pave.PaveConfig.PON_FILE;
 import static com.hartwig.hmftools.pave.PaveConfig.PON_FILTERS;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.PaveConstants.DELIM;
-import static com.hartwig.hmftools.pave.PaveUtils.createRightAlignedVariant;
 import static com.hartwig.hmftools.pave.PonAnnotation.PON_ARTEFACT_FILTER;
-import static com.hartwig.hmftools.pave.VariantData.NO_LOCAL_PHASE_SET;
+import static com.hartwig.hmftools.pave.VariantBatchProcessor.BATCH_VARIANT_COUNT;
 
 import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
 
@@ -49,8 +48,7 @@ import htsjdk.variant.vcf.VCFCodec;
 public class PaveApplication
 {
     private final PaveConfig mConfig;
-    private final ImpactClassifier mImpactClassifier;
-    private final VariantImpactBuilder mImpactBuilder;
+    private final VariantImpactProcessor mImpactProcessor;
     private final GeneDataCache mGeneDataCache;
     private final GnomadAnnotation mGnomadAnnotation;
 
@@ -60,6 +58,8 @@ public class PaveApplication
     private final ClinvarAnnotation mClinvar;
     private final Blacklistings mBlacklistings;
 
+    private final String mRefGenomeFile;
+
     private VcfWriter mVcfWriter;
     private BufferedWriter mCsvTranscriptWriter;
 
@@ -82,11 +82,10 @@ public class PaveApplication
         mClinvar = new ClinvarAnnotation(cmd);
         mBlacklistings = new Blacklistings(cmd);
 
-        mImpactBuilder = new VariantImpactBuilder(mGeneDataCache);
-
-        RefGenomeInterface refGenome = loadRefGenome(cmd.getOptionValue(REF_GENOME));
+        mRefGenomeFile = cmd.getOptionValue(REF_GENOME);
+        RefGenomeInterface refGenome = loadRefGenomeFile(mRefGenomeFile);
 
-        mImpactClassifier = new ImpactClassifier(refGenome);
+        mImpactProcessor = new VariantImpactProcessor(refGenome, mGeneDataCache, this::writeVariant);
 
         mVcfWriter = null;
         initialiseVcfWriter();
@@ -133,7 +132,10 @@ public class PaveApplication
             System.exit(1);
         }
 
-        processVcfFile(mConfig.SampleId);
+        if(mConfig.Threads > 1)
+            processVcfFileMultiThreaded(mConfig.SampleId);
+        else
+            processVcfFile(mConfig.SampleId);
 
         closeBufferedWriter(mCsvTranscriptWriter);
 
@@ -162,7 +164,7 @@ public class PaveApplication
                 }
             }
 
-            processPhasedVariants(NO_LOCAL_PHASE_SET);
+            mImpactProcessor.completePhasedVariants();
         }
         catch(IOException e)
         {
@@ -174,14 +176,62 @@ public class PaveApplication
         mVcfWriter.close();
     }
 
-    private void processVariant(final VariantContext variantContext)
+    private void processVcfFileMultiThreaded(final String sampleId)
+    {
+        PV_LOGGER.info("sample({}) reading VCF file({}) with {} threads", sampleId, mConfig.VcfFile, mConfig.Threads);
+
+        // the reader forms batches of variants for the impact threads, and completed batches are annotated and written in order
+        VariantBatchProcessor batchProcessor = new VariantBatchProcessor(
+                mConfig.Threads, BATCH_VARIANT_COUNT, () -> loadRefGenomeFile(mRefGenomeFile), mGeneDataCache, this::writeVariant);
+
+        int variantCount = 0;
+
+        try
+        {
+            final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
+                    mConfig.VcfFile, new VCFCodec(), false);
+
+            for(VariantContext variantContext : reader.iterator())
+            {
+                VariantData variant = readVariant(variantContext);
+                ++variantCount;
+
+                if(variant == null)
+                    continue;
+
+                batchProcessor.addVariant(variant);
+
+                if(variantCount > 0 && (variantCount % 100000) == 0)
+                {
+                    PV_LOGGER.debug("read {} variants", variantCount);
+                }
+            }
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("failed to read somatic VCF file({}): {}", mConfig.VcfFile, e.toString());
+        }
+        finally
+        {
+            if(!batchProcessor.complete())
+            {
+                PV_LOGGER.error("sample({}) variant batches incomplete", sampleId);
+            }
+        }
+
+        PV_LOGGER.info("sample({}) processed {} variants", sampleId, variantCount);
+
+        mVcfWriter.close();
+    }
+
+    private VariantData readVariant(final VariantContext variantContext)
     {
         VariantData variant = VariantData.fromContext(variantContext);
 
         if(mConfig.ReadPassOnly)
         {
             if(!variantContext.getFilters().isEmpty() && !variantContext.getFilters().contains(PASS_FILTER))
-                return;
+                return null;
         }
 
         // remove once SnpEff fully gone from HMF Tools
@@ -191,37 +241,21 @@ public class PaveApplication
         if(variantContext.hasAttribute(SNPEFF_WORST))
             variantContext.getCommonInfo().removeAttribute(SNPEFF_WORST);
 
-        try
-        {
-            variant.setRealignedVariant(createRightAlignedVariant(variant, mImpactClassifier.refGenome()));
-
-            findVariantImpacts(variant, mImpactClassifier, mGeneDataCache);
-
-            processPhasedVariants(variant.localPhaseSet());
-
-            if(!variant.hasLocalPhaseSet())
-                processVariant(variant);
-        }
-        catch(Exception e)
-        {
-            PV_LOGGER.error("error processing var({})", variant);
-            e.printStackTrace();
-        }
+        return variant;
     }
 
-    private void processPhasedVariants(int currentLocalPhaseSet)
+    private void processVariant(final VariantContext variantContext)
     {
-        List<VariantData> variants = mImpactClassifier.processPhasedVariants(currentLocalPhaseSet);
+        VariantData variant = readVariant(variantContext);
 
-        if(variants != null)
-            variants.forEach(x -> processVariant(x));
+        if(variant == null)
+            return;
+
+        mImpactProcessor.processVariant(variant);
     }
 
-    private void processVariant(final VariantData variant)
+    private void writeVariant(final VariantData variant, final VariantImpact variantImpact)
     {
-        // can be null if no impacts exist for any transcript
-        VariantImpact variantImpact = mImpactBuilder.createVariantImpact(variant);
-
         ponAnnotateAndFilter(variant);
 
         if(mConfig.WritePassOnly && !variant.filters().isEmpty())
@@ -4,7 +4,7 @@ import static com.hartwig.hmftools.common.drivercatalog.panel.DriverGenePanelCon
 import static com.hartwig.hmftools.common.drivercatalog.panel.DriverGenePanelConfig.DRIVER_GENE_PANEL_OPTION_DESC;
 import static com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache.addEnsemblDir;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
-import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME_CFG_DESC;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME_TWO_BIT_CFG_DESC;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION_CFG_DESC;
 import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
@@ -35,6 +35,7 @@ public class PaveConfig
     public final boolean OnlyCanonical;
     public final boolean ReadPassOnly;
     public final boolean WritePassOnly;
+    public final int Threads;
 
     private static final String SAMPLE = "sample";
     private static final String VCF_FILE = "vcf_file";
@@ -50,6 +51,7 @@ public class PaveConfig
     private static final String WRITE_PASS_ONLY = "write_pass_only";
     private static final String WRITE_DIFFS = "write_diffs";
     private static final String WRITE_TRANSCRIPT_CSV = "write_transcript_csv";
+    private static final String THREADS = "threads";
 
     public static final Logger PV_LOGGER = LogManager.getLogger(PaveConfig.class);
 
@@ -67,6 +69,7 @@ public class PaveConfig
         OnlyCanonical = cmd.hasOption(ONLY_CANONCIAL);
         ReadPassOnly = cmd.hasOption(READ_PASS_ONLY);
         WritePassOnly = cmd.hasOption(WRITE_PASS_ONLY);
+        Threads = Integer.parseInt(cmd.getOptionValue(THREADS, "1"));
 
         OutputDir = parseOutputDir(cmd);
     }
@@ -87,7 +90,7 @@ public class PaveConfig
         options.addOption(VCF_FILE, true, "VCF input file");
         options.addOption(OUTPUT_VCF_FILE, true, "Option VCF output file, otherwise will append 'pave' suffix to input filename");
 
-        options.addOption(REF_GENOME, true, REF_GENOME_CFG_DESC);
+        options.addOption(REF_GENOME, true, REF_GENOME_TWO_BIT_CFG_DESC);
         options.addOption(REF_GENOME_VERSION, true, REF_GENOME_VERSION_CFG_DESC);
         addEnsemblDir(options);
         options.addOption(DRIVER_GENE_PANEL_OPTION, true, DRIVER_GENE_PANEL_OPTION_DESC);
@@ -100,6 +103,7 @@ public class PaveConfig
         options.addOption(ONLY_CANONCIAL, false, "Only check canonical transcripts");
         options.addOption(READ_PASS_ONLY, false, "Filter incoming variants to PASS only");
         options.addOption(WRITE_PASS_ONLY, false, "Only annotate passing variants");
+        options.addOption(THREADS, true, "Number of threads for variant impact classification, default 1");
 
         GnomadAnnotation.addCmdLineArgs(options);
         Mappability.addCmdLineArgs(options);
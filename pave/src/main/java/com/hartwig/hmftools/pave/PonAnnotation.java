@@ -4,6 +4,7 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedRe
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createGzipBufferedReader;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.PaveConstants.ITEM_DELIM;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_PON;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -15,6 +16,10 @@ import java.util.Map;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.variant.VariantTier;
+import com.hartwig.hmftools.pave.index.AnnotationIndex;
+import com.hartwig.hmftools.pave.index.AnnotationIndexWriter;
+import com.hartwig.hmftools.pave.index.ChromosomeEntries;
+import com.hartwig.hmftools.pave.index.ChromosomeEntriesBuilder;
 
 import htsjdk.variant.vcf.VCFFilterHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
@@ -31,9 +36,15 @@ public class PonAnnotation
     private String mCurrentChromosome;
     private int mColumnCount;
     private boolean mHasValidData;
+    private AnnotationIndex mIndex; // set when the PON file is a binary index
 
     private final Map<VariantTier,PonFilters> mPonFilters;
 
+    private static final int SAMPLES_COLUMN = 0;
+    private static final int MAX_READS_COLUMN = 1;
+    private static final int TOTAL_READS_COLUMN = 2;
+    private static final int INT_COLUMN_COUNT = 3;
+
     public static final String PON_COUNT = "PON_COUNT";
     public static final String PON_MAX = "PON_MAX";
     public static final String PON_FILTER = "PON";
@@ -48,10 +59,14 @@ public class PonAnnotation
         mCurrentChromosome = "";
         mColumnCount = -1;
         mHasValidData = false;
+        mIndex = null;
 
         if(filename != null && !filename.isEmpty())
         {
-            loadPonFile(filename);
+            if(AnnotationIndex.isIndexFile(filename))
+                loadIndex(filename);
+            else
+                loadPonFile(filename);
         }
 
         mPonFilters = Maps.newHashMap();
@@ -113,6 +128,9 @@ public class PonAnnotation
 
     public PonVariantData getPonData(final VariantData variant)
     {
+        if(mIndex != null)
+            return getIndexedPonData(variant);
+
         if(mLoadOnDemand && !variant.Chromosome.equals(mCurrentChromosome))
         {
             mPonEntries.remove(mCurrentChromosome);
@@ -132,6 +150,73 @@ public class PonAnnotation
         return posList.stream().filter(x -> x.matches(variant.Ref, variant.Alt)).findFirst().orElse(null);
     }
 
+    private PonVariantData getIndexedPonData(final VariantData variant)
+    {
+        try
+        {
+            ChromosomeEntries entries = mIndex.getChromosome(variant.Chromosome);
+
+            if(entries == null)
+                return null;
+
+            int row = entries.findVariant(variant.Position, variant.Ref, variant.Alt);
+
+            if(row < 0)
+                return null;
+
+            return new PonVariantData(
+                    variant.Ref, variant.Alt, entries.getInt(SAMPLES_COLUMN, row), entries.getInt(MAX_READS_COLUMN, row),
+                    entries.getInt(TOTAL_READS_COLUMN, row));
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to read PON index chromosome({}): {}", variant.Chromosome, e.toString());
+            return null;
+        }
+    }
+
+    private void loadIndex(final String filename)
+    {
+        try
+        {
+            mIndex = AnnotationIndex.open(filename, TYPE_PON);
+            mHasValidData = true;
+            PV_LOGGER.info("opened PON index({}) with {} chromosomes", filename, mIndex.chromosomes().size());
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to open PON index({}): {}", filename, e.toString());
+            mHasValidData = false;
+        }
+    }
+
+    public void writeIndex(final String filename) throws IOException
+    {
+        // requires the PON file to have been loaded in full
+        AnnotationIndexWriter writer = new AnnotationIndexWriter(filename, TYPE_PON, true, INT_COLUMN_COUNT, 0);
+
+        for(Map.Entry<String,Map<Integer,List<PonVariantData>>> chrEntry : mPonEntries.entrySet())
+        {
+            ChromosomeEntriesBuilder builder = new ChromosomeEntriesBuilder(chrEntry.getKey(), true, INT_COLUMN_COUNT, 0);
+
+            for(Map.Entry<Integer,List<PonVariantData>> entry : chrEntry.getValue().entrySet())
+            {
+                for(PonVariantData ponData : entry.getValue())
+                {
+                    int row = builder.addRow(entry.getKey(), ponData.Ref, ponData.Alt);
+                    builder.setInt(SAMPLES_COLUMN, row, ponData.Samples);
+                    builder.setInt(MAX_READS_COLUMN, row, ponData.MaxSampleReads);
+                    builder.setInt(TOTAL_READS_COLUMN, row, ponData.TotalSampleReads);
+                }
+            }
+
+            builder.sortByPosition();
+            writer.writeChromosome(builder.build());
+        }
+
+        writer.close();
+    }
+
     private void loadPonFile(final String filename)
     {
         if(filename == null)
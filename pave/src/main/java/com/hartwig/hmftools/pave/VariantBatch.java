@@ -0,0 +1,32 @@
+package com.hartwig.hmftools.pave;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+public class VariantBatch
+{
+    // a contiguous run of input variants within a single chromosome, never splitting a local phase set
+    public final int Index;
+    public final List<VariantData> Variants;
+
+    // populated once processed, in output order and with each variant's impact (which can be null)
+    public final List<VariantData> ProcessedVariants;
+    public final List<VariantImpact> VariantImpacts;
+
+    private static final int END_INDEX = -1;
+
+    public VariantBatch(final int index)
+    {
+        Index = index;
+        Variants = Lists.newArrayList();
+        ProcessedVariants = Lists.newArrayList();
+        VariantImpacts = Lists.newArrayList();
+    }
+
+    public static VariantBatch endMarker() { return new VariantBatch(END_INDEX); }
+    public boolean isEndMarker() { return Index == END_INDEX; }
+
+    public String toString() { return String.format("index(%d) variants(%d)", Index, Variants.size()); }
+}
@@ -0,0 +1,146 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+public class VariantBatchProcessor
+{
+    // forms batches of variants for the impact threads, each covering a region of a single chromosome, and writes the processed
+    // variants from completed batches in input order
+    private final int mBatchVariantCount;
+    private final BlockingQueue<VariantBatch> mBatches;
+    private final List<VariantImpactThread> mImpactThreads;
+    private final BiConsumer<VariantData,VariantImpact> mVariantWriter;
+
+    private VariantBatch mCurrentBatch;
+    private final Set<Integer> mCurrentLocalPhaseSets;
+    private int mBatchCount;
+
+    // processed batches are held until all earlier batches have been written
+    private final Map<Integer,VariantBatch> mCompletedBatches;
+    private int mNextBatchIndex;
+
+    public static final int BATCH_VARIANT_COUNT = 1000;
+
+    public VariantBatchProcessor(
+            int threads, int batchVariantCount, final Supplier<RefGenomeInterface> refGenomeSupplier,
+            final GeneDataCache geneDataCache, final BiConsumer<VariantData,VariantImpact> variantWriter)
+    {
+        mBatchVariantCount = batchVariantCount;
+        mVariantWriter = variantWriter;
+        mBatches = new ArrayBlockingQueue<>(threads * 4);
+
+        mBatchCount = 0;
+        mCurrentBatch = new VariantBatch(mBatchCount++);
+        mCurrentLocalPhaseSets = Sets.newHashSet();
+
+        mCompletedBatches = Maps.newHashMap();
+        mNextBatchIndex = 0;
+
+        mImpactThreads = Lists.newArrayList();
+
+        for(int i = 0; i < threads; ++i)
+        {
+            mImpactThreads.add(new VariantImpactThread(refGenomeSupplier.get(), geneDataCache, mBatches, this::onBatchComplete));
+        }
+    }
+
+    public void addVariant(final VariantData variant) throws InterruptedException
+    {
+        if(!mCurrentBatch.Variants.isEmpty())
+        {
+            VariantData lastVariant = mCurrentBatch.Variants.get(mCurrentBatch.Variants.size() - 1);
+
+            boolean regionComplete = !lastVariant.Chromosome.equals(variant.Chromosome)
+                    || mCurrentBatch.Variants.size() >= mBatchVariantCount;
+
+            // a local phase set is never split across batches since its variants are reclassified together
+            if(regionComplete && !mCurrentLocalPhaseSets.contains(variant.localPhaseSet()))
+            {
+                mBatches.put(mCurrentBatch);
+                mCurrentBatch = new VariantBatch(mBatchCount++);
+                mCurrentLocalPhaseSets.clear();
+            }
+        }
+
+        mCurrentBatch.Variants.add(variant);
+
+        if(variant.hasLocalPhaseSet())
+            mCurrentLocalPhaseSets.add(variant.localPhaseSet());
+    }
+
+    public boolean complete()
+    {
+        // called once all variants have been added or reading has failed, so the impact threads always receive their end markers
+        try
+        {
+            if(!mCurrentBatch.Variants.isEmpty())
+                mBatches.put(mCurrentBatch);
+            else
+                --mBatchCount;
+
+            for(int i = 0; i < mImpactThreads.size(); ++i)
+            {
+                mBatches.put(VariantBatch.endMarker());
+            }
+
+            for(VariantImpactThread thread : mImpactThreads)
+            {
+                thread.join();
+            }
+        }
+        catch(InterruptedException e)
+        {
+            PV_LOGGER.error("variant batch processing interrupted: {}", e.toString());
+            mImpactThreads.forEach(x -> x.interrupt());
+        }
+
+        if(mNextBatchIndex != mBatchCount)
+        {
+            PV_LOGGER.error("wrote {} of {} variant batches", mNextBatchIndex, mBatchCount);
+            return false;
+        }
+
+        return true;
+    }
+
+    private synchronized void onBatchComplete(final VariantBatch batch)
+    {
+        mCompletedBatches.put(batch.Index, batch);
+
+        VariantBatch nextBatch;
+
+        while((nextBatch = mCompletedBatches.remove(mNextBatchIndex)) != null)
+        {
+            for(int i = 0; i < nextBatch.ProcessedVariants.size(); ++i)
+            {
+                VariantData variant = nextBatch.ProcessedVariants.get(i);
+
+                try
+                {
+                    mVariantWriter.accept(variant, nextBatch.VariantImpacts.get(i));
+                }
+                catch(Exception e)
+                {
+                    PV_LOGGER.error("error processing var({})", variant);
+                    e.printStackTrace();
+                }
+            }
+
+            ++mNextBatchIndex;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.pave.PaveApplication.findVariantImpacts;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.PaveUtils.createRightAlignedVariant;
+import static com.hartwig.hmftools.pave.VariantData.NO_LOCAL_PHASE_SET;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+public class VariantImpactProcessor
+{
+    // classifies the impacts of variants in input order, holding phased variants until their local phase set is complete,
+    // and passes each processed variant with its impact (which can be null) on in output order
+    private final ImpactClassifier mImpactClassifier;
+    private final GeneDataCache mGeneDataCache;
+    private final VariantImpactBuilder mImpactBuilder;
+    private final BiConsumer<VariantData,VariantImpact> mVariantHandler;
+
+    public VariantImpactProcessor(
+            final RefGenomeInterface refGenome, final GeneDataCache geneDataCache,
+            final BiConsumer<VariantData,VariantImpact> variantHandler)
+    {
+        mImpactClassifier = new ImpactClassifier(refGenome);
+        mGeneDataCache = geneDataCache;
+        mImpactBuilder = new VariantImpactBuilder(geneDataCache);
+        mVariantHandler = variantHandler;
+    }
+
+    public void processVariant(final VariantData variant)
+    {
+        try
+        {
+            variant.setRealignedVariant(createRightAlignedVariant(variant, mImpactClassifier.refGenome()));
+
+            findVariantImpacts(variant, mImpactClassifier, mGeneDataCache);
+
+            processPhasedVariants(variant.localPhaseSet());
+
+            if(!variant.hasLocalPhaseSet())
+                handleVariant(variant);
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("error processing var({})", variant);
+            e.printStackTrace();
+        }
+    }
+
+    public void completePhasedVariants()
+    {
+        processPhasedVariants(NO_LOCAL_PHASE_SET);
+    }
+
+    private void processPhasedVariants(int currentLocalPhaseSet)
+    {
+        List<VariantData> variants = mImpactClassifier.processPhasedVariants(currentLocalPhaseSet);
+
+        if(variants != null)
+            variants.forEach(x -> handleVariant(x));
+    }
+
+    private void handleVariant(final VariantData variant)
+    {
+        // can be null if no impacts exist for any transcript
+        VariantImpact variantImpact = mImpactBuilder.createVariantImpact(variant);
+
+        mVariantHandler.accept(variant, variantImpact);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+public class VariantImpactThread extends Thread
+{
+    // classifies the impacts of batches of variants, each thread with its own reference genome reader, gene search position
+    // and phased variant state, passing each completed batch on for annotation and writing in input order
+    private final BlockingQueue<VariantBatch> mBatches;
+    private final Consumer<VariantBatch> mBatchWriter;
+
+    private final VariantImpactProcessor mImpactProcessor;
+    private VariantBatch mCurrentBatch;
+
+    public VariantImpactThread(
+            final RefGenomeInterface refGenome, final GeneDataCache geneDataCache, final BlockingQueue<VariantBatch> batches,
+            final Consumer<VariantBatch> batchWriter)
+    {
+        mBatches = batches;
+        mBatchWriter = batchWriter;
+
+        mImpactProcessor = new VariantImpactProcessor(refGenome, new GeneDataCache(geneDataCache), this::addVariant);
+        mCurrentBatch = null;
+
+        // cannot keep the JVM alive if the reader fails before queuing the end markers
+        setDaemon(true);
+        start();
+    }
+
+    public void run()
+    {
+        while(true)
+        {
+            try
+            {
+                VariantBatch batch = mBatches.take();
+
+                if(batch.isEndMarker())
+                    break;
+
+                processBatch(batch);
+
+                // always passed on, even if incomplete, so that later batches are still written
+                mBatchWriter.accept(batch);
+            }
+            catch(InterruptedException e)
+            {
+                PV_LOGGER.error("variant impact thread interrupted: {}", e.toString());
+                break;
+            }
+        }
+    }
+
+    private void processBatch(final VariantBatch batch)
+    {
+        mCurrentBatch = batch;
+
+        try
+        {
+            batch.Variants.forEach(x -> mImpactProcessor.processVariant(x));
+
+            // a local phase set never spans batches, so all phased variants are complete
+            mImpactProcessor.completePhasedVariants();
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("error processing variant batch({}): {}", batch, e.toString());
+            e.printStackTrace();
+        }
+
+        mCurrentBatch = null;
+    }
+
+    private void addVariant(final VariantData variant, final VariantImpact variantImpact)
+    {
+        mCurrentBatch.ProcessedVariants.add(variant);
+        mCurrentBatch.VariantImpacts.add(variantImpact);
+    }
+}
@@ -0,0 +1,140 @@
+package com.hartwig.hmftools.pave.external;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.REF_GENOME_VERSION_CFG_DESC;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.addOutputDir;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.pave.ClinvarAnnotation.CLINVAR_VCF;
+import static com.hartwig.hmftools.pave.GnomadAnnotation.GNOMAD_FREQUENCY_DIR;
+import static com.hartwig.hmftools.pave.GnomadAnnotation.GNOMAD_FREQUENCY_FILE;
+import static com.hartwig.hmftools.pave.Mappability.MAPPABILITY_BED;
+import static com.hartwig.hmftools.pave.PaveConfig.PON_ARTEFACTS_FILE;
+import static com.hartwig.hmftools.pave.PaveConfig.PON_FILE;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.external.GnomadCacheBuilder.GNOMAD_FILE_ID;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.INDEX_FILE_EXTENSION;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import com.hartwig.hmftools.pave.ClinvarAnnotation;
+import com.hartwig.hmftools.pave.GnomadAnnotation;
+import com.hartwig.hmftools.pave.Mappability;
+import com.hartwig.hmftools.pave.PonAnnotation;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jetbrains.annotations.NotNull;
+
+public class AnnotationIndexBuilder
+{
+    // converts Pave's annotation resources into binary indices, which Pave memory-maps when they are passed in place of
+    // the original files
+    private final CommandLine mCmd;
+    private final String mOutputDir;
+
+    public AnnotationIndexBuilder(final CommandLine cmd)
+    {
+        mCmd = cmd;
+        mOutputDir = parseOutputDir(cmd);
+    }
+
+    public void run()
+    {
+        try
+        {
+            if(mCmd.hasOption(GNOMAD_FREQUENCY_FILE) || mCmd.hasOption(GNOMAD_FREQUENCY_DIR))
+            {
+                GnomadAnnotation gnomadAnnotation = new GnomadAnnotation(mCmd);
+
+                String inputFile = mCmd.hasOption(GNOMAD_FREQUENCY_FILE)
+                        ? mCmd.getOptionValue(GNOMAD_FREQUENCY_FILE)
+                        : Paths.get(mCmd.getOptionValue(GNOMAD_FREQUENCY_DIR), GNOMAD_FILE_ID).toString();
+                String indexFile = formIndexFilename(inputFile);
+                gnomadAnnotation.writeIndex(indexFile);
+                PV_LOGGER.info("wrote Gnomad frequency index({})", indexFile);
+            }
+
+            for(String ponConfig : new String[] { PON_FILE, PON_ARTEFACTS_FILE })
+            {
+                if(!mCmd.hasOption(ponConfig))
+                    continue;
+
+                PonAnnotation ponAnnotation = new PonAnnotation(mCmd.getOptionValue(ponConfig), false);
+
+                if(!ponAnnotation.hasValidData())
+                {
+                    PV_LOGGER.error("invalid PON file({})", mCmd.getOptionValue(ponConfig));
+                    System.exit(1);
+                }
+
+                String indexFile = formIndexFilename(mCmd.getOptionValue(ponConfig));
+                ponAnnotation.writeIndex(indexFile);
+                PV_LOGGER.info("wrote PON index({})", indexFile);
+            }
+
+            if(mCmd.hasOption(CLINVAR_VCF))
+            {
+                ClinvarAnnotation clinvarAnnotation = new ClinvarAnnotation(mCmd);
+
+                if(!clinvarAnnotation.hasValidData())
+                {
+                    PV_LOGGER.error("invalid Clinvar file({})", mCmd.getOptionValue(CLINVAR_VCF));
+                    System.exit(1);
+                }
+
+                String indexFile = formIndexFilename(mCmd.getOptionValue(CLINVAR_VCF));
+                clinvarAnnotation.writeIndex(indexFile);
+                PV_LOGGER.info("wrote Clinvar index({})", indexFile);
+            }
+
+            if(mCmd.hasOption(MAPPABILITY_BED))
+            {
+                String indexFile = formIndexFilename(mCmd.getOptionValue(MAPPABILITY_BED));
+                Mappability.writeIndex(mCmd.getOptionValue(MAPPABILITY_BED), indexFile);
+                PV_LOGGER.info("wrote mappability index({})", indexFile);
+            }
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to write annotation index: {}", e.toString());
+            System.exit(1);
+        }
+
+        PV_LOGGER.info("annotation index build complete");
+    }
+
+    private String formIndexFilename(final String inputFile)
+    {
+        // written alongside the input file unless an output directory is specified
+        if(mOutputDir == null)
+            return inputFile + INDEX_FILE_EXTENSION;
+
+        return mOutputDir + Paths.get(inputFile).getFileName().toString() + INDEX_FILE_EXTENSION;
+    }
+
+    public static void main(@NotNull final String[] args) throws ParseException
+    {
+        Options options = new Options();
+        options.addOption(REF_GENOME_VERSION, true, REF_GENOME_VERSION_CFG_DESC);
+        GnomadAnnotation.addCmdLineArgs(options);
+        options.addOption(PON_FILE, true, "PON entries");
+        options.addOption(PON_ARTEFACTS_FILE, true, "PON artefacts");
+        ClinvarAnnotation.addCmdLineArgs(options);
+        Mappability.addCmdLineArgs(options);
+        addOutputDir(options);
+        addLoggingOptions(options);
+
+        final CommandLineParser parser = new DefaultParser();
+        final CommandLine cmd = parser.parse(options, args);
+        setLogLevel(cmd);
+
+        AnnotationIndexBuilder indexBuilder = new AnnotationIndexBuilder(cmd);
+        indexBuilder.run();
+    }
+}
@@ -0,0 +1,223 @@
+package com.hartwig.hmftools.pave.index;
+
+import static java.lang.String.format;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class AnnotationIndex
+{
+    // a binary annotation resource with per-chromosome columns, each chromosome memory-mapped when first requested
+    // layout: header, chromosome sections, string table, directory, trailer offset
+    // header: magic, version, type, whether entries have alleles, int column count, double column count
+    // chromosome section: positions, packed alleles, int columns, double columns and allele data, padded to 8 bytes
+    // directory: for each chromosome, its name, row count, allele data length and section offset
+    public final int Type;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final boolean mHasAlleles;
+    private final int mIntColumnCount;
+    private final int mDoubleColumnCount;
+    private final List<String> mStrings; // shared values referenced by index from int columns
+    private final Map<String,DirectoryEntry> mDirectory;
+    private final Map<String,ChromosomeEntries> mChromosomes;
+
+    public static final int TYPE_GNOMAD = 1;
+    public static final int TYPE_PON = 2;
+    public static final int TYPE_CLINVAR = 3;
+    public static final int TYPE_MAPPABILITY = 4;
+
+    public static final String INDEX_FILE_EXTENSION = ".pvi";
+
+    static final int MAGIC = 0x50564958; // 'PVIX'
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = Integer.BYTES * 6;
+
+    static class DirectoryEntry
+    {
+        public final String Chromosome;
+        public final int Rows;
+        public final int AlleleDataLength;
+        public final long Offset;
+
+        public DirectoryEntry(final String chromosome, int rows, int alleleDataLength, long offset)
+        {
+            Chromosome = chromosome;
+            Rows = rows;
+            AlleleDataLength = alleleDataLength;
+            Offset = offset;
+        }
+    }
+
+    private AnnotationIndex(final String filename, int expectedType) throws IOException
+    {
+        mFile = new RandomAccessFile(filename, "r");
+        mChannel = mFile.getChannel();
+        mDirectory = Maps.newHashMap();
+        mChromosomes = Maps.newHashMap();
+
+        ByteBuffer header = mChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+
+        if(header.getInt() != MAGIC)
+            throw new IOException(format("file(%s) is not an annotation index", filename));
+
+        int version = header.getInt();
+
+        if(version != VERSION)
+            throw new IOException(format("annotation index(%s) has unsupported version(%d)", filename, version));
+
+        Type = header.getInt();
+
+        if(Type != expectedType)
+            throw new IOException(format("annotation index(%s) has type(%d) but expected(%d)", filename, Type, expectedType));
+
+        mHasAlleles = header.getInt() != 0;
+        mIntColumnCount = header.getInt();
+        mDoubleColumnCount = header.getInt();
+
+        long fileLength = mChannel.size();
+        long trailerOffset = mChannel.map(FileChannel.MapMode.READ_ONLY, fileLength - Long.BYTES, Long.BYTES).getLong();
+
+        ByteBuffer trailer = mChannel.map(
+                FileChannel.MapMode.READ_ONLY, trailerOffset, fileLength - Long.BYTES - trailerOffset);
+
+        int stringCount = trailer.getInt();
+        List<String> strings = Lists.newArrayListWithCapacity(stringCount);
+
+        for(int i = 0; i < stringCount; ++i)
+        {
+            strings.add(readString(trailer));
+        }
+
+        mStrings = Collections.unmodifiableList(strings);
+
+        int chromosomeCount = trailer.getInt();
+
+        for(int i = 0; i < chromosomeCount; ++i)
+        {
+            DirectoryEntry entry = new DirectoryEntry(readString(trailer), trailer.getInt(), trailer.getInt(), trailer.getLong());
+            mDirectory.put(entry.Chromosome, entry);
+        }
+    }
+
+    public static AnnotationIndex open(final String filename, int expectedType) throws IOException
+    {
+        return new AnnotationIndex(filename, expectedType);
+    }
+
+    public static boolean isIndexFile(final String filename)
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            return inputStream.readInt() == MAGIC;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    public Set<String> chromosomes() { return mDirectory.keySet(); }
+    public String getString(int index) { return mStrings.get(index); }
+
+    public synchronized ChromosomeEntries getChromosome(final String chromosome) throws IOException
+    {
+        // returns null if the index has no entries for the chromosome
+        ChromosomeEntries entries = mChromosomes.get(chromosome);
+
+        if(entries != null)
+            return entries;
+
+        DirectoryEntry entry = mDirectory.get(chromosome);
+
+        if(entry == null)
+            return null;
+
+        ByteBuffer section = mChannel.map(
+                FileChannel.MapMode.READ_ONLY, entry.Offset,
+                sectionLength(entry.Rows, entry.AlleleDataLength, mHasAlleles, mIntColumnCount, mDoubleColumnCount));
+
+        IntBuffer positions = sliceColumn(section, entry.Rows * Integer.BYTES).asIntBuffer();
+        IntBuffer alleles = mHasAlleles ? sliceColumn(section, entry.Rows * Integer.BYTES).asIntBuffer() : null;
+
+        IntBuffer[] intColumns = new IntBuffer[mIntColumnCount];
+        DoubleBuffer[] doubleColumns = new DoubleBuffer[mDoubleColumnCount];
+
+        for(int c = 0; c < intColumns.length; ++c)
+        {
+            intColumns[c] = sliceColumn(section, entry.Rows * Integer.BYTES).asIntBuffer();
+        }
+
+        for(int c = 0; c < doubleColumns.length; ++c)
+        {
+            doubleColumns[c] = sliceColumn(section, entry.Rows * Double.BYTES).asDoubleBuffer();
+        }
+
+        ByteBuffer alleleData = mHasAlleles ? sliceColumn(section, entry.AlleleDataLength) : null;
+
+        entries = new ChromosomeEntries(chromosome, entry.Rows, positions, alleles, alleleData, intColumns, doubleColumns);
+        mChromosomes.put(chromosome, entries);
+        return entries;
+    }
+
+    public void close()
+    {
+        try
+        {
+            mFile.close();
+        }
+        catch(IOException e)
+        {
+            // nothing to recover
+        }
+    }
+
+    static long sectionLength(int rows, int alleleDataLength, boolean hasAlleles, int intColumnCount, int doubleColumnCount)
+    {
+        long intColumns = 1 + (hasAlleles ? 1 : 0) + intColumnCount;
+        long length = intColumns * rows * Integer.BYTES + (long)doubleColumnCount * rows * Double.BYTES;
+
+        if(hasAlleles)
+            length += alleleDataLength;
+
+        return length;
+    }
+
+    private static ByteBuffer sliceColumn(final ByteBuffer buffer, int length)
+    {
+        ByteBuffer column = buffer.duplicate();
+        column.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return column.slice();
+    }
+
+    static void writeString(final DataOutputStream outputStream, final String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeShort(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package com.hartwig.hmftools.pave.index;
+
+import static java.lang.String.format;
+
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.MAGIC;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.VERSION;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.writeString;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class AnnotationIndexWriter
+{
+    // writes an annotation index one chromosome at a time, so a resource need not be held in memory in full
+    private final DataOutputStream mOutputStream;
+    private final boolean mHasAlleles;
+    private final int mIntColumnCount;
+    private final int mDoubleColumnCount;
+    private final List<String> mStrings;
+    private final Map<String,Integer> mStringIndices;
+    private final List<AnnotationIndex.DirectoryEntry> mDirectory;
+    private long mOffset;
+
+    public AnnotationIndexWriter(
+            final String filename, int type, boolean hasAlleles, int intColumnCount, int doubleColumnCount) throws IOException
+    {
+        mOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        mHasAlleles = hasAlleles;
+        mIntColumnCount = intColumnCount;
+        mDoubleColumnCount = doubleColumnCount;
+        mStrings = Lists.newArrayList();
+        mStringIndices = Maps.newHashMap();
+        mDirectory = Lists.newArrayList();
+
+        mOutputStream.writeInt(MAGIC);
+        mOutputStream.writeInt(VERSION);
+        mOutputStream.writeInt(type);
+        mOutputStream.writeInt(hasAlleles ? 1 : 0);
+        mOutputStream.writeInt(intColumnCount);
+        mOutputStream.writeInt(doubleColumnCount);
+
+        mOffset = AnnotationIndex.HEADER_LENGTH;
+        writePadding();
+    }
+
+    public int stringIndex(final String value)
+    {
+        Integer index = mStringIndices.get(value);
+
+        if(index == null)
+        {
+            index = mStrings.size();
+            mStrings.add(value);
+            mStringIndices.put(value, index);
+        }
+
+        return index;
+    }
+
+    public void writeChromosome(final ChromosomeEntries entries) throws IOException
+    {
+        if(entries.hasAlleles() != mHasAlleles || entries.intColumnCount() != mIntColumnCount
+        || entries.doubleColumnCount() != mDoubleColumnCount)
+        {
+            throw new IOException(format("chromosome(%s) entries do not match the index columns", entries.Chromosome));
+        }
+
+        int alleleDataLength = entries.alleleDataLength();
+        mDirectory.add(new AnnotationIndex.DirectoryEntry(entries.Chromosome, entries.Rows, alleleDataLength, mOffset));
+
+        for(int row = 0; row < entries.Rows; ++row)
+        {
+            mOutputStream.writeInt(entries.position(row));
+        }
+
+        if(mHasAlleles)
+        {
+            for(int row = 0; row < entries.Rows; ++row)
+            {
+                mOutputStream.writeInt(entries.packedAlleles(row));
+            }
+        }
+
+        for(int c = 0; c < mIntColumnCount; ++c)
+        {
+            for(int row = 0; row < entries.Rows; ++row)
+            {
+                mOutputStream.writeInt(entries.getInt(c, row));
+            }
+        }
+
+        for(int c = 0; c < mDoubleColumnCount; ++c)
+        {
+            for(int row = 0; row < entries.Rows; ++row)
+            {
+                mOutputStream.writeDouble(entries.getDouble(c, row));
+            }
+        }
+
+        for(int i = 0; i < alleleDataLength; ++i)
+        {
+            mOutputStream.writeByte(entries.alleleDataByte(i));
+        }
+
+        mOffset += AnnotationIndex.sectionLength(
+                entries.Rows, alleleDataLength, mHasAlleles, mIntColumnCount, mDoubleColumnCount);
+
+        writePadding();
+    }
+
+    public void close() throws IOException
+    {
+        long trailerOffset = mOffset;
+
+        mOutputStream.writeInt(mStrings.size());
+
+        for(String value : mStrings)
+        {
+            writeString(mOutputStream, value);
+        }
+
+        mOutputStream.writeInt(mDirectory.size());
+
+        for(AnnotationIndex.DirectoryEntry entry : mDirectory)
+        {
+            writeString(mOutputStream, entry.Chromosome);
+            mOutputStream.writeInt(entry.Rows);
+            mOutputStream.writeInt(entry.AlleleDataLength);
+            mOutputStream.writeLong(entry.Offset);
+        }
+
+        mOutputStream.writeLong(trailerOffset);
+        mOutputStream.close();
+    }
+
+    private void writePadding() throws IOException
+    {
+        // the stream's own count is an int so the offset is tracked separately for large files
+        while((mOffset % Long.BYTES) != 0)
+        {
+            mOutputStream.writeByte(0);
+            ++mOffset;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hartwig.hmftools.pave.index;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class ChromosomeEntries
+{
+    // a chromosome's annotation entries as primitive columns sorted by position, either on the heap or as views onto a
+    // memory-mapped index file
+    public final String Chromosome;
+    public final int Rows;
+
+    private final IntBuffer mPositions;
+    private final IntBuffer mAlleles; // null if entries are regions rather than variants
+    private final ByteBuffer mAlleleData;
+    private final IntBuffer[] mIntColumns;
+    private final DoubleBuffer[] mDoubleColumns;
+
+    public ChromosomeEntries(
+            final String chromosome, int rows, final IntBuffer positions, final IntBuffer alleles, final ByteBuffer alleleData,
+            final IntBuffer[] intColumns, final DoubleBuffer[] doubleColumns)
+    {
+        Chromosome = chromosome;
+        Rows = rows;
+        mPositions = positions;
+        mAlleles = alleles;
+        mAlleleData = alleleData;
+        mIntColumns = intColumns;
+        mDoubleColumns = doubleColumns;
+    }
+
+    public int position(int row) { return mPositions.get(row); }
+    public int getInt(int column, int row) { return mIntColumns[column].get(row); }
+    public double getDouble(int column, int row) { return mDoubleColumns[column].get(row); }
+
+    public boolean hasAlleles() { return mAlleles != null; }
+    public int intColumnCount() { return mIntColumns.length; }
+    public int doubleColumnCount() { return mDoubleColumns.length; }
+
+    int packedAlleles(int row) { return mAlleles.get(row); }
+    int alleleDataLength() { return mAlleleData != null ? mAlleleData.limit() : 0; }
+    byte alleleDataByte(int index) { return mAlleleData.get(index); }
+
+    public int findVariant(int position, final String ref, final String alt)
+    {
+        // returns the row of the entry matching the variant, or -1 if there is none
+        for(int row = firstRow(position); row >= 0 && row < Rows && position(row) == position; ++row)
+        {
+            if(allelesMatch(row, ref, alt))
+                return row;
+        }
+
+        return -1;
+    }
+
+    public int firstRow(int position)
+    {
+        // returns the first row at the position, or -1 if there is none
+        int low = 0;
+        int high = Rows;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(position(mid) < position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low < Rows && position(low) == position ? low : -1;
+    }
+
+    public int lastRowAtOrBefore(int position)
+    {
+        // returns the last row starting at or before the position, or -1 if all start after it
+        int low = 0;
+        int high = Rows;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(position(mid) <= position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low - 1;
+    }
+
+    public boolean allelesMatch(int row, final String ref, final String alt)
+    {
+        int packed = mAlleles.get(row);
+
+        if(packed >= 0)
+        {
+            // a single-base ref and alt are held in the column itself
+            return ref.length() == 1 && alt.length() == 1
+                    && ref.charAt(0) == ((packed >> 8) & 0xFF) && alt.charAt(0) == (packed & 0xFF);
+        }
+
+        // otherwise it is an offset into the allele data, which holds each length and then the bases
+        int offset = -(packed + 1);
+        int refLength = mAlleleData.getShort(offset) & 0xFFFF;
+        int altLength = mAlleleData.getShort(offset + Short.BYTES) & 0xFFFF;
+
+        if(refLength != ref.length() || altLength != alt.length())
+            return false;
+
+        int index = offset + Short.BYTES * 2;
+
+        for(int i = 0; i < refLength; ++i, ++index)
+        {
+            if(mAlleleData.get(index) != ref.charAt(i))
+                return false;
+        }
+
+        for(int i = 0; i < altLength; ++i, ++index)
+        {
+            if(mAlleleData.get(index) != alt.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    public static int packAlleles(final String ref, final String alt)
+    {
+        // returns the packed single-base alleles or -1 if they need to be held in the allele data
+        if(ref.length() != 1 || alt.length() != 1)
+            return -1;
+
+        return (ref.getBytes(StandardCharsets.US_ASCII)[0] << 8) | alt.getBytes(StandardCharsets.US_ASCII)[0];
+    }
+
+    public String toString() { return String.format("chr(%s) rows(%d)", Chromosome, Rows); }
+}
@@ -0,0 +1,169 @@
+package com.hartwig.hmftools.pave.index;
+
+import static com.hartwig.hmftools.pave.index.ChromosomeEntries.packAlleles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+public class ChromosomeEntriesBuilder
+{
+    // accumulates a chromosome's annotation entries as rows of primitive columns
+    private final String mChromosome;
+    private final boolean mHasAlleles;
+    private int[] mPositions;
+    private int[] mAlleles;
+    private final int[][] mIntColumns;
+    private final double[][] mDoubleColumns;
+    private final ByteArrayOutputStream mAlleleData;
+    private int mRows;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public ChromosomeEntriesBuilder(final String chromosome, boolean hasAlleles, int intColumnCount, int doubleColumnCount)
+    {
+        mChromosome = chromosome;
+        mHasAlleles = hasAlleles;
+        mPositions = new int[INITIAL_CAPACITY];
+        mAlleles = hasAlleles ? new int[INITIAL_CAPACITY] : null;
+        mIntColumns = new int[intColumnCount][INITIAL_CAPACITY];
+        mDoubleColumns = new double[doubleColumnCount][INITIAL_CAPACITY];
+        mAlleleData = new ByteArrayOutputStream();
+        mRows = 0;
+    }
+
+    public String chromosome() { return mChromosome; }
+    public int rows() { return mRows; }
+
+    public int addRow(int position)
+    {
+        if(mRows == mPositions.length)
+        {
+            int newCapacity = mPositions.length * 2;
+
+            mPositions = Arrays.copyOf(mPositions, newCapacity);
+
+            if(mHasAlleles)
+                mAlleles = Arrays.copyOf(mAlleles, newCapacity);
+
+            for(int i = 0; i < mIntColumns.length; ++i)
+            {
+                mIntColumns[i] = Arrays.copyOf(mIntColumns[i], newCapacity);
+            }
+
+            for(int i = 0; i < mDoubleColumns.length; ++i)
+            {
+                mDoubleColumns[i] = Arrays.copyOf(mDoubleColumns[i], newCapacity);
+            }
+        }
+
+        mPositions[mRows] = position;
+        return mRows++;
+    }
+
+    public int addRow(int position, final String ref, final String alt)
+    {
+        int row = addRow(position);
+        int packed = packAlleles(ref, alt);
+
+        if(packed < 0)
+        {
+            packed = -(mAlleleData.size() + 1);
+
+            try
+            {
+                DataOutputStream alleleData = new DataOutputStream(mAlleleData);
+                alleleData.writeShort(ref.length());
+                alleleData.writeShort(alt.length());
+                alleleData.write(ref.getBytes(StandardCharsets.US_ASCII));
+                alleleData.write(alt.getBytes(StandardCharsets.US_ASCII));
+            }
+            catch(IOException e)
+            {
+                // not thrown by an in-memory stream
+            }
+        }
+
+        mAlleles[row] = packed;
+        return row;
+    }
+
+    public void setInt(int column, int row, int value) { mIntColumns[column][row] = value; }
+    public void setDouble(int column, int row, double value) { mDoubleColumns[column][row] = value; }
+
+    public void sortByPosition()
+    {
+        // stable sort of all columns by position, leaving entries at the same position in the order they were added
+        Integer[] order = new Integer[mRows];
+
+        for(int i = 0; i < mRows; ++i)
+        {
+            order[i] = i;
+        }
+
+        final int[] positions = mPositions;
+        Arrays.sort(order, Comparator.comparingInt(x -> positions[x]));
+
+        mPositions = reorder(mPositions, order);
+
+        if(mHasAlleles)
+            mAlleles = reorder(mAlleles, order);
+
+        for(int c = 0; c < mIntColumns.length; ++c)
+        {
+            mIntColumns[c] = reorder(mIntColumns[c], order);
+        }
+
+        for(int c = 0; c < mDoubleColumns.length; ++c)
+        {
+            double[] sorted = new double[mDoubleColumns[c].length];
+
+            for(int i = 0; i < mRows; ++i)
+            {
+                sorted[i] = mDoubleColumns[c][order[i]];
+            }
+
+            mDoubleColumns[c] = sorted;
+        }
+    }
+
+    private int[] reorder(final int[] values, final Integer[] order)
+    {
+        int[] sorted = new int[values.length];
+
+        for(int i = 0; i < mRows; ++i)
+        {
+            sorted[i] = values[order[i]];
+        }
+
+        return sorted;
+    }
+
+    public ChromosomeEntries build()
+    {
+        // wraps the current arrays without copying, so later rows require a new build
+        IntBuffer[] intColumns = new IntBuffer[mIntColumns.length];
+        DoubleBuffer[] doubleColumns = new DoubleBuffer[mDoubleColumns.length];
+
+        for(int i = 0; i < intColumns.length; ++i)
+        {
+            intColumns[i] = IntBuffer.wrap(mIntColumns[i], 0, mRows);
+        }
+
+        for(int i = 0; i < doubleColumns.length; ++i)
+        {
+            doubleColumns[i] = DoubleBuffer.wrap(mDoubleColumns[i], 0, mRows);
+        }
+
+        return new ChromosomeEntries(
+                mChromosome, mRows, IntBuffer.wrap(mPositions, 0, mRows),
+                mHasAlleles ? IntBuffer.wrap(mAlleles, 0, mRows) : null,
+                mHasAlleles ? ByteBuffer.wrap(mAlleleData.toByteArray()) : null, intColumns, doubleColumns);
+    }
+}
@@ -0,0 +1,253 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_2;
+import static com.hartwig.hmftools.pave.Mappability.MAPPABILITY;
+import static com.hartwig.hmftools.pave.Mappability.MAPPABILITY_BED;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_GNOMAD;
+import static com.hartwig.hmftools.pave.index.AnnotationIndex.TYPE_MAPPABILITY;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import com.hartwig.hmftools.pave.index.AnnotationIndex;
+import com.hartwig.hmftools.pave.index.AnnotationIndexWriter;
+import com.hartwig.hmftools.pave.index.ChromosomeEntries;
+import com.hartwig.hmftools.pave.index.ChromosomeEntriesBuilder;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.Test;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+
+public class AnnotationIndexTest
+{
+    @Test
+    public void testChromosomeEntries()
+    {
+        ChromosomeEntriesBuilder builder = new ChromosomeEntriesBuilder(CHR_1, true, 0, 1);
+
+        // added out of order and with multiple variants at a position
+        addVariant(builder, 300, "A", "C", 0.3);
+        addVariant(builder, 100, "A", "G", 0.1);
+        addVariant(builder, 200, "AGT", "A", 0.2);
+        addVariant(builder, 200, "A", "T", 0.25);
+        addVariant(builder, 200, "A", "AGGGG", 0.15);
+        builder.sortByPosition();
+
+        ChromosomeEntries entries = builder.build();
+        assertEquals(5, entries.Rows);
+
+        assertEquals(0.1, entries.getDouble(0, entries.findVariant(100, "A", "G")));
+        assertEquals(0.2, entries.getDouble(0, entries.findVariant(200, "AGT", "A")));
+        assertEquals(0.25, entries.getDouble(0, entries.findVariant(200, "A", "T")));
+        assertEquals(0.15, entries.getDouble(0, entries.findVariant(200, "A", "AGGGG")));
+        assertEquals(0.3, entries.getDouble(0, entries.findVariant(300, "A", "C")));
+
+        assertEquals(-1, entries.findVariant(100, "A", "C"));
+        assertEquals(-1, entries.findVariant(200, "AG", "A"));
+        assertEquals(-1, entries.findVariant(150, "A", "G"));
+        assertEquals(-1, entries.findVariant(400, "A", "C"));
+
+        assertEquals(-1, entries.lastRowAtOrBefore(50));
+        assertEquals(0, entries.lastRowAtOrBefore(150));
+        assertEquals(3, entries.lastRowAtOrBefore(200));
+        assertEquals(4, entries.lastRowAtOrBefore(500));
+    }
+
+    private static void addVariant(final ChromosomeEntriesBuilder builder, int position, final String ref, final String alt, double freq)
+    {
+        int row = builder.addRow(position, ref, alt);
+        builder.setDouble(0, row, freq);
+    }
+
+    @Test
+    public void testIndexFile() throws IOException
+    {
+        File indexFile = File.createTempFile("pave_gnomad", AnnotationIndex.INDEX_FILE_EXTENSION);
+        indexFile.deleteOnExit();
+
+        AnnotationIndexWriter writer = new AnnotationIndexWriter(indexFile.getAbsolutePath(), TYPE_GNOMAD, true, 0, 1);
+
+        ChromosomeEntriesBuilder builder = new ChromosomeEntriesBuilder(CHR_1, true, 0, 1);
+        addVariant(builder, 100, "A", "G", 0.1);
+        addVariant(builder, 105, "ACC", "A", 0.2);
+        writer.writeChromosome(builder.build());
+
+        builder = new ChromosomeEntriesBuilder(CHR_2, true, 0, 1);
+        addVariant(builder, 100, "C", "CT", 0.3);
+        writer.writeChromosome(builder.build());
+
+        writer.close();
+
+        assertTrue(AnnotationIndex.isIndexFile(indexFile.getAbsolutePath()));
+
+        AnnotationIndex index = AnnotationIndex.open(indexFile.getAbsolutePath(), TYPE_GNOMAD);
+        assertEquals(2, index.chromosomes().size());
+
+        ChromosomeEntries entries = index.getChromosome(CHR_1);
+        assertEquals(2, entries.Rows);
+        assertEquals(0.1, entries.getDouble(0, entries.findVariant(100, "A", "G")));
+        assertEquals(0.2, entries.getDouble(0, entries.findVariant(105, "ACC", "A")));
+
+        entries = index.getChromosome(CHR_2);
+        assertEquals(0.3, entries.getDouble(0, entries.findVariant(100, "C", "CT")));
+        assertEquals(-1, entries.findVariant(100, "A", "G"));
+
+        assertNull(index.getChromosome("3"));
+        index.close();
+
+        boolean typeMismatch = false;
+
+        try
+        {
+            AnnotationIndex.open(indexFile.getAbsolutePath(), TYPE_MAPPABILITY);
+        }
+        catch(IOException e)
+        {
+            typeMismatch = true;
+        }
+
+        assertTrue(typeMismatch);
+    }
+
+    @Test
+    public void testPonIndex() throws IOException
+    {
+        File ponFile = File.createTempFile("pave_pon", ".tsv");
+        ponFile.deleteOnExit();
+
+        BufferedWriter writer = new BufferedWriter(new FileWriter(ponFile));
+        writer.write("Chromosome\tPosition\tRef\tAlt\tSamples\tMaxReads\tTotalReads");
+        writer.newLine();
+        writer.write(CHR_1 + "\t100\tA\tG\t5\t10\t30");
+        writer.newLine();
+        writer.write(CHR_1 + "\t100\tA\tAT\t2\t3\t4");
+        writer.newLine();
+        writer.write(CHR_2 + "\t50\tGC\tG\t7\t8\t9");
+        writer.newLine();
+        writer.close();
+
+        PonAnnotation ponAnnotation = new PonAnnotation(ponFile.getAbsolutePath(), false);
+        assertTrue(ponAnnotation.hasValidData());
+
+        File indexFile = new File(ponFile.getAbsolutePath() + AnnotationIndex.INDEX_FILE_EXTENSION);
+        indexFile.deleteOnExit();
+        ponAnnotation.writeIndex(indexFile.getAbsolutePath());
+
+        PonAnnotation indexedPon = new PonAnnotation(indexFile.getAbsolutePath(), false);
+        assertTrue(indexedPon.hasValidData());
+
+        PonVariantData ponData = indexedPon.getPonData(new VariantData(CHR_1, 100, "A", "G"));
+        assertNotNull(ponData);
+        assertEquals(5, ponData.Samples);
+        assertEquals(10, ponData.MaxSampleReads);
+        assertEquals(30, ponData.TotalSampleReads);
+
+        ponData = indexedPon.getPonData(new VariantData(CHR_1, 100, "A", "AT"));
+        assertNotNull(ponData);
+        assertEquals(2, ponData.Samples);
+
+        ponData = indexedPon.getPonData(new VariantData(CHR_2, 50, "GC", "G"));
+        assertNotNull(ponData);
+        assertEquals(9, ponData.TotalSampleReads);
+
+        assertNull(indexedPon.getPonData(new VariantData(CHR_1, 100, "A", "C")));
+        assertNull(indexedPon.getPonData(new VariantData(CHR_2, 51, "GC", "G")));
+    }
+
+    @Test
+    public void testMappabilityIndex() throws IOException, ParseException
+    {
+        File bedFile = File.createTempFile("pave_mappability", ".bed");
+        bedFile.deleteOnExit();
+
+        BufferedWriter writer = new BufferedWriter(new FileWriter(bedFile));
+        writer.write(CHR_1 + "\t0\t100\t0.5");
+        writer.newLine();
+        writer.write(CHR_1 + "\t100\t200\t0.8");
+        writer.newLine();
+        writer.write(CHR_1 + "\t300\t400\t0.2");
+        writer.newLine();
+        writer.write(CHR_2 + "\t0\t100\t1.0");
+        writer.newLine();
+        writer.close();
+
+        File indexFile = new File(bedFile.getAbsolutePath() + AnnotationIndex.INDEX_FILE_EXTENSION);
+        indexFile.deleteOnExit();
+        Mappability.writeIndex(bedFile.getAbsolutePath(), indexFile.getAbsolutePath());
+
+        Mappability bedMappability = createMappability(bedFile.getAbsolutePath());
+        Mappability indexedMappability = createMappability(indexFile.getAbsolutePath());
+        assertTrue(indexedMappability.hasValidData());
+
+        // within regions, between regions taking the previous region's value and past the last region
+        List<VariantData> bedVariants = createMappabilityVariants();
+        List<VariantData> indexedVariants = createMappabilityVariants();
+
+        for(int i = 0; i < bedVariants.size(); ++i)
+        {
+            bedMappability.annotateVariant(bedVariants.get(i));
+            indexedMappability.annotateVariant(indexedVariants.get(i));
+
+            assertEquals(bedVariants.get(i).context().getAttribute(MAPPABILITY), indexedVariants.get(i).context().getAttribute(MAPPABILITY));
+        }
+
+        assertEquals(0.5, indexedVariants.get(0).context().getAttributeAsDouble(MAPPABILITY, 0));
+        assertEquals(0.8, indexedVariants.get(2).context().getAttributeAsDouble(MAPPABILITY, 0));
+        assertEquals(0.2, indexedVariants.get(3).context().getAttributeAsDouble(MAPPABILITY, 0));
+        assertNull(indexedVariants.get(4).context().getAttribute(MAPPABILITY));
+
+        // the BED file reader has now moved past the first chromosome, but the index can be queried for any chromosome
+        VariantData variant = createVariant(CHR_2, 50);
+        indexedMappability.annotateVariant(variant);
+        assertEquals(1.0, variant.context().getAttributeAsDouble(MAPPABILITY, 0));
+
+        variant = createVariant(CHR_2, 150);
+        indexedMappability.annotateVariant(variant);
+        assertNull(variant.context().getAttribute(MAPPABILITY));
+    }
+
+    private static Mappability createMappability(final String filename) throws ParseException
+    {
+        Options options = new Options();
+        Mappability.addCmdLineArgs(options);
+        CommandLine cmd = new DefaultParser().parse(options, new String[] { "-" + MAPPABILITY_BED, filename });
+        return new Mappability(cmd);
+    }
+
+    private static List<VariantData> createMappabilityVariants()
+    {
+        List<VariantData> variants = Lists.newArrayList();
+        variants.add(createVariant(CHR_1, 50));
+        variants.add(createVariant(CHR_1, 150));
+        variants.add(createVariant(CHR_1, 250));
+        variants.add(createVariant(CHR_1, 350));
+        variants.add(createVariant(CHR_1, 450));
+        return variants;
+    }
+
+    private static VariantData createVariant(final String chromosome, int position)
+    {
+        VariantData variant = new VariantData(chromosome, position, "A", "G");
+
+        variant.setContext(new VariantContextBuilder(
+                "test", chromosome, position, position, Lists.newArrayList(Allele.create("A", true), Allele.create("G"))).make());
+
+        return variant;
+    }
+}
@@ -0,0 +1,209 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.common.fusion.FusionCommon.POS_STRAND;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.common.sage.SageMetaData.LOCAL_PHASE_SET;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_ID_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_ID_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_NAME_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.GENE_NAME_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.TRANS_ID_1;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.TRANS_ID_2;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createEnsemblGeneData;
+import static com.hartwig.hmftools.common.test.GeneTestUtils.createTransExons;
+import static com.hartwig.hmftools.common.test.MockRefGenome.generateRandomBases;
+import static com.hartwig.hmftools.pave.ImpactTestUtils.generateAlt;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+import org.junit.Test;
+
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+
+public class VariantBatchProcessorTest
+{
+    private final MockRefGenome mRefGenome;
+    private final GeneDataCache mGeneDataCache;
+
+    public VariantBatchProcessorTest()
+    {
+        mRefGenome = new MockRefGenome();
+        mRefGenome.RefGenomeMap.put(CHR_1, generateRandomBases(301));
+        mRefGenome.RefGenomeMap.put(CHR_2, generateRandomBases(301));
+
+        mGeneDataCache = new GeneDataCache("", V37, null, false, true);
+
+        mGeneDataCache.getEnsemblCache().getChrGeneDataMap().put(
+                CHR_1, Lists.newArrayList(createEnsemblGeneData(GENE_ID_1, GENE_NAME_1, CHR_1, POS_STRAND, 20, 210)));
+
+        mGeneDataCache.getEnsemblCache().getTranscriptDataMap().put(GENE_ID_1, Lists.newArrayList(createTransExons(
+                GENE_ID_1, TRANS_ID_1, POS_STRAND, new int[] {20, 100, 180}, 30, 25, 200, true, "")));
+
+        mGeneDataCache.getEnsemblCache().getChrGeneDataMap().put(
+                CHR_2, Lists.newArrayList(createEnsemblGeneData(GENE_ID_2, GENE_NAME_2, CHR_2, POS_STRAND, 20, 210)));
+
+        mGeneDataCache.getEnsemblCache().getTranscriptDataMap().put(GENE_ID_2, Lists.newArrayList(createTransExons(
+                GENE_ID_2, TRANS_ID_2, POS_STRAND, new int[] {20, 100, 180}, 30, 25, 200, true, "")));
+    }
+
+    @Test
+    public void testThreadedMatchesSerial() throws IOException, InterruptedException
+    {
+        File vcfFile = File.createTempFile("pave_batch_test", ".vcf");
+        vcfFile.deleteOnExit();
+
+        BufferedWriter writer = new BufferedWriter(new FileWriter(vcfFile));
+        writer.write("##fileformat=VCFv4.2\n");
+        writer.write(String.format("##INFO=<ID=%s,Number=.,Type=Integer,Description=\"Local phase set\">\n", LOCAL_PHASE_SET));
+        writer.write("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\n");
+
+        for(String chromosome : new String[] { CHR_1, CHR_2 })
+        {
+            writeSnv(writer, chromosome, 22);
+            writeSnv(writer, chromosome, 30);
+
+            // a phased pair of DELs forming an inframe DEL
+            writeDel(writer, chromosome, 35, 1, 1);
+            writeDel(writer, chromosome, 40, 2, 1);
+
+            writeSnv(writer, chromosome, 105);
+
+            // interleaved phase sets spanning several batches' worth of variants
+            writeDel(writer, chromosome, 108, 1, 2);
+            writeDel(writer, chromosome, 111, 1, 3);
+            writeIns(writer, chromosome, 114, "AA", 2);
+            writeDel(writer, chromosome, 117, 2, 3);
+            writeSnv(writer, chromosome, 121, 2);
+            writeSnv(writer, chromosome, 124, 3);
+
+            writeSnv(writer, chromosome, 150);
+            writeIns(writer, chromosome, 185, "A", 4);
+            writeSnv(writer, chromosome, 190);
+            writeDel(writer, chromosome, 193, 1, 4);
+        }
+
+        writer.close();
+
+        // serial path
+        List<String> serialOutput = Lists.newArrayList();
+
+        VariantImpactProcessor impactProcessor = new VariantImpactProcessor(
+                mRefGenome, mGeneDataCache, (variant, impact) -> serialOutput.add(formOutput(variant, impact)));
+
+        readVariants(vcfFile).forEach(x -> impactProcessor.processVariant(x));
+        impactProcessor.completePhasedVariants();
+
+        assertEquals(30, serialOutput.size());
+
+        // threaded path with small batches so that batches are cut within and around phased variants
+        List<String> threadedOutput = Lists.newArrayList();
+
+        VariantBatchProcessor batchProcessor = new VariantBatchProcessor(
+                3, 2, () -> mRefGenome, mGeneDataCache, (variant, impact) -> threadedOutput.add(formOutput(variant, impact)));
+
+        for(VariantData variant : readVariants(vcfFile))
+        {
+            batchProcessor.addVariant(variant);
+        }
+
+        assertTrue(batchProcessor.complete());
+
+        assertEquals(serialOutput, threadedOutput);
+    }
+
+    @Test
+    public void testWriteErrors() throws InterruptedException
+    {
+        // a failed write is logged and the remaining variants and batches are still written
+        List<Integer> writtenPositions = Lists.newArrayList();
+
+        VariantBatchProcessor batchProcessor = new VariantBatchProcessor(2, 1, () -> mRefGenome, mGeneDataCache, (variant, impact) ->
+        {
+            if(variant.Position == 30)
+                throw new IllegalStateException("write failed");
+
+            writtenPositions.add(variant.Position);
+        });
+
+        for(int position : new int[] { 22, 30, 105, 150 })
+        {
+            String ref = mRefGenome.getBaseString(CHR_1, position, position);
+            batchProcessor.addVariant(new VariantData(CHR_1, position, ref, generateAlt(ref)));
+        }
+
+        assertTrue(batchProcessor.complete());
+        assertEquals(Lists.newArrayList(22, 105, 150), writtenPositions);
+    }
+
+    private static String formOutput(final VariantData variant, final VariantImpact variantImpact)
+    {
+        return String.format("%s impact(%s)", variant, variantImpact != null ? variantImpact : "none");
+    }
+
+    private static List<VariantData> readVariants(final File vcfFile) throws IOException
+    {
+        List<VariantData> variants = Lists.newArrayList();
+
+        AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
+                vcfFile.getAbsolutePath(), new VCFCodec(), false);
+
+        for(VariantContext variantContext : reader.iterator())
+        {
+            variants.add(VariantData.fromContext(variantContext));
+        }
+
+        reader.close();
+        return variants;
+    }
+
+    private void writeSnv(final BufferedWriter writer, final String chromosome, int position) throws IOException
+    {
+        writeSnv(writer, chromosome, position, 0);
+    }
+
+    private void writeSnv(final BufferedWriter writer, final String chromosome, int position, int localPhaseSet) throws IOException
+    {
+        String ref = mRefGenome.getBaseString(chromosome, position, position);
+        writeVariant(writer, chromosome, position, ref, generateAlt(ref), localPhaseSet);
+    }
+
+    private void writeDel(
+            final BufferedWriter writer, final String chromosome, int position, int length, int localPhaseSet) throws IOException
+    {
+        String ref = mRefGenome.getBaseString(chromosome, position, position + length);
+        writeVariant(writer, chromosome, position, ref, ref.substring(0, 1), localPhaseSet);
+    }
+
+    private void writeIns(
+            final BufferedWriter writer, final String chromosome, int position, final String bases, int localPhaseSet) throws IOException
+    {
+        String ref = mRefGenome.getBaseString(chromosome, position, position);
+        writeVariant(writer, chromosome, position, ref, ref + bases, localPhaseSet);
+    }
+
+    private static void writeVariant(
+            final BufferedWriter writer, final String chromosome, int position, final String ref, final String alt,
+            int localPhaseSet) throws IOException
+    {
+        String info = localPhaseSet > 0 ? String.format("%s=%d", LOCAL_PHASE_SET, localPhaseSet) : ".";
+        writer.write(String.format("%s\t%d\t.\t%s\t%s\t100\tPASS\t%s\n", chromosome, position, ref, alt, info));
+    }
+}
@@ -13,6 +13,9 @@ import static com.hartwig.hmftools.common.purple.GermlineStatus.HOM_DELETION;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_DEBUG;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
 import static com.hartwig.hmftools.common.utils.MemoryCalcs.calcMemoryUsage;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.REGIONS_PROCESSED;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.addMetricsOptions;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.metricsFile;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.DB_URL;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.createDatabaseAccess;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseAccess.hasDatabaseConfig;
@@ -61,6 +64,8 @@ import com.hartwig.hmftools.common.purple.purity.ImmutableFittedPurity;
 import com.hartwig.hmftools.common.purple.purity.ImmutableFittedPurityScore;
 import com.hartwig.hmftools.common.purple.purity.PurityContext;
 import com.hartwig.hmftools.common.purple.purity.PurityContextFile;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.purple.region.FittedRegionFactory;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
 import com.hartwig.hmftools.purple.segment.SegmentFile;
@@ -116,6 +121,7 @@ public class PurpleApplication
     private final Charts mCharts;
 
     private final DatabaseAccess mDbAccess;
+    private final MetricsRegistry mMetrics;
 
     private static final int THREADS_DEFAULT = 2;
     private static final String THREADS = "threads";
@@ -159,6 +165,7 @@ public class PurpleApplication
         mExecutorService = Executors.newFixedThreadPool(threads);
 
         mGermlineVariants = new GermlineVariants(mConfig, mReferenceData, mPurpleVersion.version());
+        mMetrics = new MetricsRegistry("purple", mConfig.TumorId);
 
         if(!mConfig.DriversOnly)
         {
@@ -187,6 +194,9 @@ public class PurpleApplication
 
         long timeTakenMs = System.currentTimeMillis() - startTimeMs;
         PPL_LOGGER.info("Purple complete, runTime({})", format("%.1fs", timeTakenMs/1000.0));
+
+        mMetrics.recordMemoryUsage();
+        mMetrics.writeMetrics(metricsFile(mCmdLineArgs));
     }
 
     private SampleData loadSampleData(final String referenceId, final String tumorId, final SampleDataFiles sampleDataFiles) throws Exception
@@ -232,8 +242,10 @@ public class PurpleApplication
             }
             else
             {
+                PerformanceCounter loadPerfCounter = mMetrics.startStage("Loading");
                 final SampleDataFiles sampleDataFiles = new SampleDataFiles(mCmdLineArgs, tumorSample);
                 final SampleData sampleData = loadSampleData(referenceId, tumorSample, sampleDataFiles);
+                mMetrics.stopStage(loadPerfCounter);
 
                 if(sampleData == null)
                     System.exit(1);
@@ -275,7 +287,15 @@ public class PurpleApplication
         final SomaticVariantCache somaticCache = mConfig.runTumor() ? sampleData.SomaticCache : null;
 
         PPL_LOGGER.info("applying segmentation");
+        PerformanceCounter segmentPerfCounter = mMetrics.startStage("Segmentation");
         final List<ObservedRegion> observedRegions = mSegmentation.createSegments(sampleData.SvCache.variants(), amberData, cobaltData);
+        mMetrics.stopStage(segmentPerfCounter);
+
+        mMetrics.counter(REGIONS_PROCESSED).add(observedRegions.size());
+        mMetrics.counter("structural_variants").add(sampleData.SvCache.variants().size());
+
+        if(somaticCache != null)
+            mMetrics.counter("somatic_variants").add(somaticCache.variants().size());
 
         if(observedRegions.isEmpty())
         {
@@ -303,7 +323,9 @@ public class PurpleApplication
         {
             PPL_LOGGER.info("fitting purity");
 
+            PerformanceCounter fitPerfCounter = mMetrics.startStage("Fitting");
             bestFit = fitPurity(sampleData, observedRegions, fittedRegionFactory, sampleData.SvCache.variants());
+            mMetrics.stopStage(fitPerfCounter);
 
             fittedPurity = bestFit.fit();
 
@@ -319,6 +341,7 @@ public class PurpleApplication
                     cobaltData.CobaltChromosomes);
 
             PPL_LOGGER.info("calculating copy number");
+            PerformanceCounter copyNumberPerfCounter = mMetrics.startStage("CopyNumber");
             fittedRegions.addAll(fittedRegionFactory.fitRegion(fittedPurity.purity(), fittedPurity.normFactor(), observedRegions));
 
             copyNumberFactory.invoke(fittedRegions, sampleData.SvCache.variants());
@@ -346,12 +369,15 @@ public class PurpleApplication
             final List<ObservedRegion> enrichedObservedRegions = updateRegionsWithCopyNumbers(fittedRegions, copyNumbers);
 
             geneCopyNumbers.addAll(GeneCopyNumberFactory.geneCopyNumbers(mReferenceData.GeneTransCache, copyNumbers));
+            mMetrics.stopStage(copyNumberPerfCounter);
+            mMetrics.counter("copy_number_segments").add(copyNumbers.size());
 
             PPL_LOGGER.debug("post-fit memory({}mb)", calcMemoryUsage());
 
             final List<PeakModel> somaticPeaks = Lists.newArrayList();
 
             PPL_LOGGER.info("modelling somatic peaks");
+            PerformanceCounter somaticPerfCounter = mMetrics.startStage("SomaticEnrichment");
             final SomaticPeakStream somaticPeakStream = new SomaticPeakStream(mConfig);
 
             final SomaticPurityEnrichment somaticPurityEnrichment = new SomaticPurityEnrichment(
@@ -369,6 +395,7 @@ public class PurpleApplication
             somaticStream = new SomaticStream(mConfig, mReferenceData, somaticCache, somaticPeaks);
 
             somaticStream.processAndWrite(purityAdjuster, copyNumbers, enrichedObservedRegions);
+            mMetrics.stopStage(somaticPerfCounter);
 
             PPL_LOGGER.debug("post-enrichment memory({}mb)", calcMemoryUsage());
 
@@ -457,11 +484,14 @@ public class PurpleApplication
         if(!mConfig.germlineMode() && (mConfig.Charting.Enabled || mConfig.Charting.CircosBinary.isPresent()))
         {
             PPL_LOGGER.info("generating charts");
+            PerformanceCounter chartsPerfCounter = mMetrics.startStage("Charts");
 
             mCharts.write(
                     referenceId, tumorSample, !sampleDataFiles.SomaticVcfFile.isEmpty(),
                     gender, copyNumbers, somaticStream.downsampledVariants(), sampleData.SvCache.variants(),
                     fittedRegions, Lists.newArrayList(amberData.ChromosomeBafs.values()));
+
+            mMetrics.stopStage(chartsPerfCounter);
         }
 
         if(mConfig.RunDrivers)
@@ -522,6 +552,7 @@ public class PurpleApplication
         final List<DriverCatalog> germlineDriverCatalog = Lists.newArrayList();
 
         PPL_LOGGER.info("generating drivers");
+        PerformanceCounter driversPerfCounter = mMetrics.startStage("Drivers");
 
         final Map<String,List<GeneCopyNumber>> geneCopyNumberMap = listToMap(geneCopyNumbers);
 
@@ -555,6 +586,8 @@ public class PurpleApplication
             DriverCatalogFile.write(DriverCatalogFile.generateGermlineFilename(mConfig.OutputDir, tumorSample), germlineDriverCatalog);
         }
 
+        mMetrics.stopStage(driversPerfCounter);
+
         if(mDbAccess != null)
             mDbAccess.writePurpleDriverCatalog(tumorSample, somaticDriverCatalog, germlineDriverCatalog);
     }
@@ -601,6 +634,7 @@ public class PurpleApplication
                 fittingConfig.MaxPloidy,
                 somaticFitConfig.SomaticPenaltyWeight,
                 mConfig.tumorOnlyMode(),
+                fittingConfig.CoarseToFineFit,
                 fittedRegionFactory,
                 observedRegions,
                 sampleData.SomaticCache.fittingVariants());
@@ -670,6 +704,7 @@ public class PurpleApplication
     {
         final Options options = new Options();
         PurpleConfig.addOptions(options);
+        addMetricsOptions(options);
 
         options.addOption(LOG_DEBUG, false, "Log verbose");
         options.addOption(THREADS, true, "Number of threads (default 2)");
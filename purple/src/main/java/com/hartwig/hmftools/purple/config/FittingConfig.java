@@ -15,6 +15,7 @@ public class FittingConfig
     public final double PurityIncrement;
     public final double MinPloidy;
     public final double MaxPloidy;
+    public final boolean CoarseToFineFit;
 
     public final int MinDiploidTumorRatioCount;
     public final int MinDiploidTumorRatioCountAtCentromere;
@@ -34,6 +35,7 @@ public class FittingConfig
     private static final String PURITY_INCREMENT = "purity_increment";
     private static final String MIN_PLOIDY = "min_ploidy";
     private static final String MAX_PLOIDY = "max_ploidy";
+    private static final String COARSE_TO_FINE_FIT = "coarse_to_fine_fit";
     private static final String MIN_DIPLOID_TUMOR_RATIO_COUNT = "min_diploid_tumor_ratio_count";
     private static final String MIN_DIPLOID_TUMOR_RATIO_COUNT_AT_CENTROMERE = "min_diploid_tumor_ratio_count_centromere";
 
@@ -72,6 +74,7 @@ public class FittingConfig
         PurityIncrement = getConfigValue(cmd, PURITY_INCREMENT, PURITY_INCREMENT_DEFAULT);
         MinPloidy = getConfigValue(cmd, MIN_PLOIDY, MIN_PLOIDY_DEFAULT);
         MaxPloidy = getConfigValue(cmd, MAX_PLOIDY, MAX_PLOIDY_DEFAULT);
+        CoarseToFineFit = cmd.hasOption(COARSE_TO_FINE_FIT);
 
         MinDiploidTumorRatioCount = getConfigValue(cmd, MIN_DIPLOID_TUMOR_RATIO_COUNT, MIN_DIPLOID_TUMOR_RATIO_COUNT_DEFAULT);
         MinDiploidTumorRatioCountAtCentromere = getConfigValue(
@@ -105,6 +108,7 @@ public class FittingConfig
 
         options.addOption(MIN_PLOIDY, true, "Minimum ploidy (default " + MIN_PLOIDY_DEFAULT + ")");
         options.addOption(MAX_PLOIDY, true, "Maximum ploidy (default " + MAX_PLOIDY_DEFAULT + ")");
+        options.addOption(COARSE_TO_FINE_FIT, false, "Fit a coarse purity grid first, then refine only around the best scoring purities");
 
         options.addOption(MIN_DIPLOID_TUMOR_RATIO_COUNT,
                 true,
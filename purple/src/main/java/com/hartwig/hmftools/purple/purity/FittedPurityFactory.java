@@ -3,6 +3,7 @@ package com.hartwig.hmftools.purple.purity;
 import static com.hartwig.hmftools.common.utils.Doubles.lessOrEqual;
 import static com.hartwig.hmftools.common.utils.Doubles.positiveOrZero;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +24,7 @@ import com.hartwig.hmftools.common.purple.purity.FittedPurity;
 import com.hartwig.hmftools.common.purple.purity.ImmutableFittedPurity;
 import com.hartwig.hmftools.common.purple.GermlineStatus;
 import com.hartwig.hmftools.purple.region.FittedRegionFactory;
+import com.hartwig.hmftools.purple.region.FittedRegionFactory.RegionFit;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
 import com.hartwig.hmftools.common.utils.Doubles;
 import com.hartwig.hmftools.common.utils.collection.Downsample;
@@ -44,20 +46,32 @@ public class FittedPurityFactory
     @NotNull
     private final FittedRegionFactory mFittedRegionFactory;
     private final ExecutorService mExecutorService;
-    private final List<SomaticVariant> mVariants;
 
     private final List<FittedPurity> mAll = Lists.newArrayList();
-    private final List<ObservedRegion> mFilteredRegions = Lists.newArrayList();
     private final List<Double> mPloidyRange;
+    private final boolean mCoarseToFine;
+
+    // filtered regions are held as primitive arrays so the purity and ploidy grid can be evaluated without per-region objects
+    private final String[] mRegionChromosomes;
+    private final double[] mRegionTumorRatios;
+    private final double[] mRegionBAFs;
+    private final int[] mRegionBafCounts;
+    private final SomaticVariant[][] mRegionVariants;
+    private final int mVariantCount;
 
     private static final int MAX_SOMATICS_TO_FIT = 1000;
     private static final double MAX_TUMOR_RATIO_TO_FIT = 3;
 
+    // in coarse-to-fine mode every Nth purity is fitted first, then all purities around those scoring close to the best
+    private static final int COARSE_PURITY_STEP = 4;
+    private static final double COARSE_REFINE_SCORE_RANGE = 0.5;
+
     public FittedPurityFactory(
             final ExecutorService executorService, final CobaltChromosomes cobaltChromosomes, final double minPurity,
             final double maxPurity, final double purityIncrements, final double minPloidy, final double maxPloidy,
-            final double somaticPenaltyWeight, final boolean tumorOnlyMode, final FittedRegionFactory fittedRegionFactory,
-            final Collection<ObservedRegion> observedRegions, final List<SomaticVariant> variants)
+            final double somaticPenaltyWeight, final boolean tumorOnlyMode, final boolean coarseToFine,
+            final FittedRegionFactory fittedRegionFactory, final Collection<ObservedRegion> observedRegions,
+            final List<SomaticVariant> variants)
             throws ExecutionException, InterruptedException
     {
         mExecutorService = executorService;
@@ -68,7 +82,9 @@ public class FittedPurityFactory
         mFittedRegionFactory = fittedRegionFactory;
         mCobaltChromosomes = cobaltChromosomes;
         mPloidyRange = ploidyRange(minPloidy, maxPloidy);
+        mCoarseToFine = coarseToFine;
 
+        final List<ObservedRegion> filteredRegions = Lists.newArrayList();
         final List<SomaticVariant> filteredVariants = Lists.newArrayList();
         final GenomePositionSelector<SomaticVariant> variantSelector = GenomePositionSelectorFactory.create(variants);
 
@@ -78,7 +94,7 @@ public class FittedPurityFactory
         {
             if(useRegionToFitPurity(tumorOnlyMode, cobaltChromosomes, region))
             {
-                mFilteredRegions.add(region);
+                filteredRegions.add(region);
                 variantSelector.select(region, filteredVariants::add);
                 accumulatedBafCount += region.bafCount();
                 accumulatedWeightedRatio += region.bafCount() * region.observedTumorRatio();
@@ -87,7 +103,34 @@ public class FittedPurityFactory
 
         mTotalBAFCount = accumulatedBafCount;
         mAverageFittingRatio = accumulatedWeightedRatio / accumulatedBafCount;
-        mVariants = Downsample.downsample(MAX_SOMATICS_TO_FIT, filteredVariants);
+        final List<SomaticVariant> fittingVariants = Downsample.downsample(MAX_SOMATICS_TO_FIT, filteredVariants);
+
+        int regionCount = filteredRegions.size();
+        mRegionChromosomes = new String[regionCount];
+        mRegionTumorRatios = new double[regionCount];
+        mRegionBAFs = new double[regionCount];
+        mRegionBafCounts = new int[regionCount];
+        mRegionVariants = new SomaticVariant[regionCount][];
+
+        // the variants used for the somatic penalty fall in the same regions for every fit, so are assigned once
+        final GenomePositionSelector<SomaticVariant> fittingVariantSelector = GenomePositionSelectorFactory.create(fittingVariants);
+        int variantCount = 0;
+
+        for(int i = 0; i < regionCount; ++i)
+        {
+            final ObservedRegion region = filteredRegions.get(i);
+            mRegionChromosomes[i] = region.chromosome();
+            mRegionTumorRatios[i] = region.observedTumorRatio();
+            mRegionBAFs[i] = region.observedBAF();
+            mRegionBafCounts[i] = region.bafCount();
+
+            final List<SomaticVariant> regionVariants = Lists.newArrayList();
+            fittingVariantSelector.select(region, regionVariants::add);
+            mRegionVariants[i] = regionVariants.toArray(new SomaticVariant[0]);
+            variantCount += regionVariants.size();
+        }
+
+        mVariantCount = variantCount;
 
         fitPurity();
     }
@@ -124,25 +167,77 @@ public class FittedPurityFactory
 
     private void fitPurity() throws ExecutionException, InterruptedException
     {
-        final List<Future<List<FittedPurity>>> futures = Lists.newArrayList();
+        final List<Double> purities = Lists.newArrayList();
         for(double purity = mMinPurity; lessOrEqual(purity, mMaxPurity); purity += mPurityIncrements)
         {
-            futures.add(mExecutorService.submit(callableFitPurity(purity)));
+            purities.add(purity);
         }
 
-        for(Future<List<FittedPurity>> future : futures)
+        if(!mCoarseToFine || purities.size() <= COARSE_PURITY_STEP)
         {
-            List<FittedPurity> fittedPurities = future.get();
+            final boolean[] all = new boolean[purities.size()];
+            Arrays.fill(all, true);
+            fitPurities(purities, all);
+        }
+        else
+        {
+            final boolean[] coarse = new boolean[purities.size()];
+
+            for(int i = 0; i < purities.size(); i += COARSE_PURITY_STEP)
+            {
+                coarse[i] = true;
+            }
+
+            coarse[purities.size() - 1] = true;
+            final List<FittedPurity> coarseFits = fitPurities(purities, coarse);
+
+            // refine around each coarse purity whose best score is close to the overall best
+            double bestScore = coarseFits.stream().mapToDouble(FittedPurity::score).min().orElse(0);
+            double maxRefineScore = bestScore + Math.abs(bestScore) * COARSE_REFINE_SCORE_RANGE;
+
+            final boolean[] refine = new boolean[purities.size()];
 
-            if(!fittedPurities.isEmpty())
+            for(FittedPurity fittedPurity : coarseFits)
             {
-                mAll.addAll(fittedPurities);
+                if(fittedPurity.score() > maxRefineScore)
+                    continue;
+
+                int index = purities.indexOf(fittedPurity.purity());
+
+                for(int i = Math.max(index - COARSE_PURITY_STEP + 1, 0); i < Math.min(index + COARSE_PURITY_STEP, purities.size()); ++i)
+                {
+                    refine[i] = !coarse[i];
+                }
             }
+
+            fitPurities(purities, refine);
         }
 
         Collections.sort(mAll);
     }
 
+    private List<FittedPurity> fitPurities(final List<Double> purities, final boolean[] include)
+            throws ExecutionException, InterruptedException
+    {
+        final List<Future<List<FittedPurity>>> futures = Lists.newArrayList();
+
+        for(int i = 0; i < purities.size(); ++i)
+        {
+            if(include[i])
+                futures.add(mExecutorService.submit(callableFitPurity(purities.get(i))));
+        }
+
+        final List<FittedPurity> fittedPurities = Lists.newArrayList();
+
+        for(Future<List<FittedPurity>> future : futures)
+        {
+            fittedPurities.addAll(future.get());
+        }
+
+        mAll.addAll(fittedPurities);
+        return fittedPurities;
+    }
+
     @NotNull
     private Callable<List<FittedPurity>> callableFitPurity(final double purity)
     {
@@ -152,11 +247,16 @@ public class FittedPurityFactory
     @NotNull
     private List<FittedPurity> fitPurity(final double purity)
     {
+        // working arrays are shared across the ploidies fitted for this purity
+        final RegionFit regionFit = new RegionFit();
+        final double[] tumorCopyNumbers = new double[mRegionChromosomes.length];
+        final double[] majorAlleleCopyNumbers = new double[mRegionChromosomes.length];
+
         final List<FittedPurity> fittedPurities = Lists.newArrayList();
         for(Double ploidy : mPloidyRange)
         {
             double impliedNormFactor = PurityAdjuster.impliedNormFactor(mAverageFittingRatio, purity, ploidy);
-            fittedPurities.add(fitPurity(purity, impliedNormFactor));
+            fittedPurities.add(fitPurity(purity, impliedNormFactor, regionFit, tumorCopyNumbers, majorAlleleCopyNumbers));
         }
 
         Collections.sort(fittedPurities);
@@ -168,7 +268,9 @@ public class FittedPurityFactory
         return 1d * value * bafCount / mTotalBAFCount;
     }
 
-    private FittedPurity fitPurity(final double purity, final double normFactor)
+    private FittedPurity fitPurity(
+            final double purity, final double normFactor, final RegionFit regionFit,
+            final double[] tumorCopyNumbers, final double[] majorAlleleCopyNumbers)
     {
         ImmutableFittedPurity.Builder builder = ImmutableFittedPurity.builder().purity(purity).normFactor(normFactor);
         double eventPenalty = 0;
@@ -176,25 +278,28 @@ public class FittedPurityFactory
         double diploidProportion = 0;
         double averagePloidy = 0;
 
-        final List<ObservedRegion> fittedRegions = Lists.newArrayList();
-        for(final ObservedRegion enrichedRegion : mFilteredRegions)
+        final PurityAdjuster purityAdjuster = new PurityAdjusterAbnormalChromosome(purity, normFactor, mCobaltChromosomes.chromosomes());
+
+        for(int i = 0; i < mRegionChromosomes.length; ++i)
         {
-            final ObservedRegion fittedRegion = mFittedRegionFactory.fitRegion(purity, normFactor, enrichedRegion);
-            eventPenalty += weightWithBaf(fittedRegion.eventPenalty(), enrichedRegion.bafCount());
-            deviationPenalty += weightWithBaf(fittedRegion.deviationPenalty(), enrichedRegion.bafCount());
-            averagePloidy += weightWithBaf(fittedRegion.tumorCopyNumber(), enrichedRegion.bafCount());
-            if(fittedRegion.isDiploid())
+            mFittedRegionFactory.fitRegion(purityAdjuster, mRegionChromosomes[i], mRegionTumorRatios[i], mRegionBAFs[i], regionFit);
+
+            int bafCount = mRegionBafCounts[i];
+            eventPenalty += weightWithBaf(regionFit.EventPenalty, bafCount);
+            deviationPenalty += weightWithBaf(regionFit.DeviationPenalty, bafCount);
+            averagePloidy += weightWithBaf(regionFit.TumorCopyNumber, bafCount);
+
+            if(ObservedRegion.isDiploid(regionFit.majorAlleleCopyNumber(), regionFit.minorAlleleCopyNumber()))
             {
-                diploidProportion += weightWithBaf(1, enrichedRegion.bafCount());
+                diploidProportion += weightWithBaf(1, bafCount);
             }
 
-            fittedRegions.add(fittedRegion);
+            tumorCopyNumbers[i] = regionFit.TumorCopyNumber;
+            majorAlleleCopyNumbers[i] = regionFit.majorAlleleCopyNumber();
         }
 
-        final PurityAdjuster purityAdjuster = new PurityAdjusterAbnormalChromosome(purity, normFactor, mCobaltChromosomes.chromosomes());
-
         final double somaticPenalty = Doubles.greaterThan(mSomaticPenaltyWeight, 0) ?
-                mSomaticPenaltyWeight * SomaticPenaltyFactory.calcPenalty(purityAdjuster, fittedRegions, mVariants) : 0;
+                mSomaticPenaltyWeight * somaticPenalty(purityAdjuster, tumorCopyNumbers, majorAlleleCopyNumbers) : 0;
 
         return builder.score(eventPenalty * deviationPenalty + somaticPenalty)
                 .diploidProportion(diploidProportion)
@@ -203,6 +308,35 @@ public class FittedPurityFactory
                 .build();
     }
 
+    private double somaticPenalty(final PurityAdjuster purityAdjuster, final double[] tumorCopyNumbers, final double[] majorAlleleCopyNumbers)
+    {
+        // the average deviation of each variant from its maximum conceivable ploidy given its region's fitted copy number
+        if(mVariantCount == 0)
+            return 0;
+
+        final SomaticDeviation somaticDeviation = SomaticDeviation.INSTANCE;
+        double score = 0;
+
+        for(int i = 0; i < mRegionChromosomes.length; ++i)
+        {
+            if(mRegionVariants[i].length == 0)
+                continue;
+
+            double normalCopyNumber = purityAdjuster.germlineCopyNumber(mRegionChromosomes[i]);
+            double constrainedMajorAllelePloidy = Math.max(0, majorAlleleCopyNumbers[i]);
+            double constrainedTumorCopyNumber = Math.max(0, tumorCopyNumbers[i]);
+
+            for(SomaticVariant variant : mRegionVariants[i])
+            {
+                score += somaticDeviation.deviationFromMax(
+                        purityAdjuster, normalCopyNumber, variant.tumorAlleleDepth(), constrainedTumorCopyNumber,
+                        constrainedMajorAllelePloidy);
+            }
+        }
+
+        return score / mVariantCount;
+    }
+
     protected static List<Double> ploidyRange(double minPloidy, double maxPloidy)
     {
         List<Double> results = Lists.newArrayList();
@@ -48,7 +48,6 @@ public enum SomaticDeviation implements RemovalListener<Double, Integer>
                 purityAdjuster, normalCopyNumber, variant.tumorAlleleDepth(), constrainedTumorCopyNumber, constrainedMajorAllelePloidy);
     }
 
-    @VisibleForTesting
     double deviationFromMax(final PurityAdjuster purityAdjuster, double normalCopyNumber, final AllelicDepth depth,
             double tumorCopyNumber, double tumorMajorAllelePloidy)
     {
@@ -50,40 +50,68 @@ public class FittedRegionFactory
         return cobaltChromosomes.contains(region.chromosome());
     }
 
+    // the fitted values for a region, reusable across purity and ploidy combinations so that fitting need not allocate per region
+    public static class RegionFit
+    {
+        public double TumorCopyNumber;
+        public double TumorBAF;
+        public double MinorAlleleCopyNumberDeviation;
+        public double MajorAlleleCopyNumberDeviation;
+        public double EventPenalty;
+        public double DeviationPenalty;
+
+        public double majorAlleleCopyNumber() { return TumorBAF * TumorCopyNumber; }
+        public double minorAlleleCopyNumber() { return TumorCopyNumber - majorAlleleCopyNumber(); }
+    }
+
     public ObservedRegion fitRegion(final double purity, final double normFactor, final ObservedRegion observedRegion)
     {
         final PurityAdjuster purityAdjuster = new PurityAdjusterAbnormalChromosome(purity, normFactor, mCobaltChromosomes.chromosomes());
 
-        double observedTumorRatio = observedRegion.observedTumorRatio();
-        double impliedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(observedRegion.chromosome(), observedTumorRatio);
-        double observedBAF = observedRegion.observedBAF();
-        double impliedBAF = impliedBaf(purityAdjuster, observedRegion.chromosome(), impliedCopyNumber, observedBAF);
-
-        double refNormalisedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(observedTumorRatio, observedRegion.observedNormalRatio());
-
-        double majorAllelePloidy = impliedBAF * impliedCopyNumber;
-        double minorAllelePloidy = impliedCopyNumber - majorAllelePloidy;
-
-        double majorAllelePloidyDeviation = mPloidyDeviation.majorAlleleDeviation(purity, normFactor, majorAllelePloidy);
-        double minorAllelePloidyDeviation = mPloidyDeviation.minorAlleleDeviation(purity, normFactor, minorAllelePloidy);
+        final RegionFit regionFit = new RegionFit();
+        fitRegion(purityAdjuster, observedRegion.chromosome(), observedRegion.observedTumorRatio(), observedRegion.observedBAF(), regionFit);
 
-        final double eventPenalty = EventPenalty.penalty(mPloidyPenaltyFactor, majorAllelePloidy, minorAllelePloidy);
-        final double deviationPenalty = (minorAllelePloidyDeviation + majorAllelePloidyDeviation) * observedBAF;
+        double refNormalisedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(
+                observedRegion.observedTumorRatio(), observedRegion.observedNormalRatio());
 
         ObservedRegion fittedRegion = ObservedRegion.from(observedRegion);
 
-        fittedRegion.setTumorCopyNumber(impliedCopyNumber);
+        fittedRegion.setTumorCopyNumber(regionFit.TumorCopyNumber);
 
-        fittedRegion.setTumorBAF(impliedBAF);
+        fittedRegion.setTumorBAF(regionFit.TumorBAF);
         fittedRegion.setRefNormalisedCopyNumber(Doubles.replaceNaNWithZero(refNormalisedCopyNumber));
-        fittedRegion.setMinorAlleleCopyNumberDeviation(minorAllelePloidyDeviation);
-        fittedRegion.setMajorAlleleCopyNumberDeviation(majorAllelePloidyDeviation);
-        fittedRegion.setDeviationPenalty(deviationPenalty);
-        fittedRegion.setEventPenalty(eventPenalty);
+        fittedRegion.setMinorAlleleCopyNumberDeviation(regionFit.MinorAlleleCopyNumberDeviation);
+        fittedRegion.setMajorAlleleCopyNumberDeviation(regionFit.MajorAlleleCopyNumberDeviation);
+        fittedRegion.setDeviationPenalty(regionFit.DeviationPenalty);
+        fittedRegion.setEventPenalty(regionFit.EventPenalty);
 
         return fittedRegion;
     }
 
+    public void fitRegion(
+            final PurityAdjuster purityAdjuster, final String chromosome, double observedTumorRatio, double observedBAF,
+            final RegionFit regionFit)
+    {
+        double purity = purityAdjuster.purity();
+        double normFactor = purityAdjuster.normFactor();
+
+        double impliedCopyNumber = purityAdjuster.purityAdjustedCopyNumber(chromosome, observedTumorRatio);
+        double impliedBAF = impliedBaf(purityAdjuster, chromosome, impliedCopyNumber, observedBAF);
+
+        double majorAllelePloidy = impliedBAF * impliedCopyNumber;
+        double minorAllelePloidy = impliedCopyNumber - majorAllelePloidy;
+
+        double majorAllelePloidyDeviation = mPloidyDeviation.majorAlleleDeviation(purity, normFactor, majorAllelePloidy);
+        double minorAllelePloidyDeviation = mPloidyDeviation.minorAlleleDeviation(purity, normFactor, minorAllelePloidy);
+
+        regionFit.TumorCopyNumber = impliedCopyNumber;
+        regionFit.TumorBAF = impliedBAF;
+        regionFit.MinorAlleleCopyNumberDeviation = minorAllelePloidyDeviation;
+        regionFit.MajorAlleleCopyNumberDeviation = majorAllelePloidyDeviation;
+        regionFit.EventPenalty = EventPenalty.penalty(mPloidyPenaltyFactor, majorAllelePloidy, minorAllelePloidy);
+        regionFit.DeviationPenalty = (minorAllelePloidyDeviation + majorAllelePloidyDeviation) * observedBAF;
+    }
+
     private static final double MIN_CN_THRESHOLD = 0.1;
 
     private double impliedBaf(final PurityAdjuster purityAdjuster, final String chromosome, final double copyNumber,
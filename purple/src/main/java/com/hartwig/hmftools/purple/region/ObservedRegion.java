@@ -181,12 +181,14 @@ public class ObservedRegion implements GenomeRegion
     public double minorAlleleCopyNumber() { return mTumorCopyNumber - majorAlleleCopyNumber(); }
     public double majorAlleleCopyNumber() { return mTumorBAF * mTumorCopyNumber; }
 
-    public boolean isDiploid()
+    public boolean isDiploid() { return isDiploid(majorAlleleCopyNumber(), minorAlleleCopyNumber()); }
+
+    public static boolean isDiploid(double majorAlleleCopyNumber, double minorAlleleCopyNumber)
     {
-        return Doubles.greaterOrEqual(majorAlleleCopyNumber(), MIN_DIPLOID_COPY_NUMBER)
-                && Doubles.lessOrEqual(majorAlleleCopyNumber(), MAX_DIPLOID_COPY_NUMBER)
-                && Doubles.greaterOrEqual(minorAlleleCopyNumber(), MIN_DIPLOID_COPY_NUMBER)
-                && Doubles.lessOrEqual(minorAlleleCopyNumber(), MAX_DIPLOID_COPY_NUMBER);
+        return Doubles.greaterOrEqual(majorAlleleCopyNumber, MIN_DIPLOID_COPY_NUMBER)
+                && Doubles.lessOrEqual(majorAlleleCopyNumber, MAX_DIPLOID_COPY_NUMBER)
+                && Doubles.greaterOrEqual(minorAlleleCopyNumber, MIN_DIPLOID_COPY_NUMBER)
+                && Doubles.lessOrEqual(minorAlleleCopyNumber, MAX_DIPLOID_COPY_NUMBER);
     }
 
     public String toString()
@@ -1,11 +1,35 @@
 package com.hartwig.hmftools.purple.purity;
 
+import static com.hartwig.hmftools.purple.TestUtils.SAMPLE_ID;
+import static com.hartwig.hmftools.purple.TestUtils.createDefaultContext;
+import static com.hartwig.hmftools.purple.TestUtils.createObservedRegion;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.cobalt.CobaltTestUtils;
+import com.hartwig.hmftools.common.genome.chromosome.CobaltChromosomes;
+import com.hartwig.hmftools.common.purple.PurityAdjuster;
+import com.hartwig.hmftools.common.purple.PurityAdjusterAbnormalChromosome;
+import com.hartwig.hmftools.common.purple.purity.FittedPurity;
+import com.hartwig.hmftools.common.variant.VariantType;
+import com.hartwig.hmftools.purple.region.FittedRegionFactory;
+import com.hartwig.hmftools.purple.region.ObservedRegion;
+import com.hartwig.hmftools.purple.somatic.SomaticVariant;
 
 import org.junit.Test;
 
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+
 public class FittedPurityFactoryTest
 {
 
@@ -45,4 +69,157 @@ public class FittedPurityFactoryTest
         assertEquals(1, fixed.size());
         assertEquals(fixedPloidy, fixed.get(0), EPSILON);
     }
+
+    @Test
+    public void testFitMatchesRegionFits() throws ExecutionException, InterruptedException
+    {
+        final CobaltChromosomes cobaltChromosomes = CobaltTestUtils.female();
+        final FittedRegionFactory fittedRegionFactory = new FittedRegionFactory(
+                cobaltChromosomes, 100, 0.4, 0.05, 1.5, 1, 1.5, 0.1);
+
+        final List<ObservedRegion> regions = createRegions();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        FittedPurityFactory fullFit = new FittedPurityFactory(
+                executorService, cobaltChromosomes, 0.08, 1.0, 0.01, 1, 8, 0, false, false,
+                fittedRegionFactory, regions, Collections.emptyList());
+
+        FittedPurityFactory coarseFit = new FittedPurityFactory(
+                executorService, cobaltChromosomes, 0.08, 1.0, 0.01, 1, 8, 0, false, true,
+                fittedRegionFactory, regions, Collections.emptyList());
+
+        executorService.shutdown();
+
+        // scores match those derived from individually fitted regions
+        int totalBafCount = regions.stream().mapToInt(ObservedRegion::bafCount).sum();
+
+        for(int i = 0; i < fullFit.all().size(); i += 97)
+        {
+            FittedPurity fittedPurity = fullFit.all().get(i);
+
+            double eventPenalty = 0;
+            double deviationPenalty = 0;
+            double ploidy = 0;
+
+            for(ObservedRegion region : regions)
+            {
+                ObservedRegion fittedRegion = fittedRegionFactory.fitRegion(fittedPurity.purity(), fittedPurity.normFactor(), region);
+                eventPenalty += fittedRegion.eventPenalty() * region.bafCount() / totalBafCount;
+                deviationPenalty += fittedRegion.deviationPenalty() * region.bafCount() / totalBafCount;
+                ploidy += fittedRegion.tumorCopyNumber() * region.bafCount() / totalBafCount;
+            }
+
+            assertEquals(eventPenalty * deviationPenalty, fittedPurity.score(), EPSILON);
+            assertEquals(ploidy, fittedPurity.ploidy(), EPSILON);
+        }
+
+        // the coarse-to-fine search fits fewer candidates but finds the same best fit
+        assertTrue(coarseFit.all().size() < fullFit.all().size());
+        assertEquals(fullFit.all().get(0).purity(), coarseFit.all().get(0).purity(), EPSILON);
+        assertEquals(fullFit.all().get(0).normFactor(), coarseFit.all().get(0).normFactor(), EPSILON);
+    }
+
+    @Test
+    public void testSomaticPenalty() throws ExecutionException, InterruptedException
+    {
+        final CobaltChromosomes cobaltChromosomes = CobaltTestUtils.female();
+        final FittedRegionFactory fittedRegionFactory = new FittedRegionFactory(
+                cobaltChromosomes, 100, 0.4, 0.05, 1.5, 1, 1.5, 0.1);
+
+        final List<ObservedRegion> regions = createRegions();
+
+        // high VAF variants exceed the ploidy conceivable for low purity fits, and one falls outside the fitted regions
+        final List<SomaticVariant> variants = Lists.newArrayList();
+
+        for(int i = 0; i < 6; ++i)
+        {
+            variants.add(createVariant(String.valueOf(i + 1), 1500, 100 - 10 * i, 10 + 10 * i));
+        }
+
+        variants.add(createVariant("1", 5000, 10, 90));
+
+        final double somaticPenaltyWeight = 1.5;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        FittedPurityFactory fit = new FittedPurityFactory(
+                executorService, cobaltChromosomes, 0.08, 1.0, 0.01, 1, 8, somaticPenaltyWeight, false, false,
+                fittedRegionFactory, regions, variants);
+
+        executorService.shutdown();
+
+        // penalties match the average deviation of each variant from the maximum conceivable ploidy of its fitted region
+        final List<SomaticVariant> regionVariants = variants.subList(0, 6);
+        int penalisedFits = 0;
+
+        for(int i = 0; i < fit.all().size(); i += 97)
+        {
+            FittedPurity fittedPurity = fit.all().get(i);
+
+            final PurityAdjuster purityAdjuster = new PurityAdjusterAbnormalChromosome(
+                    fittedPurity.purity(), fittedPurity.normFactor(), cobaltChromosomes.chromosomes());
+
+            double deviation = 0;
+
+            for(SomaticVariant variant : regionVariants)
+            {
+                ObservedRegion region = regions.get(Integer.parseInt(variant.chromosome()) - 1);
+                ObservedRegion fittedRegion = fittedRegionFactory.fitRegion(fittedPurity.purity(), fittedPurity.normFactor(), region);
+                deviation += SomaticDeviation.INSTANCE.deviationFromMax(purityAdjuster, fittedRegion, variant);
+            }
+
+            double expectedPenalty = somaticPenaltyWeight * deviation / regionVariants.size();
+            assertEquals(expectedPenalty, fittedPurity.somaticPenalty(), EPSILON);
+
+            if(expectedPenalty > 0)
+                ++penalisedFits;
+        }
+
+        assertTrue(penalisedFits > 0);
+
+        // the penalty is included in the score and so moves fits away from the low purities which cannot explain the variants
+        FittedPurity bestFit = fit.all().get(0);
+        assertEquals(0, bestFit.somaticPenalty(), EPSILON);
+        assertTrue(fit.all().stream().anyMatch(x -> x.somaticPenalty() > 0 && x.score() > x.somaticPenalty()));
+    }
+
+    private static List<ObservedRegion> createRegions()
+    {
+        // regions from a tumor of purity 0.6 and a mix of copy number states
+        final double purity = 0.6;
+        final int[][] alleleCopyNumbers = { { 1, 1 }, { 2, 1 }, { 1, 0 }, { 2, 0 }, { 2, 2 }, { 3, 1 } };
+
+        final List<ObservedRegion> regions = Lists.newArrayList();
+
+        for(int i = 0; i < 12; ++i)
+        {
+            int[] alleles = alleleCopyNumbers[i % alleleCopyNumbers.length];
+            double copyNumber = alleles[0] + alleles[1];
+            double tumorRatio = (purity * copyNumber + 2 * (1 - purity)) / 2;
+            double baf = (purity * alleles[0] + (1 - purity)) / (purity * copyNumber + 2 * (1 - purity));
+
+            ObservedRegion region = createObservedRegion(String.valueOf(i + 1), 1000, 2000);
+            region.setObservedTumorRatio(tumorRatio);
+            region.setObservedBAF(baf);
+            region.setBafCount(50 + 10 * i);
+            regions.add(region);
+        }
+
+        return regions;
+    }
+
+    private static SomaticVariant createVariant(final String chromosome, int position, int refDepth, int altDepth)
+    {
+        VariantContext defaultContext = createDefaultContext(VariantType.SNP);
+
+        VariantContext context = new VariantContextBuilder(defaultContext)
+                .chr(chromosome)
+                .start(position)
+                .stop(position)
+                .genotypes(new GenotypeBuilder(defaultContext.getGenotype(SAMPLE_ID)).AD(new int[] { refDepth, altDepth }).make())
+                .make();
+
+        return new SomaticVariant(context, SAMPLE_ID);
+    }
 }
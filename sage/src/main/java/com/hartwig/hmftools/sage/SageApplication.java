@@ -1,8 +1,7 @@
 package com.hartwig.hmftools.sage;
 
-import static java.lang.Math.max;
-
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.INPUT_BYTES;
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 import static com.hartwig.hmftools.sage.SageCommon.calcMemoryUsage;
 import static com.hartwig.hmftools.sage.SageCommon.logMemoryUsage;
@@ -10,15 +9,19 @@ import static com.hartwig.hmftools.sage.coverage.GeneCoverage.populateCoverageBu
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.sage.coverage.Coverage;
 import com.hartwig.hmftools.sage.coverage.GeneDepthFile;
 import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
-import com.hartwig.hmftools.sage.pipeline.ChromosomePipeline;
+import com.hartwig.hmftools.sage.pipeline.GenomePipeline;
 import com.hartwig.hmftools.sage.quality.BaseQualityRecalibration;
 import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
 import com.hartwig.hmftools.sage.vcf.VcfWriter;
@@ -43,6 +46,7 @@ public class SageApplication implements AutoCloseable
 
     private final PhaseSetCounter mPhaseSetCounter;
     private final VcfWriter mVcfWriter;
+    private final MetricsRegistry mMetrics;
 
     private SageApplication(final CommandLine cmd)
     {
@@ -68,6 +72,7 @@ public class SageApplication implements AutoCloseable
         mPhaseSetCounter = new PhaseSetCounter();
 
         mVcfWriter = new VcfWriter(mConfig, mRefData);
+        mMetrics = new MetricsRegistry("sage", String.join(",", mConfig.TumorIds));
 
         SG_LOGGER.info("writing to file: {}", mConfig.OutputFile);
     }
@@ -77,9 +82,15 @@ public class SageApplication implements AutoCloseable
         long startTime = System.currentTimeMillis();
         final Coverage coverage = createCoverage();
 
+        PerformanceCounter bqrPerfCounter = new PerformanceCounter("BQR");
+        bqrPerfCounter.start();
+
         BaseQualityRecalibration baseQualityRecalibration = new BaseQualityRecalibration(mConfig, mRefData.RefGenome);
         baseQualityRecalibration.produceRecalibrationMap();
 
+        bqrPerfCounter.stop();
+        mMetrics.addPerfCounter(bqrPerfCounter);
+
         if(!baseQualityRecalibration.isValid())
             System.exit(1);
 
@@ -89,23 +100,23 @@ public class SageApplication implements AutoCloseable
         logMemoryUsage(mConfig, "BQR", initMemory);
         System.gc();
 
-        int maxTaskMemory = 0;
-
         final SAMSequenceDictionary dictionary = dictionary();
+        List<String> chromosomes = Lists.newArrayList();
+
         for(final SAMSequenceRecord samSequenceRecord : dictionary.getSequences())
         {
             final String chromosome = samSequenceRecord.getSequenceName();
 
-            if(!mConfig.processChromosome(chromosome))
-                continue;
+            if(mConfig.processChromosome(chromosome))
+                chromosomes.add(chromosome);
+        }
 
-            final ChromosomePipeline pipeline = new ChromosomePipeline(
-                    chromosome, mConfig, mRefData, recalibrationMap, coverage, mPhaseSetCounter, mVcfWriter);
+        final GenomePipeline pipeline = new GenomePipeline(
+                chromosomes, mConfig, mRefData, recalibrationMap, coverage, mPhaseSetCounter, mVcfWriter);
 
-            pipeline.process();
-            maxTaskMemory = max(pipeline.maxMemoryUsage(), maxTaskMemory);
-            System.gc();
-        }
+        pipeline.process();
+        int maxTaskMemory = pipeline.maxMemoryUsage();
+        pipeline.recordMetrics(mMetrics);
 
         for(String sample : coverage.samples())
         {
@@ -118,6 +129,29 @@ public class SageApplication implements AutoCloseable
 
         SG_LOGGER.info("Sage complete, run time({}s) memory(init={}mb max={}mb)",
                 String.format("%.2f", runTime), initMemory, maxTaskMemory);
+
+        writeMetrics();
+    }
+
+    private void writeMetrics()
+    {
+        if(mConfig.MetricsFile == null)
+            return;
+
+        long inputBytes = 0;
+
+        for(String bam : mConfig.TumorBams)
+        {
+            inputBytes += new File(bam).length();
+        }
+
+        for(String bam : mConfig.ReferenceBams)
+        {
+            inputBytes += new File(bam).length();
+        }
+
+        mMetrics.gauge(INPUT_BYTES).set(inputBytes);
+        mMetrics.writeMetrics(mConfig.MetricsFile);
     }
 
     private SAMSequenceDictionary dictionary() throws IOException
@@ -1,5 +1,8 @@
 package com.hartwig.hmftools.sage;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 import com.hartwig.hmftools.common.utils.MemoryCalcs;
 
 import org.apache.logging.log4j.LogManager;
@@ -19,6 +22,17 @@ public class SageCommon
         return MemoryCalcs.calcMemoryUsage();
     }
 
+    public static long threadAllocatedBytes()
+    {
+        // bytes allocated on the heap by the current thread, where supported by the JVM
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        if(threadBean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean)threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        return 0;
+    }
+
     public static void logMemoryUsage(final SageConfig config, final String stage, int memory)
     {
         if(config.PerfWarnTime == 0)
@@ -9,6 +9,8 @@ import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_LEVEL;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.containsFlag;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.getConfigValue;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkAddDirSeparator;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.addMetricsOptions;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.metricsFile;
 import static com.hartwig.hmftools.common.utils.sv.ChrBaseRegion.addSpecificChromosomesRegionsConfig;
 import static com.hartwig.hmftools.common.utils.sv.ChrBaseRegion.loadSpecificChromsomesOrRegions;
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
@@ -83,6 +85,8 @@ public class SageConfig
     public final int Threads;
     public final boolean LogLpsData;
     public final double PerfWarnTime;
+    public final int ReadCacheMax;
+    public final String MetricsFile;
 
     private boolean mIsValid;
 
@@ -120,6 +124,7 @@ public class SageConfig
     private static final String SPECIFIC_POSITIONS = "specific_positions";
     private static final String LOG_LPS_DATA = "log_lps_data";
     private static final String PERF_WARN_TIME = "perf_warn_time";
+    private static final String READ_CACHE_MAX = "read_cache_max";
 
     public SageConfig(boolean appendMode, @NotNull final String version, @NotNull final CommandLine cmd)
     {
@@ -208,6 +213,8 @@ public class SageConfig
         LogLpsData = containsFlag(cmd, LOG_LPS_DATA);
 
         PerfWarnTime = Double.parseDouble(cmd.getOptionValue(PERF_WARN_TIME, "0"));
+        ReadCacheMax = getConfigValue(cmd, READ_CACHE_MAX, 0);
+        MetricsFile = metricsFile(cmd);
 
         Threads = getConfigValue(cmd, THREADS, 1);
     }
@@ -309,6 +316,7 @@ public class SageConfig
     }
 
     public boolean logPerfStats() { return PerfWarnTime > 0; }
+    public boolean collectPerfStats() { return logPerfStats() || MetricsFile != null; }
 
     public static Options createSageOptions()
     {
@@ -326,6 +334,8 @@ public class SageConfig
         options.addOption(VALIDATION_STRINGENCY, true, "SAM validation strategy: STRICT, SILENT, LENIENT [STRICT]");
         options.addOption(LOG_LPS_DATA, false, "Log local phasing data");
         options.addOption(PERF_WARN_TIME, true, "Log details of partitions taking longer than X seconds");
+        options.addOption(READ_CACHE_MAX, true, "Max tumor reads per partition to cache for the evidence stage, 0 = disabled [0]");
+        addMetricsOptions(options);
 
         commonOptions().getOptions().forEach(options::addOption);
         FilterConfig.createOptions().getOptions().forEach(options::addOption);
@@ -369,6 +379,11 @@ public class SageConfig
     }
 
     public SageConfig()
+    {
+        this(null);
+    }
+
+    public SageConfig(final String metricsFile)
     {
         SampleDataDir = "";
         ResourceDir = "";
@@ -400,6 +415,8 @@ public class SageConfig
         Threads = 1;
         LogLpsData = false;
         PerfWarnTime = 0;
+        ReadCacheMax = 0;
+        MetricsFile = metricsFile;
         RefGenVersion = V37;
         Stringency = ValidationStringency.DEFAULT_STRINGENCY;
         AppendMode = false;
@@ -15,6 +15,7 @@ import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.ReadContextBuffer;
 import com.hartwig.hmftools.sage.common.ReadContextMatch;
 
 import org.jetbrains.annotations.NotNull;
@@ -23,6 +24,7 @@ public class AltContext implements VariantHotspot
 {
     public final String Ref;
     public final String Alt;
+    public final long Key; // packed ref and alt, see AltKey
     public final RefContext RefContext;
     
     private final List<ReadContextCandidate> mReadContextCandidates;
@@ -33,10 +35,16 @@ public class AltContext implements VariantHotspot
     private AltContext mSecondCandidate; // relevant if has a different read context and sufficient support
 
     public AltContext(final RefContext refContext, final String ref, final String alt)
+    {
+        this(refContext, ref, alt, AltKey.pack(ref, alt));
+    }
+
+    public AltContext(final RefContext refContext, final String ref, final String alt, long key)
     {
         RefContext = refContext;
         Ref = ref;
         Alt = alt;
+        Key = key;
 
         mReadContextCandidates = Lists.newArrayList();
         mCandidate = null;
@@ -50,6 +58,7 @@ public class AltContext implements VariantHotspot
         RefContext = refContext;
         Ref = ref;
         Alt = alt;
+        Key = AltKey.pack(ref, alt);
 
         mCandidate = candidate;
         mRawSupportAlt = rawSupportAlt;
@@ -65,13 +74,20 @@ public class AltContext implements VariantHotspot
 
     public void addReadContext(int numberOfEvents, final ReadContext newReadContext)
     {
+        addReadContext(numberOfEvents, new ReadContextBuffer(newReadContext));
+    }
+
+    public void addReadContext(int numberOfEvents, final ReadContextBuffer newReadContext)
+    {
+        // the read's context is matched in place and only copied into a ReadContext if it becomes a candidate
         int partialMatch = 0;
         int coreMatch = 0;
         ReadContextCandidate fullMatchCandidate = null;
 
-        for(ReadContextCandidate candidate : mReadContextCandidates)
+        for(int i = 0; i < mReadContextCandidates.size(); ++i)
         {
-            final ReadContextMatch match = candidate.readContext().indexedBases().matchAtPosition(newReadContext.indexedBases());
+            ReadContextCandidate candidate = mReadContextCandidates.get(i);
+            final ReadContextMatch match = newReadContext.matchedBy(candidate.readContext().indexedBases());
 
             switch(match)
             {
@@ -92,7 +108,7 @@ public class AltContext implements VariantHotspot
 
         if(fullMatchCandidate == null)
         {
-            final ReadContextCandidate candidate = new ReadContextCandidate(numberOfEvents, newReadContext);
+            final ReadContextCandidate candidate = new ReadContextCandidate(numberOfEvents, newReadContext.toReadContext());
             candidate.CoreMatch += coreMatch;
             candidate.PartialMatch += partialMatch;
             mReadContextCandidates.add(candidate);
@@ -100,7 +116,7 @@ public class AltContext implements VariantHotspot
         else if(newReadContext.maxFlankLength() > fullMatchCandidate.maxFlankLength())
         {
             mReadContextCandidates.remove(fullMatchCandidate);
-            final ReadContextCandidate candidate = new ReadContextCandidate(numberOfEvents, newReadContext);
+            final ReadContextCandidate candidate = new ReadContextCandidate(numberOfEvents, newReadContext.toReadContext());
             candidate.CoreMatch += fullMatchCandidate.CoreMatch;
             candidate.PartialMatch += fullMatchCandidate.PartialMatch;
             candidate.incrementFull(fullMatchCandidate.FullMatch, fullMatchCandidate.mMinNumberOfEvents);
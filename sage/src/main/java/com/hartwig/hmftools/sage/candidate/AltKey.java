@@ -0,0 +1,56 @@
+package com.hartwig.hmftools.sage.candidate;
+
+public final class AltKey
+{
+    // packs a ref and alt into a single long - 2 bits per base followed by the ref and alt lengths - so alt contexts can be
+    // matched on a primitive rather than by comparing strings, covering SNVs, MNVs and all but long indels
+    public static final long NO_KEY = -1;
+
+    private static final int LENGTH_BITS = 5;
+    private static final int MAX_PACKED_BASES = (Long.SIZE - 2 * LENGTH_BITS) / 2;
+
+    public static long pack(final String ref, final String alt)
+    {
+        int refLength = ref.length();
+        int altLength = alt.length();
+
+        if(refLength + altLength > MAX_PACKED_BASES)
+            return NO_KEY;
+
+        long key = 0;
+
+        for(int i = 0; i < refLength; ++i)
+        {
+            int code = baseCode(ref.charAt(i));
+
+            if(code < 0)
+                return NO_KEY;
+
+            key = (key << 2) | code;
+        }
+
+        for(int i = 0; i < altLength; ++i)
+        {
+            int code = baseCode(alt.charAt(i));
+
+            if(code < 0)
+                return NO_KEY;
+
+            key = (key << 2) | code;
+        }
+
+        return (key << (2 * LENGTH_BITS)) | ((long)refLength << LENGTH_BITS) | altLength;
+    }
+
+    private static int baseCode(char base)
+    {
+        switch(base)
+        {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+}
@@ -1,41 +1,61 @@
 package com.hartwig.hmftools.sage.candidate;
 
-import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.ReadContextBuffer;
 
 import org.jetbrains.annotations.Nullable;
 
 public class AltRead
 {
-    public final String Ref;
-    public final String Alt;
-    public final int BaseQuality;
-    public final int NumberOfEvents;
-    public final boolean SufficientMapQuality;
+    // pooled by the consumer and reset for each alt in a read, along with its read context buffer
+    public String Ref;
+    public String Alt;
+    public long Key;
+    public int BaseQuality;
+    public int NumberOfEvents;
+    public boolean SufficientMapQuality;
 
-    private final RefContext mRefContext;
+    private RefContext mRefContext;
 
     @Nullable
-    private ReadContext mReadContext;
+    private final ReadContextBuffer mReadContext;
+    private boolean mHasReadContext;
+
+    public AltRead()
+    {
+        mReadContext = new ReadContextBuffer();
+        mHasReadContext = false;
+    }
 
     public AltRead(
             final RefContext refContext, final String ref, final String alt, final int baseQuality, final int numberOfEvents,
-            final boolean sufficientMapQuality, final ReadContext readContext)
+            final boolean sufficientMapQuality)
+    {
+        mReadContext = null;
+        set(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, false);
+    }
+
+    public void set(
+            final RefContext refContext, final String ref, final String alt, final int baseQuality, final int numberOfEvents,
+            final boolean sufficientMapQuality, boolean hasReadContext)
     {
         mRefContext = refContext;
         Ref = ref;
         Alt = alt;
+        Key = AltKey.pack(ref, alt);
         BaseQuality = baseQuality;
         NumberOfEvents = numberOfEvents;
         SufficientMapQuality = sufficientMapQuality;
 
-        mReadContext = readContext;
+        mHasReadContext = hasReadContext && mReadContext != null;
     }
 
     public boolean containsReadContext()
     {
-        return mReadContext != null;
+        return mHasReadContext;
     }
 
+    public ReadContextBuffer readContext() { return mReadContext; }
+
     public int position()
     {
         return mRefContext.position();
@@ -53,24 +73,24 @@ public class AltRead
 
     public int rightCoreIndex()
     {
-        return mReadContext.readBasesRightCentreIndex();
+        return mReadContext.rightCoreIndex();
     }
     public int leftCoreIndex()
     {
-        return mReadContext.readBasesLeftCentreIndex();
+        return mReadContext.leftCoreIndex();
     }
 
     public void extend(final AltRead other)
     {
-        int leftIndex = Math.min(mReadContext.readBasesLeftCentreIndex(), other.mReadContext.readBasesLeftCentreIndex());
-        int rightIndex = Math.max(mReadContext.readBasesRightCentreIndex(), other.mReadContext.readBasesRightCentreIndex());
+        int leftIndex = Math.min(mReadContext.leftCoreIndex(), other.mReadContext.leftCoreIndex());
+        int rightIndex = Math.max(mReadContext.rightCoreIndex(), other.mReadContext.rightCoreIndex());
 
         mReadContext.extendCore(leftIndex, rightIndex);
     }
 
     public void updateRefContext()
     {
-        mRefContext.processAltRead(Ref, Alt, BaseQuality, SufficientMapQuality, NumberOfEvents, mReadContext);
+        mRefContext.processAltRead(this);
     }
 
     public String toString() { return String.format("%s>%s", Ref, Alt); }
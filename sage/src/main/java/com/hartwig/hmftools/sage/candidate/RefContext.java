@@ -1,11 +1,11 @@
 package com.hartwig.hmftools.sage.candidate;
 
 import java.util.Collection;
-import java.util.Map;
+import java.util.List;
 
 import javax.annotation.Nullable;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.Lists;
 import com.google.common.primitives.Ints;
 import com.hartwig.hmftools.common.genome.position.GenomePosition;
 import com.hartwig.hmftools.sage.common.ReadContext;
@@ -13,24 +13,32 @@ import com.hartwig.hmftools.sage.common.ReadContext;
 public class RefContext implements GenomePosition
 {
     public final String Chromosome;
-    public final int Position;
-    
-    private Map<String,AltContext> mAlts;
+    private int mPosition; // only changed by reset, when a context without alts is recycled by the cache
 
-    private final boolean mUsePanelDepth;
+    private List<AltContext> mAlts; // typically only 1 or 2 per position, so searched by packed alt key
+
+    private boolean mUsePanelDepth;
     private int mRawDepth;
 
     public RefContext(final String chromosome, int position, boolean usePanelDepth)
     {
         Chromosome = chromosome;
-        Position = position;
+        mPosition = position;
+        mUsePanelDepth = usePanelDepth;
+        mAlts = null;
+    }
+
+    public void reset(int position, boolean usePanelDepth)
+    {
+        mPosition = position;
         mUsePanelDepth = usePanelDepth;
+        mRawDepth = 0;
         mAlts = null;
     }
 
     public Collection<AltContext> altContexts()
     {
-        return mAlts != null ? mAlts.values() : null;
+        return mAlts;
     }
 
     public void refRead(boolean sufficientMapQuality)
@@ -43,7 +51,7 @@ public class RefContext implements GenomePosition
             final String ref, final String alt, int baseQuality, boolean sufficientMapQuality,
             int numberOfEvents, final ReadContext readContext)
     {
-        final AltContext altContext = getOrCreateAltContext(ref, alt);
+        final AltContext altContext = getOrCreateAltContext(AltKey.pack(ref, alt), ref, alt);
         altContext.incrementAltRead(baseQuality);
 
         if(sufficientMapQuality)
@@ -55,6 +63,20 @@ public class RefContext implements GenomePosition
         }
     }
 
+    public void processAltRead(final AltRead altRead)
+    {
+        final AltContext altContext = getOrCreateAltContext(altRead.Key, altRead.Ref, altRead.Alt);
+        altContext.incrementAltRead(altRead.BaseQuality);
+
+        if(altRead.SufficientMapQuality)
+            mRawDepth++;
+
+        if(altRead.containsReadContext() && !altRead.readContext().hasIncompleteCore())
+        {
+            altContext.addReadContext(altRead.NumberOfEvents, altRead.readContext());
+        }
+    }
+
     @Override
     public String chromosome()
     {
@@ -64,7 +86,7 @@ public class RefContext implements GenomePosition
     @Override
     public int position()
     {
-        return Position;
+        return mPosition;
     }
 
     public int rawDepth()
@@ -91,7 +113,7 @@ public class RefContext implements GenomePosition
 
     private boolean equalTo(RefContext another)
     {
-        return Chromosome.equals(another.Chromosome) && Position == another.Position;
+        return Chromosome.equals(another.Chromosome) && mPosition == another.mPosition;
     }
 
     @Override
@@ -103,20 +125,33 @@ public class RefContext implements GenomePosition
         return h;
     }
 
-    private AltContext getOrCreateAltContext(final String ref, final String alt)
+    private AltContext getOrCreateAltContext(long key, final String ref, final String alt)
     {
         if(mAlts == null)
-            mAlts = Maps.newHashMap();
-
-        final String refAltKey = ref + "|" + alt;
-        AltContext altContext = mAlts.get(refAltKey);
-
-        if(altContext == null)
         {
-            altContext = new AltContext(this, ref, alt);
-            mAlts.put(refAltKey, altContext);
+            mAlts = Lists.newArrayListWithCapacity(1);
+        }
+        else
+        {
+            for(int i = 0; i < mAlts.size(); ++i)
+            {
+                AltContext altContext = mAlts.get(i);
+
+                // only long indels or those with non-ACGT bases are compared by their bases
+                if(key != AltKey.NO_KEY)
+                {
+                    if(altContext.Key == key)
+                        return altContext;
+                }
+                else if(altContext.Ref.equals(ref) && altContext.Alt.equals(alt))
+                {
+                    return altContext;
+                }
+            }
         }
 
+        AltContext altContext = new AltContext(this, ref, alt, key);
+        mAlts.add(altContext);
         return altContext;
     }
 }
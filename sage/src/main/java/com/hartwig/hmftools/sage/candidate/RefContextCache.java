@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.codon.Nucleotides;
 import com.hartwig.hmftools.common.genome.chromosome.MitochondrialChromosome;
@@ -23,9 +24,22 @@ public class RefContextCache
     private final List<AltContext> mSavedCandidates;
     private final HotspotSelector mHotspotSelector;
 
+    // ref contexts evicted without any alts are reused for later positions, once no read still refers to them
+    private final boolean mRecycleRefContexts;
+    private final List<RefContext> mEvictedRefContexts;
+    private final List<RefContext> mFreeRefContexts;
+    private long mRefContextsCreated;
+
     private static final int MIN_ARRAY_CAPACITY = 256;
 
     public RefContextCache(final SageConfig config, final List<VariantHotspot> hotspots, final List<BaseRegion> panel)
+    {
+        this(config, hotspots, panel, true);
+    }
+
+    @VisibleForTesting
+    RefContextCache(
+            final SageConfig config, final List<VariantHotspot> hotspots, final List<BaseRegion> panel, boolean recycleRefContexts)
     {
         mConfig = config;
         mPanelSelector = new PanelSelector(panel);
@@ -33,6 +47,11 @@ public class RefContextCache
 
         mHotspotSelector = new HotspotSelector(hotspots);
 
+        mRecycleRefContexts = recycleRefContexts;
+        mEvictedRefContexts = Lists.newArrayList();
+        mFreeRefContexts = Lists.newArrayList();
+        mRefContextsCreated = 0;
+
         final Consumer<RefContext> evictionHandler = (refContext) -> processAltContexts(refContext);
 
         mRollingCandidates = new EvictingArray(MIN_ARRAY_CAPACITY, evictionHandler);
@@ -42,9 +61,34 @@ public class RefContextCache
     {
         boolean usePanelDepth = MitochondrialChromosome.contains(chromosome) || mPanelSelector.inPanel(position, position);
 
-        return mRollingCandidates.computeIfAbsent(position, aLong -> new RefContext(chromosome, position, usePanelDepth));
+        return mRollingCandidates.computeIfAbsent(position, aLong -> createRefContext(chromosome, position, usePanelDepth));
+    }
+
+    private RefContext createRefContext(final String chromosome, int position, boolean usePanelDepth)
+    {
+        if(!mFreeRefContexts.isEmpty())
+        {
+            RefContext refContext = mFreeRefContexts.remove(mFreeRefContexts.size() - 1);
+            refContext.reset(position, usePanelDepth);
+            return refContext;
+        }
+
+        ++mRefContextsCreated;
+        return new RefContext(chromosome, position, usePanelDepth);
+    }
+
+    public void recycleEvicted()
+    {
+        // called between reads, since alt reads can still reference a context evicted while processing the current read
+        if(mEvictedRefContexts.isEmpty())
+            return;
+
+        mFreeRefContexts.addAll(mEvictedRefContexts);
+        mEvictedRefContexts.clear();
     }
 
+    public long refContextsCreated() { return mRefContextsCreated; }
+
     public List<AltContext> altContexts()
     {
         mRollingCandidates.evictAll();
@@ -57,7 +101,12 @@ public class RefContextCache
         Collection<AltContext> altContexts = refContext.altContexts();
 
         if(altContexts == null)
+        {
+            if(mRecycleRefContexts)
+                mEvictedRefContexts.add(refContext);
+
             return;
+        }
 
         for(AltContext altContext : altContexts)
         {
@@ -22,7 +22,6 @@ import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.common.RefSequence;
 import com.hartwig.hmftools.sage.SageConfig;
 import com.hartwig.hmftools.sage.common.IndexedBases;
-import com.hartwig.hmftools.sage.common.ReadContext;
 import com.hartwig.hmftools.sage.read.ReadContextFactory;
 import com.hartwig.hmftools.sage.read.NumberEvents;
 
@@ -38,6 +37,10 @@ public class RefContextConsumer implements Consumer<SAMRecord>
     private final ReadContextFactory mReadContextFactory;
     private final Set<Integer> mHotspotPositions;
 
+    // alt reads and their read context buffers are reused for each read
+    private final List<AltRead> mAltReads;
+    private int mAltReadCount;
+
     private int mReadCount;
 
     public RefContextConsumer(
@@ -53,6 +56,8 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         mHotspotPositions = Sets.newHashSet();
         regionHotspots.forEach(x -> mHotspotPositions.add(x.position()));
 
+        mAltReads = Lists.newArrayList();
+        mAltReadCount = 0;
         mReadCount = 0;
     }
 
@@ -61,6 +66,8 @@ public class RefContextConsumer implements Consumer<SAMRecord>
     @Override
     public void accept(final SAMRecord record)
     {
+        mRefContextCache.recycleEvicted();
+
         if(!inBounds(record))
             return;
 
@@ -84,7 +91,7 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         int scAdjustedMapQual = adjustedMapQual - scEvents * mConfig.Quality.MapQualityReadEventsPenalty;
         boolean readExceedsScAdjustedQuality = scAdjustedMapQual > 0;
 
-        final List<AltRead> altReads = Lists.newArrayList();
+        mAltReadCount = 0;
         final IndexedBases refBases = mRefGenome.alignment();
 
         final CigarHandler handler = new CigarHandler()
@@ -101,8 +108,8 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                         return;
                 }
 
-                altReads.addAll(processAlignment(
-                        record, readIndex, refPosition, element.getLength(), refBases, numberOfEvents, readExceedsScAdjustedQuality));
+                processAlignment(
+                        record, readIndex, refPosition, element.getLength(), refBases, numberOfEvents, readExceedsScAdjustedQuality);
             }
 
             @Override
@@ -111,11 +118,8 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 if(record.isSecondaryOrSupplementary())
                     return;
 
-                AltRead altRead = processInsert(
+                processInsert(
                         element, record, readIndex, refPosition, refBases, numberOfEvents, readExceedsQuality, readExceedsScAdjustedQuality);
-
-                if(altRead != null)
-                    altReads.add(altRead);
             }
 
             @Override
@@ -124,39 +128,39 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 if(record.isSecondaryOrSupplementary())
                     return;
 
-                AltRead altRead = processDel(
+                processDel(
                         element, record, readIndex, refPosition, refBases, numberOfEvents, readExceedsQuality, readExceedsScAdjustedQuality);
-
-                if(altRead != null)
-                    altReads.add(altRead);
             }
 
             @Override
             public void handleLeftSoftClip(final SAMRecord record, final CigarElement element)
             {
-                AltRead altRead = processSoftClip(
-                        record, element.getLength(), 0, refBases, readExceedsQuality, numberOfEvents, true);
-
-                if(altRead != null)
-                    altReads.add(altRead);
+                processSoftClip(record, element.getLength(), 0, refBases, readExceedsQuality, numberOfEvents, true);
             }
 
             @Override
             public void handleRightSoftClip(final SAMRecord record, final CigarElement element, int readIndex, int refPosition)
             {
-                AltRead altRead = processSoftClip(
-                        record, element.getLength(), readIndex, refBases, readExceedsQuality, numberOfEvents, false);
-
-                if(altRead != null)
-                    altReads.add(altRead);
+                processSoftClip(record, element.getLength(), readIndex, refBases, readExceedsQuality, numberOfEvents, false);
             }
         };
 
         CigarTraversal.traverseCigar(record, handler);
 
-        checkCoreExtension(altReads);
+        checkCoreExtension();
 
-        altReads.forEach(AltRead::updateRefContext);
+        for(int i = 0; i < mAltReadCount; ++i)
+        {
+            mAltReads.get(i).updateRefContext();
+        }
+    }
+
+    private AltRead nextAltRead()
+    {
+        if(mAltReadCount == mAltReads.size())
+            mAltReads.add(new AltRead());
+
+        return mAltReads.get(mAltReadCount++);
     }
 
     private int calcAdjustedMapQualLessEventsPenalty(final SAMRecord record, int numberOfEvents)
@@ -175,22 +179,22 @@ public class RefContextConsumer implements Consumer<SAMRecord>
 
     private boolean isHotspotPosition(int position) { return mHotspotPositions.contains(position); }
 
-    private AltRead processInsert(
+    private void processInsert(
             final CigarElement element, final SAMRecord record, int readIndex, int refPosition,
             final IndexedBases refBases, int numberOfEvents, boolean readExceedsQuality, boolean readExceedsScAdjustedQuality)
     {
         if(refPosition > mBounds.end() || refPosition < mBounds.start())
-            return null;
+            return;
 
         boolean exceedsQuality = element.getLength() <= SC_READ_EVENTS_FACTOR ? readExceedsScAdjustedQuality : readExceedsQuality;
 
         if(!exceedsQuality && !isHotspotPosition(refPosition))
-            return null;
+            return;
 
         int refIndex = refBases.index(refPosition);
         boolean sufficientMapQuality = record.getMappingQuality() >= mConfig.MinMapQuality;
 
-        final String ref = new String(refBases.Bases, refIndex, 1);
+        final String ref = baseString(refBases.Bases[refIndex]);
         final String alt = new String(record.getReadBases(), readIndex, element.getLength() + 1);
         boolean findReadContext = withinReadContext(readIndex, record);
 
@@ -198,50 +202,49 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         if(!reachedDepthLimit(refContext))
         {
             final int baseQuality = baseQuality(readIndex, record, alt.length());
-            final ReadContext readContext =
-                    findReadContext ? mReadContextFactory.createInsertContext(alt, refPosition, readIndex, record, refBases) : null;
-            return new AltRead(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, readContext);
-        }
+            AltRead altRead = nextAltRead();
+            altRead.set(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, findReadContext);
 
-        return null;
+            if(findReadContext)
+                mReadContextFactory.fillInsertContext(altRead.readContext(), alt, refPosition, readIndex, record, refBases);
+        }
     }
 
-    private AltRead processDel(
+    private void processDel(
             final CigarElement element, final SAMRecord record, int readIndex, int refPosition,
             final IndexedBases refBases, int numberOfEvents, boolean readExceedsQuality, boolean readExceedsScAdjustedQuality)
     {
         if(refPosition > mBounds.end() || refPosition < mBounds.start())
-            return null;
+            return;
 
         boolean exceedsQuality = element.getLength() <= SC_READ_EVENTS_FACTOR ? readExceedsScAdjustedQuality : readExceedsQuality;
 
         if(!exceedsQuality && !isHotspotPosition(refPosition))
-            return null;
+            return;
 
         int refIndex = refBases.index(refPosition);
         boolean sufficientMapQuality = record.getMappingQuality() >= mConfig.MinMapQuality;
 
         final String ref = new String(refBases.Bases, refIndex, element.getLength() + 1);
-        final String alt = new String(record.getReadBases(), readIndex, 1);
+        final String alt = baseString(record.getReadBases()[readIndex]);
         boolean findReadContext = withinReadContext(readIndex, record);
 
         final RefContext refContext = mRefContextCache.getOrCreateRefContext(record.getContig(), refPosition);
         if(refContext != null && !reachedDepthLimit(refContext))
         {
             final int baseQuality = baseQuality(readIndex, record, 2);
-            final ReadContext readContext =
-                    findReadContext ? mReadContextFactory.createDelContext(ref, refPosition, readIndex, record, refBases) : null;
-            return new AltRead(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, readContext);
-        }
+            AltRead altRead = nextAltRead();
+            altRead.set(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, findReadContext);
 
-        return null;
+            if(findReadContext)
+                mReadContextFactory.fillDelContext(altRead.readContext(), ref, refPosition, readIndex, record, refBases);
+        }
     }
 
-    private List<AltRead> processAlignment(
+    private void processAlignment(
             final SAMRecord record, int readBasesStartIndex, int refPositionStart,
             int alignmentLength, final IndexedBases refBases, int numberOfEvents, boolean readExceedsQuality)
     {
-        final List<AltRead> result = Lists.newArrayList();
         boolean sufficientMapQuality = record.getMappingQuality() >= mConfig.MinMapQuality;
 
         int refIndex = refBases.index(refPositionStart);
@@ -259,7 +262,6 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 continue;
 
             final byte refByte = refBases.Bases[refBaseIndex];
-            final String ref = String.valueOf((char) refByte);
             final byte readByte = record.getReadBases()[readBaseIndex];
             boolean isWithinReadContext = withinReadContext(readBaseIndex, record);
 
@@ -269,11 +271,13 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 if(readByte != refByte)
                 {
                     int baseQuality = record.getBaseQualities()[readBaseIndex];
-                    final String alt = String.valueOf((char) readByte);
-                    final ReadContext readContext = isWithinReadContext ?
-                            mReadContextFactory.createSNVContext(refPosition, readBaseIndex, record, refBases) : null;
+                    final String ref = baseString(refByte);
+                    final String alt = baseString(readByte);
+                    AltRead altRead = nextAltRead();
+                    altRead.set(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, isWithinReadContext);
 
-                    result.add(new AltRead(refContext, ref, alt, baseQuality, numberOfEvents, sufficientMapQuality, readContext));
+                    if(isWithinReadContext)
+                        mReadContextFactory.fillSNVContext(altRead.readContext(), refPosition, readBaseIndex, record, refBases);
 
                     if(mConfig.MnvEnabled)
                     {
@@ -287,19 +291,16 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                             // ie CA > TA is not a valid subset of CAC > TAT
                             if(mnvRef.charAt(mnvLength - 1) != mnvAlt.charAt(mnvLength - 1))
                             {
-                                final ReadContext mnvReadContext = isWithinReadContext ? mReadContextFactory.createMNVContext(refPosition,
-                                        readBaseIndex,
-                                        mnvLength,
-                                        record,
-                                        refBases) : null;
-
-                                result.add(new AltRead(refContext,
-                                        mnvRef,
-                                        mnvAlt,
-                                        baseQuality,
-                                        NumberEvents.calcWithMnvRaw(numberOfEvents, mnvRef, mnvAlt),
-                                        sufficientMapQuality,
-                                        mnvReadContext));
+                                AltRead mnvAltRead = nextAltRead();
+                                mnvAltRead.set(
+                                        refContext, mnvRef, mnvAlt, baseQuality, NumberEvents.calcWithMnvRaw(numberOfEvents, mnvRef, mnvAlt),
+                                        sufficientMapQuality, isWithinReadContext);
+
+                                if(isWithinReadContext)
+                                {
+                                    mReadContextFactory.fillMNVContext(
+                                            mnvAltRead.readContext(), refPosition, readBaseIndex, mnvLength, record, refBases);
+                                }
                             }
                         }
                     }
@@ -310,25 +311,23 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 }
             }
         }
-
-        return result;
     }
 
-    private AltRead processSoftClip(
+    private void processSoftClip(
             final SAMRecord record, int scLength, int scReadIndex, final IndexedBases refBases, boolean readExceedsQuality,
             int numberOfEvents, boolean onLeft)
     {
         if(!readExceedsQuality)
-            return null;
+            return;
 
         if(scLength < SC_INSERT_MIN_SC_LENGTH + 1)
-            return null;
+            return;
 
         AltRead altRead = processSoftClip(
                 record.getAlignmentStart(), record.getAlignmentEnd(), record.getReadString(), scLength, scReadIndex, refBases, onLeft);
 
         if(altRead == null)
-            return null;
+            return;
 
         int refPosition;
         int readIndex;
@@ -347,19 +346,22 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         }
 
         if(!mBounds.containsPosition(refPosition))
-            return null;
+            return;
 
         if(!withinReadContext(readIndex, record))
-            return null;
+            return;
 
         final RefContext refContext = mRefContextCache.getOrCreateRefContext(record.getContig(), refPosition);
 
         if(reachedDepthLimit(refContext))
-            return null;
+            return;
 
         final int baseQuality = baseQuality(readIndex, record, altRead.Alt.length());
+        boolean sufficientMapQuality = record.getMappingQuality() >= mConfig.MinMapQuality;
 
-        final ReadContext readContext = mReadContextFactory.createInsertContext(altRead.Alt, refPosition, readIndex, record, refBases);
+        AltRead altReadFull = nextAltRead();
+        altReadFull.set(refContext, altRead.Ref, altRead.Alt, baseQuality, numberOfEvents, sufficientMapQuality, true);
+        mReadContextFactory.fillInsertContext(altReadFull.readContext(), altRead.Alt, refPosition, readIndex, record, refBases);
 
         /*
         SG_LOGGER.trace("soft-clipped insert({}:{} {}>{}) indexes({}-{}-{}) read({}) softClip(len={} index={} on {})",
@@ -367,11 +369,6 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 readContext.indexedBases().LeftCoreIndex, readContext.indexedBases().Index, readContext.indexedBases().RightCoreIndex,
                 record.getReadName(), scLength, scReadIndex, onLeft ? "left" : "right");
         */
-
-        boolean sufficientMapQuality = record.getMappingQuality() >= mConfig.MinMapQuality;
-
-        AltRead altReadFull = new AltRead(refContext, altRead.Ref, altRead.Alt, baseQuality, numberOfEvents, sufficientMapQuality, readContext);
-        return altReadFull;
     }
 
     public static AltRead processSoftClip(
@@ -408,7 +405,7 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 String ref = readBases.substring(scIndexMatchEnd, scIndexMatchEnd + 1);
                 String alt = readBases.substring(scIndexMatchEnd, scIndexMatchEnd + altLength + 1);
 
-                return new AltRead(null, ref, alt, 0, 0, false, null);
+                return new AltRead(null, ref, alt, 0, 0, false);
             }
             catch(Exception e)
             {
@@ -439,7 +436,7 @@ public class RefContextConsumer implements Consumer<SAMRecord>
                 String ref = readBases.substring(scReadIndex - 1, scReadIndex);
                 String alt = readBases.substring(scReadIndex - 1, scReadIndex + scMatchIndex);
 
-                return new AltRead(null, ref, alt, 0, 0, false, null);
+                return new AltRead(null, ref, alt, 0, 0, false);
             }
             catch(Exception e)
             {
@@ -448,6 +445,22 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         }
     }
 
+    private static final String[] BASE_STRINGS = new String[128];
+
+    static
+    {
+        for(int i = 0; i < BASE_STRINGS.length; ++i)
+        {
+            BASE_STRINGS[i] = String.valueOf((char)i);
+        }
+    }
+
+    private static String baseString(byte base)
+    {
+        // shared single-base strings avoid an allocation for every SNV base examined
+        return base >= 0 ? BASE_STRINGS[base] : String.valueOf((char)base);
+    }
+
     private boolean withinReadContext(int readIndex, final SAMRecord record)
     {
         return readIndex >= mConfig.ReadContextFlankSize && readIndex < record.getReadLength() - mConfig.ReadContextFlankSize;
@@ -499,18 +512,20 @@ public class RefContextConsumer implements Consumer<SAMRecord>
         return reachedDepthLimit(endRefContext);
     }
 
-    private void checkCoreExtension(final List<AltRead> altReads)
+    private void checkCoreExtension()
     {
-        if(altReads.size() < 2)
+        if(mAltReadCount < 2)
             return;
 
+        final List<AltRead> altReads = mAltReads;
+
         // if an SNV core overlaps an indel core, then extend the cores of both
-        for(int i = 0; i < altReads.size(); i++)
+        for(int i = 0; i < mAltReadCount; i++)
         {
             final AltRead snv = altReads.get(i);
             if(!snv.isIndel() && snv.containsReadContext())
             {
-                for(int j = altReads.size() - 1; j > i; j--)
+                for(int j = mAltReadCount - 1; j > i; j--)
                 {
                     final AltRead nextIndel = altReads.get(j);
                     if(nextIndel != null && nextIndel.isIndel() && nextIndel.containsReadContext())
@@ -525,7 +540,7 @@ public class RefContextConsumer implements Consumer<SAMRecord>
             }
         }
 
-        for(int i = altReads.size() - 1; i >= 0; i--)
+        for(int i = mAltReadCount - 1; i >= 0; i--)
         {
             final AltRead snv = altReads.get(i);
 
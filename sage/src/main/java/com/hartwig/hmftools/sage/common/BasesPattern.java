@@ -0,0 +1,118 @@
+package com.hartwig.hmftools.sage.common;
+
+public class BasesPattern
+{
+    // searches read bases for an exact match to a fixed pattern, using a bit-parallel (shift-and) scan for patterns
+    // of up to 64 bases and a direct comparison otherwise, so reads never need to be converted to strings
+    private final byte[] mBases;
+    private final int mOffset;
+    private final int mLength;
+
+    private final long[] mBaseMasks; // null if the bit-parallel search cannot be used
+    private final long mMatchBit;
+
+    private static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+    private static final int BASE_CODES = 5;
+
+    public BasesPattern(final byte[] bases, int offset, int length)
+    {
+        mBases = bases;
+        mOffset = offset;
+        mLength = length;
+
+        mBaseMasks = mLength > 0 && mLength <= MAX_BIT_PARALLEL_LENGTH ? buildBaseMasks() : null;
+        mMatchBit = mLength > 0 ? 1L << (mLength - 1) : 0;
+    }
+
+    public int length() { return mLength; }
+
+    public int indexIn(final byte[] otherBases)
+    {
+        // returns the first index of the pattern in the other bases, or -1 if not found
+        if(mLength == 0)
+            return 0;
+
+        if(mLength > otherBases.length)
+            return -1;
+
+        return mBaseMasks != null ? bitParallelIndexIn(otherBases) : directIndexIn(otherBases);
+    }
+
+    private long[] buildBaseMasks()
+    {
+        long[] baseMasks = new long[BASE_CODES];
+
+        for(int i = 0; i < mLength; ++i)
+        {
+            int baseCode = baseCode(mBases[mOffset + i]);
+
+            if(baseCode < 0)
+                return null;
+
+            baseMasks[baseCode] |= 1L << i;
+        }
+
+        return baseMasks;
+    }
+
+    private int bitParallelIndexIn(final byte[] otherBases)
+    {
+        long state = 0;
+
+        for(int i = 0; i < otherBases.length; ++i)
+        {
+            int baseCode = baseCode(otherBases[i]);
+
+            if(baseCode < 0)
+            {
+                state = 0;
+                continue;
+            }
+
+            state = ((state << 1) | 1) & mBaseMasks[baseCode];
+
+            if((state & mMatchBit) != 0)
+                return i - mLength + 1;
+        }
+
+        return -1;
+    }
+
+    private int directIndexIn(final byte[] otherBases)
+    {
+        byte firstBase = mBases[mOffset];
+        int lastStart = otherBases.length - mLength;
+
+        for(int i = 0; i <= lastStart; ++i)
+        {
+            if(otherBases[i] != firstBase)
+                continue;
+
+            int j = 1;
+            while(j < mLength && otherBases[i + j] == mBases[mOffset + j])
+            {
+                ++j;
+            }
+
+            if(j == mLength)
+                return i;
+        }
+
+        return -1;
+    }
+
+    private static int baseCode(byte base)
+    {
+        switch(base)
+        {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            case 'N': return 4;
+            default: return -1;
+        }
+    }
+
+    public String toString() { return new String(mBases, mOffset, mLength); }
+}
@@ -57,6 +57,9 @@ public class IndexedBases
 
     public String fullString() { return Bases.length == 0 ? Strings.EMPTY : new String(Bases, LeftFlankIndex, length()); }
 
+    public BasesPattern corePattern() { return new BasesPattern(Bases, LeftCoreIndex, Bases.length == 0 ? 0 : coreLength()); }
+    public BasesPattern fullPattern() { return new BasesPattern(Bases, LeftFlankIndex, Bases.length == 0 ? 0 : length()); }
+
     public String leftFlankString()
     {
         return Bases.length == 0 ? Strings.EMPTY : new String(Bases, LeftFlankIndex, leftFlankLength());
@@ -132,25 +135,34 @@ public class IndexedBases
 
     public ReadContextMatch matchAtPosition(final IndexedBases other)
     {
-        return getMatchType(other, other.length(),null, false, 0);
+        return getMatchType(other.Index, other.Bases, other.length(), null, false, 0);
+    }
+
+    public ReadContextMatch matchAtPosition(int otherReadIndex, final byte[] otherBases, int otherLength)
+    {
+        return getMatchType(otherReadIndex, otherBases, otherLength, null, false, 0);
     }
 
     public ReadContextMatch matchAtPosition(
             final IndexedBases other, final byte[] otherBaseQuals, boolean wildcardsInCore, int maxCoreMismatches)
     {
-        return getMatchType(other, length(), otherBaseQuals, wildcardsInCore, maxCoreMismatches);
+        return getMatchType(other.Index, other.Bases, length(), otherBaseQuals, wildcardsInCore, maxCoreMismatches);
     }
 
-    private ReadContextMatch getMatchType(
-            final IndexedBases other, int otherLength, final byte[] otherBaseQuals, boolean wildcardsInCore, int maxCoreMismatches)
+    public ReadContextMatch matchAtPosition(
+            int otherReadIndex, final byte[] otherBases, final byte[] otherBaseQuals, boolean wildcardsInCore, int maxCoreMismatches)
     {
-        int otherReadIndex = other.Index;
+        // match directly against read bases without wrapping them
+        return getMatchType(otherReadIndex, otherBases, length(), otherBaseQuals, wildcardsInCore, maxCoreMismatches);
+    }
 
+    private ReadContextMatch getMatchType(
+            int otherReadIndex, final byte[] otherBases, int otherLength, final byte[] otherBaseQuals,
+            boolean wildcardsInCore, int maxCoreMismatches)
+    {
         if(otherReadIndex < 0)
             return NONE;
 
-        final byte[] otherBases = other.Bases;
-
         boolean centreMatch = coreMatch(otherReadIndex, otherBases, otherBaseQuals, wildcardsInCore, maxCoreMismatches);
         if(!centreMatch)
             return NONE;
@@ -0,0 +1,107 @@
+package com.hartwig.hmftools.sage.common;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import com.hartwig.hmftools.common.variant.MicrohomologyContext;
+import com.hartwig.hmftools.common.variant.repeat.RepeatContext;
+
+import org.apache.logging.log4j.util.Strings;
+
+public class ReadContextBuffer
+{
+    // a read context held as indices into the read's bases and reused for each alt read, so that a ReadContext is only
+    // created when an alt context keeps it as a candidate
+    private int mPosition;
+    private int mReadIndex;
+    private int mLeftCoreIndex;
+    private int mRightCoreIndex;
+    private int mFlankSize;
+    private byte[] mBases;
+    private boolean mIncompleteCore;
+
+    private MicrohomologyContext mMicrohomology;
+    private RepeatContext mRepeat;
+
+    private ReadContext mReadContext; // set once created, or when wrapping an existing read context
+
+    public ReadContextBuffer()
+    {
+        mBases = null;
+        mReadContext = null;
+    }
+
+    public ReadContextBuffer(final ReadContext readContext)
+    {
+        final IndexedBases readBases = readContext.indexedBases();
+        mPosition = readContext.Position;
+        mReadIndex = readBases.Index;
+        mLeftCoreIndex = readBases.LeftCoreIndex;
+        mRightCoreIndex = readBases.RightCoreIndex;
+        mFlankSize = readBases.FlankSize;
+        mBases = readBases.Bases;
+        mIncompleteCore = readContext.hasIncompleteCore();
+        mReadContext = readContext;
+    }
+
+    public void set(
+            final MicrohomologyContext microhomology, final RepeatContext repeat, int refPosition, int readIndex,
+            int leftCentreIndex, int rightCentreIndex, int flankSize, final byte[] bases)
+    {
+        // matches ReadContext.fromReadRecord
+        mPosition = refPosition;
+        mReadIndex = readIndex;
+        mLeftCoreIndex = max(leftCentreIndex, 0);
+        mRightCoreIndex = min(rightCentreIndex, bases.length - 1);
+        mFlankSize = flankSize;
+        mBases = bases;
+        mIncompleteCore = mLeftCoreIndex != leftCentreIndex || mRightCoreIndex != rightCentreIndex;
+        mMicrohomology = microhomology;
+        mRepeat = repeat;
+        mReadContext = null;
+    }
+
+    public void extendCore(int leftCentreIndex, int rightCentreIndex)
+    {
+        // matches ReadContext.extendCore
+        mLeftCoreIndex = max(leftCentreIndex, 0);
+        mRightCoreIndex = min(rightCentreIndex, mBases.length - 1);
+        mIncompleteCore = mLeftCoreIndex != leftCentreIndex || mRightCoreIndex != rightCentreIndex;
+        mReadContext = null;
+    }
+
+    public int leftCoreIndex() { return mLeftCoreIndex; }
+    public int rightCoreIndex() { return mRightCoreIndex; }
+    public boolean hasIncompleteCore() { return mIncompleteCore; }
+
+    public int maxFlankLength() { return min(mLeftCoreIndex, mBases.length - mRightCoreIndex - 1); }
+
+    private int length()
+    {
+        int leftFlankIndex = max(0, mLeftCoreIndex - mFlankSize);
+        int rightFlankIndex = min(mBases.length - 1, mRightCoreIndex + mFlankSize);
+        return rightFlankIndex - leftFlankIndex + 1;
+    }
+
+    public ReadContextMatch matchedBy(final IndexedBases candidateBases)
+    {
+        return candidateBases.matchAtPosition(mReadIndex, mBases, length());
+    }
+
+    public ReadContext toReadContext()
+    {
+        if(mReadContext == null)
+        {
+            IndexedBases readBases = new IndexedBases(mPosition, mReadIndex, mLeftCoreIndex, mRightCoreIndex, mFlankSize, mBases);
+
+            mReadContext = new ReadContext(
+                    mPosition,
+                    mRepeat != null ? mRepeat.sequence() : Strings.EMPTY,
+                    mRepeat != null ? mRepeat.count() : 0,
+                    mMicrohomology != null ? mMicrohomology.toString() : Strings.EMPTY,
+                    readBases, mIncompleteCore);
+        }
+
+        return mReadContext;
+    }
+}
@@ -0,0 +1,134 @@
+package com.hartwig.hmftools.sage.common;
+
+import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+
+import htsjdk.samtools.SAMRecord;
+
+public class RegionReadCache
+{
+    private final int mMaxReads;
+
+    // reads per sample from a single slice of the cache region, in BAM order
+    private final Map<String,List<SAMRecord>> mSampleReads;
+    private ChrBaseRegion mCacheRegion;
+    private int mOverflowCount;
+
+    public RegionReadCache(int maxReads)
+    {
+        mMaxReads = maxReads;
+        mSampleReads = Maps.newHashMap();
+        mCacheRegion = null;
+        mOverflowCount = 0;
+    }
+
+    public boolean enabled() { return mMaxReads > 0; }
+    public int overflowCount() { return mOverflowCount; }
+
+    public void initialise(final ChrBaseRegion cacheRegion)
+    {
+        mSampleReads.clear();
+        mCacheRegion = cacheRegion;
+    }
+
+    public void clear()
+    {
+        mSampleReads.clear();
+        mCacheRegion = null;
+    }
+
+    public ChrBaseRegion cacheRegion() { return mCacheRegion; }
+
+    public SamSlicerInterface cachingSlicer(final String sampleId, final SamSlicerInterface cacheRegionSlicer, final ChrBaseRegion region)
+    {
+        // slice the whole cache region once, retaining all reads for later stages and passing on those overlapping the requested region
+        return consumer ->
+        {
+            CachingConsumer cachingConsumer = new CachingConsumer(region, consumer);
+
+            cacheRegionSlicer.slice(cachingConsumer);
+
+            if(cachingConsumer.Reads != null)
+                mSampleReads.put(sampleId, cachingConsumer.Reads);
+            else
+                ++mOverflowCount;
+        };
+    }
+
+    private class CachingConsumer implements Consumer<SAMRecord>
+    {
+        private final ChrBaseRegion mRegion;
+        private final Consumer<SAMRecord> mConsumer;
+
+        public List<SAMRecord> Reads;
+
+        public CachingConsumer(final ChrBaseRegion region, final Consumer<SAMRecord> consumer)
+        {
+            mRegion = region;
+            mConsumer = consumer;
+            Reads = Lists.newArrayList();
+        }
+
+        @Override
+        public void accept(final SAMRecord record)
+        {
+            if(Reads != null)
+            {
+                if(Reads.size() < mMaxReads)
+                    Reads.add(record);
+                else
+                    Reads = null; // too many to cache, so later stages will re-slice the BAM instead
+            }
+
+            if(overlaps(record, mRegion))
+                mConsumer.accept(record);
+        }
+    }
+
+    public SamSlicerInterface cachedSlicer(final String sampleId, final List<ChrBaseRegion> regions, boolean keepSupplementaries)
+    {
+        final List<SAMRecord> reads = mSampleReads.get(sampleId);
+
+        if(reads == null || regions.size() != 1)
+            return null;
+
+        final ChrBaseRegion region = regions.get(0);
+
+        if(!region.Chromosome.equals(mCacheRegion.Chromosome)
+        || region.start() < mCacheRegion.start() || region.end() > mCacheRegion.end())
+        {
+            return null;
+        }
+
+        return consumer -> replay(reads, region, keepSupplementaries, consumer);
+    }
+
+    private static void replay(
+            final List<SAMRecord> reads, final ChrBaseRegion region, boolean keepSupplementaries, final Consumer<SAMRecord> consumer)
+    {
+        for(SAMRecord record : reads)
+        {
+            if(record.getAlignmentStart() > region.end())
+                break;
+
+            if(record.getSupplementaryAlignmentFlag() && !keepSupplementaries)
+                continue;
+
+            if(overlaps(record, region))
+                consumer.accept(record);
+        }
+    }
+
+    private static boolean overlaps(final SAMRecord record, final ChrBaseRegion region)
+    {
+        // matches the BAM index overlap query, which uses the aligned start and end
+        return positionsOverlap(record.getAlignmentStart(), record.getAlignmentEnd(), region.start(), region.end());
+    }
+}
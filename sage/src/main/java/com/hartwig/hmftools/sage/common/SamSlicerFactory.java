@@ -9,6 +9,7 @@ import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.samtools.BamSlicer;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.sage.SageConfig;
 
@@ -23,16 +24,52 @@ public class SamSlicerFactory
 
     private final Map<String,SamReader> mBamReaders;
 
+    private RegionReadCache mReadCache;
+
     public SamSlicerFactory()
     {
         mSamSlicers = Maps.newHashMap();
         mBamReaders = Maps.newHashMap();
+        mReadCache = null;
+    }
+
+    public void enableReadCache(int maxReads)
+    {
+        if(maxReads > 0)
+            mReadCache = new RegionReadCache(maxReads);
+    }
+
+    public boolean readCacheEnabled() { return mReadCache != null && !mBamReaders.isEmpty(); }
+
+    public RegionReadCache readCache() { return mReadCache; }
+
+    public SamSlicerInterface getCachingSamSlicer(final String sampleId, final ChrBaseRegion region)
+    {
+        // reads sliced for this region are retained for subsequent evidence slices within the cache region
+        SamReader bamReader = mBamReaders.get(sampleId);
+        ChrBaseRegion cacheRegion = mReadCache.cacheRegion();
+
+        SamSlicerInterface cacheRegionSlicer = consumer ->
+        {
+            BamSlicer bamSlicer = new BamSlicer(0, false, true, false);
+            bamSlicer.slice(bamReader, Lists.newArrayList(cacheRegion), consumer);
+        };
+
+        return mReadCache.cachingSlicer(sampleId, cacheRegionSlicer, region);
     }
 
     public SamSlicerInterface getSamSlicer(final String sampleId, final List<ChrBaseRegion> regions, boolean keepSupplementaries)
     {
         if(!mBamReaders.isEmpty())
         {
+            if(mReadCache != null)
+            {
+                SamSlicerInterface cachedSlicer = mReadCache.cachedSlicer(sampleId, regions, keepSupplementaries);
+
+                if(cachedSlicer != null)
+                    return cachedSlicer;
+            }
+
             SamReader bamReader = mBamReaders.get(sampleId);
             return new SamSlicer(bamReader, 0, regions, keepSupplementaries);
         }
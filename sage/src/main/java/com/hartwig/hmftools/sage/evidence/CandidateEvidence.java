@@ -27,7 +27,7 @@ public class CandidateEvidence
     private final List<BaseRegion> mPanel;
     private final Coverage mCoverage;
 
-    private int mTotalReadsProcessed;
+    private long mTotalReadsProcessed;
 
     public CandidateEvidence(
             final SageConfig config, final List<VariantHotspot> hotspots, final List<BaseRegion> panel, final Coverage coverage)
@@ -40,7 +40,7 @@ public class CandidateEvidence
         mTotalReadsProcessed = 0;
     }
 
-    public int totalReadsProcessed() { return mTotalReadsProcessed; }
+    public long totalReadsProcessed() { return mTotalReadsProcessed; }
 
     public List<AltContext> readBam(
             final String sample, final SamSlicerInterface samSlicer, final RefSequence refSequence, final ChrBaseRegion bounds)
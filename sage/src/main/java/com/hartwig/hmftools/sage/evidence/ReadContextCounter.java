@@ -33,6 +33,7 @@ import com.hartwig.hmftools.sage.quality.QualityConfig;
 import com.hartwig.hmftools.sage.SageConfig;
 import com.hartwig.hmftools.sage.quality.QualityCalculator;
 import com.hartwig.hmftools.sage.read.ExpandedBasesFactory;
+import com.hartwig.hmftools.sage.common.BasesPattern;
 import com.hartwig.hmftools.sage.common.IndexedBases;
 import com.hartwig.hmftools.sage.read.NumberEvents;
 import com.hartwig.hmftools.sage.common.ReadContext;
@@ -81,6 +82,10 @@ public class ReadContextCounter implements VariantHotspot
     private List<Integer> mLocalPhaseSets;
     private List<int[]> mLpsCounts;
 
+    // byte patterns for searching read bases, built on first use
+    private BasesPattern mCorePattern;
+    private BasesPattern mFullPattern;
+
     public static final int RC_FULL = 0;
     public static final int RC_PARTIAL = 1;
     public static final int RC_CORE = 2;
@@ -128,6 +133,9 @@ public class ReadContextCounter implements VariantHotspot
 
         mLocalPhaseSets = null;
         mLpsCounts = null;
+
+        mCorePattern = null;
+        mFullPattern = null;
     }
 
     public int id() { return mId; }
@@ -285,12 +293,20 @@ public class ReadContextCounter implements VariantHotspot
             int maxCoreMismatches = mVariant.isIndel() && mVariant.alt().length() >= CORE_LOW_QUAL_MISMATCH_BASE_LENGTH ?
                     mVariant.alt().length() / CORE_LOW_QUAL_MISMATCH_BASE_LENGTH : 0;
 
-            IndexedBases readBases = record.getCigar().containsOperator(CigarOperator.N) ?
-                    ExpandedBasesFactory.expand(position(), readIndex, record) :
-                    new IndexedBases(position(), readIndex, record.getReadBases());
+            final ReadContextMatch match;
+
+            if(record.getCigar().containsOperator(CigarOperator.N))
+            {
+                IndexedBases readBases = ExpandedBasesFactory.expand(position(), readIndex, record);
 
-            final ReadContextMatch match = mReadContext.indexedBases().matchAtPosition(
-                    readBases, record.getBaseQualities(), wildcardMatchInCore, maxCoreMismatches);
+                match = mReadContext.indexedBases().matchAtPosition(
+                        readBases, record.getBaseQualities(), wildcardMatchInCore, maxCoreMismatches);
+            }
+            else
+            {
+                match = mReadContext.indexedBases().matchAtPosition(
+                        readIndex, record.getReadBases(), record.getBaseQualities(), wildcardMatchInCore, maxCoreMismatches);
+            }
 
             if(!match.equals(ReadContextMatch.NONE))
             {
@@ -397,12 +413,14 @@ public class ReadContextCounter implements VariantHotspot
         if(max(scLenLeft, scLenRight) < 5)
             return RawContext.INVALID_CONTEXT;
 
-        final String variantCore = mReadContext.coreString();
-        int coreStartIndex = record.getReadString().indexOf(variantCore);
+        if(mCorePattern == null)
+            mCorePattern = mReadContext.indexedBases().corePattern();
+
+        int coreStartIndex = mCorePattern.indexIn(record.getReadBases());
         if(coreStartIndex < 1)
             return RawContext.INVALID_CONTEXT;
 
-        int coreEndIndex = coreStartIndex + variantCore.length() - 1;
+        int coreEndIndex = coreStartIndex + mCorePattern.length() - 1;
         boolean isValidRead = false;
         int baseQuality = 0;
 
@@ -543,10 +561,8 @@ public class ReadContextCounter implements VariantHotspot
 
         if(realignLeftReadIndex >= 0) //  && realignLeftReadIndex != readIndex
         {
-            IndexedBases readBases = new IndexedBases(position(), realignLeftReadIndex, record.getReadBases());
-
             ReadContextMatch match = mReadContext.indexedBases().matchAtPosition(
-                    readBases, record.getBaseQualities(), false, 0);
+                    realignLeftReadIndex, record.getReadBases(), record.getBaseQualities(), false, 0);
 
             if(match == ReadContextMatch.FULL || match == ReadContextMatch.PARTIAL)
                 return new RealignedContext(EXACT, mReadContext.indexedBases().length(), realignLeftReadIndex);
@@ -558,20 +574,20 @@ public class ReadContextCounter implements VariantHotspot
         {
             // still need to test even if this index matches the original readIndex since if the readIndex was in a delete
             // it will be have skipped above
-            IndexedBases readBases = new IndexedBases(position(), realignRightReadIndex, record.getReadBases());
-
             ReadContextMatch match = mReadContext.indexedBases().matchAtPosition(
-                    readBases, record.getBaseQualities(), false, 0);
+                    realignRightReadIndex, record.getReadBases(), record.getBaseQualities(), false, 0);
 
             if(match == ReadContextMatch.FULL || match == ReadContextMatch.PARTIAL)
                 return new RealignedContext(RealignedType.EXACT, mReadContext.indexedBases().length(), realignRightReadIndex);
         }
 
         // try a simple string search and take it as exact if the matched index is within the expected range
-        String readContext = mReadContext.indexedBases().fullString();
-        if(readContext.length() >= REALIGN_READ_CONTEXT_MIN_SEARCH_LENGTH)
+        if(mFullPattern == null)
+            mFullPattern = mReadContext.indexedBases().fullPattern();
+
+        if(mFullPattern.length() >= REALIGN_READ_CONTEXT_MIN_SEARCH_LENGTH)
         {
-            int matchedReadIndex = record.getReadString().indexOf(readContext);
+            int matchedReadIndex = mFullPattern.indexIn(record.getReadBases());
 
             if(matchedReadIndex >= 0)
             {
@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.sage.pipeline;
 
+import static java.lang.Math.max;
+
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 import static com.hartwig.hmftools.sage.pipeline.ChromosomePartition.getPanelRegions;
 
@@ -42,7 +44,7 @@ public class CandidateStage
         mCandidateEvidence = new CandidateEvidence(config, hotspots, panelRegions, coverage);
     }
 
-    public int totalReadsProcessed() { return mCandidateEvidence.totalReadsProcessed(); }
+    public long totalReadsProcessed() { return mCandidateEvidence.totalReadsProcessed(); }
 
     public List<Candidate> findCandidates(final ChrBaseRegion region, final RefSequence refSequence)
     {
@@ -50,11 +52,23 @@ public class CandidateStage
 
         final List<ChrBaseRegion> sliceRegions = !mConfig.PanelOnly ? Lists.newArrayList(region) : getPanelRegions(region, mPanelRegions);
 
+        // tumor reads are decoded once and retained for the evidence stage, whose slices extend a read length beyond the region
+        boolean cacheReads = mSamSlicerFactory.readCacheEnabled() && !mConfig.PanelOnly;
+
+        if(cacheReads)
+        {
+            int readLength = mConfig.typicalReadLength();
+
+            mSamSlicerFactory.readCache().initialise(new ChrBaseRegion(
+                    region.Chromosome, max(region.start() - readLength, 1), region.end() + readLength));
+        }
+
         for(int i = 0; i < mConfig.TumorIds.size(); i++)
         {
             final String sample = mConfig.TumorIds.get(i);
 
-            SamSlicerInterface samSlicer = mSamSlicerFactory.getSamSlicer(sample, sliceRegions, true);
+            SamSlicerInterface samSlicer = cacheReads ?
+                    mSamSlicerFactory.getCachingSamSlicer(sample, region) : mSamSlicerFactory.getSamSlicer(sample, sliceRegions, true);
 
             List<AltContext> altContexts = mCandidateEvidence.readBam(sample, samSlicer, refSequence, region);
 
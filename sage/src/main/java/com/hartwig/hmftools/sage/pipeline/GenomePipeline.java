@@ -0,0 +1,135 @@
+package com.hartwig.hmftools.sage.pipeline;
+
+import static java.lang.Math.min;
+
+import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
+import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.chromosome.MitochondrialChromosome;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
+import com.hartwig.hmftools.common.utils.sv.BaseRegion;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.ReferenceData;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.common.PartitionTask;
+import com.hartwig.hmftools.sage.coverage.Coverage;
+import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
+import com.hartwig.hmftools.sage.vcf.VcfWriter;
+
+public class GenomePipeline
+{
+    private final SageConfig mConfig;
+    private final ReferenceData mRefData;
+
+    private final Map<String,QualityRecalibrationMap> mQualityRecalibrationMap;
+    private final Coverage mCoverage;
+    private final PhaseSetCounter mPhaseSetCounter;
+
+    private final VcfWriter mVcfWriter;
+    private final Queue<PartitionTask> mPartitions;
+    private final RegionResults mRegionResults;
+
+    public GenomePipeline(
+            final List<String> chromosomes, final SageConfig config,
+            final ReferenceData refData, final Map<String,QualityRecalibrationMap> qualityRecalibrationMap,
+            final Coverage coverage, final PhaseSetCounter phaseSetCounter, final VcfWriter vcfWriter)
+    {
+        mConfig = config;
+        mRefData = refData;
+        mQualityRecalibrationMap = qualityRecalibrationMap;
+        mCoverage = coverage;
+        mPhaseSetCounter = phaseSetCounter;
+
+        mVcfWriter = vcfWriter;
+
+        mPartitions = new ConcurrentLinkedQueue<>();
+        mRegionResults = new RegionResults(vcfWriter);
+
+        // partitions from all chromosomes share a single queue, so threads move onto the next chromosome rather than waiting
+        // for the last partitions of the current one - task IDs follow genome order, so the VCF writer can restore output order
+        ChromosomePartition chrPartition = new ChromosomePartition(config, refData.RefGenome);
+
+        int taskId = 0;
+
+        for(String chromosome : chromosomes)
+        {
+            List<BaseRegion> panelRegions = refData.PanelWithHotspots.get(chromosomeKey(chromosome));
+
+            List<ChrBaseRegion> partitionedRegions = chrPartition.partition(chromosome);
+
+            for(ChrBaseRegion region : partitionedRegions)
+            {
+                if(mConfig.PanelOnly)
+                {
+                    // skip partitions without any panel regions
+                    if(panelRegions == null || panelRegions.stream().noneMatch(x -> positionsOverlap(
+                            region.start(), region.end(), x.start(), x.end())))
+                    {
+                        continue;
+                    }
+                }
+
+                mPartitions.add(new PartitionTask(region, taskId++));
+            }
+        }
+    }
+
+    public static Chromosome chromosomeKey(final String chromosome)
+    {
+        return HumanChromosome.contains(chromosome) ? HumanChromosome.fromString(chromosome) : MitochondrialChromosome.fromString(chromosome);
+    }
+
+    public void process()
+    {
+        int regionCount = mPartitions.size();
+        SG_LOGGER.info("executing {} regions", regionCount);
+
+        List<Thread> workers = new ArrayList<>();
+
+        for(int i = 0; i < min(mPartitions.size(), mConfig.Threads); ++i)
+        {
+            workers.add(new RegionThread(
+                    mConfig, mRefData, mQualityRecalibrationMap, mCoverage, mPhaseSetCounter, mPartitions, mRegionResults));
+        }
+
+        for(Thread worker : workers)
+        {
+            try
+            {
+                worker.join();
+            }
+            catch(InterruptedException e)
+            {
+                SG_LOGGER.error("task execution error: {}", e.toString());
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+
+        SG_LOGGER.debug("{} regions complete, processed {} reads, writing {} variants",
+                regionCount, mRegionResults.totalReads(), mRegionResults.totalVariants());
+
+        mVcfWriter.flushChromosome();
+
+        if(mConfig.logPerfStats())
+        {
+            mRegionResults.logPerfCounters();
+            SG_LOGGER.debug("max memory({})", mRegionResults.maxMemoryUsage());
+        }
+
+        SG_LOGGER.info("analysis complete");
+    }
+
+    public int maxMemoryUsage() { return mRegionResults.maxMemoryUsage(); }
+
+    public void recordMetrics(final MetricsRegistry metrics) { mRegionResults.recordMetrics(metrics); }
+}
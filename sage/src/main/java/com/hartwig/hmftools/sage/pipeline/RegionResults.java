@@ -2,19 +2,28 @@ package com.hartwig.hmftools.sage.pipeline;
 
 import static java.lang.Math.max;
 
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.MAX_MEMORY_MB;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.READS_PROCESSED;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.REGIONS_PROCESSED;
+import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+import static com.hartwig.hmftools.sage.pipeline.RegionTask.PC_CANDIDATES;
+
 import java.util.List;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.sage.common.SageVariant;
 import com.hartwig.hmftools.sage.vcf.VcfWriter;
 
 public class RegionResults
 {
     private final VcfWriter mVcfWriter;
-    private int mTotalReads;
+    private long mTotalReads;
     private int mTotaVariants;
+    private int mRegionCount;
     private int mMaxMemoryUsage;
+    private long mCandidateAllocation; // bytes allocated by the candidate stage
     private final List<PerformanceCounter> mPerfCounters;
 
     public RegionResults(final VcfWriter vcfWriter)
@@ -22,19 +31,22 @@ public class RegionResults
         mVcfWriter = vcfWriter;
         mTotalReads = 0;
         mTotaVariants = 0;
+        mRegionCount = 0;
         mMaxMemoryUsage = 0;
+        mCandidateAllocation = 0;
         mPerfCounters = Lists.newArrayList();
     }
 
     public synchronized void addFinalVariants(final int taskId, final List<SageVariant> variants)
     {
         mTotaVariants += variants.size();
+        ++mRegionCount;
 
         if(mVcfWriter != null)
             mVcfWriter.writeVariants(taskId, variants);
     }
 
-    public synchronized void addTotalReads(int totalReads)
+    public synchronized void addTotalReads(long totalReads)
     {
         mTotalReads += totalReads;
     }
@@ -44,6 +56,11 @@ public class RegionResults
         mMaxMemoryUsage = max(mMaxMemoryUsage, maxMemory);
     }
 
+    public synchronized void addCandidateAllocation(long allocatedBytes)
+    {
+        mCandidateAllocation += allocatedBytes;
+    }
+
     public synchronized void addPerfCounters(final List<PerformanceCounter> perfCounters)
     {
         if(mPerfCounters.isEmpty())
@@ -59,13 +76,31 @@ public class RegionResults
         }
     }
 
-    public int totalReads() { return mTotalReads; }
+    public long totalReads() { return mTotalReads; }
     public int totalVariants() { return mTotaVariants; }
     public int maxMemoryUsage() { return mMaxMemoryUsage; }
 
     public void logPerfCounters()
     {
         mPerfCounters.forEach(x -> x.logStats());
+
+        if(!mPerfCounters.isEmpty())
+        {
+            double candidateSeconds = mPerfCounters.get(PC_CANDIDATES).getTotalTime();
+            double allocationMb = mCandidateAllocation / (1024.0 * 1024.0);
+
+            SG_LOGGER.info(String.format("PerfStats: candidate allocation(%.0fMB) rate(%.1fMB/s)",
+                    allocationMb, candidateSeconds > 0 ? allocationMb / candidateSeconds : 0));
+        }
     }
 
+    public void recordMetrics(final MetricsRegistry metrics)
+    {
+        metrics.counter(READS_PROCESSED).add(mTotalReads);
+        metrics.counter(REGIONS_PROCESSED).add(mRegionCount);
+        metrics.counter("variants_written").add(mTotaVariants);
+        metrics.counter("candidate_allocated_bytes").add(mCandidateAllocation);
+        metrics.gauge(MAX_MEMORY_MB).setMax(mMaxMemoryUsage);
+        metrics.addPerfCounters(mPerfCounters);
+    }
 }
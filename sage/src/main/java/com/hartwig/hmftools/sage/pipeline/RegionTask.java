@@ -2,6 +2,7 @@ package com.hartwig.hmftools.sage.pipeline;
 
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 import static com.hartwig.hmftools.sage.SageCommon.calcMemoryUsage;
+import static com.hartwig.hmftools.sage.SageCommon.threadAllocatedBytes;
 
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ public class RegionTask
     private final CandidateStage mCandidateState;
     private final EvidenceStage mEvidenceStage;
     private final VariantDeduper mVariantDeduper;
+    private final SamSlicerFactory mSamSlicerFactory;
 
     private final List<SageVariant> mSageVariants;
     private final Set<Integer> mPassingPhaseSets;
@@ -70,6 +72,7 @@ public class RegionTask
         mEvidenceStage = new EvidenceStage(config, refGenome, qualityRecalibrationMap, phaseSetCounter, samSlicerFactory);
 
         mVariantDeduper = new VariantDeduper(transcripts);
+        mSamSlicerFactory = samSlicerFactory;
 
         mSageVariants = Lists.newArrayList();
         mPassingPhaseSets = Sets.newHashSet();
@@ -94,10 +97,15 @@ public class RegionTask
 
         final RefSequence refSequence = new RefSequence(mRegion, mRefGenome);
 
+        long allocatedBytes = mConfig.collectPerfStats() ? threadAllocatedBytes() : 0;
+
         mPerfCounters.get(PC_CANDIDATES).start();
         List<Candidate> initialCandidates = mCandidateState.findCandidates(mRegion, refSequence);
         mPerfCounters.get(PC_CANDIDATES).stop();
 
+        if(mConfig.collectPerfStats())
+            mResults.addCandidateAllocation(threadAllocatedBytes() - allocatedBytes);
+
         if(mConfig.PerfWarnTime > 0 && mPerfCounters.get(PC_CANDIDATES).getLastTime() > mConfig.PerfWarnTime)
         {
             SG_LOGGER.warn("region({}) candidate({}) reads({}) processing time({})",
@@ -119,6 +127,9 @@ public class RegionTask
 
         mPerfCounters.get(PC_EVIDENCE).stop();
 
+        if(mSamSlicerFactory.readCache() != null)
+            mSamSlicerFactory.readCache().clear();
+
         VariantPhaser variantPhaser = mEvidenceStage.getVariantPhaser();
 
         if(mConfig.PerfWarnTime > 0 && mPerfCounters.get(PC_EVIDENCE).getLastTime() > mConfig.PerfWarnTime)
@@ -190,7 +201,7 @@ public class RegionTask
 
         mPerfCounters.add(mEvidenceStage.getVariantPhaser().getPerfCounter());
 
-        if(mConfig.logPerfStats())
+        if(mConfig.collectPerfStats())
             mResults.addPerfCounters(mPerfCounters);
 
         mResults.addMaxMemory(calcMemoryUsage(false));
@@ -3,6 +3,7 @@ package com.hartwig.hmftools.sage.pipeline;
 import static com.hartwig.hmftools.common.utils.sv.BaseRegion.positionsOverlap;
 import static com.hartwig.hmftools.sage.ReferenceData.loadRefGenome;
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+import static com.hartwig.hmftools.sage.pipeline.GenomePipeline.chromosomeKey;
 
 import java.util.List;
 import java.util.Map;
@@ -12,10 +13,12 @@ import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource;
 import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+import com.hartwig.hmftools.sage.ReferenceData;
 import com.hartwig.hmftools.sage.SageConfig;
 import com.hartwig.hmftools.sage.common.PartitionTask;
 import com.hartwig.hmftools.sage.common.SamSlicerFactory;
@@ -27,8 +30,8 @@ import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 
 public class RegionThread extends Thread
 {
-    private final String mChromosome;
     private final SageConfig mConfig;
+    private final ReferenceData mRefData;
     private final IndexedFastaSequenceFile mRefGenomeFile;
     private final RefGenomeSource mRefGenome;
 
@@ -39,23 +42,22 @@ public class RegionThread extends Thread
     private final Queue<PartitionTask> mPartitions;
     private final RegionResults mRegionResults;
 
-    // cache of chromosome-specific ref data
-    private final List<BaseRegion> mPanelRegions;
-    private final List<VariantHotspot> mHotspots;
-    private final List<TranscriptData> mTranscripts;
-    private final List<BaseRegion> mHighConfidenceRegions;
+    // cache of chromosome-specific ref data, refreshed as partitions move onto a new chromosome
+    private String mChromosome;
+    private List<BaseRegion> mPanelRegions;
+    private List<VariantHotspot> mHotspots;
+    private List<TranscriptData> mTranscripts;
+    private List<BaseRegion> mHighConfidenceRegions;
 
     private final SamSlicerFactory mSamSlicerFactory;
 
     public RegionThread(
-            final String chromosome, final SageConfig config,
+            final SageConfig config, final ReferenceData refData,
             final Map<String,QualityRecalibrationMap> qualityRecalibrationMap, final Coverage coverage,
-            final PhaseSetCounter phaseSetCounter, final List<BaseRegion> panelRegions, final List<VariantHotspot> hotspots,
-            final List<TranscriptData> transcripts, final List<BaseRegion> highConfidenceRegions,
-            final Queue<PartitionTask> partitions, final RegionResults regionResults)
+            final PhaseSetCounter phaseSetCounter, final Queue<PartitionTask> partitions, final RegionResults regionResults)
     {
-        mChromosome = chromosome;
         mConfig = config;
+        mRefData = refData;
         mSamSlicerFactory = new SamSlicerFactory();
         mRefGenomeFile = loadRefGenome(config.RefGenomeFile);
         mRefGenome = new RefGenomeSource(mRefGenomeFile);
@@ -63,16 +65,18 @@ public class RegionThread extends Thread
         mCoverage = coverage;
         mPhaseSetCounter = phaseSetCounter;
 
-        mPanelRegions = panelRegions;
-        mHighConfidenceRegions = highConfidenceRegions;
-        mHotspots = hotspots;
-        mTranscripts = transcripts;
+        mChromosome = null;
+        mPanelRegions = null;
+        mHighConfidenceRegions = null;
+        mHotspots = null;
+        mTranscripts = null;
 
         mRegionResults = regionResults;
         mPartitions = partitions;
 
         // create readers for each sample and BAM
         mSamSlicerFactory.buildBamReaders(mConfig, mRefGenomeFile);
+        mSamSlicerFactory.enableReadCache(mConfig.ReadCacheMax);
 
         start();
     }
@@ -89,7 +93,7 @@ public class RegionThread extends Thread
                 if(partition.TaskId > 0 && (partition.TaskId % 100) == 0)
                 {
                     SG_LOGGER.debug("chromosome({}) regions assigned({}) remaining({})",
-                            mChromosome, partition.TaskId, mPartitions.size());
+                            partition.Partition.Chromosome, partition.TaskId, mPartitions.size());
                 }
 
                 task.run();
@@ -101,6 +105,11 @@ public class RegionThread extends Thread
             }
         }
 
+        if(mSamSlicerFactory.readCache() != null && mSamSlicerFactory.readCache().overflowCount() > 0)
+        {
+            SG_LOGGER.debug("partitions({}) exceeded read cache limit", mSamSlicerFactory.readCache().overflowCount());
+        }
+
         mSamSlicerFactory.close();
     }
 
@@ -108,6 +117,9 @@ public class RegionThread extends Thread
     {
         ChrBaseRegion region = partitionTask.Partition;
 
+        if(!region.Chromosome.equals(mChromosome))
+            setChromosomeRefData(region.Chromosome);
+
         List<BaseRegion> regionPanel = mPanelRegions != null ? mPanelRegions.stream()
                 .filter(x -> positionsOverlap(region.start(), region.end(), x.start(), x.end())).collect(Collectors.toList())
                 : Lists.newArrayList();
@@ -127,4 +139,16 @@ public class RegionThread extends Thread
                 partitionTask.TaskId, region, mRegionResults, mConfig, mRefGenome, regionHotspots, regionPanel, regionsTranscripts,
                 regionHighConfidence, mQualityRecalibrationMap, mPhaseSetCounter, mCoverage, mSamSlicerFactory);
     }
+
+    private void setChromosomeRefData(final String chromosome)
+    {
+        mChromosome = chromosome;
+
+        Chromosome chr = chromosomeKey(chromosome);
+
+        mPanelRegions = mRefData.PanelWithHotspots.get(chr);
+        mHotspots = mRefData.Hotspots.get(chr);
+        mTranscripts = mRefData.ChromosomeTranscripts.get(chromosome);
+        mHighConfidenceRegions = mRefData.HighConfidence.get(chr);
+    }
 }
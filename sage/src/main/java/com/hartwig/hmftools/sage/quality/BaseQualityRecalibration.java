@@ -35,8 +35,7 @@ public class BaseQualityRecalibration
     private final IndexedFastaSequenceFile mRefGenome;
 
     private final Map<String,QualityRecalibrationMap> mSampleRecalibrationMap;
-    private final Queue<PartitionTask> mRegions;
-    private final BaseQualityResults mResults;
+    private final Queue<BqrRegionTask> mRegions;
     private boolean mIsValid;
 
     public BaseQualityRecalibration(final SageConfig config, final IndexedFastaSequenceFile refGenome)
@@ -46,7 +45,6 @@ public class BaseQualityRecalibration
 
         mSampleRecalibrationMap = Maps.newHashMap();
         mRegions = new ConcurrentLinkedQueue<>();
-        mResults = new BaseQualityResults();
         mIsValid = true;
     }
 
@@ -99,36 +97,59 @@ public class BaseQualityRecalibration
 
         final List<PartitionTask> regions = createRegions();
 
+        // all samples' regions are processed by a single shared pool of threads
+        List<BqrSample> samples = Lists.newArrayList();
+
         for(int i = 0; i < mConfig.ReferenceIds.size(); i++)
         {
-            processSample(mConfig.ReferenceIds.get(i), mConfig.ReferenceBams.get(i), regions);
+            samples.add(new BqrSample(samples.size(), mConfig.ReferenceIds.get(i), mConfig.ReferenceBams.get(i)));
         }
 
         for(int i = 0; i < mConfig.TumorIds.size(); i++)
         {
-            processSample(mConfig.TumorIds.get(i), mConfig.TumorBams.get(i), regions);
+            samples.add(new BqrSample(samples.size(), mConfig.TumorIds.get(i), mConfig.TumorBams.get(i)));
         }
 
-        if(mConfig.logPerfStats())
-            mResults.logPerfStats();
+        processSamples(samples, regions);
+
+        for(BqrSample sample : samples)
+        {
+            // merge results for each sample across all regions
+            final List<QualityRecalibrationRecord> records = convertToRecords(sample.Results.getCombinedQualityCounts());
+
+            mSampleRecalibrationMap.put(sample.SampleId, new QualityRecalibrationMap(records));
+
+            if(mConfig.QualityRecalibration.WriteFile)
+                writeSampleData(sample.SampleId, records);
+
+            if(mConfig.logPerfStats())
+                sample.Results.logPerfStats();
+        }
 
         SG_LOGGER.info("base quality recalibration cache generated");
     }
 
-    private void processSample(final String sampleId, final String bamFile, final List<PartitionTask> regions)
+    private void processSamples(final List<BqrSample> samples, final List<PartitionTask> regions)
     {
-        mRegions.addAll(regions);
-        mResults.clear();
+        // queue each sample's regions in turn so a thread mostly works from a single BAM at a time
+        int taskId = 0;
 
-        int regionCount = mRegions.size();
+        for(BqrSample sample : samples)
+        {
+            for(PartitionTask region : regions)
+            {
+                mRegions.add(new BqrRegionTask(sample, region, taskId++));
+            }
+        }
 
-        SG_LOGGER.debug("samples({}) building base-qual recalibration map from {} regions", sampleId, regionCount);
+        SG_LOGGER.debug("samples({}) building base-qual recalibration maps from {} regions",
+                samples.size(), mRegions.size());
 
         List<BqrThread> workers = new ArrayList<>();
 
         for(int i = 0; i < min(mRegions.size(), mConfig.Threads); ++i)
         {
-            workers.add(new BqrThread(mConfig, mRefGenome, bamFile, mRegions, mResults));
+            workers.add(new BqrThread(mConfig, mRefGenome, mRegions, samples.size()));
         }
 
         for(Thread worker : workers)
@@ -144,17 +165,6 @@ public class BaseQualityRecalibration
                 System.exit(1);
             }
         }
-
-        // merge results for this sample across all regions
-        final Map<BaseQualityKey,Integer> allQualityCounts = mResults.getCombinedQualityCounts();
-
-        final List<QualityRecalibrationRecord> records = convertToRecords(allQualityCounts);
-
-        mSampleRecalibrationMap.put(sampleId, new QualityRecalibrationMap(records));
-
-        // write results to file
-        if(mConfig.QualityRecalibration.WriteFile)
-            writeSampleData(sampleId, records);
     }
 
     private void buildEmptyRecalibrations()
@@ -17,11 +17,6 @@ public class BaseQualityResults
         mPerfCounter = null;
     }
 
-    public void clear()
-    {
-        mCombinedQualityCounts.clear();
-    }
-
     public synchronized void addBaseQualityRegionCounter(final BaseQualityRegionCounter regionCounter)
     {
         for(QualityCounter counter : regionCounter.getQualityCounts())
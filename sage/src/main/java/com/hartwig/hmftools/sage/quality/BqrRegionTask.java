@@ -0,0 +1,19 @@
+package com.hartwig.hmftools.sage.quality;
+
+import com.hartwig.hmftools.sage.common.PartitionTask;
+
+public class BqrRegionTask
+{
+    public final BqrSample Sample;
+    public final PartitionTask Region;
+    public final int TaskId; // across all samples
+
+    public BqrRegionTask(final BqrSample sample, final PartitionTask region, final int taskId)
+    {
+        Sample = sample;
+        Region = region;
+        TaskId = taskId;
+    }
+
+    public String toString() { return String.format("sample(%s) region(%s)", Sample.SampleId, Region.Partition); }
+}
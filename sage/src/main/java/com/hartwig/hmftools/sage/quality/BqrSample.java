@@ -0,0 +1,19 @@
+package com.hartwig.hmftools.sage.quality;
+
+public class BqrSample
+{
+    public final int Index;
+    public final String SampleId;
+    public final String BamFile;
+    public final BaseQualityResults Results;
+
+    public BqrSample(final int index, final String sampleId, final String bamFile)
+    {
+        Index = index;
+        SampleId = sampleId;
+        BamFile = bamFile;
+        Results = new BaseQualityResults();
+    }
+
+    public String toString() { return String.format("%d: %s", Index, SampleId); }
+}
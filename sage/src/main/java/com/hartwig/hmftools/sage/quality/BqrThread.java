@@ -3,11 +3,11 @@ package com.hartwig.hmftools.sage.quality;
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
 import com.hartwig.hmftools.sage.SageConfig;
-import com.hartwig.hmftools.sage.common.PartitionTask;
 
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
@@ -18,28 +18,22 @@ public class BqrThread extends Thread
 {
     private final IndexedFastaSequenceFile mRefGenome;
     private final SageConfig mConfig;
-    private final SamReader mBamReader;
 
-    private final Queue<PartitionTask> mRegions;
-    private final BaseQualityResults mResults;
+    private final Queue<BqrRegionTask> mRegions;
 
-    private final BaseQualityRegionCounter mRegionCounter; // will be reused for each region
+    // BAM readers and region counters are opened on first use per sample and reused for each of its regions
+    private final SamReader[] mBamReaders;
+    private final BaseQualityRegionCounter[] mRegionCounters;
 
     public BqrThread(
-            final SageConfig config, final IndexedFastaSequenceFile refGenome, final String bamFile,
-            final Queue<PartitionTask> regions, final BaseQualityResults results)
+            final SageConfig config, final IndexedFastaSequenceFile refGenome, final Queue<BqrRegionTask> regions, int sampleCount)
     {
         mRefGenome = refGenome;
         mConfig = config;
         mRegions = regions;
-        mResults = results;
 
-        mBamReader = SamReaderFactory.makeDefault()
-                .validationStringency(mConfig.Stringency)
-                .referenceSource(new ReferenceSource(mRefGenome))
-                .open(new File(bamFile));
-
-        mRegionCounter = new BaseQualityRegionCounter(mConfig, mBamReader, mRefGenome, mResults);
+        mBamReaders = new SamReader[sampleCount];
+        mRegionCounters = new BaseQualityRegionCounter[sampleCount];
 
         start();
     }
@@ -50,17 +44,17 @@ public class BqrThread extends Thread
         {
             try
             {
-                PartitionTask partition = mRegions.remove();
+                BqrRegionTask task = mRegions.remove();
 
-                mRegionCounter.initialise(partition.Partition);
+                BaseQualityRegionCounter regionCounter = getRegionCounter(task.Sample);
+                regionCounter.initialise(task.Region.Partition);
 
-                if(partition.TaskId > 0 && (partition.TaskId % 100) == 0)
+                if(task.TaskId > 0 && (task.TaskId % 100) == 0)
                 {
-                    SG_LOGGER.debug("base-qual regions assigned({}) remaining({})",
-                            partition.TaskId, mRegions.size());
+                    SG_LOGGER.debug("base-qual regions assigned({}) remaining({})", task.TaskId, mRegions.size());
                 }
 
-                mRegionCounter.run();
+                regionCounter.run();
             }
             catch(NoSuchElementException e)
             {
@@ -68,6 +62,41 @@ public class BqrThread extends Thread
                 break;
             }
         }
+
+        closeBamReaders();
+    }
+
+    private BaseQualityRegionCounter getRegionCounter(final BqrSample sample)
+    {
+        if(mRegionCounters[sample.Index] == null)
+        {
+            mBamReaders[sample.Index] = SamReaderFactory.makeDefault()
+                    .validationStringency(mConfig.Stringency)
+                    .referenceSource(new ReferenceSource(mRefGenome))
+                    .open(new File(sample.BamFile));
+
+            mRegionCounters[sample.Index] = new BaseQualityRegionCounter(
+                    mConfig, mBamReaders[sample.Index], mRefGenome, sample.Results);
+        }
+
+        return mRegionCounters[sample.Index];
     }
 
+    private void closeBamReaders()
+    {
+        for(SamReader bamReader : mBamReaders)
+        {
+            if(bamReader == null)
+                continue;
+
+            try
+            {
+                bamReader.close();
+            }
+            catch(IOException e)
+            {
+                SG_LOGGER.warn("failed to close BAM reader: {}", e.toString());
+            }
+        }
+    }
 }
@@ -2,42 +2,84 @@ package com.hartwig.hmftools.sage.quality;
 
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import com.google.common.collect.Maps;
 
 public class QualityRecalibrationMap
 {
-    // recalibration results per sampleId
-    private final Map<BaseQualityKey,QualityRecalibrationRecord> mMap;
+    // recalibration results per sample, held in a dense table indexed by ref, alt, trinucleotide context and quality
+    private final double[] mRecalibratedQuals;
+
+    private static final int BASE_COUNT = 4;
+    private static final int QUAL_COUNT = Byte.MAX_VALUE + 1;
+    private static final int TABLE_SIZE = BASE_COUNT * BASE_COUNT * BASE_COUNT * BASE_COUNT * BASE_COUNT * QUAL_COUNT;
+
+    private static final int INVALID_INDEX = -1;
 
     public QualityRecalibrationMap(final List<QualityRecalibrationRecord> records)
     {
-        mMap = Maps.newHashMap();
+        mRecalibratedQuals = new double[TABLE_SIZE];
+        Arrays.fill(mRecalibratedQuals, Double.NaN);
 
         for(QualityRecalibrationRecord record : records)
         {
-            if(mMap.containsKey(record.Key))
+            BaseQualityKey key = record.Key;
+            int index = tableIndex(key.Ref, key.Alt, key.TrinucleotideContext, key.Quality);
+
+            if(index == INVALID_INDEX)
             {
-                QualityRecalibrationRecord existing = mMap.get(record.Key);
-                SG_LOGGER.error("duplicate key({}) with existing key({}) count({})", record.Key, existing.Key, existing.Count);
+                SG_LOGGER.warn("ignoring base quality recalibration key({}) with unsupported bases or quality", key);
+                continue;
             }
-            else
+
+            if(!Double.isNaN(mRecalibratedQuals[index]))
             {
-                mMap.put(record.Key, record);
+                SG_LOGGER.error("duplicate key({}) count({})", key, record.Count);
+                continue;
             }
-        }
 
-        // mMap = records.stream().collect(Collectors.toMap(x -> x.Key, x -> x));
+            mRecalibratedQuals[index] = record.RecalibratedQuality;
+        }
     }
 
     public double quality(byte ref, byte alt, byte[] trinucleotideContext, byte qual)
     {
-        final BaseQualityKey key = new BaseQualityKey(ref, alt, trinucleotideContext, qual);
+        int index = tableIndex(ref, alt, trinucleotideContext, qual);
+
+        if(index == INVALID_INDEX)
+            return qual;
+
+        double recalibratedQual = mRecalibratedQuals[index];
+        return Double.isNaN(recalibratedQual) ? qual : recalibratedQual;
+    }
 
-        QualityRecalibrationRecord record = mMap.get(key);
-        return record != null ? record.RecalibratedQuality : qual;
+    private static int tableIndex(byte ref, byte alt, final byte[] trinucleotideContext, byte qual)
+    {
+        if(qual < 0 || trinucleotideContext == null || trinucleotideContext.length != 3)
+            return INVALID_INDEX;
+
+        int refIndex = baseIndex(ref);
+        int altIndex = baseIndex(alt);
+        int context0 = baseIndex(trinucleotideContext[0]);
+        int context1 = baseIndex(trinucleotideContext[1]);
+        int context2 = baseIndex(trinucleotideContext[2]);
+
+        if(refIndex < 0 || altIndex < 0 || context0 < 0 || context1 < 0 || context2 < 0)
+            return INVALID_INDEX;
+
+        int index = (((refIndex * BASE_COUNT + altIndex) * BASE_COUNT + context0) * BASE_COUNT + context1) * BASE_COUNT + context2;
+        return index * QUAL_COUNT + qual;
+    }
+
+    private static int baseIndex(byte base)
+    {
+        switch(base)
+        {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return INVALID_INDEX;
+        }
     }
 }
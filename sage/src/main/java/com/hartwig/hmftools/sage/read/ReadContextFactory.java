@@ -14,8 +14,8 @@ import com.hartwig.hmftools.common.variant.repeat.RepeatContext;
 import com.hartwig.hmftools.common.variant.repeat.RepeatContextFactory;
 import com.hartwig.hmftools.sage.common.IndexedBases;
 import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.ReadContextBuffer;
 
-import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
 
 import htsjdk.samtools.SAMRecord;
@@ -33,6 +33,15 @@ public class ReadContextFactory
 
     public ReadContext createDelContext(
             final String ref, int refPosition, int readIndex, final SAMRecord record, final IndexedBases refBases)
+    {
+        ReadContextBuffer readContext = new ReadContextBuffer();
+        fillDelContext(readContext, ref, refPosition, readIndex, record, refBases);
+        return readContext.toReadContext();
+    }
+
+    public void fillDelContext(
+            final ReadContextBuffer readContext, final String ref, int refPosition, int readIndex, final SAMRecord record,
+            final IndexedBases refBases)
     {
         int refIndex = refBases.index(refPosition);
 
@@ -62,15 +71,22 @@ public class ReadContextFactory
             endIndex = max(endIndex, repeat.endIndex() + 1);
         }
 
-        return ReadContext.fromReadRecord(
-                microhomologyContext.toString(),
-                readRepeatContext.map(RepeatContext::count).orElse(0),
-                readRepeatContext.map(RepeatContext::sequence).orElse(Strings.EMPTY),
-                refPosition, readIndex, startIndex, endIndex, mFlankSize, record);
+        readContext.set(
+                microhomologyContext, readRepeatContext.orElse(null),
+                refPosition, readIndex, startIndex, endIndex, mFlankSize, record.getReadBases());
     }
 
     public ReadContext createInsertContext(
             final String alt, int refPosition, int readIndex, final SAMRecord record, final IndexedBases refBases)
+    {
+        ReadContextBuffer readContext = new ReadContextBuffer();
+        fillInsertContext(readContext, alt, refPosition, readIndex, record, refBases);
+        return readContext.toReadContext();
+    }
+
+    public void fillInsertContext(
+            final ReadContextBuffer readContext, final String alt, int refPosition, int readIndex, final SAMRecord record,
+            final IndexedBases refBases)
     {
         int refIndex = refBases.index(refPosition);
 
@@ -103,11 +119,9 @@ public class ReadContextFactory
         // ensure that MH hasn't reduced the right core index too much
         endIndex = max(endIndex, readIndex + alt.length() - 1 + MIN_CORE_DISTANCE);
 
-        return ReadContext.fromReadRecord(
-                microhomologyContext.toString(),
-                readRepeatContext.map(RepeatContext::count).orElse(0),
-                readRepeatContext.map(RepeatContext::sequence).orElse(Strings.EMPTY),
-                refPosition, readIndex, startIndex, endIndex, mFlankSize, record);
+        readContext.set(
+                microhomologyContext, readRepeatContext.orElse(null),
+                refPosition, readIndex, startIndex, endIndex, mFlankSize, record.getReadBases());
     }
 
     @NotNull
@@ -116,9 +130,24 @@ public class ReadContextFactory
         return createMNVContext(refPosition, readIndex, 1, record, refBases);
     }
 
+    public void fillSNVContext(
+            final ReadContextBuffer readContext, int refPosition, int readIndex, final SAMRecord record, final IndexedBases refBases)
+    {
+        fillMNVContext(readContext, refPosition, readIndex, 1, record, refBases);
+    }
+
     @NotNull
     public ReadContext createMNVContext(
             int refPosition, int readIndex, int length, final SAMRecord record, final IndexedBases refBases)
+    {
+        ReadContextBuffer readContext = new ReadContextBuffer();
+        fillMNVContext(readContext, refPosition, readIndex, length, record, refBases);
+        return readContext.toReadContext();
+    }
+
+    public void fillMNVContext(
+            final ReadContextBuffer readContext, int refPosition, int readIndex, int length, final SAMRecord record,
+            final IndexedBases refBases)
     {
         int refIndex = refBases.index(refPosition);
         int startIndex = readIndex - MIN_CORE_DISTANCE;
@@ -152,10 +181,8 @@ public class ReadContextFactory
             endIndex = max(endIndex, repeat.endIndex() + 1);
         }
 
-        return ReadContext.fromReadRecord(
-                Strings.EMPTY,
-                readRepeatContext.map(RepeatContext::count).orElse(0),
-                readRepeatContext.map(RepeatContext::sequence).orElse(Strings.EMPTY),
-                refPosition, readIndex, startIndex, endIndex, mFlankSize, record);
+        readContext.set(
+                null, readRepeatContext.orElse(null),
+                refPosition, readIndex, startIndex, endIndex, mFlankSize, record.getReadBases());
     }
 }
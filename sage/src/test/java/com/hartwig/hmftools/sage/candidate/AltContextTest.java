@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.sage.candidate;
 
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
@@ -9,14 +11,20 @@ import static junit.framework.TestCase.assertEquals;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.sage.common.IndexedBases;
 import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.ReadContextBuffer;
 import com.hartwig.hmftools.sage.common.ReadContextTest;
+import com.hartwig.hmftools.sage.read.ReadContextFactory;
 
 import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
 
+import htsjdk.samtools.SAMRecord;
+
 public class AltContextTest
 {
     private static final String CHROM = "1";
@@ -156,6 +164,77 @@ public class AltContextTest
         assertEquals(4, finalCandidate.fullMatch());
     }
 
+    @Test
+    public void testReusedReadContextBuffer()
+    {
+        // read contexts matched in a reused buffer give the same candidates as a new read context for each read
+        Random random = new Random(0);
+        int refStart = POS - 100;
+        char[] refChars = new char[200];
+
+        for(int i = 0; i < refChars.length; ++i)
+        {
+            refChars[i] = "ACGT".charAt(random.nextInt(4));
+        }
+
+        refChars[POS - refStart] = 'C';
+        String refString = String.valueOf(refChars);
+        IndexedBases refBases = new IndexedBases(refStart, 0, refString.getBytes());
+
+        ReadContextFactory readContextFactory = new ReadContextFactory(10);
+        ReadContextBuffer readContextBuffer = new ReadContextBuffer();
+
+        final RefContext refContext = new RefContext(CHROM, POS, false);
+        final AltContext altContext = new AltContext(refContext, "C", "T");
+        final AltContext bufferAltContext = new AltContext(refContext, "C", "T");
+
+        int readLength = 50;
+
+        for(int i = 0; i < 300; ++i)
+        {
+            int readStart = POS - readLength + 1 + random.nextInt(readLength);
+            char[] readChars = refString.substring(readStart - refStart, readStart - refStart + readLength).toCharArray();
+            int readIndex = POS - readStart;
+            readChars[readIndex] = 'T';
+
+            // a minority of reads carry a second variant in or near the core to give competing read contexts
+            if(random.nextInt(4) == 0)
+            {
+                int otherIndex = readIndex + random.nextInt(5) - 2;
+
+                if(otherIndex != readIndex && otherIndex >= 0 && otherIndex < readLength)
+                    readChars[otherIndex] = readChars[otherIndex] == 'A' ? 'G' : 'A';
+            }
+
+            SAMRecord record = createSamRecord(String.format("READ_%03d", i), CHROM, readStart, String.valueOf(readChars), readLength + "M");
+            int numberOfEvents = random.nextInt(3);
+
+            ReadContext readContext = readContextFactory.createSNVContext(POS, readIndex, record, refBases);
+            readContextFactory.fillSNVContext(readContextBuffer, POS, readIndex, record, refBases);
+            assertEquals(readContext.hasIncompleteCore(), readContextBuffer.hasIncompleteCore());
+
+            if(readContext.hasIncompleteCore())
+                continue;
+
+            altContext.addReadContext(numberOfEvents, readContext);
+            bufferAltContext.addReadContext(numberOfEvents, readContextBuffer);
+        }
+
+        assertEquals(altContext.interimReadContexts().size(), bufferAltContext.interimReadContexts().size());
+
+        altContext.selectCandidates();
+        bufferAltContext.selectCandidates();
+
+        assertTrue(altContext.hasValidCandidate());
+        assertTrue(bufferAltContext.hasValidCandidate());
+        assertEquals(altContext.readContext().indexedBases().fullString(), bufferAltContext.readContext().indexedBases().fullString());
+        assertEquals(altContext.readContext().coreString(), bufferAltContext.readContext().coreString());
+        assertEquals(altContext.readContext().Repeat, bufferAltContext.readContext().Repeat);
+        assertEquals(altContext.readContextSupport(), bufferAltContext.readContextSupport());
+        assertEquals(altContext.minNumberOfEvents(), bufferAltContext.minNumberOfEvents());
+        assertEquals(altContext.hasSecondCandidate(), bufferAltContext.hasSecondCandidate());
+    }
+
     @NotNull
     public static ReadContext simpleReadContext(@NotNull final String leftFlank, @NotNull final String core,
             @NotNull final String rightFlank)
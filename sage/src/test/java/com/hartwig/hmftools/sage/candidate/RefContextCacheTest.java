@@ -0,0 +1,189 @@
+package com.hartwig.hmftools.sage.candidate;
+
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.common.RefSequence;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMRecord;
+
+public class RefContextCacheTest
+{
+    private static final String CHROM = "1";
+
+    @Test
+    public void testRecycleEvictedRefContexts()
+    {
+        RefContextCache cache = new RefContextCache(new SageConfig(), Lists.newArrayList(), Lists.newArrayList());
+
+        RefContext first = cache.getOrCreateRefContext(CHROM, 1000);
+        first.refRead(true);
+
+        RefContext withAlt = cache.getOrCreateRefContext(CHROM, 1001);
+        withAlt.processAltRead("A", "G", 30, true, 0, null);
+        withAlt.processAltRead("A", "G", 30, true, 0, null);
+        withAlt.processAltRead("A", "T", 30, true, 0, null);
+        assertEquals(2, withAlt.altContexts().size());
+
+        // evict both positions, but the empty context is only reusable once the current read is complete
+        RefContext distant = cache.getOrCreateRefContext(CHROM, 2000);
+        assertNotSame(first, distant);
+        assertEquals(3, cache.refContextsCreated());
+
+        cache.recycleEvicted();
+
+        RefContext recycled = cache.getOrCreateRefContext(CHROM, 2001);
+        assertSame(first, recycled);
+        assertEquals(2001, recycled.position());
+        assertEquals(0, recycled.rawDepth());
+        assertEquals(3, cache.refContextsCreated());
+
+        // the context with alts is retained by its alt contexts and not reused
+        cache.recycleEvicted();
+        RefContext next = cache.getOrCreateRefContext(CHROM, 2002);
+        assertNotSame(withAlt, next);
+        assertEquals(1001, withAlt.position());
+    }
+
+    @Test
+    public void testCandidatesMatchWithoutRecycling()
+    {
+        // the same reads give the same candidates and counts whether or not empty ref contexts are reused
+        Random random = new Random(0);
+        MockRefGenome refGenome = new MockRefGenome();
+        String refBases = randomBases(3001, random);
+        refGenome.RefGenomeMap.put(CHROM, refBases);
+        refGenome.ChromosomeLengths.put(CHROM, 3000);
+
+        ChrBaseRegion region = new ChrBaseRegion(CHROM, 1001, 2000);
+        RefSequence refSequence = new RefSequence(region, refGenome);
+
+        List<SAMRecord> reads = createReads(refBases, region, random);
+
+        RefContextCache recyclingCache = new RefContextCache(new SageConfig(), Lists.newArrayList(), Lists.newArrayList(), true);
+        RefContextCache nonRecyclingCache = new RefContextCache(new SageConfig(), Lists.newArrayList(), Lists.newArrayList(), false);
+
+        List<String> candidates = findCandidates(recyclingCache, region, refSequence, reads);
+        List<String> expectedCandidates = findCandidates(nonRecyclingCache, region, refSequence, reads);
+
+        assertFalse(expectedCandidates.isEmpty());
+        assertEquals(expectedCandidates, candidates);
+
+        assertTrue(recyclingCache.refContextsCreated() < nonRecyclingCache.refContextsCreated());
+    }
+
+    private static List<String> findCandidates(
+            final RefContextCache refContextCache, final ChrBaseRegion region, final RefSequence refSequence, final List<SAMRecord> reads)
+    {
+        RefContextConsumer consumer = new RefContextConsumer(new SageConfig(), region, refSequence, refContextCache, Lists.newArrayList());
+        reads.forEach(consumer);
+
+        // alts at the same position are only ordered by their ref context's alt list, so compare them sorted
+        return refContextCache.altContexts().stream()
+                .map(x -> String.format("%s:%d %s>%s support(%d) depth(%d) qual(%d) readContext(%s) rcSupport(%d) events(%d)",
+                        x.chromosome(), x.position(), x.ref(), x.alt(), x.rawAltSupport(), x.rawDepth(), x.rawAltBaseQuality(),
+                        x.readContext().indexedBases().fullString(), x.readContextSupport(), x.minNumberOfEvents()))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<SAMRecord> createReads(final String refBases, final ChrBaseRegion region, final Random random)
+    {
+        // reads at around 200x depth carrying a fixed set of SNVs, MNVs, deletes and inserts so that each gathers support
+        int readLength = 100;
+        int variantCount = 40;
+
+        List<Integer> variantPositions = Lists.newArrayList();
+
+        for(int i = 0; i < variantCount; ++i)
+        {
+            variantPositions.add(region.start() + 20 + i * (region.baseLength() - 40) / variantCount);
+        }
+
+        List<SAMRecord> reads = Lists.newArrayList();
+
+        for(int i = 0; i < 2000; ++i)
+        {
+            int readStart = region.start() - readLength / 2 + random.nextInt(region.baseLength());
+            String readBases = refBases.substring(readStart, readStart + readLength);
+            String cigar = readLength + "M";
+
+            for(int v = 0; v < variantPositions.size(); ++v)
+            {
+                int varPosition = variantPositions.get(v);
+                int readIndex = varPosition - readStart;
+
+                if(readIndex < 5 || readIndex >= readLength - 10 || random.nextInt(3) == 0)
+                    continue;
+
+                int varType = v % 4;
+
+                if(varType == 0)
+                {
+                    // SNV
+                    readBases = readBases.substring(0, readIndex) + nextBase(readBases.charAt(readIndex)) + readBases.substring(readIndex + 1);
+                }
+                else if(varType == 1)
+                {
+                    // MNV
+                    readBases = readBases.substring(0, readIndex) + nextBase(readBases.charAt(readIndex))
+                            + nextBase(readBases.charAt(readIndex + 1)) + readBases.substring(readIndex + 2);
+                }
+                else if(varType == 2)
+                {
+                    // 2-base delete after the variant position
+                    readBases = readBases.substring(0, readIndex + 1) + refBases.substring(varPosition + 3, varPosition + 3 + readLength - readIndex - 1);
+                    cigar = String.format("%dM2D%dM", readIndex + 1, readLength - readIndex - 1);
+                }
+                else
+                {
+                    // 3-base insert after the variant position
+                    readBases = readBases.substring(0, readIndex + 1) + "TTT" + readBases.substring(readIndex + 1, readLength - 3);
+                    cigar = String.format("%dM3I%dM", readIndex + 1, readLength - readIndex - 4);
+                }
+
+                // one variant per read keeps the cigar simple
+                break;
+            }
+
+            reads.add(createSamRecord(String.format("READ_%04d", i), CHROM, readStart, readBases, cigar));
+        }
+
+        reads.sort(Comparator.comparingInt(SAMRecord::getAlignmentStart));
+        return reads;
+    }
+
+    private static String randomBases(int length, final Random random)
+    {
+        // the mock genome's repeating bases would extend every read context core past the read ends
+        char[] bases = new char[length];
+
+        for(int i = 0; i < length; ++i)
+        {
+            bases[i] = "ACGT".charAt(random.nextInt(4));
+        }
+
+        return String.valueOf(bases);
+    }
+
+    private static char nextBase(char base)
+    {
+        return base == 'A' ? 'C' : (base == 'C' ? 'G' : (base == 'G' ? 'T' : 'A'));
+    }
+}
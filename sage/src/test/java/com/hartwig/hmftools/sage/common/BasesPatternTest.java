@@ -0,0 +1,79 @@
+package com.hartwig.hmftools.sage.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BasesPatternTest
+{
+    @Test
+    public void testPatternSearch()
+    {
+        byte[] readBases = "GATCTCCTCANNGATCTCCAAT".getBytes();
+
+        assertEquals(0, pattern("GATCT").indexIn(readBases));
+        assertEquals(4, pattern("TCCTCA").indexIn(readBases));
+        assertEquals(9, pattern("ANNG").indexIn(readBases));
+        assertEquals(19, pattern("AAT").indexIn(readBases));
+        assertEquals(-1, pattern("AATG").indexIn(readBases));
+        assertEquals(-1, pattern("GATCTCCTCANNGATCTCCAATT").indexIn(readBases));
+        assertEquals(0, pattern("").indexIn(readBases));
+
+        // non-standard bases in the pattern or the read
+        assertEquals(3, pattern("C.C").indexIn("GATC.CA".getBytes()));
+        assertEquals(-1, pattern("TCA").indexIn("GATC.CA".getBytes()));
+
+        // pattern defined over a sub-range
+        assertEquals(5, new BasesPattern("XXCCTCAXX".getBytes(), 2, 5).indexIn(readBases));
+    }
+
+    @Test
+    public void testMatchesStringSearch()
+    {
+        Random random = new Random(1);
+        String bases = "ACGTN";
+
+        for(int test = 0; test < 500; ++test)
+        {
+            StringBuilder read = new StringBuilder();
+            int readLength = 50 + random.nextInt(150);
+
+            for(int i = 0; i < readLength; ++i)
+            {
+                read.append(bases.charAt(random.nextInt(i % 20 == 0 ? 5 : 4)));
+            }
+
+            String readString = read.toString();
+
+            // take patterns both from the read and at random, including ones longer than 64 bases
+            int patternLength = 1 + random.nextInt(test % 2 == 0 ? 12 : 100);
+            String patternString;
+
+            if(random.nextBoolean() && patternLength <= readLength)
+            {
+                int start = random.nextInt(readLength - patternLength + 1);
+                patternString = readString.substring(start, start + patternLength);
+            }
+            else
+            {
+                StringBuilder sb = new StringBuilder();
+
+                for(int i = 0; i < patternLength; ++i)
+                {
+                    sb.append(bases.charAt(random.nextInt(4)));
+                }
+
+                patternString = sb.toString();
+            }
+
+            assertEquals(readString.indexOf(patternString), pattern(patternString).indexIn(readString.getBytes()));
+        }
+    }
+
+    private static BasesPattern pattern(final String bases)
+    {
+        return new BasesPattern(bases.getBytes(), 0, bases.length());
+    }
+}
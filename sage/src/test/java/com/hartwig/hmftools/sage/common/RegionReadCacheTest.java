@@ -0,0 +1,97 @@
+package com.hartwig.hmftools.sage.common;
+
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMRecord;
+
+public class RegionReadCacheTest
+{
+    private static final String CHR_1 = "1";
+    private static final String SAMPLE_ID = "TUMOR_ID";
+    private static final String READ_BASES = "ACGTACGTAC";
+
+    @Test
+    public void testCachedReadsReplayed()
+    {
+        RegionReadCache readCache = new RegionReadCache(100);
+        readCache.initialise(new ChrBaseRegion(CHR_1, 50, 250));
+
+        MockSamSlicer bamSlicer = new MockSamSlicer();
+        bamSlicer.ReadRecords.add(createSamRecord("READ_01", CHR_1, 55, READ_BASES, "10M"));
+        bamSlicer.ReadRecords.add(createSamRecord("READ_02", CHR_1, 95, READ_BASES, "10M"));
+        bamSlicer.ReadRecords.add(createSamRecord("READ_03", CHR_1, 120, READ_BASES, "10M"));
+
+        SAMRecord suppRead = createSamRecord("READ_04", CHR_1, 150, READ_BASES, "10M");
+        suppRead.setSupplementaryAlignmentFlag(true);
+        bamSlicer.ReadRecords.add(suppRead);
+
+        bamSlicer.ReadRecords.add(createSamRecord("READ_05", CHR_1, 210, READ_BASES, "10M"));
+
+        // the candidate stage only receives reads overlapping its own region
+        List<SAMRecord> candidateReads = Lists.newArrayList();
+        readCache.cachingSlicer(SAMPLE_ID, bamSlicer, new ChrBaseRegion(CHR_1, 100, 200)).slice(candidateReads::add);
+
+        assertEquals(3, candidateReads.size());
+        assertEquals("READ_02", candidateReads.get(0).getReadName());
+        assertEquals("READ_04", candidateReads.get(2).getReadName());
+
+        // evidence slices within the cache region are replayed, with supplementaries filtered as requested
+        SamSlicerInterface cachedSlicer = readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion(CHR_1, 60, 160)), false);
+        assertNotNull(cachedSlicer);
+
+        List<SAMRecord> evidenceReads = Lists.newArrayList();
+        cachedSlicer.slice(evidenceReads::add);
+
+        assertEquals(3, evidenceReads.size());
+        assertEquals("READ_01", evidenceReads.get(0).getReadName());
+        assertEquals("READ_03", evidenceReads.get(2).getReadName());
+
+        evidenceReads.clear();
+        readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion(CHR_1, 60, 160)), true).slice(evidenceReads::add);
+        assertEquals(4, evidenceReads.size());
+
+        // regions outside the cache region, other samples or multiple regions fall back to the BAM
+        assertNull(readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion(CHR_1, 40, 160)), false));
+        assertNull(readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion("2", 60, 160)), false));
+        assertNull(readCache.cachedSlicer("REF_ID", Lists.newArrayList(new ChrBaseRegion(CHR_1, 60, 160)), false));
+
+        assertNull(readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(
+                new ChrBaseRegion(CHR_1, 60, 100), new ChrBaseRegion(CHR_1, 120, 160)), false));
+
+        readCache.clear();
+        assertNull(readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion(CHR_1, 60, 160)), false));
+    }
+
+    @Test
+    public void testCacheOverflow()
+    {
+        RegionReadCache readCache = new RegionReadCache(2);
+        readCache.initialise(new ChrBaseRegion(CHR_1, 50, 250));
+
+        MockSamSlicer bamSlicer = new MockSamSlicer();
+
+        for(int i = 0; i < 3; ++i)
+        {
+            bamSlicer.ReadRecords.add(createSamRecord("READ_0" + i, CHR_1, 100 + i * 10, READ_BASES, "10M"));
+        }
+
+        // all reads are still passed on to the candidate stage but none are retained
+        List<SAMRecord> candidateReads = Lists.newArrayList();
+        readCache.cachingSlicer(SAMPLE_ID, bamSlicer, new ChrBaseRegion(CHR_1, 100, 200)).slice(candidateReads::add);
+
+        assertEquals(3, candidateReads.size());
+        assertEquals(1, readCache.overflowCount());
+        assertNull(readCache.cachedSlicer(SAMPLE_ID, Lists.newArrayList(new ChrBaseRegion(CHR_1, 100, 200)), false));
+    }
+}
@@ -40,9 +40,14 @@ public class RegionTaskTester
     public static final String TEST_REF_ID = "TEST_REF_ID";
 
     public RegionTaskTester()
+    {
+        this(new SageConfig());
+    }
+
+    public RegionTaskTester(final SageConfig config)
     {
         Results = new RegionResults(null);
-        Config = new SageConfig();
+        Config = config;
         RefGenome = new MockRefGenome();
 
         Hotspots = Lists.newArrayList();
@@ -67,5 +72,4 @@ public class RegionTaskTester
                 0, region, Results, Config, RefGenome, Hotspots, PanelRegions, Transcripts, HighConfidenceRegions,
                 QualityRecalibrationMap, PhaseSetCounter, Coverage, SamSlicerFactory);
     }
-
 }
@@ -0,0 +1,41 @@
+package com.hartwig.hmftools.sage.pipeline;
+
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.common.test.MockRefGenome.generateRandomBases;
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.common.RegionTaskTester;
+
+import org.junit.Test;
+
+public class RegionResultsTest
+{
+    @Test
+    public void testCandidateAllocationWithMetricsFileOnly()
+    {
+        // perf stats are collected when only a metrics file is configured, without the perf warning time which logs them
+        RegionTaskTester tester = new RegionTaskTester(new SageConfig("sage.metrics.json"));
+        assertFalse(tester.Config.logPerfStats());
+
+        String refBases = generateRandomBases(1700);
+        tester.RefGenome.RefGenomeMap.put(CHR_1, refBases);
+
+        String readBases = refBases.substring(10, 30) + "A" + refBases.substring(31, 60);
+        tester.TumorSamSlicer.ReadRecords.add(createSamRecord("READ_01", CHR_1, 10, readBases, "50M"));
+        tester.TumorSamSlicer.ReadRecords.add(createSamRecord("READ_02", CHR_1, 10, readBases, "50M"));
+
+        RegionTask task = tester.createRegionTask(new ChrBaseRegion(CHR_1, 1, 200));
+        task.run();
+
+        MetricsRegistry metrics = new MetricsRegistry("sage", RegionTaskTester.TEST_TUMOR_ID);
+        tester.Results.recordMetrics(metrics);
+
+        assertTrue(metrics.counter("candidate_allocated_bytes").value() > 0);
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
 
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.sage.SageConfig;
 
@@ -91,4 +92,23 @@ public class BaseQualityRecalibrationTest
         assertEquals(20, BaseQualityRecalibration.recalibratedQual(9900, 100), 0.1);
         assertEquals(10, BaseQualityRecalibration.recalibratedQual(9000, 1000), 0.1);
     }
+
+    @Test
+    public void testRecalibrationMapLookup()
+    {
+        BaseQualityKey key1 = createKey('A', 'G', 30, 100);
+        BaseQualityKey key2 = createKey('C', 'T', 37, 100);
+
+        QualityRecalibrationMap qualMap = new QualityRecalibrationMap(Lists.newArrayList(
+                new QualityRecalibrationRecord(key1, 10, 25.5),
+                new QualityRecalibrationRecord(key2, 5, 32.1)));
+
+        assertEquals(25.5, qualMap.quality(key1.Ref, key1.Alt, key1.TrinucleotideContext, key1.Quality), 0.001);
+        assertEquals(32.1, qualMap.quality(key2.Ref, key2.Alt, key2.TrinucleotideContext, key2.Quality), 0.001);
+
+        // unrecorded keys and unsupported bases fall back to the original quality
+        assertEquals(31, qualMap.quality(key1.Ref, key1.Alt, key1.TrinucleotideContext, (byte)31), 0.001);
+        assertEquals(30, qualMap.quality(key1.Ref, (byte)'C', key1.TrinucleotideContext, key1.Quality), 0.001);
+        assertEquals(30, qualMap.quality(key1.Ref, (byte)'N', key1.TrinucleotideContext, key1.Quality), 0.001);
+    }
 }
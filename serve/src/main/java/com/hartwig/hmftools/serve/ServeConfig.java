@@ -66,6 +66,8 @@ public interface ServeConfig {
 
     // Options to help with debugging / testing
     String SKIP_HOTSPOT_RESOLVING = "skip_hotspot_resolving";
+    String NATIVE_HOTSPOT_RESOLVING = "native_hotspot_resolving";
+    String HOTSPOT_RESOLVING_CACHE_DIR = "hotspot_resolving_cache_dir";
     String LOG_DEBUG = "log_debug";
 
     @NotNull
@@ -108,6 +110,8 @@ public interface ServeConfig {
         options.addOption(OUTPUT_DIR, true, "Dir which will hold all SERVE output files");
 
         options.addOption(SKIP_HOTSPOT_RESOLVING, false, "If present, skips hotspot resolving");
+        options.addOption(NATIVE_HOTSPOT_RESOLVING, false, "If present, resolves hotspots in-process rather than by running transvar");
+        options.addOption(HOTSPOT_RESOLVING_CACHE_DIR, true, "Optional dir in which resolved protein annotations are cached between runs");
         options.addOption(LOG_DEBUG, false, "If present, switches the logging to DEBUG mode");
 
         return options;
@@ -201,6 +205,14 @@ public interface ServeConfig {
 
     boolean skipHotspotResolving();
 
+    @Value.Default
+    default boolean nativeHotspotResolving() {
+        return false;
+    }
+
+    @Nullable
+    String hotspotResolvingCacheDir();
+
     @NotNull
     static ServeConfig createConfig(@NotNull CommandLine cmd) throws ParseException {
         if (cmd.hasOption(LOG_DEBUG)) {
@@ -249,6 +261,8 @@ public interface ServeConfig {
                 .knownFusion38File(nonOptionalFile(cmd, KNOWN_FUSION_38_FILE))
                 .outputDir(nonOptionalDir(cmd, OUTPUT_DIR))
                 .skipHotspotResolving(cmd.hasOption(SKIP_HOTSPOT_RESOLVING))
+                .nativeHotspotResolving(cmd.hasOption(NATIVE_HOTSPOT_RESOLVING))
+                .hotspotResolvingCacheDir(optionalDir(cmd, HOTSPOT_RESOLVING_CACHE_DIR))
                 .build();
     }
 
@@ -283,6 +297,11 @@ public interface ServeConfig {
         return value;
     }
 
+    @Nullable
+    static String optionalDir(@NotNull CommandLine cmd, @NotNull String param) throws ParseException {
+        return cmd.hasOption(param) ? nonOptionalDir(cmd, param) : null;
+    }
+
     @NotNull
     static String nonOptionalFile(@NotNull CommandLine cmd, @NotNull String param) throws ParseException {
         String value = nonOptionalValue(cmd, param);
@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.serve.extraction.hotspot;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
@@ -25,6 +26,12 @@ public final class ProteinResolverFactory {
         return Transvar.withRefGenome(refGenomeVersion, refGenomeFastaFile, ensemblDataCache);
     }
 
+    @NotNull
+    public static ProteinResolver transvarWithRefGenome(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
+            @NotNull EnsemblDataCache ensemblDataCache, boolean nativeResolving, @Nullable String cacheDir) throws IOException {
+        return Transvar.withRefGenome(refGenomeVersion, refGenomeFastaFile, ensemblDataCache, nativeResolving, cacheDir);
+    }
+
     @NotNull
     public static ProteinResolver dummy() {
         return new ProteinResolver() {
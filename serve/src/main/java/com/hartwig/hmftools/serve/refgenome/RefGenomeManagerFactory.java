@@ -44,7 +44,11 @@ public final class RefGenomeManagerFactory {
         EnsemblDataCache ensemblDataCache37 = loadEnsemblDataCache(RefGenomeVersion.V37, config.ensemblDataDir37());
         ProteinResolver proteinResolver37 = config.skipHotspotResolving()
                 ? ProteinResolverFactory.dummy()
-                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V37, fastaFile37, ensemblDataCache37);
+                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V37,
+                        fastaFile37,
+                        ensemblDataCache37,
+                        config.nativeHotspotResolving(),
+                        config.hotspotResolvingCacheDir());
 
         return ImmutableRefGenomeResource.builder()
                 .refSequence(new IndexedFastaSequenceFile(new File(fastaFile37)))
@@ -63,7 +67,11 @@ public final class RefGenomeManagerFactory {
         EnsemblDataCache ensemblDataCache38 = loadEnsemblDataCache(RefGenomeVersion.V38, config.ensemblDataDir38());
         ProteinResolver proteinResolver38 = config.skipHotspotResolving()
                 ? ProteinResolverFactory.dummy()
-                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V38, fastaFile38, ensemblDataCache38);
+                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V38,
+                        fastaFile38,
+                        ensemblDataCache38,
+                        config.nativeHotspotResolving(),
+                        config.hotspotResolvingCacheDir());
 
         return ImmutableRefGenomeResource.builder()
                 .refSequence(new IndexedFastaSequenceFile(new File(fastaFile38)))
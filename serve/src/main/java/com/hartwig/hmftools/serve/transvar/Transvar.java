@@ -43,6 +43,20 @@ public class Transvar implements ProteinResolver {
                 ensemblDataCache);
     }
 
+    @NotNull
+    public static Transvar withRefGenome(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
+            @NotNull EnsemblDataCache ensemblDataCache, boolean nativeResolving, @Nullable String cacheDir) throws IOException {
+        TransvarProcess process = nativeResolving
+                ? TransvarNativeResolver.withRefGenome(refGenomeVersion, refGenomeFastaFile, ensemblDataCache)
+                : new TransvarProcessImpl(refGenomeVersion, refGenomeFastaFile);
+
+        if (cacheDir != null) {
+            process = TransvarCache.loadOrCreate(process, TransvarCache.cacheTsvPath(cacheDir, refGenomeVersion, nativeResolving));
+        }
+
+        return new Transvar(process, TransvarInterpreter.withRefGenome(refGenomeVersion, refGenomeFastaFile), ensemblDataCache);
+    }
+
     @VisibleForTesting
     Transvar(@NotNull final TransvarProcess process, @NotNull final TransvarInterpreter interpreter,
             @NotNull final EnsemblDataCache ensemblDataCache) {
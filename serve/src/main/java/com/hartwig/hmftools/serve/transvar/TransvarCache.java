@@ -0,0 +1,252 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarSnvMnv;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarAnnotation;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarSnvMnv;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+class TransvarCache implements TransvarProcess {
+
+    // Memoises the records per gene and protein annotation, including annotations which could not be resolved, and persists them
+    // to a TSV so that subsequent SERVE runs only need to resolve annotations they have not seen before.
+
+    private static final Logger LOGGER = LogManager.getLogger(TransvarCache.class);
+
+    private static final String DELIMITER = "\t";
+    private static final String LIST_DELIMITER = ",";
+    private static final String TRANSVAR_CACHE_TSV = "TransvarCache.SERVE.tsv";
+
+    private static final String TYPE_NONE = "NONE";
+    private static final String TYPE_SNV_MNV = "SNV_MNV";
+    private static final String TYPE_DELETION = "DEL";
+    private static final String TYPE_DUPLICATION = "DUP";
+    private static final String TYPE_INSERTION = "INS";
+    private static final String TYPE_COMPLEX_INSERT_DELETE = "DELINS";
+    private static final String TYPE_FRAMESHIFT = "FRAMESHIFT";
+
+    @NotNull
+    private final TransvarProcess process;
+    @NotNull
+    private final String cacheTsv;
+    @NotNull
+    private final Map<String, List<TransvarRecord>> recordsPerKey;
+
+    @NotNull
+    static String cacheTsvPath(@NotNull String cacheDir, @NotNull RefGenomeVersion refGenomeVersion, boolean nativeResolving) {
+        // Records from transvar and the native resolver are cached separately since they can differ in transcript choice.
+        String resolver = nativeResolving ? "native" : "transvar";
+        return refGenomeVersion.addVersionToFilePath(cacheDir + File.separator + resolver + "." + TRANSVAR_CACHE_TSV);
+    }
+
+    @NotNull
+    static TransvarCache loadOrCreate(@NotNull TransvarProcess process, @NotNull String cacheTsv) throws IOException {
+        File cacheFile = new File(cacheTsv);
+        if (!cacheFile.exists()) {
+            Files.write(cacheFile.toPath(), Lists.newArrayList(header()));
+            LOGGER.info(" Created transvar cache {}", cacheTsv);
+            return new TransvarCache(process, cacheTsv, Maps.newHashMap());
+        }
+
+        List<String> lines = Files.readAllLines(cacheFile.toPath());
+        Map<String, List<TransvarRecord>> recordsPerKey = fromLines(lines.subList(1, lines.size()));
+        LOGGER.info(" Loaded {} cached protein annotations from {}", recordsPerKey.size(), cacheTsv);
+
+        return new TransvarCache(process, cacheTsv, recordsPerKey);
+    }
+
+    private TransvarCache(@NotNull final TransvarProcess process, @NotNull final String cacheTsv,
+            @NotNull final Map<String, List<TransvarRecord>> recordsPerKey) {
+        this.process = process;
+        this.cacheTsv = cacheTsv;
+        this.recordsPerKey = recordsPerKey;
+    }
+
+    @Override
+    @NotNull
+    public synchronized List<TransvarRecord> runTransvarPanno(@NotNull String gene, @NotNull String proteinAnnotation)
+            throws InterruptedException, IOException {
+        String key = toKey(gene, proteinAnnotation);
+        List<TransvarRecord> cachedRecords = recordsPerKey.get(key);
+        if (cachedRecords != null) {
+            return cachedRecords;
+        }
+
+        List<TransvarRecord> records = process.runTransvarPanno(gene, proteinAnnotation);
+        recordsPerKey.put(key, records);
+
+        List<String> lines = toLines(gene, proteinAnnotation, records);
+        if (lines != null) {
+            Files.write(new File(cacheTsv).toPath(), lines, StandardOpenOption.APPEND);
+        }
+
+        return records;
+    }
+
+    @NotNull
+    private static String toKey(@NotNull String gene, @NotNull String proteinAnnotation) {
+        return gene + DELIMITER + proteinAnnotation;
+    }
+
+    @NotNull
+    private static String header() {
+        return new StringJoiner(DELIMITER).add("gene")
+                .add("proteinAnnotation")
+                .add("transcript")
+                .add("chromosome")
+                .add("gdnaPosition")
+                .add("variantSpanMultipleExons")
+                .add("type")
+                .add("annotation")
+                .toString();
+    }
+
+    @NotNull
+    @VisibleForTesting
+    static Map<String, List<TransvarRecord>> fromLines(@NotNull List<String> lines) {
+        Map<String, List<TransvarRecord>> recordsPerKey = Maps.newHashMap();
+        for (String line : lines) {
+            String[] values = line.split(DELIMITER, -1);
+
+            List<TransvarRecord> records = recordsPerKey.computeIfAbsent(toKey(values[0], values[1]), key -> Lists.newArrayList());
+            if (!values[6].equals(TYPE_NONE)) {
+                records.add(ImmutableTransvarRecord.builder()
+                        .transcript(values[2])
+                        .chromosome(values[3])
+                        .gdnaPosition(Integer.parseInt(values[4]))
+                        .variantSpanMultipleExons(Boolean.parseBoolean(values[5]))
+                        .annotation(fromAnnotationField(values[6], values[7].split(LIST_DELIMITER, -1)))
+                        .build());
+            }
+        }
+        return recordsPerKey;
+    }
+
+    @NotNull
+    private static TransvarAnnotation fromAnnotationField(@NotNull String type, @NotNull String[] values) {
+        switch (type) {
+            case TYPE_SNV_MNV:
+                return ImmutableTransvarSnvMnv.builder()
+                        .gdnaRef(values[0])
+                        .gdnaAlt(values[1])
+                        .referenceCodon(values[2])
+                        .candidateCodons(Arrays.asList(values).subList(3, values.length))
+                        .build();
+            case TYPE_DELETION:
+                return ImmutableTransvarDeletion.builder()
+                        .deletedBaseCount(Integer.parseInt(values[0]))
+                        .leftAlignedGDNAPosition(Integer.parseInt(values[1]))
+                        .build();
+            case TYPE_DUPLICATION:
+                return ImmutableTransvarDuplication.builder().duplicatedBaseCount(Integer.parseInt(values[0])).build();
+            case TYPE_INSERTION:
+                return ImmutableTransvarInsertion.builder()
+                        .insertedBases(values[0])
+                        .leftAlignedGDNAPosition(Long.parseLong(values[1]))
+                        .build();
+            case TYPE_COMPLEX_INSERT_DELETE:
+                return ImmutableTransvarComplexInsertDelete.builder()
+                        .deletedBaseCount(Integer.parseInt(values[0]))
+                        .insertedSequence(values[1])
+                        .candidateAlternativeCodons(Arrays.asList(values).subList(2, values.length))
+                        .build();
+            case TYPE_FRAMESHIFT:
+                return ImmutableTransvarFrameshift.builder().isFrameshiftInsideStartCodon(Boolean.parseBoolean(values[0])).build();
+            default:
+                throw new IllegalStateException("Unrecognized transvar annotation type in cache: " + type);
+        }
+    }
+
+    @Nullable
+    @VisibleForTesting
+    static List<String> toLines(@NotNull String gene, @NotNull String proteinAnnotation, @NotNull List<TransvarRecord> records) {
+        List<String> lines = Lists.newArrayList();
+        if (records.isEmpty()) {
+            lines.add(new StringJoiner(DELIMITER).add(gene).add(proteinAnnotation).add("").add("").add("").add("")
+                    .add(TYPE_NONE)
+                    .add("")
+                    .toString());
+            return lines;
+        }
+
+        for (TransvarRecord record : records) {
+            StringJoiner annotationJoiner = new StringJoiner(LIST_DELIMITER);
+            String type = toAnnotationField(record.annotation(), annotationJoiner);
+            if (type == null) {
+                // Records with annotations that cannot be written are only cached in memory.
+                return null;
+            }
+
+            lines.add(new StringJoiner(DELIMITER).add(gene)
+                    .add(proteinAnnotation)
+                    .add(record.transcript())
+                    .add(record.chromosome())
+                    .add(String.valueOf(record.gdnaPosition()))
+                    .add(String.valueOf(record.variantSpanMultipleExons()))
+                    .add(type)
+                    .add(annotationJoiner.toString())
+                    .toString());
+        }
+
+        return lines;
+    }
+
+    @Nullable
+    private static String toAnnotationField(@NotNull TransvarAnnotation annotation, @NotNull StringJoiner joiner) {
+        if (annotation instanceof TransvarSnvMnv) {
+            TransvarSnvMnv snvMnv = (TransvarSnvMnv) annotation;
+            joiner.add(snvMnv.gdnaRef()).add(snvMnv.gdnaAlt()).add(snvMnv.referenceCodon());
+            snvMnv.candidateCodons().forEach(joiner::add);
+            return TYPE_SNV_MNV;
+        } else if (annotation instanceof TransvarDeletion) {
+            TransvarDeletion deletion = (TransvarDeletion) annotation;
+            joiner.add(String.valueOf(deletion.deletedBaseCount())).add(String.valueOf(deletion.leftAlignedGDNAPosition()));
+            return TYPE_DELETION;
+        } else if (annotation instanceof TransvarDuplication) {
+            joiner.add(String.valueOf(((TransvarDuplication) annotation).duplicatedBaseCount()));
+            return TYPE_DUPLICATION;
+        } else if (annotation instanceof TransvarInsertion) {
+            TransvarInsertion insertion = (TransvarInsertion) annotation;
+            joiner.add(insertion.insertedBases()).add(String.valueOf(insertion.leftAlignedGDNAPosition()));
+            return TYPE_INSERTION;
+        } else if (annotation instanceof TransvarComplexInsertDelete) {
+            TransvarComplexInsertDelete insDel = (TransvarComplexInsertDelete) annotation;
+            joiner.add(String.valueOf(insDel.deletedBaseCount())).add(insDel.insertedSequence());
+            insDel.candidateAlternativeCodons().forEach(joiner::add);
+            return TYPE_COMPLEX_INSERT_DELETE;
+        } else if (annotation instanceof TransvarFrameshift) {
+            joiner.add(String.valueOf(((TransvarFrameshift) annotation).isFrameshiftInsideStartCodon()));
+            return TYPE_FRAMESHIFT;
+        }
+
+        return null;
+    }
+}
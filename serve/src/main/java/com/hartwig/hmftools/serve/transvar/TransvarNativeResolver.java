@@ -0,0 +1,600 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import static com.hartwig.hmftools.common.codon.Codons.codonToAminoAcid;
+import static com.hartwig.hmftools.common.codon.Nucleotides.reverseStrandBases;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.ExonData;
+import com.hartwig.hmftools.common.gene.GeneData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarSnvMnv;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarAnnotation;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+class TransvarNativeResolver implements TransvarProcess {
+
+    // Resolves protein annotations in-process against the ensembl data cache transcripts and the ref genome, producing records in
+    // the same shape as those converted from 'transvar panno' output. As with transvar, indels are reported right-aligned on the
+    // genome, an insertion repeating the bases before it is reported as a duplication, and codons are chosen in transvar's order.
+
+    private static final Logger LOGGER = LogManager.getLogger(TransvarNativeResolver.class);
+
+    // Looks like V600E, R213*, V560del, E746_A750del, G778_P780dup, A763_Y764insFQEA, V560delinsD or E709fs
+    private static final Pattern PROTEIN_ANNOTATION_PATTERN =
+            Pattern.compile("^([A-Z])(\\d+)(?:_([A-Z])(\\d+))?(delins|del|dup|ins|fs|[A-Z*])(.*)$");
+
+    private static final String STOP_AMINO_ACID = "X";
+    private static final String START_AMINO_ACID = "M";
+
+    private static final int MAX_ALIGNMENT_SHIFT = 1000;
+
+    // Codons for each amino acid in the order transvar lists them, the first of which it uses for inserted amino acids.
+    private static final Map<String, List<String>> TRANSVAR_CODONS = Maps.newHashMap();
+
+    static {
+        TRANSVAR_CODONS.put("A", Lists.newArrayList("GCA", "GCC", "GCG", "GCT"));
+        TRANSVAR_CODONS.put("C", Lists.newArrayList("TGT", "TGC"));
+        TRANSVAR_CODONS.put("D", Lists.newArrayList("GAT", "GAC"));
+        TRANSVAR_CODONS.put("E", Lists.newArrayList("GAG", "GAA"));
+        TRANSVAR_CODONS.put("F", Lists.newArrayList("TTT", "TTC"));
+        TRANSVAR_CODONS.put("G", Lists.newArrayList("GGT", "GGG", "GGA", "GGC"));
+        TRANSVAR_CODONS.put("H", Lists.newArrayList("CAT", "CAC"));
+        TRANSVAR_CODONS.put("I", Lists.newArrayList("ATC", "ATA", "ATT"));
+        TRANSVAR_CODONS.put("K", Lists.newArrayList("AAG", "AAA"));
+        TRANSVAR_CODONS.put("L", Lists.newArrayList("CTT", "CTG", "CTA", "CTC", "TTA", "TTG"));
+        TRANSVAR_CODONS.put("M", Lists.newArrayList("ATG"));
+        TRANSVAR_CODONS.put("N", Lists.newArrayList("AAC", "AAT"));
+        TRANSVAR_CODONS.put("P", Lists.newArrayList("CCT", "CCG", "CCA", "CCC"));
+        TRANSVAR_CODONS.put("Q", Lists.newArrayList("CAA", "CAG"));
+        TRANSVAR_CODONS.put("R", Lists.newArrayList("AGG", "AGA", "CGA", "CGC", "CGG", "CGT"));
+        TRANSVAR_CODONS.put("S", Lists.newArrayList("AGC", "AGT", "TCT", "TCG", "TCC", "TCA"));
+        TRANSVAR_CODONS.put("T", Lists.newArrayList("ACA", "ACG", "ACT", "ACC"));
+        TRANSVAR_CODONS.put("V", Lists.newArrayList("GTA", "GTC", "GTG", "GTT"));
+        TRANSVAR_CODONS.put("W", Lists.newArrayList("TGG"));
+        TRANSVAR_CODONS.put(STOP_AMINO_ACID, Lists.newArrayList("TAG", "TAA", "TGA"));
+        TRANSVAR_CODONS.put("Y", Lists.newArrayList("TAT", "TAC"));
+    }
+
+    @NotNull
+    private final RefGenomeVersion refGenomeVersion;
+    @NotNull
+    private final RefGenomeInterface refGenome;
+    @NotNull
+    private final EnsemblDataCache ensemblDataCache;
+    @NotNull
+    private final TransvarCurator curator = new TransvarCurator();
+
+    @NotNull
+    static TransvarNativeResolver withRefGenome(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
+            @NotNull EnsemblDataCache ensemblDataCache) throws FileNotFoundException {
+        return new TransvarNativeResolver(refGenomeVersion,
+                new RefGenomeSource(new IndexedFastaSequenceFile(new File(refGenomeFastaFile))),
+                ensemblDataCache);
+    }
+
+    @VisibleForTesting
+    TransvarNativeResolver(@NotNull final RefGenomeVersion refGenomeVersion, @NotNull final RefGenomeInterface refGenome,
+            @NotNull final EnsemblDataCache ensemblDataCache) {
+        this.refGenomeVersion = refGenomeVersion;
+        this.refGenome = refGenome;
+        this.ensemblDataCache = ensemblDataCache;
+    }
+
+    @Override
+    @NotNull
+    public List<TransvarRecord> runTransvarPanno(@NotNull String gene, @NotNull String proteinAnnotation) {
+        // Gene names are taken as-is since they are looked up in our own gene model rather than transvar's.
+        String curatedProteinAnnotation = curator.curateProteinAnnotation(proteinAnnotation);
+
+        List<TransvarRecord> records = Lists.newArrayList();
+
+        ProteinChange change = ProteinChange.fromAnnotation(curatedProteinAnnotation);
+        if (change == null) {
+            LOGGER.debug("Could not parse protein annotation '{}' for native resolving", curatedProteinAnnotation);
+            return records;
+        }
+
+        GeneData geneData = ensemblDataCache.getGeneDataByName(gene);
+        if (geneData == null) {
+            LOGGER.debug("Could not find gene '{}' in ensembl data cache", gene);
+            return records;
+        }
+
+        String chromosome = RefGenomeFunctions.stripChrPrefix(geneData.Chromosome);
+        List<TranscriptData> transcripts = ensemblDataCache.getTranscripts(geneData.GeneId);
+        if (transcripts == null) {
+            return records;
+        }
+
+        for (TranscriptData transcript : transcripts) {
+            if (transcript.nonCoding()) {
+                continue;
+            }
+
+            TransvarAnnotation annotation = null;
+            CodingRegion region = new CodingRegion(chromosome, transcript);
+            if (region.hasReferenceAminoAcids(change)) {
+                annotation = region.annotate(change);
+            }
+
+            if (annotation != null) {
+                records.add(ImmutableTransvarRecord.builder()
+                        .transcript(transcript.TransName)
+                        .chromosome(chromosome)
+                        .gdnaPosition(region.gdnaPosition)
+                        .variantSpanMultipleExons(region.variantSpanMultipleExons)
+                        .annotation(annotation)
+                        .build());
+            }
+        }
+
+        return records;
+    }
+
+    @NotNull
+    private synchronized String refBases(@NotNull String chromosome, int start, int end) {
+        // The underlying fasta reader is not thread-safe.
+        return refGenome.getBaseString(refGenomeVersion.versionedChromosome(chromosome), start, end);
+    }
+
+    private enum ChangeType {
+        MISSENSE,
+        DELETION,
+        DUPLICATION,
+        INSERTION,
+        DELETION_INSERTION,
+        FRAMESHIFT
+    }
+
+    private static class ProteinChange {
+
+        @NotNull
+        final ChangeType type;
+        @NotNull
+        final String startAminoAcid;
+        final int startPosition;
+        @NotNull
+        final String endAminoAcid;
+        final int endPosition;
+        @NotNull
+        final String altAminoAcids;
+
+        private ProteinChange(@NotNull ChangeType type, @NotNull String startAminoAcid, int startPosition,
+                @NotNull String endAminoAcid, int endPosition, @NotNull String altAminoAcids) {
+            this.type = type;
+            this.startAminoAcid = startAminoAcid;
+            this.startPosition = startPosition;
+            this.endAminoAcid = endAminoAcid;
+            this.endPosition = endPosition;
+            this.altAminoAcids = altAminoAcids;
+        }
+
+        @Nullable
+        static ProteinChange fromAnnotation(@NotNull String proteinAnnotation) {
+            Matcher matcher = PROTEIN_ANNOTATION_PATTERN.matcher(proteinAnnotation);
+            if (!matcher.matches()) {
+                return null;
+            }
+
+            String startAminoAcid = matcher.group(1);
+            int startPosition = Integer.parseInt(matcher.group(2));
+            boolean isRange = matcher.group(3) != null;
+            String endAminoAcid = isRange ? matcher.group(3) : startAminoAcid;
+            int endPosition = isRange ? Integer.parseInt(matcher.group(4)) : startPosition;
+            String typeString = matcher.group(5);
+            String suffix = matcher.group(6);
+
+            if (startPosition < 1 || endPosition < startPosition) {
+                return null;
+            }
+
+            ChangeType type;
+            String altAminoAcids = "";
+            switch (typeString) {
+                case "fs":
+                    type = ChangeType.FRAMESHIFT;
+                    break;
+                case "del":
+                    // Deleted amino acids may be listed after 'del', eg 'E746_A750delELREA'
+                    type = ChangeType.DELETION;
+                    break;
+                case "dup":
+                    type = ChangeType.DUPLICATION;
+                    break;
+                case "ins":
+                    type = ChangeType.INSERTION;
+                    altAminoAcids = toCodonMapAminoAcids(suffix);
+                    // Both flanking amino acids are expected to be adjacent when given.
+                    if (altAminoAcids.isEmpty() || (isRange && endPosition != startPosition + 1)) {
+                        return null;
+                    }
+                    break;
+                case "delins":
+                    type = ChangeType.DELETION_INSERTION;
+                    altAminoAcids = toCodonMapAminoAcids(suffix);
+                    if (altAminoAcids.isEmpty()) {
+                        return null;
+                    }
+                    break;
+                default:
+                    if (suffix.startsWith("fs")) {
+                        // Looks like 'R213Qfs*5', which we treat as any frameshift at that codon.
+                        type = ChangeType.FRAMESHIFT;
+                    } else if (suffix.isEmpty() && !isRange) {
+                        type = ChangeType.MISSENSE;
+                        altAminoAcids = toCodonMapAminoAcids(typeString);
+                    } else {
+                        return null;
+                    }
+            }
+
+            return new ProteinChange(type, startAminoAcid, startPosition, endAminoAcid, endPosition, altAminoAcids);
+        }
+
+        @NotNull
+        private static String toCodonMapAminoAcids(@NotNull String aminoAcids) {
+            // The codon map uses 'X' for stop codons
+            String converted = aminoAcids.replace("*", STOP_AMINO_ACID);
+
+            for (int i = 0; i < converted.length(); i++) {
+                if (!TRANSVAR_CODONS.containsKey(converted.substring(i, i + 1))) {
+                    return "";
+                }
+            }
+
+            return converted;
+        }
+    }
+
+    private class CodingRegion {
+
+        @NotNull
+        private final String chromosome;
+        private final boolean forwardStrand;
+        // Genomic position of each coding base, in coding order.
+        @NotNull
+        private final int[] codingPositions;
+
+        int gdnaPosition;
+        boolean variantSpanMultipleExons;
+
+        CodingRegion(@NotNull String chromosome, @NotNull TranscriptData transcript) {
+            this.chromosome = chromosome;
+            this.forwardStrand = transcript.posStrand();
+            this.codingPositions = codingPositions(transcript);
+        }
+
+        boolean hasReferenceAminoAcids(@NotNull ProteinChange change) {
+            // Insertions also need the codon following the start amino acid.
+            int lastCodonIndex = change.type == ChangeType.INSERTION ? change.startPosition : change.endPosition - 1;
+            if (3 * (lastCodonIndex + 1) > codingPositions.length) {
+                return false;
+            }
+
+            if (!change.startAminoAcid.equals(refAminoAcid(change.startPosition - 1))) {
+                return false;
+            }
+
+            return change.endPosition == change.startPosition || change.endAminoAcid.equals(refAminoAcid(change.endPosition - 1));
+        }
+
+        @Nullable
+        TransvarAnnotation annotate(@NotNull ProteinChange change) {
+            int startIndex = 3 * (change.startPosition - 1);
+            int endIndex = 3 * change.endPosition - 1;
+
+            switch (change.type) {
+                case MISSENSE:
+                    return annotateMissense(startIndex, change.altAminoAcids);
+                case DELETION:
+                    return annotateDeletion(startIndex, endIndex);
+                case DUPLICATION:
+                    return annotateDuplication(startIndex, endIndex);
+                case INSERTION:
+                    return annotateInsertion(3 * change.startPosition - 1, change.altAminoAcids);
+                case DELETION_INSERTION:
+                    return annotateDeletionInsertion(startIndex, endIndex, change.altAminoAcids);
+                case FRAMESHIFT:
+                    return annotateFrameshift(startIndex, change.startPosition == 1 && change.startAminoAcid.equals(START_AMINO_ACID));
+                default:
+                    return null;
+            }
+        }
+
+        @Nullable
+        private TransvarAnnotation annotateMissense(int codonIndex, @NotNull String altAminoAcid) {
+            String referenceCodon = codingBases(codonIndex, codonIndex + 2);
+            List<String> candidateCodons = TRANSVAR_CODONS.get(altAminoAcid);
+
+            // Pick the candidate codon which changes the fewest consecutive bases, as transvar does
+            String bestCodon = null;
+            int bestFirst = -1;
+            int bestLast = -1;
+            for (String candidateCodon : candidateCodons) {
+                int first = -1;
+                int last = -1;
+                for (int i = 0; i < 3; i++) {
+                    if (candidateCodon.charAt(i) != referenceCodon.charAt(i)) {
+                        first = first == -1 ? i : first;
+                        last = i;
+                    }
+                }
+
+                if (first >= 0 && (bestCodon == null || last - first < bestLast - bestFirst)) {
+                    bestCodon = candidateCodon;
+                    bestFirst = first;
+                    bestLast = last;
+                }
+            }
+
+            if (bestCodon == null) {
+                return null;
+            }
+
+            String ref = referenceCodon.substring(bestFirst, bestLast + 1);
+            String alt = bestCodon.substring(bestFirst, bestLast + 1);
+
+            gdnaPosition = min(codingPositions[codonIndex + bestFirst], codingPositions[codonIndex + bestLast]);
+            variantSpanMultipleExons = !isContiguous(codonIndex, codonIndex + 2);
+
+            return ImmutableTransvarSnvMnv.builder()
+                    .gdnaRef(forwardStrand ? ref : reverseStrandBases(ref))
+                    .gdnaAlt(forwardStrand ? alt : reverseStrandBases(alt))
+                    .referenceCodon(referenceCodon)
+                    .candidateCodons(candidateCodons)
+                    .build();
+        }
+
+        @NotNull
+        private TransvarAnnotation annotateDeletion(int startIndex, int endIndex) {
+            int deletedBaseCount = endIndex - startIndex + 1;
+            int start = lowestPosition(startIndex, endIndex);
+            variantSpanMultipleExons = !isContiguous(startIndex, endIndex);
+
+            int leftAlignedStart = start;
+            int rightAlignedStart = start;
+            if (!variantSpanMultipleExons) {
+                leftAlignedStart = leftAlign(start, start + deletedBaseCount - 1);
+                rightAlignedStart = rightAlign(start, start + deletedBaseCount - 1);
+            }
+
+            gdnaPosition = rightAlignedStart;
+            return ImmutableTransvarDeletion.builder().deletedBaseCount(deletedBaseCount).leftAlignedGDNAPosition(leftAlignedStart).build();
+        }
+
+        @NotNull
+        private TransvarAnnotation annotateDuplication(int startIndex, int endIndex) {
+            int duplicatedBaseCount = endIndex - startIndex + 1;
+            int start = lowestPosition(startIndex, endIndex);
+            variantSpanMultipleExons = !isContiguous(startIndex, endIndex);
+
+            gdnaPosition = variantSpanMultipleExons ? start : rightAlign(start, start + duplicatedBaseCount - 1);
+            return ImmutableTransvarDuplication.builder().duplicatedBaseCount(duplicatedBaseCount).build();
+        }
+
+        @NotNull
+        private TransvarAnnotation annotateInsertion(int lastBaseIndex, @NotNull String insertedAminoAcids) {
+            // Inserted after the last base of the preceding codon, which on the reverse strand is the base below it.
+            int lastBasePosition = codingPositions[lastBaseIndex];
+            int position = forwardStrand ? lastBasePosition : lastBasePosition - 1;
+            variantSpanMultipleExons = false;
+
+            String codingBases = toCodingBases(insertedAminoAcids);
+            String insertedBases = forwardStrand ? codingBases : reverseStrandBases(codingBases);
+            int length = insertedBases.length();
+
+            // As with deletions, the insertion is shifted right as far as the ref genome allows, rotating the inserted bases.
+            int rightShift = insertionRightShift(position, insertedBases);
+            int rightAlignedPosition = position + rightShift;
+            String rightAlignedBases = insertedBases.substring(rightShift % length) + insertedBases.substring(0, rightShift % length);
+
+            // Transvar reports an insertion of the bases immediately before it as a duplication of them.
+            int dupStart = rightAlignedPosition - length + 1;
+            if (dupStart >= 1 && refBases(chromosome, dupStart, rightAlignedPosition).equals(rightAlignedBases)) {
+                gdnaPosition = dupStart;
+                return ImmutableTransvarDuplication.builder().duplicatedBaseCount(length).build();
+            }
+
+            gdnaPosition = rightAlignedPosition;
+            return ImmutableTransvarInsertion.builder()
+                    .insertedBases(rightAlignedBases)
+                    .leftAlignedGDNAPosition(position - insertionLeftShift(position, insertedBases))
+                    .build();
+        }
+
+        @NotNull
+        private TransvarAnnotation annotateDeletionInsertion(int startIndex, int endIndex, @NotNull String insertedAminoAcids) {
+            gdnaPosition = lowestPosition(startIndex, endIndex);
+            variantSpanMultipleExons = !isContiguous(startIndex, endIndex);
+
+            String insertedBases = toCodingBases(insertedAminoAcids);
+            List<String> candidateAlternativeCodons =
+                    insertedAminoAcids.length() == 1 ? TRANSVAR_CODONS.get(insertedAminoAcids) : Lists.newArrayList();
+
+            return ImmutableTransvarComplexInsertDelete.builder()
+                    .deletedBaseCount(endIndex - startIndex + 1)
+                    .insertedSequence(forwardStrand ? insertedBases : reverseStrandBases(insertedBases))
+                    .candidateAlternativeCodons(candidateAlternativeCodons)
+                    .build();
+        }
+
+        @NotNull
+        private TransvarAnnotation annotateFrameshift(int codonIndex, boolean isFrameshiftInsideStartCodon) {
+            // Transvar reports the base prior to the codon, or for the start codon the codon's first base.
+            int codonLowest = lowestPosition(codonIndex, codonIndex + 2);
+            int codonHighest = max(codingPositions[codonIndex], codingPositions[codonIndex + 2]);
+
+            if (forwardStrand) {
+                gdnaPosition = isFrameshiftInsideStartCodon ? codonLowest : codonLowest - 1;
+            } else {
+                gdnaPosition = isFrameshiftInsideStartCodon ? codonHighest - 1 : codonHighest;
+            }
+
+            variantSpanMultipleExons = !isContiguous(codonIndex, codonIndex + 2);
+            return ImmutableTransvarFrameshift.builder().isFrameshiftInsideStartCodon(isFrameshiftInsideStartCodon).build();
+        }
+
+        private int leftAlign(int start, int end) {
+            String window = refBases(chromosome, max(start - MAX_ALIGNMENT_SHIFT, 1), end);
+            int offset = start - max(start - MAX_ALIGNMENT_SHIFT, 1);
+            int length = end - start + 1;
+
+            int shift = 0;
+            while (offset - shift - 1 >= 0 && window.charAt(offset - shift - 1) == window.charAt(offset - shift - 1 + length)) {
+                shift++;
+            }
+
+            return start - shift;
+        }
+
+        private int rightAlign(int start, int end) {
+            int chromosomeLength = refGenome.getChromosomeLength(refGenomeVersion.versionedChromosome(chromosome));
+            String window = refBases(chromosome, start, min(end + MAX_ALIGNMENT_SHIFT, chromosomeLength));
+            int length = end - start + 1;
+
+            int shift = 0;
+            while (shift + length < window.length() && window.charAt(shift) == window.charAt(shift + length)) {
+                shift++;
+            }
+
+            return start + shift;
+        }
+
+        private int insertionLeftShift(int position, @NotNull String insertedBases) {
+            // Bases are inserted after the given position, and can shift left while the base before matches the last inserted base.
+            int windowStart = max(position - MAX_ALIGNMENT_SHIFT + 1, 1);
+            String window = refBases(chromosome, windowStart, position);
+            int length = insertedBases.length();
+
+            int shift = 0;
+            while (shift < window.length()
+                    && window.charAt(window.length() - 1 - shift) == insertedBases.charAt(length - 1 - shift % length)) {
+                shift++;
+            }
+
+            return shift;
+        }
+
+        private int insertionRightShift(int position, @NotNull String insertedBases) {
+            // ...and can shift right while the base after matches the first inserted base.
+            int chromosomeLength = refGenome.getChromosomeLength(refGenomeVersion.versionedChromosome(chromosome));
+            if (position >= chromosomeLength) {
+                return 0;
+            }
+
+            String window = refBases(chromosome, position + 1, min(position + MAX_ALIGNMENT_SHIFT, chromosomeLength));
+            int length = insertedBases.length();
+
+            int shift = 0;
+            while (shift < window.length() && window.charAt(shift) == insertedBases.charAt(shift % length)) {
+                shift++;
+            }
+
+            return shift;
+        }
+
+        @Nullable
+        private String refAminoAcid(int aminoAcidIndex) {
+            String codon = codingBases(3 * aminoAcidIndex, 3 * aminoAcidIndex + 2);
+            return codon.length() == 3 ? String.valueOf(codonToAminoAcid(codon)) : null;
+        }
+
+        @NotNull
+        private String codingBases(int startIndex, int endIndex) {
+            StringBuilder bases = new StringBuilder();
+            if (isContiguous(startIndex, endIndex)) {
+                String genomicBases = refBases(chromosome, lowestPosition(startIndex, endIndex), lowestPosition(startIndex, endIndex)
+                        + endIndex - startIndex);
+                bases.append(forwardStrand ? genomicBases : reverseStrandBases(genomicBases));
+            } else {
+                for (int i = startIndex; i <= endIndex; i++) {
+                    String base = refBases(chromosome, codingPositions[i], codingPositions[i]);
+                    bases.append(forwardStrand ? base : reverseStrandBases(base));
+                }
+            }
+            return bases.toString();
+        }
+
+        private int lowestPosition(int startIndex, int endIndex) {
+            return min(codingPositions[startIndex], codingPositions[endIndex]);
+        }
+
+        private boolean isContiguous(int startIndex, int endIndex) {
+            return abs(codingPositions[endIndex] - codingPositions[startIndex]) == endIndex - startIndex;
+        }
+    }
+
+    @NotNull
+    private static String toCodingBases(@NotNull String aminoAcids) {
+        StringBuilder bases = new StringBuilder();
+        for (int i = 0; i < aminoAcids.length(); i++) {
+            bases.append(TRANSVAR_CODONS.get(aminoAcids.substring(i, i + 1)).get(0));
+        }
+        return bases.toString();
+    }
+
+    @NotNull
+    private static int[] codingPositions(@NotNull TranscriptData transcript) {
+        List<int[]> codingRanges = Lists.newArrayList();
+        int codingBaseCount = 0;
+        for (ExonData exon : transcript.exons()) {
+            int start = max(exon.Start, transcript.CodingStart);
+            int end = min(exon.End, transcript.CodingEnd);
+            if (start <= end) {
+                codingRanges.add(new int[] { start, end });
+                codingBaseCount += end - start + 1;
+            }
+        }
+
+        codingRanges.sort((first, second) -> Integer.compare(first[0], second[0]));
+
+        int[] positions = new int[codingBaseCount];
+        int index = 0;
+        for (int[] range : codingRanges) {
+            for (int position = range[0]; position <= range[1]; position++) {
+                positions[index++] = position;
+            }
+        }
+
+        if (transcript.posStrand()) {
+            return positions;
+        }
+
+        int[] reversed = new int[codingBaseCount];
+        for (int i = 0; i < codingBaseCount; i++) {
+            reversed[i] = positions[codingBaseCount - 1 - i];
+        }
+        return reversed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarSnvMnv;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+
+import org.junit.Test;
+
+public class TransvarCacheTest {
+
+    @Test
+    public void canConvertRecordsToLinesAndBack() {
+        TransvarRecord snvRecord = ImmutableTransvarRecord.builder()
+                .transcript("ENST00000288602")
+                .chromosome("7")
+                .gdnaPosition(140453136)
+                .variantSpanMultipleExons(false)
+                .annotation(ImmutableTransvarSnvMnv.builder()
+                        .gdnaRef("A")
+                        .gdnaAlt("T")
+                        .referenceCodon("GTG")
+                        .candidateCodons(Lists.newArrayList("GAA", "GAG"))
+                        .build())
+                .build();
+
+        TransvarRecord insDelRecord = ImmutableTransvarRecord.builder()
+                .transcript("ENST00000275493")
+                .chromosome("7")
+                .gdnaPosition(55242467)
+                .variantSpanMultipleExons(false)
+                .annotation(ImmutableTransvarComplexInsertDelete.builder()
+                        .deletedBaseCount(6)
+                        .insertedSequence("GATGAC")
+                        .candidateAlternativeCodons(Lists.newArrayList())
+                        .build())
+                .build();
+
+        TransvarRecord frameshiftRecord = ImmutableTransvarRecord.builder()
+                .transcript("ENST00000269305")
+                .chromosome("17")
+                .gdnaPosition(7577500)
+                .variantSpanMultipleExons(true)
+                .annotation(ImmutableTransvarFrameshift.builder().isFrameshiftInsideStartCodon(false).build())
+                .build();
+
+        List<String> lines = Lists.newArrayList();
+        lines.addAll(TransvarCache.toLines("BRAF", "V600E", Lists.newArrayList(snvRecord)));
+        lines.addAll(TransvarCache.toLines("EGFR", "E746_A750delinsDD", Lists.newArrayList(insDelRecord)));
+        lines.addAll(TransvarCache.toLines("TP53", "R213fs", Lists.newArrayList(frameshiftRecord)));
+        lines.addAll(TransvarCache.toLines("TP53", "X999Y", Lists.newArrayList()));
+
+        Map<String, List<TransvarRecord>> recordsPerKey = TransvarCache.fromLines(lines);
+        assertEquals(4, recordsPerKey.size());
+        assertEquals(Lists.newArrayList(snvRecord), recordsPerKey.get("BRAF\tV600E"));
+        assertEquals(Lists.newArrayList(insDelRecord), recordsPerKey.get("EGFR\tE746_A750delinsDD"));
+        assertEquals(Lists.newArrayList(frameshiftRecord), recordsPerKey.get("TP53\tR213fs"));
+        assertTrue(recordsPerKey.get("TP53\tX999Y").isEmpty());
+    }
+}
@@ -0,0 +1,414 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static com.hartwig.hmftools.common.codon.Nucleotides.swapDnaBase;
+import static com.hartwig.hmftools.common.genome.region.Strand.NEG_STRAND;
+import static com.hartwig.hmftools.common.genome.region.Strand.POS_STRAND;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.ExonData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.test.GeneTestUtils;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarSnvMnv;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+public class TransvarNativeResolverTest {
+
+    private static final String FORWARD_GENE = "FWD";
+    private static final String REVERSE_GENE = "REV";
+
+    // Coding bases 105-120 and 200-252, with L6 spanning the exon boundary.
+    private static final String FORWARD_CODING = "ATGGTGGAAAAAAAACTGGCTTGGCAGGACGAGTTCCACATCAAGCTCAACCCCCAGAGGTCCACCTAA";
+
+    // Coding bases 126 down to 103.
+    private static final String REVERSE_CODING = "ATGGTGCCAGATTTTAAAGGGTAA";
+
+    @Test
+    public void canResolveOnForwardStrand() {
+        TransvarNativeResolver resolver = createTestResolver();
+
+        TransvarRecord missense = resolveSingle(resolver, FORWARD_GENE, "V2E");
+        assertEquals("TRANS_FWD", missense.transcript());
+        assertEquals("1", missense.chromosome());
+        assertEquals(109, missense.gdnaPosition());
+        assertFalse(missense.variantSpanMultipleExons());
+        TransvarSnvMnv snv = (TransvarSnvMnv) missense.annotation();
+        assertEquals("T", snv.gdnaRef());
+        assertEquals("A", snv.gdnaAlt());
+        assertEquals("GTG", snv.referenceCodon());
+        assertEquals(Lists.newArrayList("GAG", "GAA"), snv.candidateCodons());
+
+        TransvarRecord spanningMissense = resolveSingle(resolver, FORWARD_GENE, "L6P");
+        assertEquals(200, spanningMissense.gdnaPosition());
+        assertTrue(spanningMissense.variantSpanMultipleExons());
+
+        // The deleted lysine can be aligned anywhere within the run of A's from 112 to 119.
+        TransvarRecord deletion = resolveSingle(resolver, FORWARD_GENE, "K4del");
+        assertEquals(117, deletion.gdnaPosition());
+        assertEquals(3, ((TransvarDeletion) deletion.annotation()).deletedBaseCount());
+        assertEquals(112, ((TransvarDeletion) deletion.annotation()).leftAlignedGDNAPosition());
+
+        TransvarRecord insertion = resolveSingle(resolver, FORWARD_GENE, "K4_K5insW");
+        assertEquals(116, insertion.gdnaPosition());
+        assertEquals("TGG", ((TransvarInsertion) insertion.annotation()).insertedBases());
+        assertEquals(116, ((TransvarInsertion) insertion.annotation()).leftAlignedGDNAPosition());
+
+        TransvarRecord deletionInsertion = resolveSingle(resolver, FORWARD_GENE, "A7_W8delinsD");
+        assertEquals(202, deletionInsertion.gdnaPosition());
+        TransvarComplexInsertDelete insDel = (TransvarComplexInsertDelete) deletionInsertion.annotation();
+        assertEquals(6, insDel.deletedBaseCount());
+        assertEquals("GAT", insDel.insertedSequence());
+        assertEquals(Lists.newArrayList("GAT", "GAC"), insDel.candidateAlternativeCodons());
+
+        TransvarRecord frameshift = resolveSingle(resolver, FORWARD_GENE, "E3fs");
+        assertEquals(110, frameshift.gdnaPosition());
+        assertFalse(((TransvarFrameshift) frameshift.annotation()).isFrameshiftInsideStartCodon());
+
+        TransvarRecord startFrameshift = resolveSingle(resolver, FORWARD_GENE, "M1fs");
+        assertEquals(105, startFrameshift.gdnaPosition());
+        assertTrue(((TransvarFrameshift) startFrameshift.annotation()).isFrameshiftInsideStartCodon());
+    }
+
+    @Test
+    public void canResolveOnReverseStrand() {
+        TransvarNativeResolver resolver = createTestResolver();
+
+        TransvarRecord missense = resolveSingle(resolver, REVERSE_GENE, "V2E");
+        assertEquals("2", missense.chromosome());
+        assertEquals(122, missense.gdnaPosition());
+        TransvarSnvMnv snv = (TransvarSnvMnv) missense.annotation();
+        assertEquals("A", snv.gdnaRef());
+        assertEquals("T", snv.gdnaAlt());
+        assertEquals("GTG", snv.referenceCodon());
+
+        TransvarRecord duplication = resolveSingle(resolver, REVERSE_GENE, "P3dup");
+        assertEquals(118, duplication.gdnaPosition());
+        assertEquals(3, ((TransvarDuplication) duplication.annotation()).duplicatedBaseCount());
+
+        // AAG is inserted as CTT after 120, which shifts right by one past the C at 121.
+        TransvarRecord insertion = resolveSingle(resolver, REVERSE_GENE, "V2_P3insK");
+        assertEquals(121, insertion.gdnaPosition());
+        assertEquals("TTC", ((TransvarInsertion) insertion.annotation()).insertedBases());
+        assertEquals(120, ((TransvarInsertion) insertion.annotation()).leftAlignedGDNAPosition());
+
+        TransvarRecord frameshift = resolveSingle(resolver, REVERSE_GENE, "V2fs");
+        assertEquals(123, frameshift.gdnaPosition());
+    }
+
+    @Test
+    public void matchesTransvarOutput() {
+        // Each case plants the reference bases around the variant and compares against real 'transvar panno' output.
+        RegionRefGenome mtorGenome = new RegionRefGenome("1");
+        mtorGenome.plant(11182156, "TAA");
+        assertMatchesTransvar(createResolver(mtorGenome, "MTOR", "ENST00000361445", NEG_STRAND, 11182158 - 300, 11182158 + 6687),
+                "MTOR:p.L2230V\tENST00000361445 (protein_coding)\tMTOR\t-\tchr1:g.11182158A>C/c.6688T>G/p.L2230V\t"
+                        + "inside_[cds_in_exon_48]\tCSQN=Missense;reference_codon=TTA;candidate_codons=GTA,GTC,GTG,GTT;"
+                        + "candidate_mnv_variants=chr1:g.11182156_11182158delTAAinsGAC,chr1:g.11182156_11182158delTAAinsCAC,"
+                        + "chr1:g.11182156_11182158delTAAinsAAC;aliases=ENSP00000354558;source=Ensembl");
+
+        RegionRefGenome tet2Genome = new RegionRefGenome("4");
+        tet2Genome.plant(106180852, "TAC");
+        assertMatchesTransvar(createResolver(tet2Genome, "TET2", "ENST00000540549", POS_STRAND, 106180852 - 3879, 106180852 + 300),
+                "TET2:p.Y1294A\tENST00000540549 (protein_coding)\tTET2\t+\t"
+                        + "chr4:g.106180852_106180853delTAinsGC/c.3880_3881delTAinsGC/p.Y1294A\tinside_[cds_in_exon_7]\t"
+                        + "CSQN=Missense;reference_codon=TAC;candidate_codons=GCA,GCC,GCG,GCT;candidate_mnv_variants="
+                        + "chr4:g.106180852_106180854delTACinsGCA,chr4:g.106180852_106180854delTACinsGCG,chr4:"
+                        + "g.106180852_106180854delTACinsGCT;aliases=ENSP00000442788;source=Ensembl");
+
+        // G114 spans the boundary of the first two exons.
+        RegionRefGenome vhlGenome = new RegionRefGenome("3");
+        vhlGenome.plant(10183532, "ATG");
+        vhlGenome.plant(10183871, "G");
+        vhlGenome.plant(10188198, "GT");
+        TranscriptData vhlTranscript = createTranscript("VHL",
+                "ENST00000256474",
+                1,
+                POS_STRAND,
+                new int[][] { { 10183500, 10183871 }, { 10188198, 10188600 } },
+                10183532,
+                10188500);
+        TransvarNativeResolver vhlResolver = createResolver(vhlGenome, vhlTranscript);
+        assertMatchesTransvar(vhlResolver,
+                "VHL:p.G114R\tENST00000256474 (protein_coding)\tVHL\t+\tchr3:g.10183871G>C/c.340G>C/p.G114R\t"
+                        + "inside_[cds_in_exons_[1,2]]\tCSQN=Missense;reference_codon=GGT;candidate_codons=AGG,AGA,CGA,CGC,CGG,CGT;"
+                        + "candidate_mnv_variants=chr3:g.10183871_10188199delGGTinsAGG,chr3:g.10183871_10188199delGGTinsAGA,"
+                        + "chr3:g.10183871_10188199delGGTinsCGA,chr3:g.10183871_10188199delGGTinsCGC,"
+                        + "chr3:g.10183871_10188199delGGTinsCGG;aliases=ENSP00000256474;source=Ensembl");
+        assertMatchesTransvar(vhlResolver,
+                "VHL:p.M1fs\tENST00000256474 (protein_coding)\tVHL\t+\tchr3:g.(10183532_10191646)/c.(1_0)/p.M1fs\t"
+                        + "inside_[cds_in_exon_1]\tCSQN=Frameshift;imprecise;aliases=ENSP00000256474;source=Ensembl");
+
+        // V1578 lies within a run of CAC repeats from 139399409 to 139399422.
+        RegionRefGenome notch1Genome = new RegionRefGenome("9");
+        notch1Genome.plant(139399408, "GCACCACCACCACCAG");
+        assertMatchesTransvar(createResolver(notch1Genome, "NOTCH1", "ENST00000277541", NEG_STRAND, 139399411 - 300, 139399411 + 4731),
+                "NOTCH1:p.V1578del\tENST00000277541 (protein_coding)\tNOTCH1\t-\tchr9:g.139399420_139399422delCCA/"
+                        + "c.4732_4734delGTG/p.V1578delV\tinside_[cds_in_exon_26]\tCSQN=InFrameDeletion;"
+                        + "left_align_gDNA=g.139399409_139399411delCAC;unaligned_gDNA=g.139399409_139399411delCAC;"
+                        + "left_align_cDNA=c.4721_4723delTGG;unalign_cDNA=c.4732_4734delGTG;left_align_protein=p.V1575delV;"
+                        + "unalign_protein=p.V1578delV;imprecise;aliases=ENSP00000277541;source=Ensembl");
+
+        RegionRefGenome kitGenome = new RegionRefGenome("4");
+        kitGenome.plant(55593603, "TGGAAGGTTGTTGAAGAGATT");
+        assertMatchesTransvar(createResolver(kitGenome, "KIT", "ENST00000288135", POS_STRAND, 55593603 - 1668, 55593603 + 300),
+                "KIT:p.K558_E562del\tENST00000288135 (protein_coding)\tKIT\t+\t"
+                        + "chr4:g.55593607_55593621del15/c.1673_1687del15/p.K558_E562delKVVEE\tinside_[cds_in_exon_11]\t"
+                        + "CSQN=InFrameDeletion;left_align_gDNA=g.55593605_55593619del15;unaligned_gDNA=g.55593606_55593620del15;"
+                        + "left_align_cDNA=c.1671_1685del15;unalign_cDNA=c.1672_1686del15;left_align_protein=p.W557_V559delinsF;"
+                        + "unalign_protein=p.K558_E562delKVVEE;aliases=ENSP00000288135;source=Ensembl");
+
+        RegionRefGenome erbb2Genome = new RegionRefGenome("17");
+        erbb2Genome.plant(37880985, "TACGTGATGGCTGGCGTG");
+        TransvarNativeResolver erbb2Resolver =
+                createResolver(erbb2Genome, "ERBB2", "ENST00000584450", POS_STRAND, 37880985 - 2313, 37880985 + 300);
+        assertMatchesTransvar(erbb2Resolver,
+                "ERBB2:p.G776_V777insYVMA\tENST00000584450 (protein_coding)\tERBB2\t+\tchr17:g.37880999_37881000insTATGTAATGGCA/"
+                        + "c.2328_2329insTATGTAATGGCA/p.G776_V777insYVMA\tinside_[cds_in_exon_20]\tCSQN=InFrameInsertion;"
+                        + "left_align_protein=p.G776_V777insYVMA;unalign_protein=p.G776_V777insYVMA;left_align_gDNA="
+                        + "g.37880999_37881000insTATGTAATGGCA;unalign_gDNA=g.37880999_37881000insTATGTAATGGCA;left_align_cDNA="
+                        + "c.2328_2329insTATGTAATGGCA;unalign_cDNA=c.2328_2329insTATGTAATGGCA;32_CandidatesOmitted;"
+                        + "aliases=ENSP00000463714;source=Ensembl");
+        assertMatchesTransvar(erbb2Resolver,
+                "ERBB2:p.Y772_A775dup\tENST00000584450 (protein_coding)\tERBB2\t+\tchr17:g.37880985_37880996/"
+                        + "c.2314_2325/p.Y772_A775\tinside_[cds_in_exon_20]\tprotein_sequence=YVMA;cDNA_sequence=TAC..GCT;"
+                        + "gDNA_sequence=TAC..GCT;aliases=ENSP00000463714;source=Ensembl");
+
+        // The inserted CTT shifts right past the C of Q59 and is reported as TTC.
+        RegionRefGenome arGenome = new RegionRefGenome("X");
+        arGenome.plant(66765157, "CAGCAGCAGCAG");
+        assertMatchesTransvar(createResolver(arGenome, "AR", "ENST00000374690", POS_STRAND, 66765160 - 171, 66765160 + 300),
+                "AR:p.Q58_Q59insL\tENST00000374690 (protein_coding)\tAR\t+\tchrX:g.66765163_66765164insTTC/"
+                        + "c.175_176insTTC/p.Q58_Q59insL\tinside_[cds_in_exon_1]\tCSQN=InFrameInsertion;left_align_protein=p.Q58_Q59insL;"
+                        + "unalign_protein=p.Q58_Q59insL;left_align_gDNA=g.66765162_66765163insCTT;unalign_gDNA=g.66765162_66765163insCTT;"
+                        + "left_align_cDNA=c.174_175insCTT;unalign_cDNA=c.174_175insCTT;6_CandidatesOmitted;aliases=ENSP00000363822;"
+                        + "source=Ensembl");
+
+        // The inserted valine repeats V600, so transvar reports it as a duplication.
+        RegionRefGenome brafGenome = new RegionRefGenome("7");
+        brafGenome.plant(140453132, "TTTCACTGT");
+        assertMatchesTransvar(createResolver(brafGenome, "BRAF", "ENST00000288602", NEG_STRAND, 140453140 - 300, 140453140 + 1794),
+                "BRAF:p.T599_V600insV\tENST00000288602 (protein_coding)\tBRAF\t-\tchr7:g.140453136_140453138dupACT"
+                        + "/c.1797_1799dupAGT/p.V600dupV\tinside_[cds_in_exon_15]\tCSQN=InFrameInsertion;"
+                        + "left_align_protein=p.T599_V600insV;unalign_protein=p.T599_V600insV;left_align_gDNA=g.140453135_140453136insACT;"
+                        + "unalign_gDNA=g.140453137_140453138insTAC;left_align_cDNA=c.1796_1797insAGT;unalign_cDNA=c.1797_1798insGTA;"
+                        + "4_CandidatesOmitted;aliases=ENSP00000288602;source=Ensembl");
+
+        RegionRefGenome egfrGenome = new RegionRefGenome("7");
+        egfrGenome.plant(55242460, "ATCAAGGAATTAAGAGAAGCA");
+        TransvarNativeResolver egfrResolver =
+                createResolver(egfrGenome, "EGFR", "ENST00000275493", POS_STRAND, 55242460 - 2229, 55242460 + 300);
+        assertMatchesTransvar(egfrResolver,
+                "EGFR:p.L747_A750delinsP\tENST00000275493 (protein_coding)\tEGFR\t+\tchr7:g.55242469_55242480delinsCCT/"
+                        + "c.2239_2250delinsCCT/p.L747_A750delinsP\tinside_[cds_in_exon_19]\tCSQN=MultiAAMissense;"
+                        + "candidate_alternative_sequence=CCT/CCG/CCA/CCC;aliases=ENSP00000275493;source=Ensembl");
+        assertMatchesTransvar(egfrResolver,
+                "EGFR:p.I744_K745delinsKIPVAI\tENST00000275493 (protein_coding)\tEGFR\t+\t"
+                        + "chr7:g.55242460_55242465delinsAAGATCCCTGTAGCAATC/c.2230_2235delinsAAGATCCCTGTAGCAATC/p.I744_K745delinsKIPVAI\t"
+                        + "inside_[cds_in_exon_19]\tCSQN=MultiAAMissense;1152_CandidatesOmitted;aliases=ENSP00000275493;source=Ensembl");
+
+        RegionRefGenome apcGenome = new RegionRefGenome("5");
+        apcGenome.plant(112175198, "CAG");
+        assertMatchesTransvar(createResolver(apcGenome, "APC", "ENST00000457016", POS_STRAND, 112175198 - 3906, 112175198 + 300),
+                "APC:p.Q1303fs\tENST00000457016 (protein_coding)\tAPC\t+\tchr5:g.(112175197_112175198)/c.(3907_3906)/p.Q1303fs\t"
+                        + "inside_[cds_in_exon_16]\tCSQN=Frameshift;imprecise;aliases=ENSP00000413133;source=Ensembl");
+    }
+
+    @Test
+    public void noRecordsForMismatchingOrUnknownAnnotations() {
+        TransvarNativeResolver resolver = createTestResolver();
+
+        assertTrue(resolver.runTransvarPanno(FORWARD_GENE, "V3E").isEmpty());
+        assertTrue(resolver.runTransvarPanno(FORWARD_GENE, "V2_E4del").isEmpty());
+        assertTrue(resolver.runTransvarPanno(FORWARD_GENE, "V200E").isEmpty());
+        assertTrue(resolver.runTransvarPanno(FORWARD_GENE, "V2?").isEmpty());
+        assertTrue(resolver.runTransvarPanno("DoesNotExist", "V2E").isEmpty());
+    }
+
+    @NotNull
+    private static TransvarRecord resolveSingle(@NotNull TransvarNativeResolver resolver, @NotNull String gene,
+            @NotNull String proteinAnnotation) {
+        List<TransvarRecord> records = resolver.runTransvarPanno(gene, proteinAnnotation);
+        assertEquals(1, records.size());
+        return records.get(0);
+    }
+
+    private static void assertMatchesTransvar(@NotNull TransvarNativeResolver resolver, @NotNull String transvarLine) {
+        TransvarRecord expected = TransvarConverter.toTransvarRecord(transvarLine);
+        String[] input = transvarLine.split("\t")[0].split(":p\\.");
+
+        assertEquals(expected, resolveSingle(resolver, input[0], input[1]));
+    }
+
+    @NotNull
+    private static TransvarNativeResolver createResolver(@NotNull RegionRefGenome refGenome, @NotNull String gene,
+            @NotNull String transcriptName, byte strand, int codingStart, int codingEnd) {
+        TranscriptData transcript =
+                createTranscript(gene, transcriptName, 1, strand, new int[][] { { codingStart, codingEnd } }, codingStart, codingEnd);
+        return createResolver(refGenome, transcript);
+    }
+
+    @NotNull
+    private static TransvarNativeResolver createResolver(@NotNull RegionRefGenome refGenome, @NotNull TranscriptData transcript) {
+        EnsemblDataCache ensemblDataCache = GeneTestUtils.createGeneDataCache();
+        GeneTestUtils.addGeneData(ensemblDataCache,
+                refGenome.chromosome,
+                Lists.newArrayList(GeneTestUtils.createEnsemblGeneData(transcript.GeneId,
+                        transcript.GeneId,
+                        refGenome.chromosome,
+                        transcript.Strand,
+                        transcript.TransStart,
+                        transcript.TransEnd)));
+        GeneTestUtils.addTransExonData(ensemblDataCache, transcript.GeneId, Lists.newArrayList(transcript));
+
+        return new TransvarNativeResolver(RefGenomeVersion.V37, refGenome, ensemblDataCache);
+    }
+
+    @NotNull
+    private static TransvarNativeResolver createTestResolver() {
+        MockRefGenome refGenome = new MockRefGenome();
+        EnsemblDataCache ensemblDataCache = GeneTestUtils.createGeneDataCache();
+
+        char[] forwardBases = MockRefGenome.generateRandomBases(1000).toCharArray();
+        TranscriptData forwardTranscript =
+                createTranscript(FORWARD_GENE, "TRANS_" + FORWARD_GENE, 1, POS_STRAND, new int[][] { { 100, 120 }, { 200, 260 } }, 105, 252);
+        setCodingBases(forwardBases, forwardTranscript, FORWARD_CODING);
+        addChromosome(refGenome, "1", forwardBases);
+
+        char[] reverseBases = MockRefGenome.generateRandomBases(1000).toCharArray();
+        TranscriptData reverseTranscript = createTranscript(REVERSE_GENE, "TRANS_" + REVERSE_GENE, 2, NEG_STRAND, new int[][] { { 100, 130 } }, 103, 126);
+        setCodingBases(reverseBases, reverseTranscript, REVERSE_CODING);
+        addChromosome(refGenome, "2", reverseBases);
+
+        GeneTestUtils.addGeneData(ensemblDataCache,
+                "1",
+                Lists.newArrayList(GeneTestUtils.createEnsemblGeneData(FORWARD_GENE, FORWARD_GENE, "1", POS_STRAND, 100, 260)));
+        GeneTestUtils.addGeneData(ensemblDataCache,
+                "2",
+                Lists.newArrayList(GeneTestUtils.createEnsemblGeneData(REVERSE_GENE, REVERSE_GENE, "2", NEG_STRAND, 100, 130)));
+        GeneTestUtils.addTransExonData(ensemblDataCache, FORWARD_GENE, Lists.newArrayList(forwardTranscript));
+        GeneTestUtils.addTransExonData(ensemblDataCache, REVERSE_GENE, Lists.newArrayList(reverseTranscript));
+
+        return new TransvarNativeResolver(RefGenomeVersion.V37, refGenome, ensemblDataCache);
+    }
+
+    @NotNull
+    private static TranscriptData createTranscript(@NotNull String gene, @NotNull String transcriptName, int transId, byte strand,
+            @NotNull int[][] exons, int codingStart, int codingEnd) {
+        TranscriptData transcript = new TranscriptData(transId,
+                transcriptName,
+                gene,
+                true,
+                strand,
+                exons[0][0],
+                exons[exons.length - 1][1],
+                codingStart,
+                codingEnd,
+                "protein_coding");
+
+        List<ExonData> exonData = Lists.newArrayList();
+        for (int i = 0; i < exons.length; i++) {
+            exonData.add(new ExonData(transId, exons[i][0], exons[i][1], i + 1, -1, -1));
+        }
+        transcript.setExons(exonData);
+        return transcript;
+    }
+
+    private static void setCodingBases(@NotNull char[] bases, @NotNull TranscriptData transcript, @NotNull String codingBases) {
+        List<Integer> codingPositions = Lists.newArrayList();
+        for (ExonData exon : transcript.exons()) {
+            for (int position = Math.max(exon.Start, transcript.CodingStart); position <= Math.min(exon.End, transcript.CodingEnd);
+                    position++) {
+                codingPositions.add(position);
+            }
+        }
+
+        assertEquals(codingPositions.size(), codingBases.length());
+
+        for (int i = 0; i < codingBases.length(); i++) {
+            if (transcript.posStrand()) {
+                bases[codingPositions.get(i)] = codingBases.charAt(i);
+            } else {
+                bases[codingPositions.get(codingPositions.size() - 1 - i)] = swapDnaBase(codingBases.charAt(i));
+            }
+        }
+    }
+
+    private static void addChromosome(@NotNull MockRefGenome refGenome, @NotNull String chromosome, @NotNull char[] bases) {
+        // The mock ref genome is indexed from zero, so its highest position is one less than its length.
+        refGenome.RefGenomeMap.put(chromosome, new String(bases));
+        refGenome.ChromosomeLengths.put(chromosome, bases.length - 1);
+    }
+
+    private static class RegionRefGenome implements RefGenomeInterface {
+
+        // Bases away from the planted ones are pseudo-random, derived from their position.
+        private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+
+        @NotNull
+        private final String chromosome;
+        @NotNull
+        private final Map<Integer, Character> plantedBases = Maps.newHashMap();
+
+        RegionRefGenome(@NotNull String chromosome) {
+            this.chromosome = chromosome;
+        }
+
+        void plant(int position, @NotNull String bases) {
+            for (int i = 0; i < bases.length(); i++) {
+                plantedBases.put(position + i, bases.charAt(i));
+            }
+        }
+
+        @Override
+        public String getBaseString(final String chromosome, int posStart, int posEnd) {
+            assertEquals(this.chromosome, chromosome);
+
+            StringBuilder bases = new StringBuilder();
+            for (int position = posStart; position <= posEnd; position++) {
+                Character planted = plantedBases.get(position);
+                bases.append(planted != null ? planted : BASES[new Random(position).nextInt(BASES.length)]);
+            }
+            return bases.toString();
+        }
+
+        @Override
+        public String getBaseString(final String chromosome, final List<int[]> baseRanges) {
+            StringBuilder bases = new StringBuilder();
+            for (int[] baseRange : baseRanges) {
+                bases.append(getBaseString(chromosome, baseRange[0], baseRange[1]));
+            }
+            return bases.toString();
+        }
+
+        @Override
+        public int getChromosomeLength(final String chromosome) {
+            return RefGenomeCoordinates.COORDS_37.length(chromosome);
+        }
+
+        @Override
+        public byte[] getBases(final String chromosome, int posStart, int posEnd) {
+            return getBaseString(chromosome, posStart, posEnd).getBytes();
+        }
+    }
+}
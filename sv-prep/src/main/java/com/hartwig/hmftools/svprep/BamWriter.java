@@ -1,65 +1,195 @@
 package com.hartwig.hmftools.svprep;
 
+import static java.lang.String.format;
+
 import static com.hartwig.hmftools.svprep.SvCommon.SV_LOGGER;
 import static com.hartwig.hmftools.svprep.WriteType.BAM;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
-import com.hartwig.hmftools.svprep.reads.ReadRecord;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 
+import htsjdk.samtools.BamFileIoUtils;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMFileWriter;
 import htsjdk.samtools.SAMFileWriterFactory;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SamReader;
 import htsjdk.samtools.SamReaderFactory;
+import htsjdk.samtools.util.IOUtil;
 
 public class BamWriter
 {
-    private final SvConfig mConfig;
+    // writes a coordinate-sorted, indexed BAM without an external sort step:
+    // - records are routed to a sorting writer per contig, each with its own lock
+    // - on close, the contig segments are sorted and BGZF-compressed in parallel to temporary BAMs
+    // - these are then concatenated in sequence dictionary order by block copying, building the index as they are written
+    private final int mThreads;
+    private final SAMFileHeader mHeader;
+    private final String mOutputBam;
+    private final Map<Integer,SegmentWriter> mSegmentWriters; // keyed by reference index, with unmapped reads last
+    private final AtomicInteger mRecordWriteCount;
 
-    private int mRecordWriteCount;
-    private final SAMFileWriter mWriter;
-    private String mOutputBam;
+    private static final int UNMAPPED_SEGMENT = Integer.MAX_VALUE;
+    private static final String BAI_EXTENSION = ".bai";
+    private static final int MAX_RECORDS_IN_RAM = 100000; // per contig, before spilling to temporary files
 
     public BamWriter(final SvConfig config)
     {
-        mConfig = config;
-        mRecordWriteCount = 0;
-        mWriter = initialise();
+        this(config.WriteTypes.contains(BAM) ? readHeader(config) : null, config.formFilename(BAM), config.Threads);
     }
 
-    private SAMFileWriter initialise()
+    @VisibleForTesting
+    public BamWriter(final SAMFileHeader inputHeader, final String outputBam, int threads)
     {
-        if(!mConfig.WriteTypes.contains(BAM))
-            return null;
-
-        SamReader samReader = SamReaderFactory.makeDefault().referenceSequence(new File(mConfig.RefGenomeFile)).open(new File(mConfig.BamFile));
-        mOutputBam = mConfig.formFilename(BAM);
+        mThreads = threads;
+        mRecordWriteCount = new AtomicInteger();
+        mSegmentWriters = new ConcurrentHashMap<>();
+        mOutputBam = outputBam;
 
-        SAMFileHeader fileHeader = samReader.getFileHeader().clone();
-        fileHeader.setSortOrder(SAMFileHeader.SortOrder.unsorted);
+        if(inputHeader != null)
+        {
+            mHeader = inputHeader.clone();
+            mHeader.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        }
+        else
+        {
+            mHeader = null;
+        }
+    }
 
-        return new SAMFileWriterFactory().makeBAMWriter(fileHeader, false, new File(mOutputBam));
+    private static SAMFileHeader readHeader(final SvConfig config)
+    {
+        SamReader samReader = SamReaderFactory.makeDefault().referenceSequence(new File(config.RefGenomeFile)).open(new File(config.BamFile));
+        return samReader.getFileHeader();
     }
 
-    public void writeRecord(final SAMRecord record)
+    public void writeRecords(final List<SAMRecord> records)
     {
-        if(mWriter == null)
+        if(mHeader == null || records.isEmpty())
             return;
 
-        ++mRecordWriteCount;
-        mWriter.addAlignment(record);
+        mRecordWriteCount.addAndGet(records.size());
+
+        // take each contig's lock once for the batch
+        Map<Integer,List<SAMRecord>> segmentRecords = Maps.newHashMap();
+
+        for(SAMRecord record : records)
+        {
+            segmentRecords.computeIfAbsent(segmentIndex(record), x -> Lists.newArrayList()).add(record);
+        }
+
+        for(Map.Entry<Integer,List<SAMRecord>> entry : segmentRecords.entrySet())
+        {
+            SegmentWriter segmentWriter = mSegmentWriters.computeIfAbsent(entry.getKey(), x -> new SegmentWriter(x));
+            segmentWriter.addRecords(entry.getValue());
+        }
+    }
+
+    private static int segmentIndex(final SAMRecord record)
+    {
+        int refIndex = record.getReferenceIndex();
+        return refIndex >= 0 ? refIndex : UNMAPPED_SEGMENT;
     }
 
     public void close()
     {
-        if(mWriter != null)
+        if(mHeader == null)
+            return;
+
+        List<SegmentWriter> segmentWriters = mSegmentWriters.values().stream()
+                .sorted((first, second) -> Integer.compare(first.SegmentIndex, second.SegmentIndex))
+                .collect(Collectors.toList());
+
+        List<File> segmentFiles = segmentWriters.stream().map(x -> x.SegmentFile).collect(Collectors.toList());
+
+        try
         {
-            SV_LOGGER.info("{} records written to BAM: {}", mRecordWriteCount, mOutputBam);
-            mWriter.close();
+            // closing each writer sorts its records and compresses them
+            final List<Callable> callableList = segmentWriters.stream().collect(Collectors.toList());
+
+            if(!TaskExecutor.executeTasks(callableList, mThreads))
+            {
+                SV_LOGGER.error("failed to write sorted BAM segments");
+                return;
+            }
+
+            if(segmentFiles.isEmpty())
+            {
+                // write a header-only BAM so downstream steps always find one
+                SegmentWriter emptyWriter = new SegmentWriter(UNMAPPED_SEGMENT);
+                segmentFiles.add(emptyWriter.SegmentFile);
+                emptyWriter.call();
+            }
+
+            File outputBam = new File(mOutputBam);
+            BamFileIoUtils.gatherWithBlockCopying(segmentFiles, outputBam, true, false);
+
+            // htsjdk names the index from the BAM's base name, so rename it to follow the output BAM
+            File gatheredIndex = new File(outputBam.getAbsoluteFile().getParentFile(), IOUtil.basename(outputBam) + BAI_EXTENSION);
+            File outputIndex = new File(mOutputBam + BAI_EXTENSION);
+
+            if(!gatheredIndex.equals(outputIndex.getAbsoluteFile()))
+                Files.move(gatheredIndex.toPath(), outputIndex.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            SV_LOGGER.info("{} records written to sorted BAM: {}", mRecordWriteCount.get(), mOutputBam);
+        }
+        catch(IOException e)
+        {
+            SV_LOGGER.error("failed to index sorted BAM({}): {}", mOutputBam, e.toString());
+        }
+        finally
+        {
+            // temporary segment BAMs are removed whether or not the output BAM was written
+            segmentFiles.forEach(x -> x.delete());
         }
     }
 
+    private class SegmentWriter implements Callable
+    {
+        public final int SegmentIndex;
+        public final File SegmentFile;
+
+        private final SAMFileWriter mWriter;
+
+        public SegmentWriter(int segmentIndex)
+        {
+            SegmentIndex = segmentIndex;
+
+            String segmentName = segmentIndex == UNMAPPED_SEGMENT ? "unmapped" : String.valueOf(segmentIndex);
+            SegmentFile = new File(format("%s.%s.tmp", mOutputBam, segmentName));
+
+            SAMFileWriterFactory writerFactory = new SAMFileWriterFactory()
+                    .setMaxRecordsInRam(MAX_RECORDS_IN_RAM)
+                    .setTempDirectory(SegmentFile.getAbsoluteFile().getParentFile());
+
+            mWriter = writerFactory.makeBAMWriter(mHeader, false, SegmentFile);
+        }
+
+        public synchronized void addRecords(final List<SAMRecord> records)
+        {
+            records.forEach(x -> mWriter.addAlignment(x));
+        }
+
+        @Override
+        public Long call()
+        {
+            mWriter.close();
+            return (long)0;
+        }
+
+        public String toString() { return format("segment(%d) file(%s)", SegmentIndex, SegmentFile); }
+    }
 }
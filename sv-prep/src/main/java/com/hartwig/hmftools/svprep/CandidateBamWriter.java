@@ -12,11 +12,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.svprep.reads.ReadGroup;
 import com.hartwig.hmftools.svprep.reads.ReadGroupStatus;
@@ -36,31 +35,30 @@ public class CandidateBamWriter
     private final Map<String,SAMFileWriter> mCandidatesWriters;
     private final Map<String,String> mCandidatesWriterBamFiles;
 
-    private final Map<String,Set<String>> mChrJunctionReadIds;
+    private final Map<String,ReadIdHashSet> mChrJunctionReadIds; // guarded per chromosome by each set's lock
 
     public CandidateBamWriter(final SvConfig config)
     {
         mConfig = config;
-        mCandidatesWriters = Maps.newHashMap();
-        mCandidatesWriterBamFiles = Maps.newHashMap();
-        mChrJunctionReadIds = Maps.newHashMap();
+        mCandidatesWriters = new ConcurrentHashMap<>();
+        mCandidatesWriterBamFiles = new ConcurrentHashMap<>();
+        mChrJunctionReadIds = new ConcurrentHashMap<>();
     }
 
-    public void addJunctionReadId(final Set<String> remotePartitions, final String readId)
+    public void addJunctionReadId(final Set<Long> remotePartitions, final String readId)
     {
-        for(String remotePartition : remotePartitions)
+        long readIdHash = ReadIdHashSet.hashReadId(readId);
+
+        for(Long remotePartition : remotePartitions)
         {
             String chromosome = chrFromChrPartition(remotePartition);
 
-            Set<String> readIds = mChrJunctionReadIds.get(chromosome);
+            ReadIdHashSet readIds = mChrJunctionReadIds.computeIfAbsent(chromosome, x -> new ReadIdHashSet());
 
-            if(readIds == null)
+            synchronized(readIds)
             {
-                readIds = Sets.newHashSet();
-                mChrJunctionReadIds.put(chromosome, readIds);
+                readIds.addHash(readIdHash);
             }
-
-            readIds.add(readId);
         }
     }
 
@@ -69,22 +67,25 @@ public class CandidateBamWriter
         if(!mConfig.UseCacheBam)
             return;
 
-        SAMFileWriter writer = mCandidatesWriters.get(read.Chromosome);
+        // each chromosome's cache BAM has its own writer and lock
+        SAMFileWriter writer = mCandidatesWriters.computeIfAbsent(read.Chromosome, x -> createWriter(x));
 
-        if(writer == null)
+        synchronized(writer)
         {
-            SamReader samReader = SamReaderFactory.makeDefault().referenceSequence(new File(mConfig.RefGenomeFile)).open(new File(mConfig.BamFile));
-            String bamFile = format("%s_%s.bam", mConfig.formFilename(CACHE_BAM), read.Chromosome);
-            mCandidatesWriterBamFiles.put(read.Chromosome, bamFile);
+            writer.addAlignment(read.record());
+        }
+    }
 
-            SAMFileHeader fileHeader = samReader.getFileHeader().clone();
-            fileHeader.setSortOrder(SAMFileHeader.SortOrder.unsorted);
+    private SAMFileWriter createWriter(final String chromosome)
+    {
+        SamReader samReader = SamReaderFactory.makeDefault().referenceSequence(new File(mConfig.RefGenomeFile)).open(new File(mConfig.BamFile));
+        String bamFile = format("%s_%s.bam", mConfig.formFilename(CACHE_BAM), chromosome);
+        mCandidatesWriterBamFiles.put(chromosome, bamFile);
 
-            writer = new SAMFileWriterFactory().makeBAMWriter(fileHeader, false, new File(bamFile));
-            mCandidatesWriters.put(read.Chromosome, writer);
-        }
+        SAMFileHeader fileHeader = samReader.getFileHeader().clone();
+        fileHeader.setSortOrder(SAMFileHeader.SortOrder.unsorted);
 
-        writer.addAlignment(read.record());
+        return new SAMFileWriterFactory().makeBAMWriter(fileHeader, false, new File(bamFile));
     }
 
     public void assignCandidateReads(final ResultsWriter resultsWriter)
@@ -99,10 +100,10 @@ public class CandidateBamWriter
 
         List<CandidateReadMatchTask> chromosomeTasks = Lists.newArrayList();
 
-        for(Map.Entry<String,Set<String>> entry : mChrJunctionReadIds.entrySet())
+        for(Map.Entry<String,ReadIdHashSet> entry : mChrJunctionReadIds.entrySet())
         {
             String chromosome = entry.getKey();
-            Set<String> junctionReadIds = entry.getValue();
+            ReadIdHashSet junctionReadIds = entry.getValue();
 
             if(!mCandidatesWriterBamFiles.containsKey(chromosome))
             {
@@ -130,11 +131,11 @@ public class CandidateBamWriter
     {
         private final String mChromosome;
         private final SamReader mSamReader;
-        private final Set<String> mJunctionReadIds;
+        private final ReadIdHashSet mJunctionReadIds;
         private final ResultsWriter mResultsWriter;
 
         public CandidateReadMatchTask(
-                final String chromosome, final SamReader samReader, final ResultsWriter resultsWriter, final Set<String> readIds)
+                final String chromosome, final SamReader samReader, final ResultsWriter resultsWriter, final ReadIdHashSet readIds)
         {
             mChromosome = chromosome;
             mSamReader = samReader;
@@ -198,10 +199,7 @@ public class CandidateBamWriter
 
     private boolean checkJunctionRead(final String chromosome, final String readId)
     {
-        Set<String> readIds = mChrJunctionReadIds.get(chromosome);
-        if(readIds == null)
-            return false;
-
+        ReadIdHashSet readIds = mChrJunctionReadIds.get(chromosome);
         return readIds != null && readIds.contains(readId);
     }
 }
@@ -28,6 +28,7 @@ public class ChromosomeTask implements AutoCloseable
     private final ExistingJunctionCache mExistingJunctionCache;
     private final ResultsWriter mWriter;
     private final Queue<PartitionTask> mPartitions;
+    private final int mRegionCount;
 
     private final CombinedStats mCombinedStats;
 
@@ -52,6 +53,8 @@ public class ChromosomeTask implements AutoCloseable
             ChrBaseRegion region = partitions.get(i);
             mPartitions.add(new PartitionTask(region, taskId++));
         }
+
+        mRegionCount = mPartitions.size();
     }
 
     public String chromosome()
@@ -59,6 +62,7 @@ public class ChromosomeTask implements AutoCloseable
         return mChromosome;
     }
     public CombinedStats combinedStats() { return mCombinedStats; }
+    public int regionCount() { return mRegionCount; }
 
     public void process()
     {
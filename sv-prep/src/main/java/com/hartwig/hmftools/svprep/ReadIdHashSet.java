@@ -0,0 +1,170 @@
+package com.hartwig.hmftools.svprep;
+
+import java.util.Arrays;
+
+public class ReadIdHashSet
+{
+    // an open-addressing set of 64-bit read ID hashes, to avoid holding read name strings for expected reads
+    private long[] mSlots;
+    private int mSize;
+
+    private static final long EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 16;
+
+    public ReadIdHashSet()
+    {
+        this(INITIAL_CAPACITY);
+    }
+
+    public ReadIdHashSet(int expectedSize)
+    {
+        mSlots = new long[tableSize(expectedSize)];
+        mSize = 0;
+    }
+
+    public ReadIdHashSet(final ReadIdHashSet other)
+    {
+        mSlots = Arrays.copyOf(other.mSlots, other.mSlots.length);
+        mSize = other.mSize;
+    }
+
+    public int size() { return mSize; }
+    public boolean isEmpty() { return mSize == 0; }
+
+    public boolean add(final String readId) { return addHash(hashReadId(readId)); }
+    public boolean contains(final String readId) { return containsHash(hashReadId(readId)); }
+    public boolean remove(final String readId) { return removeHash(hashReadId(readId)); }
+
+    public void addAll(final ReadIdHashSet other)
+    {
+        for(long hash : other.mSlots)
+        {
+            if(hash != EMPTY)
+                addHash(hash);
+        }
+    }
+
+    public void clear()
+    {
+        Arrays.fill(mSlots, EMPTY);
+        mSize = 0;
+    }
+
+    public boolean addHash(long hash)
+    {
+        int index = findSlot(hash);
+
+        if(mSlots[index] == hash)
+            return false;
+
+        mSlots[index] = hash;
+        ++mSize;
+
+        // keep the load factor at or below 0.5
+        if(mSize * 2 > mSlots.length)
+            resize(mSlots.length * 2);
+
+        return true;
+    }
+
+    public boolean containsHash(long hash)
+    {
+        return mSlots[findSlot(hash)] == hash;
+    }
+
+    public boolean removeHash(long hash)
+    {
+        int index = findSlot(hash);
+
+        if(mSlots[index] != hash)
+            return false;
+
+        mSlots[index] = EMPTY;
+        --mSize;
+
+        // shift back any following entries in the probe sequence so they remain reachable
+        int mask = mSlots.length - 1;
+        int next = (index + 1) & mask;
+
+        while(mSlots[next] != EMPTY)
+        {
+            long nextHash = mSlots[next];
+            int home = homeSlot(nextHash, mask);
+
+            // move the entry if its home slot does not lie cyclically in (index, next]
+            boolean inRange = index <= next ? (home > index && home <= next) : (home > index || home <= next);
+
+            if(!inRange)
+            {
+                mSlots[index] = nextHash;
+                mSlots[next] = EMPTY;
+                index = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        return true;
+    }
+
+    private int findSlot(long hash)
+    {
+        int mask = mSlots.length - 1;
+        int index = homeSlot(hash, mask);
+
+        while(mSlots[index] != EMPTY && mSlots[index] != hash)
+        {
+            index = (index + 1) & mask;
+        }
+
+        return index;
+    }
+
+    private void resize(int newCapacity)
+    {
+        long[] oldSlots = mSlots;
+        mSlots = new long[newCapacity];
+
+        for(long hash : oldSlots)
+        {
+            if(hash != EMPTY)
+                mSlots[findSlot(hash)] = hash;
+        }
+    }
+
+    private static int homeSlot(long hash, int mask) { return (int)(hash ^ (hash >>> 32)) & mask; }
+
+    private static int tableSize(int expectedSize)
+    {
+        int size = INITIAL_CAPACITY;
+
+        while(size < expectedSize * 2)
+        {
+            size <<= 1;
+        }
+
+        return size;
+    }
+
+    public static long hashReadId(final String readId)
+    {
+        // FNV-1a over the read name followed by a 64-bit finaliser, with zero reserved for empty slots
+        long hash = 0xcbf29ce484222325L;
+
+        for(int i = 0; i < readId.length(); ++i)
+        {
+            hash ^= readId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash != EMPTY ? hash : 1;
+    }
+
+    public String toString() { return String.format("size(%d) capacity(%d)", mSize, mSlots.length); }
+}
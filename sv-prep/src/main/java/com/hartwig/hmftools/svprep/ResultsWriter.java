@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.StringJoiner;
 
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.samtools.SupplementaryReadData;
 import com.hartwig.hmftools.svprep.reads.JunctionData;
 import com.hartwig.hmftools.svprep.reads.ReadFilterType;
@@ -36,6 +37,8 @@ import com.hartwig.hmftools.svprep.reads.ReadRecord;
 import com.hartwig.hmftools.svprep.reads.ReadType;
 import com.hartwig.hmftools.svprep.reads.RemoteJunction;
 
+import htsjdk.samtools.SAMRecord;
+
 public class ResultsWriter
 {
     private final SvConfig mConfig;
@@ -94,36 +97,46 @@ public class ResultsWriter
         return null;
     }
 
-    public synchronized void writeReadGroup(final List<ReadGroup> readGroups)
+    public void writeReadGroup(final List<ReadGroup> readGroups)
     {
-        for(ReadGroup readGroup : readGroups)
+        // BAM records are collected under the lock and then handed to the sorting writer outside it
+        List<SAMRecord> bamRecords = mBamWriter != null ? Lists.newArrayList() : null;
+
+        synchronized(this)
         {
-            if(filterReadGroup(readGroup))
-                continue;
+            for(ReadGroup readGroup : readGroups)
+            {
+                if(filterReadGroup(readGroup))
+                    continue;
 
-            writeBamRecords(readGroup);
+                if(bamRecords != null)
+                    addBamRecords(readGroup, bamRecords);
 
-            String junctionPosStr = "";
+                String junctionPosStr = "";
 
-            if(readGroup.junctionPositions() != null)
-            {
-                StringJoiner sjPos = new StringJoiner(ITEM_DELIM);
-                readGroup.junctionPositions().forEach(x -> sjPos.add(String.valueOf(x)));
-                junctionPosStr = sjPos.toString();
-            }
+                if(readGroup.junctionPositions() != null)
+                {
+                    StringJoiner sjPos = new StringJoiner(ITEM_DELIM);
+                    readGroup.junctionPositions().forEach(x -> sjPos.add(String.valueOf(x)));
+                    junctionPosStr = sjPos.toString();
+                }
 
-            for(ReadRecord read : readGroup.reads())
-            {
-                if(read.written())
-                    continue;
+                for(ReadRecord read : readGroup.reads())
+                {
+                    if(read.written())
+                        continue;
 
-                writeReadData(
-                        read, readGroup.size(), readGroup.expectedReadCount(), readGroup.groupStatus(), readGroup.spansPartitions(),
-                        junctionPosStr);
-            }
+                    writeReadData(
+                            read, readGroup.size(), readGroup.expectedReadCount(), readGroup.groupStatus(), readGroup.spansPartitions(),
+                            junctionPosStr);
+                }
 
-            readGroup.reads().forEach(x -> x.setWritten());
+                readGroup.reads().forEach(x -> x.setWritten());
+            }
         }
+
+        if(bamRecords != null)
+            mBamWriter.writeRecords(bamRecords);
     }
 
     private static boolean filterReadGroup(final ReadGroup readGroup)
@@ -295,11 +308,8 @@ public class ResultsWriter
         }
     }
 
-    private void writeBamRecords(final ReadGroup readGroup)
+    private void addBamRecords(final ReadGroup readGroup, final List<SAMRecord> bamRecords)
     {
-        if(mBamWriter == null)
-            return;
-
         // note additional filters for a read to be written to the BAM
         // - excessive low qual soft-clip bases
         // - above the poly-G(C) threshold
@@ -313,7 +323,7 @@ public class ResultsWriter
             if(read.written())
                 continue;
 
-            mBamWriter.writeRecord(read.record());
+            bamRecords.add(read.record());
         }
     }
 
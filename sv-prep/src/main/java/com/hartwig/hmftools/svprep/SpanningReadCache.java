@@ -8,6 +8,8 @@ import static com.hartwig.hmftools.svprep.SvCommon.SV_LOGGER;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -34,72 +36,127 @@ public class SpanningReadCache
     // - if no unprocessed partitions then drop immediately
     // - otherwise cache as now (ie source partition and readId)
 
-    private final Map<String,Map<String, CachedReadGroup>> mCandidatePartitionGroups; // keyed by chromosome-partition then readId
-    private final Map<String,Set<String>> mJunctionPartitionReadIds;
+    // partition state is split into stripes, each guarded by its own lock, so partition threads only contend when they
+    // touch the same stripe - a partition's processed state is only set or tested while holding its stripe's lock
+    private final PartitionStripe[] mStripes;
+    private final Set<Long> mProcessedPartitions;
 
     private final PerformanceCounter mPerfCounter;
-    private final Set<String> mProcessedPartitions;
 
     private int mLastSnapshotCount;
-    private int mMatchedCandidates;
-    private int mPurgedCandidates;
+    private final AtomicInteger mMatchedCandidates;
+    private final AtomicInteger mPurgedCandidates;
     private final CandidateBamWriter mCandidateBamWriter;
 
+    private static final int STRIPE_COUNT = 64;
+
     public SpanningReadCache(final SvConfig config)
     {
         mConfig = config;
         mPartitionSize = config.PartitionSize;
-        mCandidatePartitionGroups = Maps.newHashMap();
-        mJunctionPartitionReadIds = Maps.newHashMap();
-        mProcessedPartitions = Sets.newHashSet();
+
+        mStripes = new PartitionStripe[STRIPE_COUNT];
+
+        for(int i = 0; i < mStripes.length; ++i)
+        {
+            mStripes[i] = new PartitionStripe();
+        }
+
+        mProcessedPartitions = ConcurrentHashMap.newKeySet();
         mLastSnapshotCount = 0;
-        mMatchedCandidates = 0;
-        mPurgedCandidates = 0;
+        mMatchedCandidates = new AtomicInteger();
+        mPurgedCandidates = new AtomicInteger();
         mCandidateBamWriter = new CandidateBamWriter(config);
         mPerfCounter = new PerformanceCounter("SpanningReads");
     }
 
-    private static final String CHR_PARTITION_DELIM = "_";
     private static final int LOG_CACH_DIFF = 50000;
 
     public CandidateBamWriter candidateBamWriter() { return mCandidateBamWriter; }
 
-    public static String formChromosomePartition(final String chromosome, int position, int partitionSize)
+    // chromosome-partitions are identified by the chromosome's index in the upper 32 bits and the partition in the lower
+    private static final Map<String,Integer> CHROMOSOME_INDICES = new ConcurrentHashMap<>();
+    private static final List<String> CHROMOSOMES = Lists.newArrayList();
+
+    public static long formChromosomePartition(final String chromosome, int position, int partitionSize)
     {
         int partition = position / partitionSize;
-        return chromosome + CHR_PARTITION_DELIM + partition;
+        return ((long)chromosomeIndex(chromosome) << 32) | partition;
+    }
+
+    public static String chrFromChrPartition(long chrPartition)
+    {
+        int chrIndex = (int)(chrPartition >>> 32);
+
+        synchronized(CHROMOSOMES)
+        {
+            return CHROMOSOMES.get(chrIndex);
+        }
+    }
+
+    public static String chrPartitionStr(long chrPartition)
+    {
+        return format("%s_%d", chrFromChrPartition(chrPartition), (int)chrPartition);
     }
 
-    public static String chrFromChrPartition(final String chrPartition)
+    private static int chromosomeIndex(final String chromosome)
     {
-        return chrPartition.split(CHR_PARTITION_DELIM, 2)[0];
+        Integer chrIndex = CHROMOSOME_INDICES.get(chromosome);
+
+        if(chrIndex != null)
+            return chrIndex;
+
+        synchronized(CHROMOSOMES)
+        {
+            return CHROMOSOME_INDICES.computeIfAbsent(chromosome, x -> {
+                CHROMOSOMES.add(x);
+                return CHROMOSOMES.size() - 1;
+            });
+        }
     }
 
-    private String chrPartition(final String chromosome, int position) { return formChromosomePartition(chromosome, position, mPartitionSize); }
+    private long chrPartition(final String chromosome, int position) { return formChromosomePartition(chromosome, position, mPartitionSize); }
 
-    public synchronized Set<String> getExpectedReadIds(final ChrBaseRegion partitionRegion)
+    private PartitionStripe stripe(long chrPartition)
     {
-        String chrPartition = chrPartition(partitionRegion.Chromosome, partitionRegion.start());
+        long hash = chrPartition * 0x9E3779B97F4A7C15L;
+        return mStripes[(int)(hash >>> 58) & (STRIPE_COUNT - 1)];
+    }
 
-        Set<String> expectedReadIds = mJunctionPartitionReadIds.get(chrPartition);
+    private boolean isProcessed(long chrPartition) { return mProcessedPartitions.contains(chrPartition); }
 
-        return expectedReadIds != null ? expectedReadIds : Sets.newHashSet();
+    public ReadIdHashSet getExpectedReadIds(final ChrBaseRegion partitionRegion)
+    {
+        long chrPartition = chrPartition(partitionRegion.Chromosome, partitionRegion.start());
+        PartitionStripe stripe = stripe(chrPartition);
+
+        synchronized(stripe)
+        {
+            ReadIdHashSet expectedReadIds = stripe.JunctionReadIds.get(chrPartition);
+            return expectedReadIds != null ? new ReadIdHashSet(expectedReadIds) : new ReadIdHashSet();
+        }
     }
 
-    public synchronized void processSpanningReadGroups(final ChrBaseRegion partitionRegion, final Map<String,ReadGroup> spanningGroups)
+    public void processSpanningReadGroups(final ChrBaseRegion partitionRegion, final Map<String,ReadGroup> spanningGroups)
     {
-        mPerfCounter.start();
+        PerformanceCounter perfCounter = new PerformanceCounter(mPerfCounter.getName());
+        perfCounter.start();
 
-        String sourceChrPartition = chrPartition(partitionRegion.Chromosome, partitionRegion.start());
-        mProcessedPartitions.add(sourceChrPartition);
+        long sourceChrPartition = chrPartition(partitionRegion.Chromosome, partitionRegion.start());
+        PartitionStripe sourceStripe = stripe(sourceChrPartition);
+
+        synchronized(sourceStripe)
+        {
+            mProcessedPartitions.add(sourceChrPartition);
+        }
 
         // look for reads which have already been found (and therefore written)
         for(Map.Entry<String,ReadGroup> entry : spanningGroups.entrySet())
         {
             ReadGroup readGroup = entry.getValue();
 
-            List<String> unprocessedPartitions = readGroup.remotePartitions().stream()
-                    .filter(x -> !mProcessedPartitions.contains(x))
+            List<Long> unprocessedPartitions = readGroup.remotePartitions().stream()
+                    .filter(x -> !isProcessed(x))
                     .filter(x -> mConfig.SpecificChromosomes.isEmpty() || !ignoreChromosome(chrFromChrPartition(x)))
                     .collect(Collectors.toList());
 
@@ -119,13 +176,17 @@ public class SpanningReadCache
         // purge any cached candidate reads and junction readIds which are no longer relevant
         purgePartition(sourceChrPartition);
 
-        logCacheCount(false);
+        perfCounter.stop();
 
-        mPerfCounter.stop();
+        synchronized(mPerfCounter)
+        {
+            mPerfCounter.merge(perfCounter);
+            logCacheCount(false);
+        }
     }
 
     private void processJunctionRead(
-            final List<String> unprocessedPartitions, final ReadGroup readGroup, final String sourceChrPartition)
+            final List<Long> unprocessedPartitions, final ReadGroup readGroup, long sourceChrPartition)
     {
         final ReadRecord read = readGroup.reads().get(0);
 
@@ -138,32 +199,36 @@ public class SpanningReadCache
         }
         else
         {
-            Map<String,CachedReadGroup> cachedReadGroups = mCandidatePartitionGroups.get(sourceChrPartition);
+            CachedReadGroup cachedReadGroup;
+            PartitionStripe sourceStripe = stripe(sourceChrPartition);
 
-            if(cachedReadGroups != null)
+            synchronized(sourceStripe)
             {
-                CachedReadGroup cachedReadGroup = cachedReadGroups.get(readGroup.id());
+                Map<String,CachedReadGroup> cachedReadGroups = sourceStripe.CandidateGroups.get(sourceChrPartition);
+                cachedReadGroup = cachedReadGroups != null ? cachedReadGroups.remove(readGroup.id()) : null;
+            }
+
+            List<ReadRecord> cachedReads = cachedReadGroup != null ? cachedReadGroup.claimReads() : null;
 
-                if(cachedReadGroup != null)
+            if(cachedReads != null)
+            {
+                mMatchedCandidates.addAndGet(cachedReads.size());
+                cachedReads.forEach(x -> readGroup.addRead(x));
+
+                // also purge from other remote partitions
+                for(Long otherRemotePartition : cachedReadGroup.partitions())
                 {
-                    mMatchedCandidates += cachedReadGroup.Reads.size();
-                    cachedReadGroup.Reads.forEach(x -> readGroup.addRead(x));
-                    cachedReadGroup.Reads.clear();
+                    if(otherRemotePartition == sourceChrPartition)
+                        continue;
 
-                    cachedReadGroups.remove(readGroup.id());
+                    PartitionStripe otherStripe = stripe(otherRemotePartition);
 
-                    // also purge from other remote partitions
-                    for(String otherRemotePartitions : cachedReadGroup.Partitions)
+                    synchronized(otherStripe)
                     {
-                        if(!otherRemotePartitions.equals(sourceChrPartition))
-                        {
-                            Map<String, CachedReadGroup> otherReadGroups = mCandidatePartitionGroups.get(otherRemotePartitions);
-
-                            if(otherReadGroups == null)
-                                continue;
+                        Map<String,CachedReadGroup> otherReadGroups = otherStripe.CandidateGroups.get(otherRemotePartition);
 
+                        if(otherReadGroups != null)
                             otherReadGroups.remove(readGroup.id());
-                        }
                     }
                 }
             }
@@ -174,22 +239,24 @@ public class SpanningReadCache
             return;
 
         // store the junction group's readId against each unprocessed partition, to use to capture expected reads
-        for(String unprocessedPartition : unprocessedPartitions)
+        long readIdHash = ReadIdHashSet.hashReadId(readGroup.id());
+
+        for(Long unprocessedPartition : unprocessedPartitions)
         {
-            Set<String> readIds = mJunctionPartitionReadIds.get(unprocessedPartition);
+            PartitionStripe stripe = stripe(unprocessedPartition);
 
-            if(readIds == null)
+            synchronized(stripe)
             {
-                readIds = Sets.newHashSet();
-                mJunctionPartitionReadIds.put(unprocessedPartition, readIds);
-            }
+                if(isProcessed(unprocessedPartition))
+                    continue;
 
-            readIds.add(readGroup.id());
+                stripe.JunctionReadIds.computeIfAbsent(unprocessedPartition, x -> new ReadIdHashSet()).addHash(readIdHash);
+            }
         }
     }
 
     private void processCandidateRead(
-            final List<String> unprocessedPartitions, final ReadGroup readGroup, final ReadRecord read)
+            final List<Long> unprocessedPartitions, final ReadGroup readGroup, final ReadRecord read)
     {
         if(unprocessedPartitions.isEmpty())
             return;
@@ -203,51 +270,45 @@ public class SpanningReadCache
             return;
         }
 
-        /*
-        // don't store reads which fall in blacklist regions
-        if(!mConfig.RetrieveBlacklistMates && expectedRead != null && mConfig.Blacklist.inBlacklistLocation(
-                expectedRead.Chromosome, expectedRead.Position, expectedRead.Position + mConfig.ReadLength))
-        {
-            return;
-        }
-        */
-
         CachedReadGroup cachedReadGroup = null;
 
         // search all remote partitions for an existing group to add these reads to
-        List<String> matchedPartitions = Lists.newArrayList();
+        List<Long> matchedPartitions = Lists.newArrayList();
 
-        for(String remotePartition : readGroup.remotePartitions())
+        for(Long remotePartition : readGroup.remotePartitions())
         {
-            Map<String,CachedReadGroup> cachedReadGroups = mCandidatePartitionGroups.get(remotePartition);
+            PartitionStripe stripe = stripe(remotePartition);
 
-            if(cachedReadGroups == null)
-                continue;
-
-            if(cachedReadGroup == null)
+            synchronized(stripe)
             {
-                cachedReadGroup = cachedReadGroups.get(readGroup.id());
+                Map<String,CachedReadGroup> cachedReadGroups = stripe.CandidateGroups.get(remotePartition);
 
-                if(cachedReadGroup != null)
-                    matchedPartitions.add(remotePartition);
-            }
-            else
-            {
-                if(cachedReadGroups.containsKey(readGroup.id()))
+                if(cachedReadGroups == null)
+                    continue;
+
+                CachedReadGroup existingGroup = cachedReadGroups.get(readGroup.id());
+
+                if(existingGroup == null)
+                    continue;
+
+                if(cachedReadGroup == null)
+                    cachedReadGroup = existingGroup;
+
+                if(existingGroup == cachedReadGroup)
                     matchedPartitions.add(remotePartition);
             }
         }
 
-        if(cachedReadGroup == null)
+        // a group claimed by a junction read in the meantime can no longer take reads, so start a new one
+        if(cachedReadGroup == null || !cachedReadGroup.addRead(read, readGroup.remotePartitions()))
         {
             cachedReadGroup = new CachedReadGroup();
+            cachedReadGroup.addRead(read, readGroup.remotePartitions());
+            matchedPartitions.clear();
         }
 
-        cachedReadGroup.Reads.add(read);
-        cachedReadGroup.Partitions.addAll(readGroup.remotePartitions());
-
         // finally ensure each remote unprocessed partition has a link to this cached group
-        for(String remotePartition : readGroup.remotePartitions())
+        for(Long remotePartition : readGroup.remotePartitions())
         {
             if(!unprocessedPartitions.contains(remotePartition))
                 continue;
@@ -255,39 +316,38 @@ public class SpanningReadCache
             if(matchedPartitions.contains(remotePartition))
                 continue;
 
-            Map<String,CachedReadGroup> cachedReadGroups = mCandidatePartitionGroups.get(remotePartition);
+            PartitionStripe stripe = stripe(remotePartition);
 
-            if(cachedReadGroups == null)
+            synchronized(stripe)
             {
-                cachedReadGroups = Maps.newHashMap();
-                mCandidatePartitionGroups.put(remotePartition, cachedReadGroups);
-            }
+                if(isProcessed(remotePartition))
+                    continue;
 
-            cachedReadGroups.put(readGroup.id(), cachedReadGroup);
+                stripe.CandidateGroups.computeIfAbsent(remotePartition, x -> Maps.newHashMap()).put(readGroup.id(), cachedReadGroup);
+            }
         }
     }
 
-    private void purgePartition(final String chrPartition)
+    private void purgePartition(long chrPartition)
     {
-        mJunctionPartitionReadIds.remove(chrPartition); // no further value
+        Map<String,CachedReadGroup> cachedReadGroups;
+        PartitionStripe stripe = stripe(chrPartition);
 
-        Map<String,CachedReadGroup> cachedReadGroups = mCandidatePartitionGroups.get(chrPartition);
+        synchronized(stripe)
+        {
+            stripe.JunctionReadIds.remove(chrPartition); // no further value
+            cachedReadGroups = stripe.CandidateGroups.remove(chrPartition);
+        }
 
         if(cachedReadGroups == null)
             return;
 
-        mCandidatePartitionGroups.remove(chrPartition);
-
-        // purge any group without unprocessed partitions
-        Set<String> purgedGroupReadIds = Sets.newHashSet();
-        for(CachedReadGroup cachedReadGroup : cachedReadGroups.values())
-        {
-            if(cachedReadGroup.Partitions.stream().noneMatch(x -> !mProcessedPartitions.contains(x)))
-                purgedGroupReadIds.add(cachedReadGroup.id());
-        }
+        // count any group without unprocessed partitions
+        long purgedGroups = cachedReadGroups.values().stream()
+                .filter(x -> x.partitions().stream().allMatch(y -> isProcessed(y)))
+                .count();
 
-        purgedGroupReadIds.forEach(x -> cachedReadGroups.remove(x));
-        mPurgedCandidates += purgedGroupReadIds.size();
+        mPurgedCandidates.addAndGet((int)purgedGroups);
     }
 
     private void logCacheCount(boolean forceLog)
@@ -297,70 +357,152 @@ public class SpanningReadCache
             if(!forceLog)
                 return;
 
-            int junctionReadIds = mJunctionPartitionReadIds.values().stream().mapToInt(x -> x.size()).sum();
-
-            SV_LOGGER.info("spanning cache partition processed({}) junctionIds({})", mProcessedPartitions.size(), junctionReadIds);
+            SV_LOGGER.info("spanning cache partition processed({}) junctionIds({})", mProcessedPartitions.size(), junctionReadIdCount());
             return;
         }
 
         // read groups spanning multiple partitions will be double-counted, but ignore this
-        int newCount = mCandidatePartitionGroups.values().stream()
-                .mapToInt(x -> x.values().stream().mapToInt(y -> y.Reads.size()).sum()).sum();
+        int newCount = 0;
 
-        if(abs(newCount - mLastSnapshotCount) > LOG_CACH_DIFF || forceLog)
+        for(PartitionStripe stripe : mStripes)
         {
-            int junctionReadIds = mJunctionPartitionReadIds.values().stream().mapToInt(x -> x.size()).sum();
+            synchronized(stripe)
+            {
+                newCount += stripe.CandidateGroups.values().stream()
+                        .mapToInt(x -> x.values().stream().mapToInt(y -> y.readCount()).sum()).sum();
+            }
+        }
 
+        if(abs(newCount - mLastSnapshotCount) > LOG_CACH_DIFF || forceLog)
+        {
             SV_LOGGER.info("spanning cache partition processed({}) candidates cached({} -> {} matched={} purged={}) junctionIds({})",
-                    mProcessedPartitions.size(), mLastSnapshotCount, newCount, mMatchedCandidates, mPurgedCandidates, junctionReadIds);
+                    mProcessedPartitions.size(), mLastSnapshotCount, newCount, mMatchedCandidates.get(), mPurgedCandidates.get(),
+                    junctionReadIdCount());
 
             mLastSnapshotCount = newCount;
         }
     }
 
-    private boolean ignoreChromosome(final String chrPartition)
+    private int junctionReadIdCount()
+    {
+        int junctionReadIds = 0;
+
+        for(PartitionStripe stripe : mStripes)
+        {
+            synchronized(stripe)
+            {
+                junctionReadIds += stripe.JunctionReadIds.values().stream().mapToInt(x -> x.size()).sum();
+            }
+        }
+
+        return junctionReadIds;
+    }
+
+    private boolean ignoreChromosome(final String chromosome)
     {
         if(mConfig.SpecificChromosomes.isEmpty())
             return false;
 
-        String chromosome = chrFromChrPartition(chrPartition);
         return !mConfig.SpecificChromosomes.contains(chromosome);
     }
 
-    public synchronized void logStats()
+    public void logStats()
     {
         if(!mConfig.writeReads())
             return;
 
-        logCacheCount(true);
-        mPerfCounter.logStats();
+        synchronized(mPerfCounter)
+        {
+            logCacheCount(true);
+            mPerfCounter.logStats();
+        }
+    }
+
+    private class PartitionStripe
+    {
+        public final Map<Long,Map<String,CachedReadGroup>> CandidateGroups; // keyed by chromosome-partition then readId
+        public final Map<Long,ReadIdHashSet> JunctionReadIds;
+
+        public PartitionStripe()
+        {
+            CandidateGroups = Maps.newHashMap();
+            JunctionReadIds = Maps.newHashMap();
+        }
     }
 
     private class CachedReadGroup
     {
-        public final List<ReadRecord> Reads;
-        public final Set<String> Partitions;
+        // may be linked from several partitions' stripes, so guards its own state
+        private final List<ReadRecord> mReads;
+        private final Set<Long> mPartitions;
+        private boolean mClaimed; // reads taken by a junction group
 
         public CachedReadGroup()
         {
-            Reads = Lists.newArrayList();
-            Partitions = Sets.newHashSet();
+            mReads = Lists.newArrayList();
+            mPartitions = Sets.newHashSet();
+            mClaimed = false;
         }
 
-        public String id() { return !Reads.isEmpty() ? Reads.get(0).id() : ""; }
+        public synchronized boolean addRead(final ReadRecord read, final Set<Long> partitions)
+        {
+            if(mClaimed)
+                return false;
+
+            mReads.add(read);
+            mPartitions.addAll(partitions);
+            return true;
+        }
+
+        public synchronized List<ReadRecord> claimReads()
+        {
+            if(mClaimed)
+                return null;
+
+            mClaimed = true;
+            List<ReadRecord> reads = Lists.newArrayList(mReads);
+            mReads.clear();
+            return reads;
+        }
+
+        public synchronized int readCount() { return mReads.size(); }
+        public synchronized List<Long> partitions() { return Lists.newArrayList(mPartitions); }
+
+        public synchronized String id() { return !mReads.isEmpty() ? mReads.get(0).id() : ""; }
+
         public String toString()
         {
-            return format("reads(%s) partitions(%s) id(%s)", Reads.size(), id(), Partitions);
+            return format("reads(%s) partitions(%s) id(%s)", readCount(), partitions(), id());
         }
     }
 
     @VisibleForTesting
-    public Map<String,Set<String>> junctionPartitionReadIdsMap() { return mJunctionPartitionReadIds; }
+    public Map<String,ReadIdHashSet> junctionPartitionReadIdsMap()
+    {
+        Map<String,ReadIdHashSet> junctionReadIds = Maps.newHashMap();
+
+        for(PartitionStripe stripe : mStripes)
+        {
+            synchronized(stripe)
+            {
+                stripe.JunctionReadIds.forEach((x, y) -> junctionReadIds.put(chrPartitionStr(x), new ReadIdHashSet(y)));
+            }
+        }
+
+        return junctionReadIds;
+    }
 
     public void reset()
     {
-        mCandidatePartitionGroups.clear();
-        mJunctionPartitionReadIds.clear();
+        for(PartitionStripe stripe : mStripes)
+        {
+            synchronized(stripe)
+            {
+                stripe.CandidateGroups.clear();
+                stripe.JunctionReadIds.clear();
+            }
+        }
+
         mProcessedPartitions.clear();
     }
 
@@ -368,10 +510,16 @@ public class SpanningReadCache
     {
         Set<CachedReadGroup> cachedReadGroups = Sets.newHashSet();
 
-        mCandidatePartitionGroups.values().stream()
-                .filter(x -> readId == null || x.containsKey(readId))
-                .forEach(x -> x.values().forEach(y -> cachedReadGroups.add(y)));
+        for(PartitionStripe stripe : mStripes)
+        {
+            synchronized(stripe)
+            {
+                stripe.CandidateGroups.values().stream()
+                        .filter(x -> readId == null || x.containsKey(readId))
+                        .forEach(x -> cachedReadGroups.addAll(x.values()));
+            }
+        }
 
-        return cachedReadGroups.stream().mapToInt(x -> x.Reads.size()).sum();
+        return cachedReadGroups.stream().mapToInt(x -> x.readCount()).sum();
     }
 }
@@ -8,6 +8,8 @@ import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.OUTPUT_ID;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.addOutputOptions;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.addMetricsOptions;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.metricsFile;
 import static com.hartwig.hmftools.common.utils.sv.ChrBaseRegion.SUB_ITEM_DELIM;
 import static com.hartwig.hmftools.common.utils.sv.ChrBaseRegion.addSpecificChromosomesRegionsConfig;
 import static com.hartwig.hmftools.common.utils.sv.ChrBaseRegion.loadSpecificChromsomesOrRegions;
@@ -66,6 +68,7 @@ public class SvConfig
     public final String OutputDir;
     public final String OutputId;
     public final Set<WriteType> WriteTypes;
+    public final String MetricsFile;
 
     public final int Threads;
 
@@ -114,6 +117,7 @@ public class SvConfig
         RefGenomeFile = cmd.getOptionValue(REF_GENOME);
         OutputDir = parseOutputDir(cmd);
         OutputId = cmd.getOptionValue(OUTPUT_ID);
+        MetricsFile = metricsFile(cmd);
 
         if(SampleId == null || BamFile == null || OutputDir == null || RefGenomeFile == null)
         {
@@ -239,6 +243,7 @@ public class SvConfig
         RefGenomeFile = "";
         OutputDir = null;
         OutputId = null;
+        MetricsFile = null;
 
         RefGenVersion = V37;
 
@@ -283,6 +288,7 @@ public class SvConfig
         final Options options = new Options();
         addOutputOptions(options);
         addLoggingOptions(options);
+        addMetricsOptions(options);
 
         options.addOption(SAMPLE, true, "Tumor sample ID");
         options.addOption(BAM_FILE, true, "RNA BAM file location");
@@ -4,10 +4,17 @@ import static java.lang.Math.max;
 import static java.lang.String.format;
 
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.INPUT_BYTES;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.READS_PROCESSED;
+import static com.hartwig.hmftools.common.utils.metrics.MetricsRegistry.REGIONS_PROCESSED;
 import static com.hartwig.hmftools.svprep.SvCommon.SV_LOGGER;
 import static com.hartwig.hmftools.svprep.SvConfig.createCmdLineOptions;
 
+import java.io.File;
+
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.metrics.MetricsRegistry;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 
 import org.apache.commons.cli.CommandLine;
@@ -24,6 +31,7 @@ public class SvPrepApplication
     private final ResultsWriter mWriter;
     private final SpanningReadCache mSpanningReadCache;
     private final ExistingJunctionCache mExistingJunctionCache;
+    private final MetricsRegistry mMetrics;
 
     public SvPrepApplication(final CommandLine cmd)
     {
@@ -31,6 +39,7 @@ public class SvPrepApplication
         mWriter = new ResultsWriter(mConfig);
         mSpanningReadCache = new SpanningReadCache(mConfig);
         mExistingJunctionCache = new ExistingJunctionCache();
+        mMetrics = new MetricsRegistry("sv-prep", mConfig.SampleId);
     }
 
     public void run()
@@ -48,6 +57,7 @@ public class SvPrepApplication
         mExistingJunctionCache.loadJunctions(mConfig.ExistingJunctionFile);
 
         CombinedStats combinedStats = new CombinedStats();
+        PerformanceCounter chromosomePerfCounter = new PerformanceCounter("Chromosome");
 
         for(HumanChromosome chromosome : HumanChromosome.values())
         {
@@ -58,8 +68,14 @@ public class SvPrepApplication
 
             SV_LOGGER.info("processing chromosome({})", chromosomeStr);
 
+            chromosomePerfCounter.start(chromosomeStr);
+
             ChromosomeTask chromosomeTask = new ChromosomeTask(chromosomeStr, mConfig, mSpanningReadCache, mExistingJunctionCache, mWriter);
             chromosomeTask.process();
+
+            chromosomePerfCounter.stop();
+            mMetrics.counter(REGIONS_PROCESSED).add(chromosomeTask.regionCount());
+            mMetrics.recordMemoryUsage();
             combinedStats.addPartitionStats(chromosomeTask.combinedStats().ReadStats);
 
             if(combinedStats.PerfCounters.isEmpty())
@@ -91,6 +107,18 @@ public class SvPrepApplication
             combinedStats.PerfCounters.forEach(x -> x.logStats());
         }
 
+        if(mConfig.MetricsFile != null)
+        {
+            mMetrics.counter(READS_PROCESSED).add(combinedStats.ReadStats.TotalReads);
+            mMetrics.counter("junctions").add(combinedStats.ReadStats.JunctionCount);
+            mMetrics.counter("junction_fragments").add(combinedStats.ReadStats.JunctionFragmentCount);
+            mMetrics.counter("supporting_fragments").add(combinedStats.ReadStats.SupportingFragmentCount);
+            mMetrics.gauge(INPUT_BYTES).set(new File(mConfig.BamFile).length());
+            mMetrics.addPerfCounter(chromosomePerfCounter);
+            mMetrics.addPerfCounters(combinedStats.PerfCounters);
+            mMetrics.writeMetrics(mConfig.MetricsFile);
+        }
+
         SV_LOGGER.info("SvPrep complete, mins({})", format("%.3f", timeTakeMins));
     }
 
@@ -45,6 +45,7 @@ import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.svprep.BlacklistLocations;
 import com.hartwig.hmftools.svprep.HotspotCache;
+import com.hartwig.hmftools.svprep.ReadIdHashSet;
 import com.hartwig.hmftools.svprep.SvConfig;
 
 public class JunctionTracker
@@ -56,7 +57,7 @@ public class JunctionTracker
     private final List<BaseRegion> mBlacklistRegions;
 
     private final Map<String,ReadGroup> mReadGroupMap; // keyed by readId
-    private final Set<String> mExpectedReadIds; // as indicated by another partition
+    private final ReadIdHashSet mExpectedReadIds; // as indicated by another partition
     private final List<ReadGroup> mExpectedReadGroups;
     private final List<ReadGroup> mRemoteCandidateReadGroups; // reads with their mate(s) in another partition, but not suppporting a junction
 
@@ -86,7 +87,7 @@ public class JunctionTracker
         }
 
         mReadGroupMap = Maps.newHashMap();
-        mExpectedReadIds = Sets.newHashSet();
+        mExpectedReadIds = new ReadIdHashSet();
         mExpectedReadGroups = Lists.newArrayList();
         mRemoteCandidateReadGroups = Lists.newArrayList();
         mJunctions = Lists.newArrayList();
@@ -165,7 +166,7 @@ public class JunctionTracker
     {
         mJunctions.addAll(existingJunctions);
     }
-    public void setExpectedReads(final Set<String> expectedReads) { mExpectedReadIds.addAll(expectedReads); }
+    public void setExpectedReads(final ReadIdHashSet expectedReads) { mExpectedReadIds.addAll(expectedReads); }
 
     public void assignFragments()
     {
@@ -18,7 +18,7 @@ public class ReadGroup
     private final List<ReadRecord> mReads;
 
     private ReadGroupStatus mStatus;
-    private final Set<String> mRemotePartitions; // given that supplementaries are no longer included, this is now 0 or 1 entries
+    private final Set<Long> mRemotePartitions; // given that supplementaries are no longer included, this is now 0 or 1 entries
     private int mExpectedReadCount;
     private Set<Integer> mJunctionPositions;
     private boolean mHasRemoteJunctionReads;
@@ -43,7 +43,7 @@ public class ReadGroup
     public boolean spansPartitions() { return !mRemotePartitions.isEmpty(); }
     public int partitionCount() { return mRemotePartitions.size() + 1; }
     public int expectedReadCount() { return mExpectedReadCount; }
-    public Set<String> remotePartitions() { return mRemotePartitions; }
+    public Set<Long> remotePartitions() { return mRemotePartitions; }
 
     public Set<Integer> junctionPositions() { return mJunctionPositions; }
 
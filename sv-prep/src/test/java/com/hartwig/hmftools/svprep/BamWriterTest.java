@@ -0,0 +1,98 @@
+package com.hartwig.hmftools.svprep;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordCoordinateComparator;
+import htsjdk.samtools.SAMRecordSetBuilder;
+import htsjdk.samtools.SamReader;
+import htsjdk.samtools.SamReaderFactory;
+
+public class BamWriterTest
+{
+    @Test
+    public void testSortedOutput() throws IOException
+    {
+        SAMRecordSetBuilder recordBuilder = new SAMRecordSetBuilder(false, SAMFileHeader.SortOrder.unsorted);
+        Random random = new Random(1);
+
+        for(int i = 0; i < 500; ++i)
+        {
+            recordBuilder.addFrag("READ_" + i, random.nextInt(3), 1 + random.nextInt(100000), false);
+        }
+
+        recordBuilder.addUnmappedFragment("UNMAPPED_1");
+
+        List<SAMRecord> records = Lists.newArrayList(recordBuilder.getRecords());
+        Collections.shuffle(records, random);
+
+        File outputDir = Files.createTempDirectory("sv_prep_bam").toFile();
+        String outputBam = outputDir.getAbsolutePath() + File.separator + "test.sv_prep.bam";
+
+        // written in batches from several threads
+        BamWriter bamWriter = new BamWriter(recordBuilder.getHeader(), outputBam, 2);
+
+        List<Thread> threads = Lists.newArrayList();
+        for(int t = 0; t < 4; ++t)
+        {
+            List<SAMRecord> threadRecords = records.subList(t * records.size() / 4, (t + 1) * records.size() / 4);
+            Thread thread = new Thread(() -> threadRecords.forEach(x -> bamWriter.writeRecords(Lists.newArrayList(x))));
+            threads.add(thread);
+            thread.start();
+        }
+
+        for(Thread thread : threads)
+        {
+            try
+            {
+                thread.join();
+            }
+            catch(InterruptedException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+
+        bamWriter.close();
+
+        SamReader samReader = SamReaderFactory.makeDefault().open(new File(outputBam));
+        assertEquals(SAMFileHeader.SortOrder.coordinate, samReader.getFileHeader().getSortOrder());
+        assertTrue(samReader.hasIndex());
+
+        List<SAMRecord> writtenRecords = Lists.newArrayList(samReader.iterator());
+        assertEquals(records.size(), writtenRecords.size());
+
+        SAMRecordCoordinateComparator comparator = new SAMRecordCoordinateComparator();
+
+        for(int i = 1; i < writtenRecords.size(); ++i)
+        {
+            assertTrue(comparator.fileOrderCompare(writtenRecords.get(i - 1), writtenRecords.get(i)) <= 0);
+        }
+
+        assertEquals("UNMAPPED_1", writtenRecords.get(writtenRecords.size() - 1).getReadName());
+
+        // only the output BAM and its index remain, with the index named after the BAM
+        assertEquals(2, outputDir.listFiles().length);
+        assertTrue(new File(outputBam + ".bai").exists());
+
+        samReader.close();
+        for(File file : outputDir.listFiles())
+        {
+            file.delete();
+        }
+        outputDir.delete();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hartwig.hmftools.svprep;
+
+import static com.hartwig.hmftools.svprep.SvPrepTestUtils.readIdStr;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import org.junit.Test;
+
+public class ReadIdHashSetTest
+{
+    @Test
+    public void testAddRemoveReadIds()
+    {
+        ReadIdHashSet readIds = new ReadIdHashSet();
+
+        assertTrue(readIds.add(readIdStr(1)));
+        assertFalse(readIds.add(readIdStr(1)));
+        assertTrue(readIds.add(readIdStr(2)));
+        assertEquals(2, readIds.size());
+
+        assertTrue(readIds.contains(readIdStr(1)));
+        assertFalse(readIds.contains(readIdStr(3)));
+
+        assertTrue(readIds.remove(readIdStr(1)));
+        assertFalse(readIds.remove(readIdStr(1)));
+        assertFalse(readIds.contains(readIdStr(1)));
+        assertTrue(readIds.contains(readIdStr(2)));
+        assertEquals(1, readIds.size());
+
+        ReadIdHashSet copy = new ReadIdHashSet(readIds);
+        readIds.clear();
+        assertTrue(readIds.isEmpty());
+        assertTrue(copy.contains(readIdStr(2)));
+    }
+
+    @Test
+    public void testMatchesHashSet()
+    {
+        // exercise resizing and removal with collisions against a standard set
+        Random random = new Random(1);
+        ReadIdHashSet readIds = new ReadIdHashSet();
+        Set<String> expected = Sets.newHashSet();
+
+        for(int i = 0; i < 20000; ++i)
+        {
+            String readId = readIdStr(random.nextInt(5000));
+
+            if(random.nextInt(3) == 0)
+                assertEquals(expected.remove(readId), readIds.remove(readId));
+            else
+                assertEquals(expected.add(readId), readIds.add(readId));
+
+            assertEquals(expected.size(), readIds.size());
+        }
+
+        for(int i = 0; i < 5000; ++i)
+        {
+            String readId = readIdStr(i);
+            assertEquals(expected.contains(readId), readIds.contains(readId));
+        }
+    }
+}